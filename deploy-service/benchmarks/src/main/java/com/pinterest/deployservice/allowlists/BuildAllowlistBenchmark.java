@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.allowlists;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Checking artifact URLs against large allowlists, as the build and deploy handlers do. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BuildAllowlistBenchmark {
+    // More distinct URLs than the verdict cache holds, so the uncached path is measured
+    private static final int URL_COUNT = UrlPatternMatcher.MAX_CACHED_VERDICTS * 4;
+
+    @Param({"10", "1000"})
+    public int patternCount;
+
+    @Param({"100", "2000"})
+    public int urlLength;
+
+    private List<String> patterns;
+    private BuildAllowlistImpl allowlist;
+    private String[] urls;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        // Mostly prefixes, as allowlists usually are, and a few real regular expressions
+        patterns = new ArrayList<>();
+        for (int i = 0; i < patternCount; i++) {
+            if (i % 10 == 9) {
+                patterns.add("https://ci-" + i + "\\.example\\.com/job/[a-z-]+/\\d+/.*");
+            } else {
+                patterns.add("https://artifacts-" + i + "\\.example\\.com/builds/.*");
+            }
+        }
+        allowlist = new BuildAllowlistImpl(patterns, patterns, patterns);
+
+        StringBuilder path = new StringBuilder();
+        while (path.length() < urlLength) {
+            path.append("/component");
+        }
+        urls = new String[URL_COUNT];
+        for (int i = 0; i < URL_COUNT; i++) {
+            // Half the URLs match the last pattern, the others match none
+            String host =
+                    i % 2 == 0
+                            ? "https://artifacts-" + (patternCount - 2) + ".example.com/builds"
+                            : "https://unknown.example.com/builds";
+            urls[i] = host + path + "/" + i + ".tar.gz";
+        }
+    }
+
+    private String nextUrl() {
+        next = (next + 1) % URL_COUNT;
+        return urls[next];
+    }
+
+    @Benchmark
+    public boolean stringMatches() {
+        // What BuildAllowlistImpl did before the patterns were compiled
+        String url = nextUrl();
+        for (String pattern : patterns) {
+            if (url.matches(pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean compiled() {
+        return allowlist.approved(nextUrl());
+    }
+
+    @Benchmark
+    public boolean cachedVerdict() {
+        return allowlist.approved(urls[0]);
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.bean;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Building the statement and parameters of an agent write, as {@code DBAgentDAOImpl} does. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SetClauseBenchmark {
+    // Same template as DBAgentDAOImpl.insertOrUpdate
+    private static final String INSERT_OR_UPDATE_AGENT_TEMPLATE =
+            "INSERT INTO agents SET %s ON DUPLICATE KEY UPDATE " + AgentBean.UPDATE_CLAUSE;
+
+    private AgentBean agent;
+
+    @Setup
+    public void setUp() {
+        long now = System.currentTimeMillis();
+        agent = new AgentBean();
+        agent.setHost_id("i-0123456789abcdef0");
+        agent.setHost_name("bench-host-0001");
+        agent.setEnv_id("env-0000");
+        agent.setDeploy_id("deploy-0000");
+        agent.setDeploy_stage(DeployStage.DOWNLOADING);
+        agent.setState(AgentState.NORMAL);
+        agent.setStatus(AgentStatus.SUCCEEDED);
+        agent.setLast_err_no(0);
+        agent.setFail_count(0);
+        agent.setFirst_deploy(false);
+        agent.setStart_date(now);
+        agent.setLast_update(now);
+        agent.setLast_operator("SYSTEM");
+        agent.setStage_start_date(now);
+        agent.setContainer_health_status("");
+    }
+
+    @Benchmark
+    public SetClause genSetClause() {
+        return agent.genSetClause();
+    }
+
+    @Benchmark
+    public void insertOrUpdateStatement(Blackhole blackhole) {
+        SetClause setClause = agent.genSetClause();
+        blackhole.consume(setClause.getStatement(INSERT_OR_UPDATE_AGENT_TEMPLATE));
+        blackhole.consume(setClause.getValueArray());
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.handler;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory stand-ins for DAOs, so that benchmarks measure the handlers rather than MySQL.
+ *
+ * <p>A fake implements a DAO interface by forwarding each call to the public method with the same
+ * name and parameter types on a plain object, and fails calls it has no method for. This keeps the
+ * fakes down to the few methods a benchmark exercises, and keeps them compiling as DAO interfaces
+ * grow. The forwarding costs a reflective call, which is small next to the handler work measured.
+ */
+final class FakeDAOs {
+    private FakeDAOs() {}
+
+    static <T> T fake(Class<T> daoInterface, Object impl) {
+        Map<Method, Method> targets = new HashMap<>();
+        for (Method method : daoInterface.getMethods()) {
+            try {
+                Method target =
+                        impl.getClass().getMethod(method.getName(), method.getParameterTypes());
+                target.setAccessible(true);
+                targets.put(method, target);
+            } catch (NoSuchMethodException e) {
+                // Not needed by the benchmark
+            }
+        }
+        Object proxy =
+                Proxy.newProxyInstance(
+                        daoInterface.getClassLoader(),
+                        new Class<?>[] {daoInterface},
+                        (self, method, args) -> {
+                            if (method.getDeclaringClass() == Object.class) {
+                                return method.invoke(impl, args);
+                            }
+                            Method target = targets.get(method);
+                            if (target == null) {
+                                throw new UnsupportedOperationException(
+                                        daoInterface.getSimpleName() + "." + method.getName());
+                            }
+                            try {
+                                return target.invoke(impl, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        });
+        return daoInterface.cast(proxy);
+    }
+}
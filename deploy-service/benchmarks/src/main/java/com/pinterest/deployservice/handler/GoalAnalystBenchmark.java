@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.handler;
+
+import com.pinterest.deployservice.ServiceContext;
+import com.pinterest.deployservice.bean.AgentBean;
+import com.pinterest.deployservice.bean.EnvironBean;
+import com.pinterest.deployservice.bean.PingReportBean;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Goal analysis of one ping, for hosts with growing numbers of envs. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GoalAnalystBenchmark {
+    @Param({"1", "10", "50"})
+    public int envsPerHost;
+
+    @Param({"SERVING", "DEPLOYING"})
+    public String scenario;
+
+    private ServiceContext context;
+    private Map<String, EnvironBean> envs;
+    private Map<String, AgentBean> agents;
+    private Map<String, PingReportBean> reports;
+
+    @Setup
+    public void setUp() {
+        HostFixture fixture = new HostFixture(envsPerHost, HostFixture.Scenario.valueOf(scenario));
+        context = fixture.serviceContext();
+        envs = fixture.envMap();
+        agents = fixture.agentMap();
+        reports = fixture.reportMap();
+    }
+
+    @Benchmark
+    public GoalAnalyst analysis() throws Exception {
+        GoalAnalyst analyst =
+                new GoalAnalyst(
+                        context.getDeployConstraintDAO(),
+                        context.getDeployDAO(),
+                        context.getEnvironDAO(),
+                        context.getHostDAO(),
+                        HostFixture.HOST_NAME,
+                        HostFixture.HOST_ID,
+                        envs,
+                        reports,
+                        agents,
+                        null);
+        analyst.analysis();
+        return analyst;
+    }
+}
@@ -0,0 +1,291 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.handler;
+
+import com.pinterest.deployservice.ServiceContext;
+import com.pinterest.deployservice.bean.AgentBean;
+import com.pinterest.deployservice.bean.AgentState;
+import com.pinterest.deployservice.bean.AgentStatus;
+import com.pinterest.deployservice.bean.BuildBean;
+import com.pinterest.deployservice.bean.DeployBean;
+import com.pinterest.deployservice.bean.DeployStage;
+import com.pinterest.deployservice.bean.DeployType;
+import com.pinterest.deployservice.bean.EnvState;
+import com.pinterest.deployservice.bean.EnvType;
+import com.pinterest.deployservice.bean.EnvironBean;
+import com.pinterest.deployservice.bean.HostAgentBean;
+import com.pinterest.deployservice.bean.KnoxStatus;
+import com.pinterest.deployservice.bean.NormandieStatus;
+import com.pinterest.deployservice.bean.PingReportBean;
+import com.pinterest.deployservice.bean.PingRequestBean;
+import com.pinterest.deployservice.dao.AgentDAO;
+import com.pinterest.deployservice.dao.BuildDAO;
+import com.pinterest.deployservice.dao.DeployDAO;
+import com.pinterest.deployservice.dao.EnvironDAO;
+import com.pinterest.deployservice.dao.HostAgentDAO;
+import com.pinterest.deployservice.dao.HostDAO;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A synthetic host with a number of envs: one for the service on the host, found through its
+ * autoscaling group, and the rest sidecars found through a shared sidecar group. Each env has an
+ * agent record and a report that match.
+ *
+ * <p>In the {@link Scenario#SERVING} scenario every env serves its current deploy, the ping of
+ * nearly every host in steady state. In {@link Scenario#DEPLOYING} the service env just finished
+ * the pre-download stage, so the ping hands out a download goal and updates the agent record.
+ */
+final class HostFixture {
+    enum Scenario {
+        SERVING,
+        DEPLOYING
+    }
+
+    static final String HOST_ID = "i-0123456789abcdef0";
+    static final String HOST_NAME = "bench-host-0001";
+    static final String HOST_IP = "10.0.0.1";
+    static final String ASG = "bench-service-prod";
+    static final String SIDECAR_GROUP = "bench-sidecars";
+    static final String ACCOUNT_ID = "123456789012";
+    static final String AGENT_VERSION = "1.2.3";
+    static final String AVAILABILITY_ZONE = "us-east-1a";
+
+    final List<EnvironBean> envs = new ArrayList<>();
+    final List<AgentBean> agents = new ArrayList<>();
+    final List<PingReportBean> reports = new ArrayList<>();
+    private final Map<String, DeployBean> deploys = new HashMap<>();
+    private final Map<String, BuildBean> builds = new HashMap<>();
+
+    HostFixture(int envCount, Scenario scenario) {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < envCount; i++) {
+            String envId = String.format("env-%04d", i);
+            String deployId = String.format("deploy-%04d", i);
+            String buildId = String.format("build-%04d", i);
+
+            EnvironBean env = new EnvironBean();
+            env.setEnv_id(envId);
+            env.setEnv_name(i == 0 ? "bench-service" : String.format("bench-sidecar-%04d", i));
+            env.setStage_name("prod");
+            env.setStage_type(EnvType.PRODUCTION);
+            env.setEnv_state(EnvState.NORMAL);
+            env.setDeploy_id(deployId);
+            env.setDeploy_type(DeployType.REGULAR);
+            env.setCluster_name(i == 0 ? ASG : null);
+            env.setIs_docker(false);
+            envs.add(env);
+
+            DeployBean deploy = new DeployBean();
+            deploy.setDeploy_id(deployId);
+            deploy.setEnv_id(envId);
+            deploy.setBuild_id(buildId);
+            deploys.put(deployId, deploy);
+
+            BuildBean build = new BuildBean();
+            build.setBuild_id(buildId);
+            build.setBuild_name(env.getEnv_name());
+            build.setArtifact_url("https://artifacts.example.com/" + buildId + ".tar.gz");
+            build.setScm_commit("0123456789abcdef0123456789abcdef01234567");
+            builds.put(buildId, build);
+
+            DeployStage stage =
+                    scenario == Scenario.DEPLOYING && i == 0
+                            ? DeployStage.PRE_DOWNLOAD
+                            : DeployStage.SERVING_BUILD;
+
+            AgentBean agent = new AgentBean();
+            agent.setHost_id(HOST_ID);
+            agent.setHost_name(HOST_NAME);
+            agent.setEnv_id(envId);
+            agent.setDeploy_id(deployId);
+            agent.setDeploy_stage(stage);
+            agent.setState(AgentState.NORMAL);
+            agent.setStatus(AgentStatus.SUCCEEDED);
+            agent.setLast_err_no(0);
+            agent.setFail_count(0);
+            agent.setFirst_deploy(false);
+            agent.setStart_date(now);
+            agent.setLast_update(now);
+            agent.setStage_start_date(now);
+            agent.setContainer_health_status("");
+            agents.add(agent);
+
+            PingReportBean report = new PingReportBean();
+            report.setEnvId(envId);
+            report.setDeployId(deployId);
+            report.setDeployStage(stage);
+            report.setAgentStatus(AgentStatus.SUCCEEDED);
+            report.setErrorCode(0);
+            report.setFailCount(0);
+            reports.add(report);
+        }
+    }
+
+    PingRequestBean pingRequest() {
+        PingRequestBean request = new PingRequestBean();
+        request.setHostId(HOST_ID);
+        request.setHostName(HOST_NAME);
+        request.setHostIp(HOST_IP);
+        request.setAutoscalingGroup(ASG);
+        request.setAvailabilityZone(AVAILABILITY_ZONE);
+        request.setAccountId(ACCOUNT_ID);
+        request.setAgentVersion(AGENT_VERSION);
+        request.setNormandieStatus(NormandieStatus.OK);
+        request.setKnoxStatus(KnoxStatus.OK);
+        request.setGroups(new LinkedHashSet<>(groups()));
+        request.setReports(reports);
+        return request;
+    }
+
+    List<String> groups() {
+        List<String> groups = new ArrayList<>();
+        groups.add(ASG);
+        groups.add(SIDECAR_GROUP);
+        return groups;
+    }
+
+    /** Groups recorded for the host after its first ping: reported ones, and their shards. */
+    List<String> recordedGroups() {
+        List<String> recorded = new ArrayList<>();
+        for (String group : groups()) {
+            recorded.add(group);
+            recorded.add(group + "-production-" + AVAILABILITY_ZONE);
+        }
+        return recorded;
+    }
+
+    Map<String, EnvironBean> envMap() {
+        Map<String, EnvironBean> map = new HashMap<>();
+        for (EnvironBean env : envs) {
+            map.put(env.getEnv_id(), env);
+        }
+        return map;
+    }
+
+    Map<String, AgentBean> agentMap() {
+        Map<String, AgentBean> map = new HashMap<>();
+        for (AgentBean agent : agents) {
+            map.put(agent.getEnv_id(), agent);
+        }
+        return map;
+    }
+
+    Map<String, PingReportBean> reportMap() {
+        Map<String, PingReportBean> map = new HashMap<>();
+        for (PingReportBean report : reports) {
+            map.put(report.getEnvId(), report);
+        }
+        return map;
+    }
+
+    List<EnvironBean> envsOfGroups(Collection<String> groups) {
+        List<EnvironBean> matched = new ArrayList<>();
+        for (EnvironBean env : envs) {
+            String group = env.getCluster_name() != null ? env.getCluster_name() : SIDECAR_GROUP;
+            if (groups.contains(group)) {
+                matched.add(env);
+            }
+        }
+        return matched;
+    }
+
+    /** A service context whose DAOs serve this host, and discard every write. */
+    ServiceContext serviceContext() {
+        ServiceContext context = new ServiceContext();
+        context.setEnvironDAO(FakeDAOs.fake(EnvironDAO.class, new Environs()));
+        context.setAgentDAO(FakeDAOs.fake(AgentDAO.class, new Agents()));
+        context.setHostDAO(FakeDAOs.fake(HostDAO.class, new Hosts()));
+        context.setHostAgentDAO(FakeDAOs.fake(HostAgentDAO.class, new HostAgents()));
+        context.setDeployDAO(FakeDAOs.fake(DeployDAO.class, new Deploys()));
+        context.setBuildDAO(FakeDAOs.fake(BuildDAO.class, new Builds()));
+        return context;
+    }
+
+    public class Environs {
+        public List<EnvironBean> getEnvsByHost(String host) {
+            return Collections.emptyList();
+        }
+
+        public List<EnvironBean> getEnvsByGroups(Collection<String> groups) {
+            return envsOfGroups(groups);
+        }
+
+        public EnvironBean getByCluster(String clusterName) {
+            return ASG.equals(clusterName) ? envs.get(0) : null;
+        }
+    }
+
+    public class Agents {
+        public List<AgentBean> getByHost(String hostName) {
+            return new ArrayList<>(agents);
+        }
+
+        public void insertOrUpdate(AgentBean agentBean) {}
+    }
+
+    public class Hosts {
+        public List<String> getGroupNamesByHost(String hostName) {
+            return recordedGroups();
+        }
+
+        public String getAccountIdByHost(String hostName) {
+            return ACCOUNT_ID;
+        }
+
+        public void insertOrUpdate(
+                String hostName,
+                String ip,
+                String hostId,
+                String state,
+                Set<String> groupNames,
+                String accountId) {}
+    }
+
+    public class HostAgents {
+        public HostAgentBean getHostById(String hostId) {
+            HostAgentBean bean = new HostAgentBean();
+            bean.setHost_id(HOST_ID);
+            bean.setHost_name(HOST_NAME);
+            bean.setIp(HOST_IP);
+            bean.setAgent_version(AGENT_VERSION);
+            bean.setAuto_scaling_group(ASG);
+            bean.setNormandie_status(NormandieStatus.OK);
+            bean.setKnox_status(KnoxStatus.OK);
+            return bean;
+        }
+
+        public void touchLastUpdate(String hostId, long lastUpdate) {}
+    }
+
+    public class Deploys {
+        public DeployBean getById(String deployId) {
+            return deploys.get(deployId);
+        }
+    }
+
+    public class Builds {
+        public BuildBean getById(String buildId) {
+            return builds.get(buildId);
+        }
+    }
+}
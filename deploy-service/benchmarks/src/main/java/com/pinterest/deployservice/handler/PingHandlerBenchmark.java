@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.handler;
+
+import com.pinterest.deployservice.bean.EnvironBean;
+import com.pinterest.deployservice.bean.PingRequestBean;
+import com.pinterest.deployservice.bean.PingResult;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link PingHandler} on in-memory DAOs: the group and env resolution steps on their own, and whole
+ * pings. Database time is left out, so this measures the CPU and allocations the service spends per
+ * ping on top of its queries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PingHandlerBenchmark {
+    @Param({"1", "10", "50"})
+    public int envsPerHost;
+
+    @Param({"SERVING", "DEPLOYING"})
+    public String scenario;
+
+    private PingHandler pingHandler;
+    private PingRequestBean pingRequest;
+    private List<EnvironBean> reportedGroupEnvs;
+    private List<EnvironBean> shardedGroupEnvs;
+
+    @Setup
+    public void setUp() throws Exception {
+        HostFixture fixture = new HostFixture(envsPerHost, HostFixture.Scenario.valueOf(scenario));
+        pingHandler = new PingHandler(fixture.serviceContext());
+        pingRequest = fixture.pingRequest();
+        PingHandler.GroupBuckets buckets = pingHandler.bucketGroups(pingRequest);
+        reportedGroupEnvs = fixture.envsOfGroups(buckets.reported);
+        shardedGroupEnvs = fixture.envsOfGroups(buckets.sharded);
+    }
+
+    @Benchmark
+    public PingHandler.GroupBuckets bucketGroups() throws Exception {
+        return pingHandler.bucketGroups(pingRequest);
+    }
+
+    @Benchmark
+    public Map<String, EnvironBean> convergeEnvs() {
+        return pingHandler.convergeEnvs(
+                HostFixture.HOST_NAME,
+                Collections.emptyList(),
+                reportedGroupEnvs,
+                shardedGroupEnvs);
+    }
+
+    @Benchmark
+    public PingResult ping() throws Exception {
+        return pingHandler.ping(pingRequest, false);
+    }
+}
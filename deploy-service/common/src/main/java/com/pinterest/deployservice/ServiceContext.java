@@ -25,6 +25,7 @@ import com.pinterest.deployservice.dao.AgentCountDAO;
 import com.pinterest.deployservice.dao.AgentDAO;
 import com.pinterest.deployservice.dao.AgentErrorDAO;
 import com.pinterest.deployservice.dao.BuildDAO;
+import com.pinterest.deployservice.dao.BuildIdempotencyKeyDAO;
 import com.pinterest.deployservice.dao.ConfigHistoryDAO;
 import com.pinterest.deployservice.dao.DataDAO;
 import com.pinterest.deployservice.dao.DeployConstraintDAO;
@@ -36,6 +37,7 @@ import com.pinterest.deployservice.dao.HostAgentDAO;
 import com.pinterest.deployservice.dao.HostDAO;
 import com.pinterest.deployservice.dao.HostTagDAO;
 import com.pinterest.deployservice.dao.HotfixDAO;
+import com.pinterest.deployservice.dao.MemberDAO;
 import com.pinterest.deployservice.dao.PindeployDAO;
 import com.pinterest.deployservice.dao.PromoteDAO;
 import com.pinterest.deployservice.dao.RatingDAO;
@@ -45,11 +47,23 @@ import com.pinterest.deployservice.dao.TokenRolesDAO;
 import com.pinterest.deployservice.dao.UserRolesDAO;
 import com.pinterest.deployservice.dao.UtilDAO;
 import com.pinterest.deployservice.dao.WorkerJobDAO;
+import com.pinterest.deployservice.deployindex.RecentDeployIndex;
 import com.pinterest.deployservice.email.MailManager;
+import com.pinterest.deployservice.entitycache.EntityCache;
+import com.pinterest.deployservice.events.BuildEventOutbox;
 import com.pinterest.deployservice.events.BuildEventPublisher;
+import com.pinterest.deployservice.handler.EnvChangeNotifier;
+import com.pinterest.deployservice.handler.GoalFingerprintIndex;
+import com.pinterest.deployservice.handler.PingEnvCache;
+import com.pinterest.deployservice.handler.WebhookDispatcher;
+import com.pinterest.deployservice.heartbeat.HeartbeatBuffer;
+import com.pinterest.deployservice.hosttag.HostTagIngester;
+import com.pinterest.deployservice.lock.LockManager;
 import com.pinterest.deployservice.pingrequests.PingRequestValidator;
 import com.pinterest.deployservice.rodimus.RodimusManager;
+import com.pinterest.deployservice.rolesnapshot.RoleSnapshot;
 import com.pinterest.deployservice.scm.SourceControlManagerProxy;
+import com.pinterest.deployservice.tokencache.ScriptTokenCache;
 import com.pinterest.deployservice.udm.UdmDataUpdateService;
 import com.pinterest.teletraan.universal.events.AppEventPublisher;
 import java.util.Collection;
@@ -62,6 +76,7 @@ import org.apache.commons.dbcp.BasicDataSource;
 public class ServiceContext {
     private BasicDataSource dataSource;
     private BuildDAO buildDAO;
+    private BuildIdempotencyKeyDAO buildIdempotencyKeyDAO;
     private AgentDAO agentDAO;
     private AgentCountDAO agentCountDAO;
     private AgentErrorDAO agentErrorDAO;
@@ -72,6 +87,8 @@ public class ServiceContext {
     private HotfixDAO hotfixDAO;
     private DataDAO dataDAO;
     private UtilDAO utilDAO;
+    private LockManager lockManager;
+    private MemberDAO memberDAO;
     private RatingDAO ratingDAO;
     private PromoteDAO promoteDAO;
     private GroupDAO groupDAO;
@@ -79,6 +96,11 @@ public class ServiceContext {
     private GroupRolesDAO groupRolesDAO;
     private TokenRolesDAO tokenRolesDAO;
     private ConfigHistoryDAO configHistoryDAO;
+    // On the read replica, for listings that tolerate replication lag
+    private BuildDAO buildReadDAO;
+    private AgentDAO agentReadDAO;
+    private DeployDAO deployReadDAO;
+    private ConfigHistoryDAO configHistoryReadDAO;
     private TagDAO tagDAO;
     private ScheduleDAO scheduleDAO;
     private HostTagDAO hostTagDAO;
@@ -110,7 +132,20 @@ public class ServiceContext {
     private List<PingRequestValidator> pingRequestValidators;
     private Long agentCountCacheTtl;
     private Long maxParallelThreshold;
+    private PingEnvCache pingEnvCache;
+    private HeartbeatBuffer heartbeatBuffer;
+    private HostTagIngester hostTagIngester;
+    private EnvChangeNotifier envChangeNotifier;
+    private long pingWaitMaxSeconds;
+    private int pingBatchMaxSize = 500;
+    private GoalFingerprintIndex goalFingerprintIndex;
+    private WebhookDispatcher webhookDispatcher;
+    private RecentDeployIndex recentDeployIndex;
+    private EntityCache entityCache;
+    private RoleSnapshot roleSnapshot;
+    private ScriptTokenCache scriptTokenCache;
     private BuildEventPublisher buildEventPublisher;
+    private BuildEventOutbox buildEventOutbox;
     private Set<String> accountAllowList;
 
     // Publishers & Listeners
@@ -148,6 +183,45 @@ public class ServiceContext {
         this.groupRolesDAO = groupRolesDAO;
     }
 
+    /** The build DAO for listings on the read replica, or the primary one without a replica. */
+    public BuildDAO getBuildReadDAO() {
+        return buildReadDAO != null ? buildReadDAO : buildDAO;
+    }
+
+    public void setBuildReadDAO(BuildDAO buildReadDAO) {
+        this.buildReadDAO = buildReadDAO;
+    }
+
+    /** The agent DAO for listings on the read replica, or the primary one without a replica. */
+    public AgentDAO getAgentReadDAO() {
+        return agentReadDAO != null ? agentReadDAO : agentDAO;
+    }
+
+    public void setAgentReadDAO(AgentDAO agentReadDAO) {
+        this.agentReadDAO = agentReadDAO;
+    }
+
+    /** The deploy DAO for listings on the read replica, or the primary one without a replica. */
+    public DeployDAO getDeployReadDAO() {
+        return deployReadDAO != null ? deployReadDAO : deployDAO;
+    }
+
+    public void setDeployReadDAO(DeployDAO deployReadDAO) {
+        this.deployReadDAO = deployReadDAO;
+    }
+
+    /**
+     * The config history DAO for listings on the read replica, or the primary one without a
+     * replica.
+     */
+    public ConfigHistoryDAO getConfigHistoryReadDAO() {
+        return configHistoryReadDAO != null ? configHistoryReadDAO : configHistoryDAO;
+    }
+
+    public void setConfigHistoryReadDAO(ConfigHistoryDAO configHistoryReadDAO) {
+        this.configHistoryReadDAO = configHistoryReadDAO;
+    }
+
     public BuildDAO getBuildDAO() {
         return buildDAO;
     }
@@ -156,6 +230,14 @@ public class ServiceContext {
         this.buildDAO = buildDAO;
     }
 
+    public BuildIdempotencyKeyDAO getBuildIdempotencyKeyDAO() {
+        return buildIdempotencyKeyDAO;
+    }
+
+    public void setBuildIdempotencyKeyDAO(BuildIdempotencyKeyDAO buildIdempotencyKeyDAO) {
+        this.buildIdempotencyKeyDAO = buildIdempotencyKeyDAO;
+    }
+
     public AgentDAO getAgentDAO() {
         return agentDAO;
     }
@@ -260,6 +342,22 @@ public class ServiceContext {
         this.utilDAO = utilDAO;
     }
 
+    public LockManager getLockManager() {
+        return lockManager;
+    }
+
+    public void setLockManager(LockManager lockManager) {
+        this.lockManager = lockManager;
+    }
+
+    public MemberDAO getMemberDAO() {
+        return memberDAO;
+    }
+
+    public void setMemberDAO(MemberDAO memberDAO) {
+        this.memberDAO = memberDAO;
+    }
+
     public void setDataSource(BasicDataSource dataSource) {
         this.dataSource = dataSource;
     }
@@ -502,6 +600,102 @@ public class ServiceContext {
         this.maxParallelThreshold = maxParallelThreshold;
     }
 
+    public PingEnvCache getPingEnvCache() {
+        return pingEnvCache;
+    }
+
+    public void setPingEnvCache(PingEnvCache pingEnvCache) {
+        this.pingEnvCache = pingEnvCache;
+    }
+
+    public HeartbeatBuffer getHeartbeatBuffer() {
+        return heartbeatBuffer;
+    }
+
+    public void setHeartbeatBuffer(HeartbeatBuffer heartbeatBuffer) {
+        this.heartbeatBuffer = heartbeatBuffer;
+    }
+
+    public HostTagIngester getHostTagIngester() {
+        return hostTagIngester;
+    }
+
+    public void setHostTagIngester(HostTagIngester hostTagIngester) {
+        this.hostTagIngester = hostTagIngester;
+    }
+
+    public EnvChangeNotifier getEnvChangeNotifier() {
+        return envChangeNotifier;
+    }
+
+    public void setEnvChangeNotifier(EnvChangeNotifier envChangeNotifier) {
+        this.envChangeNotifier = envChangeNotifier;
+    }
+
+    public int getPingBatchMaxSize() {
+        return pingBatchMaxSize;
+    }
+
+    public void setPingBatchMaxSize(int pingBatchMaxSize) {
+        this.pingBatchMaxSize = pingBatchMaxSize;
+    }
+
+    public long getPingWaitMaxSeconds() {
+        return pingWaitMaxSeconds;
+    }
+
+    public void setPingWaitMaxSeconds(long pingWaitMaxSeconds) {
+        this.pingWaitMaxSeconds = pingWaitMaxSeconds;
+    }
+
+    public GoalFingerprintIndex getGoalFingerprintIndex() {
+        return goalFingerprintIndex;
+    }
+
+    public void setGoalFingerprintIndex(GoalFingerprintIndex goalFingerprintIndex) {
+        this.goalFingerprintIndex = goalFingerprintIndex;
+    }
+
+    public WebhookDispatcher getWebhookDispatcher() {
+        return webhookDispatcher;
+    }
+
+    public void setWebhookDispatcher(WebhookDispatcher webhookDispatcher) {
+        this.webhookDispatcher = webhookDispatcher;
+    }
+
+    public RecentDeployIndex getRecentDeployIndex() {
+        return recentDeployIndex;
+    }
+
+    public void setRecentDeployIndex(RecentDeployIndex recentDeployIndex) {
+        this.recentDeployIndex = recentDeployIndex;
+    }
+
+    public EntityCache getEntityCache() {
+        return entityCache;
+    }
+
+    public void setEntityCache(EntityCache entityCache) {
+        this.entityCache = entityCache;
+    }
+
+    public RoleSnapshot getRoleSnapshot() {
+        return roleSnapshot;
+    }
+
+    public void setRoleSnapshot(RoleSnapshot roleSnapshot) {
+        this.roleSnapshot = roleSnapshot;
+    }
+
+    public ScriptTokenCache getScriptTokenCache() {
+        return scriptTokenCache;
+    }
+
+    public void setScriptTokenCache(ScriptTokenCache scriptTokenCache) {
+        this.scriptTokenCache = scriptTokenCache;
+    }
+
     public BuildEventPublisher getBuildEventPublisher() {
         return buildEventPublisher;
     }
@@ -510,6 +704,14 @@ public class ServiceContext {
         this.buildEventPublisher = buildEventPublisher;
     }
 
+    public BuildEventOutbox getBuildEventOutbox() {
+        return buildEventOutbox;
+    }
+
+    public void setBuildEventOutbox(BuildEventOutbox buildEventOutbox) {
+        this.buildEventOutbox = buildEventOutbox;
+    }
+
     public Set<String> getAccountAllowList() {
         return accountAllowList;
     }
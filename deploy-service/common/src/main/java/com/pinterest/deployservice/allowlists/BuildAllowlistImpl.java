@@ -21,44 +21,30 @@ import org.slf4j.LoggerFactory;
 public class BuildAllowlistImpl implements Allowlist {
     private static final org.slf4j.Logger LOG = LoggerFactory.getLogger(BuildAllowlistImpl.class);
 
-    private List<String> validBuildURLs;
-    private List<String> trustedBuildURLs;
-    private List<String> soxBuildURLs;
+    // Each list is compiled once, see UrlPatternMatcher
+    private final UrlPatternMatcher validBuildURLs;
+    private final UrlPatternMatcher trustedBuildURLs;
+    private final UrlPatternMatcher soxBuildURLs;
 
     public BuildAllowlistImpl(
             List<String> allowlist, List<String> trustedlist, List<String> soxlist) {
-        this.validBuildURLs = allowlist;
-        this.trustedBuildURLs = trustedlist;
-        this.soxBuildURLs = soxlist;
+        this.validBuildURLs = new UrlPatternMatcher(allowlist);
+        this.trustedBuildURLs = new UrlPatternMatcher(trustedlist);
+        this.soxBuildURLs = new UrlPatternMatcher(soxlist);
     }
 
     // approved checks if build matches approved URL allow list
     public Boolean approved(String buildName) {
-        for (String pattern : validBuildURLs) {
-            if (buildName.matches(pattern)) {
-                return true;
-            }
-        }
-        return false;
+        return validBuildURLs.matches(buildName);
     }
 
     // trusted checks if build matches trusted URL allow list
     public Boolean trusted(String buildName) {
-        for (String pattern : trustedBuildURLs) {
-            if (buildName.matches(pattern)) {
-                return true;
-            }
-        }
-        return false;
+        return trustedBuildURLs.matches(buildName);
     }
 
     // sox_compliant checks if build matches trusted URL allow list
     public Boolean sox_compliant(String buildName) {
-        for (String pattern : soxBuildURLs) {
-            if (buildName.matches(pattern)) {
-                return true;
-            }
-        }
-        return false;
+        return soxBuildURLs.matches(buildName);
     }
 }
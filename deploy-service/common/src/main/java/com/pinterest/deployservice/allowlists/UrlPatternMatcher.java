@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.allowlists;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Matches a string against a list of regular expressions, with the semantics of calling {@link
+ * String#matches} with each of them, but compiled once.
+ *
+ * <p>Patterns that are a literal, or a literal followed by {@code .*}, go into a character trie
+ * walked once per string. The other patterns are compiled into a single alternation, or one by one
+ * if they cannot be combined. Recent verdicts are kept by string.
+ */
+class UrlPatternMatcher {
+    static final int MAX_CACHED_VERDICTS = 1024;
+
+    private static final String METACHARACTERS = "\\^$.|?*+()[]{}";
+    private static final Pattern BACK_REFERENCE = Pattern.compile("\\\\[1-9]|\\\\k<");
+
+    private static final class Node {
+        final Map<Character, Node> children = new HashMap<>();
+        // A pattern ends here
+        boolean exact;
+        // A pattern ends here with .*
+        boolean prefix;
+    }
+
+    private final Node root = new Node();
+    private final List<Pattern> regexes = new ArrayList<>();
+    private final Cache<String, Boolean> verdicts =
+            Caffeine.newBuilder().maximumSize(MAX_CACHED_VERDICTS).build();
+
+    UrlPatternMatcher(Collection<String> patterns) {
+        if (patterns == null) {
+            patterns = Collections.emptyList();
+        }
+        List<String> others = new ArrayList<>();
+        for (String pattern : patterns) {
+            if (!addLiteral(pattern)) {
+                others.add(pattern);
+            }
+        }
+        compileRegexes(others);
+    }
+
+    /** Adds the pattern to the trie if it is a literal, optionally followed by {@code .*}. */
+    private boolean addLiteral(String pattern) {
+        boolean prefix = pattern.endsWith(".*") && !pattern.endsWith("\\.*");
+        int end = prefix ? pattern.length() - 2 : pattern.length();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < end; i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\') {
+                // Only escaped metacharacters are literals, \d, \Q and the like are not
+                if (i + 1 >= end || METACHARACTERS.indexOf(pattern.charAt(i + 1)) < 0) {
+                    return false;
+                }
+                literal.append(pattern.charAt(++i));
+            } else if (METACHARACTERS.indexOf(c) >= 0) {
+                return false;
+            } else {
+                literal.append(c);
+            }
+        }
+        Node node = root;
+        for (int i = 0; i < literal.length(); i++) {
+            node = node.children.computeIfAbsent(literal.charAt(i), c -> new Node());
+        }
+        if (prefix) {
+            node.prefix = true;
+        } else {
+            node.exact = true;
+        }
+        return true;
+    }
+
+    private void compileRegexes(List<String> patterns) {
+        if (patterns.isEmpty()) {
+            return;
+        }
+        List<Pattern> compiled = new ArrayList<>();
+        boolean combinable = true;
+        for (String pattern : patterns) {
+            compiled.add(Pattern.compile(pattern));
+            // Group numbers shift inside an alternation, and a comment would swallow its ')'
+            combinable &= !BACK_REFERENCE.matcher(pattern).find() && pattern.indexOf('#') < 0;
+        }
+        if (combinable && patterns.size() > 1) {
+            StringBuilder combined = new StringBuilder();
+            for (String pattern : patterns) {
+                if (combined.length() > 0) {
+                    combined.append('|');
+                }
+                combined.append("(?:").append(pattern).append(')');
+            }
+            try {
+                regexes.add(Pattern.compile(combined.toString()));
+                return;
+            } catch (PatternSyntaxException e) {
+                // Such as the same group name in two patterns, compile them one by one
+            }
+        }
+        regexes.addAll(compiled);
+    }
+
+    boolean matches(String input) {
+        return verdicts.get(input, this::match);
+    }
+
+    private boolean match(String input) {
+        return matchesLiteral(input) || matchesRegex(input);
+    }
+
+    private boolean matchesLiteral(String input) {
+        // .* does not match line terminators, so a prefix only matches after the last one
+        int lastTerminator = -1;
+        for (int i = input.length() - 1; i >= 0; i--) {
+            if (isLineTerminator(input.charAt(i))) {
+                lastTerminator = i;
+                break;
+            }
+        }
+        Node node = root;
+        for (int i = 0; i < input.length(); i++) {
+            if (node.prefix && i > lastTerminator) {
+                return true;
+            }
+            node = node.children.get(input.charAt(i));
+            if (node == null) {
+                return false;
+            }
+        }
+        return node.exact || node.prefix;
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private boolean matchesRegex(String input) {
+        for (Pattern regex : regexes) {
+            Matcher matcher = regex.matcher(input);
+            if (matcher.matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
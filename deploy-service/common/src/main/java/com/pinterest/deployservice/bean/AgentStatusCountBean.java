@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.bean;
+
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+/**
+ * Number of agents of an env in one (deploy_stage, state, status) bucket, split by whether they are
+ * on the deploy the histogram was built for. See {@link AgentStatusHistogram}.
+ */
+public class AgentStatusCountBean {
+    private DeployStage deploy_stage;
+    private AgentState state;
+    private AgentStatus status;
+    private boolean current_deploy;
+    private long agent_count;
+
+    public DeployStage getDeploy_stage() {
+        return deploy_stage;
+    }
+
+    public void setDeploy_stage(DeployStage deploy_stage) {
+        this.deploy_stage = deploy_stage;
+    }
+
+    public AgentState getState() {
+        return state;
+    }
+
+    public void setState(AgentState state) {
+        this.state = state;
+    }
+
+    public AgentStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(AgentStatus status) {
+        this.status = status;
+    }
+
+    public boolean isCurrent_deploy() {
+        return current_deploy;
+    }
+
+    public void setCurrent_deploy(boolean current_deploy) {
+        this.current_deploy = current_deploy;
+    }
+
+    public long getAgent_count() {
+        return agent_count;
+    }
+
+    public void setAgent_count(long agent_count) {
+        this.agent_count = agent_count;
+    }
+
+    @Override
+    public String toString() {
+        return ReflectionToStringBuilder.toString(this);
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.bean;
+
+import java.util.List;
+
+/**
+ * Agent counts of an env by (deploy_stage, state, status), as read in one scan by {@code
+ * AgentDAO.getStatusHistogram}. The counts below match the {@code AgentDAO} count queries of the
+ * same names, for the deploy the histogram was built for.
+ */
+public class AgentStatusHistogram {
+    private final List<AgentStatusCountBean> buckets;
+
+    public AgentStatusHistogram(List<AgentStatusCountBean> buckets) {
+        this.buckets = buckets;
+    }
+
+    public List<AgentStatusCountBean> getBuckets() {
+        return buckets;
+    }
+
+    /** Same as {@code countAgentByEnv}: every agent of the env. */
+    public long countAgentByEnv() {
+        long total = 0;
+        for (AgentStatusCountBean bucket : buckets) {
+            total += bucket.getAgent_count();
+        }
+        return total;
+    }
+
+    /**
+     * Same as {@code countSucceededAgent}: agents on the deploy that are serving or stopped, and
+     * not paused by a user.
+     */
+    public long countSucceededAgent() {
+        long total = 0;
+        for (AgentStatusCountBean bucket : buckets) {
+            DeployStage stage = bucket.getDeploy_stage();
+            if (bucket.isCurrent_deploy()
+                    && (stage == DeployStage.SERVING_BUILD || stage == DeployStage.STOPPED)
+                    && bucket.getState() != null
+                    && bucket.getState() != AgentState.PAUSED_BY_USER) {
+                total += bucket.getAgent_count();
+            }
+        }
+        return total;
+    }
+
+    /** Same as {@code countStuckAgent}: agents on the deploy that are paused by the system. */
+    public long countStuckAgent() {
+        long total = 0;
+        for (AgentStatusCountBean bucket : buckets) {
+            if (bucket.isCurrent_deploy() && bucket.getState() == AgentState.PAUSED_BY_SYSTEM) {
+                total += bucket.getAgent_count();
+            }
+        }
+        return total;
+    }
+}
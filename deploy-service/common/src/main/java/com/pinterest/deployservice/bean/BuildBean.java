@@ -64,6 +64,11 @@ public class BuildBean implements Updatable {
     @JsonProperty("publishDate")
     private Long publish_date;
 
+    // Set by clients of the batch publish so a retried build is not published twice, not stored
+    // in builds
+    @JsonProperty(value = "idempotencyKey", access = JsonProperty.Access.WRITE_ONLY)
+    private String idempotency_key;
+
     public String getScm_info() {
         return scm_info;
     }
@@ -168,6 +173,14 @@ public class BuildBean implements Updatable {
         this.publish_date = publish_date;
     }
 
+    public String getIdempotency_key() {
+        return idempotency_key;
+    }
+
+    public void setIdempotency_key(String idempotency_key) {
+        this.idempotency_key = idempotency_key;
+    }
+
     @Override
     public SetClause genSetClause() {
         SetClause clause = new SetClause();
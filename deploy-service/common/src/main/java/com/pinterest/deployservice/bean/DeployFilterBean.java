@@ -33,6 +33,12 @@ public class DeployFilterBean {
     private Boolean oldestFirst;
     private Integer pageIndex;
     private Integer pageSize;
+    // Keyset position: only deploys strictly after (cursorStartDate, cursorDeployId) in the
+    // requested order are returned, and pageIndex is ignored
+    private Long cursorStartDate;
+    private String cursorDeployId;
+    // null counts every match, 0 skips the count, n counts at most n matches
+    private Integer countLimit;
 
     public List<String> getEnvIds() {
         return envIds;
@@ -146,6 +152,30 @@ public class DeployFilterBean {
         this.pageSize = pageSize;
     }
 
+    public Long getCursorStartDate() {
+        return cursorStartDate;
+    }
+
+    public void setCursorStartDate(Long cursorStartDate) {
+        this.cursorStartDate = cursorStartDate;
+    }
+
+    public String getCursorDeployId() {
+        return cursorDeployId;
+    }
+
+    public void setCursorDeployId(String cursorDeployId) {
+        this.cursorDeployId = cursorDeployId;
+    }
+
+    public Integer getCountLimit() {
+        return countLimit;
+    }
+
+    public void setCountLimit(Integer countLimit) {
+        this.countLimit = countLimit;
+    }
+
     @Override
     public String toString() {
         return ReflectionToStringBuilder.toString(this);
@@ -25,6 +25,7 @@ public class DeployQueryResultBean {
     private Map<String, TagBean> deployTags;
     private Long total;
     private Boolean truncated;
+    private String nextCursor;
 
     public DeployQueryResultBean(List<DeployBean> deploys, Long total, Boolean truncated) {
         this(deploys, total, new HashMap<String, TagBean>(), truncated);
@@ -57,6 +58,15 @@ public class DeployQueryResultBean {
         return deployTags;
     }
 
+    /** Opaque keyset position of the next page, or null on the last page. */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
     @Override
     public String toString() {
         return ReflectionToStringBuilder.toString(this);
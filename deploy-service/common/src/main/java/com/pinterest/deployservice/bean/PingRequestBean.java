@@ -55,6 +55,9 @@ public class PingRequestBean {
 
     private List<PingReportBean> reports;
 
+    // Echo of the goalFingerprint of the previous NOOP response
+    private String goalFingerprint;
+
     @Override
     public String toString() {
         return ReflectionToStringBuilder.toString(this);
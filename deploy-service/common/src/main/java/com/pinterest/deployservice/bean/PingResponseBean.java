@@ -20,6 +20,7 @@ import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
 public class PingResponseBean {
     private OpCode opCode;
     private DeployGoalBean deployGoal;
+    private String goalFingerprint;
 
     public OpCode getOpCode() {
         return opCode;
@@ -37,6 +38,14 @@ public class PingResponseBean {
         this.deployGoal = deployGoal;
     }
 
+    public String getGoalFingerprint() {
+        return goalFingerprint;
+    }
+
+    public void setGoalFingerprint(String goalFingerprint) {
+        this.goalFingerprint = goalFingerprint;
+    }
+
     @Override
     public String toString() {
         return ReflectionToStringBuilder.toString(this);
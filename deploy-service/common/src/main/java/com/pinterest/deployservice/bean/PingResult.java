@@ -16,6 +16,7 @@
 package com.pinterest.deployservice.bean;
 
 import com.pinterest.deployservice.handler.GoalAnalyst;
+import java.util.Collection;
 import java.util.List;
 
 public class PingResult {
@@ -23,6 +24,7 @@ public class PingResult {
     private PingResponseBean responseBean;
     private List<GoalAnalyst.InstallCandidate> installCandidates;
     private List<GoalAnalyst.UninstallCandidate> uninstallCandidateList;
+    private Collection<String> envIds;
 
     public PingResult() {}
 
@@ -38,6 +40,11 @@ public class PingResult {
         return uninstallCandidateList;
     }
 
+    // ids of the envs the host was matched to
+    public Collection<String> getEnvIds() {
+        return envIds;
+    }
+
     public PingResult withResponseBean(PingResponseBean bean) {
         this.responseBean = bean;
         return this;
@@ -52,4 +59,9 @@ public class PingResult {
         this.uninstallCandidateList = candidates;
         return this;
     }
+
+    public PingResult withEnvIds(Collection<String> envIds) {
+        this.envIds = envIds;
+        return this;
+    }
 }
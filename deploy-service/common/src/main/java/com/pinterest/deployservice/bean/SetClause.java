@@ -15,30 +15,58 @@
  */
 package com.pinterest.deployservice.bean;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * The columns and values of an insert or update, as generated by {@link Updatable#genSetClause}.
+ *
+ * <p>Which columns a clause sets, its shape, is looked up in a process wide tree of shapes, one
+ * step per column added. Every shape builds its clause string once, and caches the statements built
+ * from it by {@link #getStatement}. Hence writes of the same columns always send the very same SQL
+ * text, which the statement caches of the pool and of the driver can then reuse, and generating a
+ * clause for a known shape only allocates the value array.
+ */
 public class SetClause {
-    private StringBuilder clauseSB;
-    private List<Object> values;
+    // Shapes past this many are built per clause and not cached, so an unexpected spread of
+    // column combinations cannot grow the tree without bound
+    static final int MAX_SHAPES = 4096;
+    private static final Shape ROOT = new Shape(null, null);
+    // Statements cached per shape, against templates that are not constants after all
+    static final int MAX_STATEMENTS = 64;
+    private static final AtomicInteger shapeCount = new AtomicInteger();
+    private static final int INITIAL_CAPACITY = 16;
 
-    public SetClause() {
-        clauseSB = new StringBuilder();
-        values = new ArrayList<Object>();
-    }
+    private Shape shape = ROOT;
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private int size;
+
+    public SetClause() {}
 
     public String getClause() {
-        clauseSB.setLength(clauseSB.length() - 1);
-        return clauseSB.toString();
+        return shape.getClause();
+    }
+
+    /**
+     * Formats {@code template}, which must have a single {@code %s}, with the clause. The result is
+     * cached per shape, so {@code template} should be a constant.
+     */
+    public String getStatement(String template) {
+        return shape.getStatement(template);
     }
 
     public Object[] getValueArray() {
-        return values.toArray();
+        return size == values.length ? values : Arrays.copyOf(values, size);
     }
 
     // Add any extra value, usually key, needed by jdbc
     public void addValue(Object value) {
-        values.add(value);
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
     }
 
     // Add bean name and value, keep them in name and value lists separately
@@ -46,12 +74,67 @@ public class SetClause {
         if (value == null) {
             return;
         }
-        clauseSB.append(column);
-        clauseSB.append("=?,");
+        shape = shape.child(column);
         if (value instanceof Enum<?>) {
-            values.add(value.toString());
+            addValue(value.toString());
         } else {
-            values.add(value);
+            addValue(value);
+        }
+    }
+
+    private static final class Shape {
+        private final Shape parent;
+        private final String column;
+        private final ConcurrentMap<String, Shape> children = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, String> statements = new ConcurrentHashMap<>();
+        private volatile String clause;
+
+        Shape(Shape parent, String column) {
+            this.parent = parent;
+            this.column = column;
+        }
+
+        Shape child(String column) {
+            Shape child = children.get(column);
+            if (child != null) {
+                return child;
+            }
+            if (shapeCount.get() >= MAX_SHAPES) {
+                return new Shape(this, column);
+            }
+            return children.computeIfAbsent(
+                    column,
+                    c -> {
+                        shapeCount.incrementAndGet();
+                        return new Shape(this, c);
+                    });
+        }
+
+        String getClause() {
+            String result = clause;
+            if (result == null) {
+                StringBuilder sb = new StringBuilder();
+                for (Shape s = this; s.column != null; s = s.parent) {
+                    sb.insert(0, ',').insert(0, "=?").insert(0, s.column);
+                }
+                if (sb.length() > 0) {
+                    sb.setLength(sb.length() - 1);
+                }
+                result = sb.toString();
+                clause = result;
+            }
+            return result;
+        }
+
+        String getStatement(String template) {
+            String statement = statements.get(template);
+            if (statement == null) {
+                statement = String.format(template, getClause());
+                if (statements.size() < MAX_STATEMENTS) {
+                    statements.put(template, statement);
+                }
+            }
+            return statement;
         }
     }
 }
@@ -15,9 +15,13 @@
  */
 package com.pinterest.deployservice.bean;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class UpdateStatement {
     private String statement;
     private Object[] valueArray;
+    private List<Runnable> afterCommit = new ArrayList<>();
 
     public UpdateStatement(String statement, Object[] valueArray) {
         this.statement = statement;
@@ -31,4 +35,17 @@ public class UpdateStatement {
     public Object[] getValueArray() {
         return valueArray;
     }
+
+    /**
+     * Registers an action to run once the transaction holding this statement has committed. It is
+     * not run if the transaction rolls back.
+     */
+    public UpdateStatement afterCommit(Runnable action) {
+        afterCommit.add(action);
+        return this;
+    }
+
+    public List<Runnable> getAfterCommit() {
+        return afterCommit;
+    }
 }
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.common;
+
+import com.google.common.util.concurrent.ForwardingExecutorService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adds per job type metrics to the shared job pool: how many jobs of a type are queued or running,
+ * how long they wait for a thread and run, and how many are rejected. The job type is the simple
+ * class name of the submitted task, such as {@code NotifyJob} or {@code ChangeFeedJob}.
+ */
+public class MeteredJobPool extends ForwardingExecutorService {
+    static final String METRIC_PREFIX = "teletraan.job_pool.";
+
+    private final ExecutorService delegate;
+    private final ConcurrentMap<String, JobType> jobTypes = new ConcurrentHashMap<>();
+
+    public MeteredJobPool(ExecutorService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    protected ExecutorService delegate() {
+        return delegate;
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        JobType type = jobType(task);
+        long queuedAt = type.queue();
+        try {
+            return delegate.submit(() -> type.call(task, queuedAt));
+        } catch (RejectedExecutionException e) {
+            type.reject();
+            throw e;
+        }
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        JobType type = jobType(task);
+        long queuedAt = type.queue();
+        try {
+            return delegate.submit((Runnable) () -> type.run(task, queuedAt));
+        } catch (RejectedExecutionException e) {
+            type.reject();
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> Future<T> submit(Runnable task, T result) {
+        JobType type = jobType(task);
+        long queuedAt = type.queue();
+        try {
+            return delegate.submit(() -> type.run(task, queuedAt), result);
+        } catch (RejectedExecutionException e) {
+            type.reject();
+            throw e;
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        JobType type = jobType(task);
+        long queuedAt = type.queue();
+        try {
+            delegate.execute(() -> type.run(task, queuedAt));
+        } catch (RejectedExecutionException e) {
+            type.reject();
+            throw e;
+        }
+    }
+
+    private JobType jobType(Object task) {
+        return jobTypes.computeIfAbsent(task.getClass().getSimpleName(), JobType::new);
+    }
+
+    int pendingCount(String jobType) {
+        JobType type = jobTypes.get(jobType);
+        return type == null ? 0 : type.pending.get();
+    }
+
+    private static final class JobType {
+        final AtomicInteger pending = new AtomicInteger();
+        final Timer waitTimer;
+        final Timer durationTimer;
+        final Counter rejected;
+
+        JobType(String name) {
+            Gauge.builder(METRIC_PREFIX + "pending", pending, AtomicInteger::get)
+                    .tag("job", name)
+                    .description("Number of jobs of the type queued or running")
+                    .register(Metrics.globalRegistry);
+            waitTimer = Metrics.timer(METRIC_PREFIX + "wait", "job", name);
+            durationTimer = Metrics.timer(METRIC_PREFIX + "duration", "job", name);
+            rejected = Metrics.counter(METRIC_PREFIX + "rejected", "job", name);
+        }
+
+        long queue() {
+            pending.incrementAndGet();
+            return System.nanoTime();
+        }
+
+        void reject() {
+            pending.decrementAndGet();
+            rejected.increment();
+        }
+
+        <T> T call(Callable<T> task, long queuedAt) throws Exception {
+            long start = System.nanoTime();
+            waitTimer.record(start - queuedAt, TimeUnit.NANOSECONDS);
+            try {
+                return task.call();
+            } finally {
+                durationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                pending.decrementAndGet();
+            }
+        }
+
+        void run(Runnable task, long queuedAt) {
+            long start = System.nanoTime();
+            waitTimer.record(start - queuedAt, TimeUnit.NANOSECONDS);
+            try {
+                task.run();
+            } finally {
+                durationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                pending.decrementAndGet();
+            }
+        }
+    }
+}
@@ -16,6 +16,8 @@
 package com.pinterest.deployservice.dao;
 
 import com.pinterest.deployservice.bean.AgentBean;
+import com.pinterest.deployservice.bean.AgentFilterBean;
+import com.pinterest.deployservice.bean.AgentStatusHistogram;
 import java.util.Collection;
 import java.util.List;
 
@@ -23,6 +25,9 @@ import java.util.List;
 public interface AgentDAO {
     void insertOrUpdate(AgentBean agentBean) throws Exception;
 
+    // insertOrUpdate every bean, sending rows with the same columns as one JDBC batch
+    void insertOrUpdateAll(Collection<AgentBean> agentBeans) throws Exception;
+
     void update(String hostId, String envId, AgentBean updateBean) throws Exception;
 
     void updateMultiple(Collection<String> hostIds, String envId, AgentBean agentBean)
@@ -41,6 +46,11 @@ public interface AgentDAO {
 
     List<AgentBean> getAllByEnv(String envId) throws Exception;
 
+    // return at most limit agents of the env matching the filter, with host_id after afterHostId
+    // in host_id order. afterHostId null starts from the first host
+    List<AgentBean> getPageByEnv(
+            String envId, AgentFilterBean filter, String afterHostId, int limit) throws Exception;
+
     List<AgentBean> getByEnvAndFirstDeployTime(String envId, long time) throws Exception;
 
     AgentBean getByHostEnvIds(String hostId, String envId) throws Exception;
@@ -65,6 +75,10 @@ public interface AgentDAO {
     // return how many agent state is PAUSED_BY_SYSTEM, or stuck/failed
     long countStuckAgent(String envId, String deployId) throws Exception;
 
+    // return agent counts of the env by deploy stage, state and status, split by whether they
+    // are on deployId, all in one scan
+    AgentStatusHistogram getStatusHistogram(String envId, String deployId) throws Exception;
+
     // return how many agents that are not first time deploy for the environment
     long countNonFirstDeployingAgent(String envId) throws Exception;
 
@@ -17,6 +17,7 @@ package com.pinterest.deployservice.dao;
 
 import com.google.common.base.Optional;
 import com.pinterest.deployservice.bean.BuildBean;
+import com.pinterest.deployservice.bean.UpdateStatement;
 import java.util.Collection;
 import java.util.List;
 import org.joda.time.Interval;
@@ -25,6 +26,9 @@ import org.joda.time.Interval;
 public interface BuildDAO {
     void insert(BuildBean buildBean) throws Exception;
 
+    // Insert all the builds with one multi-row statement
+    UpdateStatement genInsertAllStatement(Collection<BuildBean> buildBeans);
+
     BuildBean getById(String buildId) throws Exception;
 
     // commit in short version
@@ -33,6 +37,8 @@ public interface BuildDAO {
 
     void delete(String buildId) throws Exception;
 
+    UpdateStatement genDeleteStatement(String buildId);
+
     BuildBean getLatest(String buildName, String branch) throws Exception;
 
     List<String> getBuildNames(String nameFilter, int pageIndex, int pageSize) throws Exception;
@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.dao;
+
+import com.pinterest.deployservice.bean.UpdateStatement;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Rows of {@code build_idempotency_keys}, the build published for each idempotency key a publisher
+ * sent, so that a retried batch publish returns the builds of the first attempt.
+ */
+public interface BuildIdempotencyKeyDAO {
+    /** Returns the build ids of the keys of the publisher, by key, missing keys are left out. */
+    Map<String, String> getBuildIds(String publisher, Collection<String> keys) throws Exception;
+
+    /** Statement inserting the build ids by key. It fails if one of the keys already exists. */
+    UpdateStatement genInsertAllStatement(
+            String publisher, Map<String, String> buildIdsByKey, long now);
+
+    /** Statement deleting the keys of the publisher. */
+    UpdateStatement genDeleteStatement(String publisher, Collection<String> keys);
+
+    /** Deletes the keys created before the time. */
+    void deleteBefore(long before) throws Exception;
+}
@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.dao;
+
+import com.pinterest.deployservice.bean.EntityInvalidationBean;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Rows of {@code entity_invalidations}, through which service processes tell each other which
+ * cached builds, deploys and environs they changed.
+ */
+public interface EntityInvalidationDAO {
+    /** Inserts the invalidations in one statement, seq and created are assigned on insert. */
+    void insertAll(String origin, Collection<EntityInvalidationBean> invalidations, long now)
+            throws Exception;
+
+    /** Returns up to limit invalidations with a seq above afterSeq, in seq order. */
+    List<EntityInvalidationBean> getAfter(long afterSeq, int limit) throws Exception;
+
+    /** Returns the invalidations with the seqs that exist, in seq order. */
+    List<EntityInvalidationBean> getBySeqs(Collection<Long> seqs) throws Exception;
+
+    /** Returns the highest seq so far, 0 if there is none. */
+    long getLastSeq() throws Exception;
+
+    /** Deletes the invalidations created before the time. */
+    void deleteBefore(long before) throws Exception;
+}
@@ -41,6 +41,9 @@ public interface EnvironDAO {
 
     EnvironBean getById(String envId) throws Exception;
 
+    // Return the envs with the given ids, ordered by env_id like getEnvsByGroups
+    List<EnvironBean> getByIds(Collection<String> envIds) throws Exception;
+
     EnvironBean getByDeployId(String deployId) throws SQLException;
 
     List<EnvironBean> getByName(String envName) throws Exception;
@@ -95,6 +98,9 @@ public interface EnvironDAO {
 
     List<EnvironBean> getAllEnvs() throws Exception;
 
+    // Return all envs with only env_id, deploy_id, env_state and state set
+    List<EnvironBean> getAllEnvStates() throws Exception;
+
     List<EnvironBean> getAllSidecarEnvs() throws Exception;
 
     void deleteSchedule(String envName, String stageName) throws Exception;
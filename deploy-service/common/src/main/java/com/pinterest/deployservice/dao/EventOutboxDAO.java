@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.dao;
+
+import com.pinterest.deployservice.bean.EventOutboxBean;
+import com.pinterest.deployservice.bean.UpdateStatement;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Rows of {@code event_outbox}, written in the transaction of the change they describe, and the
+ * high-water marks of the relays that deliver them.
+ */
+public interface EventOutboxDAO {
+    /**
+     * Statement inserting the events, seq is assigned and created is stamped with the database time
+     * on insert.
+     */
+    UpdateStatement genInsertAllStatement(Collection<EventOutboxBean> events);
+
+    /** Returns up to limit events with a seq above afterSeq, in seq order. */
+    List<EventOutboxBean> getAfter(long afterSeq, int limit) throws Exception;
+
+    /** Returns the events with the seqs that exist, in seq order. */
+    List<EventOutboxBean> getBySeqs(Collection<Long> seqs) throws Exception;
+
+    /** Returns the current time of the database, in the milliseconds created is stamped with. */
+    long getCurrentTime() throws Exception;
+
+    /** Returns the seq up to which the relay delivered every event, 0 if it has not yet. */
+    long getHighWaterMark(String relay) throws Exception;
+
+    void setHighWaterMark(String relay, long seq) throws Exception;
+
+    /** Deletes the events created before the time, among those with a seq up to maxSeq. */
+    void deleteBefore(long before, long maxSeq) throws Exception;
+}
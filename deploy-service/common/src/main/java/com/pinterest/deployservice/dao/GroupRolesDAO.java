@@ -37,4 +37,6 @@ public interface GroupRolesDAO {
 
     List<GroupRolesBean> getByResource(String resourceId, AuthZResource.Type resourceType)
             throws Exception;
+
+    List<GroupRolesBean> getAll() throws Exception;
 }
@@ -17,7 +17,9 @@ package com.pinterest.deployservice.dao;
 
 import com.pinterest.deployservice.bean.HostAgentBean;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /** A collection of methods to help hosts and groups mapping */
 public interface HostAgentDAO {
@@ -43,5 +45,10 @@ public interface HostAgentDAO {
 
     void touchLastUpdate(String hostId, long lastUpdate) throws Exception;
 
+    void touchLastUpdates(Collection<String> hostIds, long lastUpdate) throws Exception;
+
+    // Set each host's own last_update with one statement, never moving a timestamp backwards
+    void touchLastUpdates(Map<String, Long> lastUpdates) throws Exception;
+
     long getDistinctHostsCount() throws SQLException;
 }
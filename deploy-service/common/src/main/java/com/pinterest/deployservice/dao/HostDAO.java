@@ -17,6 +17,7 @@ package com.pinterest.deployservice.dao;
 
 import com.pinterest.deployservice.bean.HostBean;
 import com.pinterest.deployservice.bean.HostBeanWithStatuses;
+import com.pinterest.deployservice.bean.HostState;
 import java.sql.SQLException;
 import java.util.Collection;
 import java.util.List;
@@ -59,6 +60,9 @@ public interface HostDAO {
 
     List<HostBean> getHostsByHostId(String hostId) throws Exception;
 
+    // the rows of all the given hosts, ordered by create_date like getHostsByHostId
+    List<HostBean> getHostsByHostIds(Collection<String> hostIds) throws Exception;
+
     List<String> getActiveHostIdsByHostIds(Collection<String> hostId) throws Exception;
 
     List<HostBean> getTerminatingHosts() throws Exception;
@@ -79,11 +83,22 @@ public interface HostDAO {
 
     Collection<HostBean> getHostsByEnvId(String envId) throws Exception;
 
+    // return at most limit hosts of the env in (host_id, group_name) order, starting after the
+    // given key. A null afterHostId starts from the first host, a null state matches any host
+    List<HostBean> getPageByEnvId(
+            String envId, HostState state, String afterHostId, String afterGroupName, int limit)
+            throws Exception;
+
     HostBean getByEnvIdAndHostId(String envId, String hostId) throws Exception;
 
     Collection<HostBeanWithStatuses> getByEnvIdAndHostName(String envId, String hostName)
             throws Exception;
 
+    // Same as getByEnvIdAndHostName for every host name, keeping one host per name, in two
+    // queries regardless of the number of host names
+    Collection<HostBeanWithStatuses> getByEnvIdAndHostNames(
+            String envId, Collection<String> hostNames) throws Exception;
+
     Collection<String> getToBeRetiredHostIdsByGroup(String groupName) throws Exception;
 
     Collection<String> getToBeRetiredAndFailedHostIdsByGroup(String groupName) throws Exception;
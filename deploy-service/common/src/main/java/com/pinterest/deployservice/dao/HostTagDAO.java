@@ -17,13 +17,17 @@ package com.pinterest.deployservice.dao;
 
 import com.pinterest.deployservice.bean.HostTagBean;
 import com.pinterest.deployservice.bean.HostTagInfo;
-import com.pinterest.deployservice.bean.UpdateStatement;
+import java.util.Collection;
 import java.util.List;
 
 public interface HostTagDAO {
     void insertOrUpdate(HostTagBean hostTagBean) throws Exception;
 
-    UpdateStatement genInsertOrUpdate(HostTagBean hostTagBean);
+    /**
+     * Upserts the host tags in one statement. The create_date of a tag is only moved when its value
+     * changes.
+     */
+    void insertOrUpdateAll(Collection<HostTagBean> hostTagBeans) throws Exception;
 
     HostTagBean get(String hostId, String key) throws Exception;
 
@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.dao;
+
+/**
+ * Lease rows backing {@code LeaseLockManager}. A lease is held by {@code owner} until {@code
+ * expiresAt}, after which anyone may take it over.
+ */
+public interface LockDAO {
+    /**
+     * Takes the lease if nobody holds it, or if the current lease expired before {@code now}.
+     *
+     * @return true if {@code owner} now holds the lease
+     */
+    boolean tryAcquire(String lockName, String owner, long now, long expiresAt) throws Exception;
+
+    /**
+     * Extends a lease still held by {@code owner}.
+     *
+     * @return false if the lease expired and was taken over in the meantime
+     */
+    boolean renew(String lockName, String owner, long expiresAt) throws Exception;
+
+    /** Releases the lease, unless it has been taken over by someone else. */
+    void release(String lockName, String owner) throws Exception;
+}
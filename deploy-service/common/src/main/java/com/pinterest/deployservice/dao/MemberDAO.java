@@ -0,0 +1,35 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.dao;
+
+import java.util.List;
+
+/**
+ * Rows of {@code service_members}, one per service process taking part in a group of workers that
+ * split their work, such as the {@code StateTransitioner}s of all replicas.
+ */
+public interface MemberDAO {
+    /** Inserts the member, or refreshes its heartbeat if it already exists. */
+    void heartbeat(String groupName, String memberId, String hostName, long now) throws Exception;
+
+    /** Returns the ids of the members of the group with a heartbeat at or after {@code since}. */
+    List<String> getActiveMembers(String groupName, long since) throws Exception;
+
+    /** Deletes the members of the group whose last heartbeat was before {@code before}. */
+    void deleteExpired(String groupName, long before) throws Exception;
+
+    void delete(String groupName, String memberId) throws Exception;
+}
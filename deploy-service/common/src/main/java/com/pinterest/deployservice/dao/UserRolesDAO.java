@@ -34,4 +34,6 @@ public interface UserRolesDAO {
 
     List<UserRolesBean> getByResource(String resourceId, AuthZResource.Type resourceType)
             throws Exception;
+
+    List<UserRolesBean> getAll() throws Exception;
 }
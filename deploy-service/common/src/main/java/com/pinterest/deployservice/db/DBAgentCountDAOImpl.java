@@ -28,7 +28,8 @@ public class DBAgentCountDAOImpl implements AgentCountDAO {
     private static final String GET_COUNT = "SELECT * FROM agent_counts WHERE env_id=?";
     private static final String DELETE_COUNT = "DELETE * FROM agent_counts WHERE env_id=?";
     private static final String INSERT_OR_UPDATE_COUNT =
-            "INSERT INTO agent_counts SET %s ON DUPLICATE KEY UPDATE %s";
+            "INSERT INTO agent_counts SET %s ON DUPLICATE KEY UPDATE "
+                    + AgentCountBean.UPDATE_CLAUSE;
 
     private BasicDataSource dataSource;
 
@@ -51,11 +52,7 @@ public class DBAgentCountDAOImpl implements AgentCountDAO {
     @Override
     public void insertOrUpdate(AgentCountBean agentCountBean) throws Exception {
         SetClause setClause = agentCountBean.genSetClause();
-        String clause =
-                String.format(
-                        INSERT_OR_UPDATE_COUNT,
-                        setClause.getClause(),
-                        AgentCountBean.UPDATE_CLAUSE);
+        String clause = setClause.getStatement(INSERT_OR_UPDATE_COUNT);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
 }
@@ -17,12 +17,18 @@ package com.pinterest.deployservice.db;
 
 import com.google.common.collect.ImmutableList;
 import com.pinterest.deployservice.bean.AgentBean;
+import com.pinterest.deployservice.bean.AgentFilterBean;
 import com.pinterest.deployservice.bean.AgentState;
+import com.pinterest.deployservice.bean.AgentStatusCountBean;
+import com.pinterest.deployservice.bean.AgentStatusHistogram;
 import com.pinterest.deployservice.bean.DeployStage;
 import com.pinterest.deployservice.bean.SetClause;
 import com.pinterest.deployservice.dao.AgentDAO;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.apache.commons.dbcp.BasicDataSource;
 import org.apache.commons.dbutils.QueryRunner;
 import org.apache.commons.dbutils.ResultSetHandler;
@@ -41,12 +47,14 @@ public class DBAgentDAOImpl implements AgentDAO {
                     + "WHERE env_id=? AND deploy_id=? AND "
                     + "status!='SUCCEEDED' AND status!='UNKNOWN' AND state!='RESET'";
     private static final String INSERT_OR_UPDATE_AGENT_TEMPLATE =
-            "INSERT INTO agents SET %s ON DUPLICATE KEY UPDATE %s";
+            "INSERT INTO agents SET %s ON DUPLICATE KEY UPDATE " + AgentBean.UPDATE_CLAUSE;
     private static final String DELETE_AGENT = "DELETE FROM agents WHERE host_id=? AND env_id=?";
     private static final String DELETE_AGENT_BY_ID = "DELETE FROM agents WHERE host_id=?";
     private static final String GET_AGENT_BY_HOST = "SELECT * FROM agents WHERE host_name=?";
     private static final String GET_AGENT_BY_HOSTID = "SELECT * FROM agents WHERE host_id=?";
     private static final String GET_ALL_AGENT_BY_ENV = "SELECT * FROM agents WHERE env_id=?";
+    private static final String GET_AGENT_PAGE_BY_ENV =
+            "SELECT * FROM agents WHERE env_id=? AND host_id>?%s ORDER BY host_id LIMIT ?";
     private static final String GET_AGENT_BY_ENV_AND_FIRST_DEPLOY_TIME =
             "SELECT * FROM agents WHERE env_id=? AND first_deploy_time>?";
     private static final String GET_BY_IDS = "SELECT * FROM agents WHERE host_id=? AND env_id=?";
@@ -69,6 +77,10 @@ public class DBAgentDAOImpl implements AgentDAO {
                     + "WHERE env_id=? AND deploy_id=? AND state='PAUSED_BY_SYSTEM'";
     private static final String GET_NON_FIRST_TIME_DEPLOY_TOTAL =
             "SELECT COUNT(*) FROM agents WHERE env_id=? AND first_deploy=0";
+    private static final String GET_STATUS_HISTOGRAM =
+            "SELECT deploy_stage, state, status, deploy_id<=>? AS current_deploy, "
+                    + "COUNT(*) AS agent_count FROM agents WHERE env_id=? "
+                    + "GROUP BY deploy_stage, state, status, current_deploy";
     private static final String COUNT_ALL_AGENT_BY_ENV =
             "SELECT COUNT(*) FROM agents WHERE env_id=?";
     private static final String COUNT_ALL_AGENT_BY_ENV_NAME =
@@ -97,7 +109,7 @@ public class DBAgentDAOImpl implements AgentDAO {
     @Override
     public void update(String hostId, String envId, AgentBean agentBean) throws Exception {
         SetClause setClause = agentBean.genSetClause();
-        String clause = String.format(UPDATE_AGENT_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(UPDATE_AGENT_TEMPLATE);
         setClause.addValue(hostId);
         setClause.addValue(envId);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
@@ -127,7 +139,7 @@ public class DBAgentDAOImpl implements AgentDAO {
     @Override
     public void updateAgentById(String hostId, AgentBean bean) throws Exception {
         SetClause setClause = bean.genSetClause();
-        String clause = String.format(UPDATE_AGENT_BY_ID_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(UPDATE_AGENT_BY_ID_TEMPLATE);
         setClause.addValue(hostId);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
@@ -135,14 +147,26 @@ public class DBAgentDAOImpl implements AgentDAO {
     @Override
     public void insertOrUpdate(AgentBean updateBean) throws Exception {
         SetClause setClause = updateBean.genSetClause();
-        String clause =
-                String.format(
-                        INSERT_OR_UPDATE_AGENT_TEMPLATE,
-                        setClause.getClause(),
-                        AgentBean.UPDATE_CLAUSE);
+        String clause = setClause.getStatement(INSERT_OR_UPDATE_AGENT_TEMPLATE);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
 
+    @Override
+    public void insertOrUpdateAll(Collection<AgentBean> updateBeans) throws Exception {
+        // Beans with the same non-null columns share a statement, and each such group is sent
+        // as a single JDBC batch
+        Map<String, List<Object[]>> batches = new LinkedHashMap<>();
+        for (AgentBean updateBean : updateBeans) {
+            SetClause setClause = updateBean.genSetClause();
+            String clause = setClause.getStatement(INSERT_OR_UPDATE_AGENT_TEMPLATE);
+            batches.computeIfAbsent(clause, k -> new ArrayList<>()).add(setClause.getValueArray());
+        }
+        QueryRunner runner = new QueryRunner(dataSource);
+        for (Map.Entry<String, List<Object[]>> entry : batches.entrySet()) {
+            runner.batch(entry.getKey(), entry.getValue().toArray(new Object[0][]));
+        }
+    }
+
     @Override
     public void delete(String hostId, String envId) throws Exception {
         new QueryRunner(dataSource).update(DELETE_AGENT, hostId, envId);
@@ -171,6 +195,33 @@ public class DBAgentDAOImpl implements AgentDAO {
         return new QueryRunner(dataSource).query(GET_ALL_AGENT_BY_ENV, h, envId);
     }
 
+    @Override
+    public List<AgentBean> getPageByEnv(
+            String envId, AgentFilterBean filter, String afterHostId, int limit) throws Exception {
+        StringBuilder conditions = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+        params.add(envId);
+        params.add(afterHostId == null ? "" : afterHostId);
+        if (filter != null) {
+            if (filter.getState() != null) {
+                conditions.append(" AND state=?");
+                params.add(filter.getState().toString());
+            }
+            if (filter.getStatus() != null) {
+                conditions.append(" AND status=?");
+                params.add(filter.getStatus().toString());
+            }
+            if (filter.getDeploy_stage() != null) {
+                conditions.append(" AND deploy_stage=?");
+                params.add(filter.getDeploy_stage().toString());
+            }
+        }
+        params.add(limit);
+        ResultSetHandler<List<AgentBean>> h = new BeanListHandler<>(AgentBean.class);
+        return new QueryRunner(dataSource)
+                .query(String.format(GET_AGENT_PAGE_BY_ENV, conditions), h, params.toArray());
+    }
+
     @Override
     public List<AgentBean> getByEnvAndFirstDeployTime(String envId, long time) throws Exception {
         ResultSetHandler<List<AgentBean>> h = new BeanListHandler<>(AgentBean.class);
@@ -244,6 +295,14 @@ public class DBAgentDAOImpl implements AgentDAO {
         return n == null ? 0 : n;
     }
 
+    @Override
+    public AgentStatusHistogram getStatusHistogram(String envId, String deployId) throws Exception {
+        ResultSetHandler<List<AgentStatusCountBean>> h =
+                new BeanListHandler<>(AgentStatusCountBean.class);
+        return new AgentStatusHistogram(
+                new QueryRunner(dataSource).query(GET_STATUS_HISTOGRAM, h, deployId, envId));
+    }
+
     @Override
     public long countAgentByEnv(String envId) throws Exception {
         Long n =
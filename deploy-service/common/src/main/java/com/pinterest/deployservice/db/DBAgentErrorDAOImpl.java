@@ -47,7 +47,7 @@ public class DBAgentErrorDAOImpl implements AgentErrorDAO {
     @Override
     public void insert(AgentErrorBean agentErrorBean) throws Exception {
         SetClause setClause = agentErrorBean.genSetClause();
-        String clause = String.format(INSERT_ERROR_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(INSERT_ERROR_TEMPLATE);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
 
@@ -55,7 +55,7 @@ public class DBAgentErrorDAOImpl implements AgentErrorDAO {
     public void update(String hostName, String envId, AgentErrorBean agentErrorBean)
             throws Exception {
         SetClause setClause = agentErrorBean.genSetClause();
-        String clause = String.format(UPDATE_ERROR_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(UPDATE_ERROR_TEMPLATE);
         setClause.addValue(hostName);
         setClause.addValue(envId);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
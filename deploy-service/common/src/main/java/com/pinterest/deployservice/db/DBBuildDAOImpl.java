@@ -18,6 +18,7 @@ package com.pinterest.deployservice.db;
 import com.google.common.base.Optional;
 import com.pinterest.deployservice.bean.BuildBean;
 import com.pinterest.deployservice.bean.SetClause;
+import com.pinterest.deployservice.bean.UpdateStatement;
 import com.pinterest.deployservice.dao.BuildDAO;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -35,6 +36,10 @@ public class DBBuildDAOImpl implements BuildDAO {
     private static final int DEFAULT_SIZE = 100;
 
     private static final String INSERT_BUILD_TEMPLATE = "INSERT INTO builds SET %s";
+    private static final String INSERT_BUILDS_TEMPLATE =
+            "INSERT INTO builds (build_id, build_name, artifact_url, scm, scm_repo, scm_branch, "
+                    + "scm_commit_7, scm_commit, commit_date, publish_info, publisher, publish_date, "
+                    + "scm_info) VALUES %s";
     private static final String DELETE_BUILD = "DELETE FROM builds WHERE build_id=?";
     private static final String GET_BUILD_BY_ID = "SELECT * FROM builds WHERE build_id=?";
     private static final String GET_BUILDS_BY_COMMIT_7 =
@@ -104,15 +109,45 @@ public class DBBuildDAOImpl implements BuildDAO {
     @Override
     public void insert(BuildBean buildBean) throws Exception {
         SetClause setClause = buildBean.genSetClause();
-        String clause = String.format(INSERT_BUILD_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(INSERT_BUILD_TEMPLATE);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
 
+    @Override
+    public UpdateStatement genInsertAllStatement(Collection<BuildBean> buildBeans) {
+        List<Object> values = new ArrayList<>(buildBeans.size() * 13);
+        for (BuildBean buildBean : buildBeans) {
+            values.add(buildBean.getBuild_id());
+            values.add(buildBean.getBuild_name());
+            values.add(buildBean.getArtifact_url());
+            values.add(buildBean.getScm());
+            values.add(buildBean.getScm_repo());
+            values.add(buildBean.getScm_branch());
+            values.add(buildBean.getScm_commit_7());
+            values.add(buildBean.getScm_commit());
+            values.add(buildBean.getCommit_date());
+            values.add(buildBean.getPublish_info());
+            values.add(buildBean.getPublisher());
+            values.add(buildBean.getPublish_date());
+            values.add(buildBean.getScm_info());
+        }
+        String clause =
+                String.format(
+                        INSERT_BUILDS_TEMPLATE,
+                        StringUtils.repeat("(?,?,?,?,?,?,?,?,?,?,?,?,?)", ",", buildBeans.size()));
+        return new UpdateStatement(clause, values.toArray());
+    }
+
     @Override
     public void delete(String buildId) throws Exception {
         new QueryRunner(dataSource).update(DELETE_BUILD, buildId);
     }
 
+    @Override
+    public UpdateStatement genDeleteStatement(String buildId) {
+        return new UpdateStatement(DELETE_BUILD, new Object[] {buildId});
+    }
+
     @Override
     public BuildBean getById(String buildId) throws Exception {
         ResultSetHandler<BuildBean> h = new BeanHandler<>(BuildBean.class);
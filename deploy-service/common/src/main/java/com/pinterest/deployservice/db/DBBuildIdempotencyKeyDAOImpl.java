@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.db;
+
+import com.pinterest.deployservice.bean.UpdateStatement;
+import com.pinterest.deployservice.dao.BuildIdempotencyKeyDAO;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.dbcp.BasicDataSource;
+import org.apache.commons.dbutils.QueryRunner;
+import org.apache.commons.lang3.StringUtils;
+
+public class DBBuildIdempotencyKeyDAOImpl implements BuildIdempotencyKeyDAO {
+    private static final String GET_BUILD_IDS =
+            "SELECT idempotency_key, build_id FROM build_idempotency_keys "
+                    + "WHERE publisher=? AND idempotency_key IN (%s)";
+    private static final String INSERT_KEYS =
+            "INSERT INTO build_idempotency_keys (publisher, idempotency_key, build_id, created) "
+                    + "VALUES %s";
+    private static final String DELETE_KEYS =
+            "DELETE FROM build_idempotency_keys WHERE publisher=? AND idempotency_key IN (%s)";
+    private static final String DELETE_KEYS_BEFORE =
+            "DELETE FROM build_idempotency_keys WHERE created<?";
+
+    private BasicDataSource dataSource;
+
+    public DBBuildIdempotencyKeyDAOImpl(BasicDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public Map<String, String> getBuildIds(String publisher, Collection<String> keys)
+            throws Exception {
+        Map<String, String> buildIds = new HashMap<>();
+        if (keys.isEmpty()) {
+            return buildIds; // MySQL doesn't allow IN ()
+        }
+        List<Object> params = new ArrayList<>(keys.size() + 1);
+        params.add(publisher);
+        params.addAll(keys);
+        return new QueryRunner(dataSource)
+                .query(
+                        String.format(
+                                GET_BUILD_IDS, QueryUtils.genStringPlaceholderList(keys.size())),
+                        rs -> {
+                            while (rs.next()) {
+                                buildIds.put(
+                                        rs.getString("idempotency_key"), rs.getString("build_id"));
+                            }
+                            return buildIds;
+                        },
+                        params.toArray());
+    }
+
+    @Override
+    public UpdateStatement genInsertAllStatement(
+            String publisher, Map<String, String> buildIdsByKey, long now) {
+        List<Object> values = new ArrayList<>(buildIdsByKey.size() * 4);
+        for (Map.Entry<String, String> entry : buildIdsByKey.entrySet()) {
+            values.add(publisher);
+            values.add(entry.getKey());
+            values.add(entry.getValue());
+            values.add(now);
+        }
+        String clause =
+                String.format(
+                        INSERT_KEYS, StringUtils.repeat("(?,?,?,?)", ",", buildIdsByKey.size()));
+        return new UpdateStatement(clause, values.toArray());
+    }
+
+    @Override
+    public UpdateStatement genDeleteStatement(String publisher, Collection<String> keys) {
+        List<Object> values = new ArrayList<>(keys.size() + 1);
+        values.add(publisher);
+        values.addAll(keys);
+        return new UpdateStatement(
+                String.format(DELETE_KEYS, QueryUtils.genStringPlaceholderList(keys.size())),
+                values.toArray());
+    }
+
+    @Override
+    public void deleteBefore(long before) throws Exception {
+        new QueryRunner(dataSource).update(DELETE_KEYS_BEFORE, before);
+    }
+}
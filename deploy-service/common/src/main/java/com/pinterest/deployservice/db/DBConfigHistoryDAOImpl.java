@@ -42,7 +42,7 @@ public class DBConfigHistoryDAOImpl implements ConfigHistoryDAO {
     @Override
     public void insert(ConfigHistoryBean bean) throws Exception {
         SetClause setClause = bean.genSetClause();
-        String clause = String.format(INSERT_CONFIG_HISTORY, setClause.getClause());
+        String clause = setClause.getStatement(INSERT_CONFIG_HISTORY);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
 
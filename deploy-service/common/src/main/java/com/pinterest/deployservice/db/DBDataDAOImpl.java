@@ -51,14 +51,14 @@ public class DBDataDAOImpl implements DataDAO {
     @Override
     public void insert(DataBean bean) throws Exception {
         SetClause setClause = bean.genSetClause();
-        String clause = String.format(INSERT_DATA_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(INSERT_DATA_TEMPLATE);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
 
     @Override
     public void update(String id, DataBean bean) throws Exception {
         SetClause setClause = bean.genSetClause();
-        String clause = String.format(UPDATE_DATA_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(UPDATE_DATA_TEMPLATE);
         setClause.addValue(id);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
@@ -66,7 +66,7 @@ public class DBDataDAOImpl implements DataDAO {
     @Override
     public void insertOrUpdate(String id, DataBean bean) throws Exception {
         SetClause setClause = bean.genSetClause();
-        String clause = String.format(INSERT_OR_UPDATE_DATA_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(INSERT_OR_UPDATE_DATA_TEMPLATE);
         setClause.addValue(System.currentTimeMillis());
         setClause.addValue(bean.getData());
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
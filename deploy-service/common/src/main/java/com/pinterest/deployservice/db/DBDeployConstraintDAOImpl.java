@@ -59,7 +59,7 @@ public class DBDeployConstraintDAOImpl implements DeployConstraintDAO {
     public void updateById(String constraintId, DeployConstraintBean deployConstraintBean)
             throws Exception {
         SetClause setClause = deployConstraintBean.genSetClause();
-        String clause = String.format(UPDATE_CONSTRAINT_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(UPDATE_CONSTRAINT_TEMPLATE);
         setClause.addValue(constraintId);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
@@ -67,7 +67,7 @@ public class DBDeployConstraintDAOImpl implements DeployConstraintDAO {
     @Override
     public UpdateStatement genInsertStatement(DeployConstraintBean deployConstraintBean) {
         SetClause setClause = deployConstraintBean.genSetClause();
-        String clause = String.format(INSERT_CONSTRAINT_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(INSERT_CONSTRAINT_TEMPLATE);
         return new UpdateStatement(clause, setClause.getValueArray());
     }
 
@@ -75,7 +75,7 @@ public class DBDeployConstraintDAOImpl implements DeployConstraintDAO {
     public UpdateStatement genUpdateStatement(
             String constraintId, DeployConstraintBean deployConstraintBean) {
         SetClause setClause = deployConstraintBean.genSetClause();
-        String clause = String.format(UPDATE_CONSTRAINT_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(UPDATE_CONSTRAINT_TEMPLATE);
         setClause.addValue(constraintId);
         return new UpdateStatement(clause, setClause.getValueArray());
     }
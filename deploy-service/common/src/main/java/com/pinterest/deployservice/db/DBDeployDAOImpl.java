@@ -17,6 +17,7 @@ package com.pinterest.deployservice.db;
 
 import com.google.common.collect.ImmutableList;
 import com.pinterest.deployservice.bean.DeployBean;
+import com.pinterest.deployservice.bean.DeployFilterBean;
 import com.pinterest.deployservice.bean.DeployQueryResultBean;
 import com.pinterest.deployservice.bean.SetClause;
 import com.pinterest.deployservice.bean.UpdateStatement;
@@ -56,6 +57,12 @@ public class DBDeployDAOImpl implements DeployDAO {
             "SELECT COUNT(*) FROM deploys "
                     + "INNER JOIN builds ON deploys.build_id=builds.build_id "
                     + "%s";
+    private static final String GET_CAPPED_COUNT_FOR_ALL_DEPLOYMENTS_TEMPLATE =
+            "SELECT COUNT(*) FROM (SELECT 1 FROM deploys %s LIMIT ?) matches";
+    private static final String GET_CAPPED_COUNT_FOR_ALL_DEPLOYMENTS_WITH_COMMIT_TEMPLATE =
+            "SELECT COUNT(*) FROM (SELECT 1 FROM deploys "
+                    + "INNER JOIN builds ON deploys.build_id=builds.build_id "
+                    + "%s LIMIT ?) matches";
     private static final String GET_ACCEPTED_DEPLOYS_TEMPLATE =
             "SELECT * FROM deploys WHERE env_id=? AND deploy_type IN (%s) "
                     + "AND acc_status='ACCEPTED' AND start_date>? AND start_date<? ORDER BY start_date DESC"
@@ -96,65 +103,62 @@ public class DBDeployDAOImpl implements DeployDAO {
         QueryRunner run = new QueryRunner(dataSource);
         ResultSetHandler<List<DeployBean>> h = new BeanListHandler<>(DeployBean.class);
 
-        String queryStr, queryCountStr;
+        String queryTemplate, countTemplate, cappedCountTemplate;
         if (StringUtils.isNotEmpty(filterBean.getFilter().getCommit())) {
             // TODO pretty hacky
             // It is very important to delete the commit from the filter, since we
             // want to return all deploys with commits later than this commit
             filterBean.getFilter().setCommit(null);
-            filterBean.generateClauseAndValues();
-            queryStr =
-                    String.format(
-                            GET_ALL_DEPLOYMENTS_WITH_COMMIT_TEMPLATE, filterBean.getWhereClause());
-            if (filterBean.getWhereClause().contains("LIMIT")) {
-                String[] separateByLimit = filterBean.getWhereClause().split("LIMIT");
-                queryCountStr =
-                        String.format(
-                                GET_COUNT_FOR_ALL_DEPLOYMENTS_WITH_COMMIT_TEMPLATE,
-                                separateByLimit[0]);
-            } else {
-                queryCountStr =
-                        String.format(
-                                GET_COUNT_FOR_ALL_DEPLOYMENTS_WITH_COMMIT_TEMPLATE,
-                                filterBean.getWhereClause());
-            }
+            queryTemplate = GET_ALL_DEPLOYMENTS_WITH_COMMIT_TEMPLATE;
+            countTemplate = GET_COUNT_FOR_ALL_DEPLOYMENTS_WITH_COMMIT_TEMPLATE;
+            cappedCountTemplate = GET_CAPPED_COUNT_FOR_ALL_DEPLOYMENTS_WITH_COMMIT_TEMPLATE;
         } else {
-            filterBean.generateClauseAndValues();
-            queryStr = String.format(GET_ALL_DEPLOYMENTS_TEMPLATE, filterBean.getWhereClause());
-            if (filterBean.getWhereClause().contains("LIMIT")) {
-                String[] separateByLimit = filterBean.getWhereClause().split("LIMIT");
-                queryCountStr =
-                        String.format(GET_COUNT_FOR_ALL_DEPLOYMENTS_TEMPLATE, separateByLimit[0]);
-            } else {
-                queryCountStr =
-                        String.format(
-                                GET_COUNT_FOR_ALL_DEPLOYMENTS_TEMPLATE,
-                                filterBean.getWhereClause());
-            }
+            queryTemplate = GET_ALL_DEPLOYMENTS_TEMPLATE;
+            countTemplate = GET_COUNT_FOR_ALL_DEPLOYMENTS_TEMPLATE;
+            cappedCountTemplate = GET_CAPPED_COUNT_FOR_ALL_DEPLOYMENTS_TEMPLATE;
         }
+        filterBean.generateClauseAndValues();
+        String queryStr = String.format(queryTemplate, filterBean.getWhereClause());
+        DeployFilterBean filter = filterBean.getFilter();
 
         Connection connection = dataSource.getConnection();
         try {
             List<DeployBean> deployBeans =
                     run.query(connection, queryStr, h, filterBean.getValueArray());
-            int len = filterBean.getValueArray().length;
-            Object[] newArr;
-            if (filterBean.getWhereClause().contains("LIMIT")) {
-                newArr = new Object[len - 2];
-                newArr = Arrays.copyOf(filterBean.getValueArray(), len - 2);
+            Long total = null;
+            Integer countLimit = filter.getCountLimit();
+            if (countLimit == null) {
+                total =
+                        run.query(
+                                connection,
+                                String.format(countTemplate, filterBean.getCountClause()),
+                                SingleResultSetHandlerFactory.<Long>newObjectHandler(),
+                                filterBean.getCountValueArray());
+            } else if (countLimit > 0) {
+                // Counting stops at countLimit matches, so a deep search stays cheap and the
+                // total is only a lower bound
+                Object[] countValues = filterBean.getCountValueArray();
+                countValues = Arrays.copyOf(countValues, countValues.length + 1);
+                countValues[countValues.length - 1] = countLimit;
+                total =
+                        run.query(
+                                connection,
+                                String.format(cappedCountTemplate, filterBean.getCountClause()),
+                                SingleResultSetHandlerFactory.<Long>newObjectHandler(),
+                                countValues);
+            }
+
+            boolean truncated;
+            if (filterBean.isFetchingExtraRow()) {
+                truncated = deployBeans.size() > filter.getPageSize();
+                if (truncated) {
+                    deployBeans.remove(deployBeans.size() - 1);
+                }
             } else {
-                newArr = new Object[len];
-                newArr = Arrays.copyOf(filterBean.getValueArray(), len);
+                long maxToReturn = filter.getPageIndex() * filter.getPageSize();
+                truncated = total > maxToReturn;
             }
-            long total =
-                    run.query(
-                            connection,
-                            queryCountStr,
-                            SingleResultSetHandlerFactory.newObjectHandler(),
-                            newArr);
-            long maxToReturn =
-                    filterBean.getFilter().getPageIndex() * filterBean.getFilter().getPageSize();
-            return new DeployQueryResultBean(deployBeans, total, total > maxToReturn);
+            return new DeployQueryResultBean(deployBeans, total, truncated);
         } finally {
             DbUtils.closeQuietly(connection);
         }
@@ -168,7 +172,7 @@ public class DBDeployDAOImpl implements DeployDAO {
     @Override
     public void update(String deployId, DeployBean deployBean) throws Exception {
         SetClause setClause = deployBean.genSetClause();
-        String clause = String.format(UPDATE_DEPLOYMENT_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(UPDATE_DEPLOYMENT_TEMPLATE);
         setClause.addValue(deployId);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
@@ -176,7 +180,7 @@ public class DBDeployDAOImpl implements DeployDAO {
     @Override
     public UpdateStatement genUpdateStatement(String deployId, DeployBean deployBean) {
         SetClause setClause = deployBean.genSetClause();
-        String clause = String.format(UPDATE_DEPLOYMENT_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(UPDATE_DEPLOYMENT_TEMPLATE);
         setClause.addValue(deployId);
         return new UpdateStatement(clause, setClause.getValueArray());
     }
@@ -184,14 +188,14 @@ public class DBDeployDAOImpl implements DeployDAO {
     @Override
     public void insert(DeployBean deployBean) throws Exception {
         SetClause setClause = deployBean.genSetClause();
-        String clause = String.format(INSERT_DEPLOYMENT_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(INSERT_DEPLOYMENT_TEMPLATE);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
 
     @Override
     public UpdateStatement genInsertStatement(DeployBean deployBean) {
         SetClause setClause = deployBean.genSetClause();
-        String clause = String.format(INSERT_DEPLOYMENT_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(INSERT_DEPLOYMENT_TEMPLATE);
         return new UpdateStatement(clause, setClause.getValueArray());
     }
 
@@ -241,7 +245,7 @@ public class DBDeployDAOImpl implements DeployDAO {
     public int updateStateSafely(String deployId, String currentState, DeployBean updateBean)
             throws Exception {
         SetClause setClause = updateBean.genSetClause();
-        String clause = String.format(UPDATE_DEPLOY_SAFELY_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(UPDATE_DEPLOY_SAFELY_TEMPLATE);
         setClause.addValue(deployId);
         setClause.addValue(currentState);
         return new QueryRunner(dataSource).update(clause, setClause.getValueArray());
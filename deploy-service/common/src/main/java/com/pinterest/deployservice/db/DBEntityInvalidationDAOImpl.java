@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.db;
+
+import com.pinterest.deployservice.bean.EntityInvalidationBean;
+import com.pinterest.deployservice.dao.EntityInvalidationDAO;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.dbcp.BasicDataSource;
+import org.apache.commons.dbutils.QueryRunner;
+import org.apache.commons.dbutils.handlers.BeanListHandler;
+import org.apache.commons.dbutils.handlers.ScalarHandler;
+
+public class DBEntityInvalidationDAOImpl implements EntityInvalidationDAO {
+    private static final String INSERT_INVALIDATIONS =
+            "INSERT INTO entity_invalidations (origin, entity_type, entity_id, created) VALUES %s";
+    private static final String GET_INVALIDATIONS_AFTER =
+            "SELECT * FROM entity_invalidations WHERE seq>? ORDER BY seq LIMIT ?";
+    private static final String GET_INVALIDATIONS_BY_SEQS =
+            "SELECT * FROM entity_invalidations WHERE seq IN (%s) ORDER BY seq";
+    private static final String GET_LAST_SEQ = "SELECT MAX(seq) FROM entity_invalidations";
+    private static final String DELETE_INVALIDATIONS_BEFORE =
+            "DELETE FROM entity_invalidations WHERE created<?";
+
+    private BasicDataSource dataSource;
+
+    public DBEntityInvalidationDAOImpl(BasicDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void insertAll(String origin, Collection<EntityInvalidationBean> invalidations, long now)
+            throws Exception {
+        if (invalidations.isEmpty()) {
+            return;
+        }
+        List<Object> values = new ArrayList<>();
+        for (EntityInvalidationBean invalidation : invalidations) {
+            values.add(origin);
+            values.add(invalidation.getEntity_type());
+            values.add(invalidation.getEntity_id());
+            values.add(now);
+        }
+        String rows = String.join(",", Collections.nCopies(invalidations.size(), "(?,?,?,?)"));
+        new QueryRunner(dataSource)
+                .update(String.format(INSERT_INVALIDATIONS, rows), values.toArray());
+    }
+
+    @Override
+    public List<EntityInvalidationBean> getAfter(long afterSeq, int limit) throws Exception {
+        return new QueryRunner(dataSource)
+                .query(
+                        GET_INVALIDATIONS_AFTER,
+                        new BeanListHandler<>(EntityInvalidationBean.class),
+                        afterSeq,
+                        limit);
+    }
+
+    @Override
+    public List<EntityInvalidationBean> getBySeqs(Collection<Long> seqs) throws Exception {
+        if (seqs.isEmpty()) {
+            return new ArrayList<>(); // MySQL doesn't allow IN ()
+        }
+        return new QueryRunner(dataSource)
+                .query(
+                        String.format(
+                                GET_INVALIDATIONS_BY_SEQS,
+                                QueryUtils.genStringPlaceholderList(seqs.size())),
+                        new BeanListHandler<>(EntityInvalidationBean.class),
+                        seqs.toArray());
+    }
+
+    @Override
+    public long getLastSeq() throws Exception {
+        Number seq = new QueryRunner(dataSource).query(GET_LAST_SEQ, new ScalarHandler<Number>());
+        return seq == null ? 0 : seq.longValue();
+    }
+
+    @Override
+    public void deleteBefore(long before) throws Exception {
+        new QueryRunner(dataSource).update(DELETE_INVALIDATIONS_BEFORE, before);
+    }
+}
@@ -43,6 +43,7 @@ public class DBEnvironDAOImpl implements EnvironDAO {
     private static final String SET_EXTERNAL_ID =
             "UPDATE environs SET external_id=? WHERE env_name=? AND stage_name=?";
     private static final String GET_ENV_BY_ID = "SELECT * FROM environs WHERE env_id=?";
+    private static final String GET_ENVS_BY_IDS = "SELECT * FROM environs WHERE env_id IN (%s)";
     private static final String GET_ENV_BY_DEPLOY_ID =
             "SELECT e.* FROM environs e INNER JOIN deploys d ON e.env_id = d.env_id WHERE d.deploy_id=?";
     private static final String GET_ENV_BY_NAME = "SELECT * FROM environs WHERE env_name=?";
@@ -89,6 +90,8 @@ public class DBEnvironDAOImpl implements EnvironDAO {
             "SELECT deploy_id FROM environs WHERE env_state='NORMAL' AND deploy_id IS NOT NULL";
     private static final String GET_ALL_ENV_IDS = "SELECT env_id FROM environs";
     private static final String GET_ALL_ENVS = "SELECT * FROM environs";
+    private static final String GET_ALL_ENV_STATES =
+            "SELECT env_id, deploy_id, env_state, state FROM environs";
     private static final String GET_ALL_SIDECAR_ENVS =
             "SELECT * FROM environs where system_priority > 0";
     private static final String DELETE_SCHEDULE =
@@ -139,14 +142,14 @@ public class DBEnvironDAOImpl implements EnvironDAO {
     @Override
     public void insert(EnvironBean bean) throws Exception {
         SetClause setClause = bean.genSetClause();
-        String clause = String.format(INSERT_ENV_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(INSERT_ENV_TEMPLATE);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
 
     @Override
     public void update(String envId, EnvironBean bean) throws Exception {
         SetClause setClause = bean.genSetClause();
-        String clause = String.format(UPDATE_ENV_BY_ID_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(UPDATE_ENV_BY_ID_TEMPLATE);
         setClause.addValue(envId);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
@@ -154,7 +157,7 @@ public class DBEnvironDAOImpl implements EnvironDAO {
     @Override
     public void update(String envName, String envStage, EnvironBean bean) throws Exception {
         SetClause setClause = bean.genSetClause();
-        String clause = String.format(UPDATE_ENV_BY_STAGE_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(UPDATE_ENV_BY_STAGE_TEMPLATE);
         setClause.addValue(envName);
         setClause.addValue(envStage);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
@@ -163,7 +166,7 @@ public class DBEnvironDAOImpl implements EnvironDAO {
     @Override
     public void updateAll(EnvironBean bean) throws Exception {
         SetClause setClause = bean.genSetClause();
-        String clause = String.format(UPDATE_ALL, setClause.getClause());
+        String clause = setClause.getStatement(UPDATE_ALL);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
 
@@ -171,7 +174,7 @@ public class DBEnvironDAOImpl implements EnvironDAO {
     public void setExternalId(EnvironBean bean, String externalId) throws Exception {
         ResultSetHandler<EnvironBean> h = new BeanHandler<EnvironBean>(EnvironBean.class);
         SetClause setClause = bean.genSetClause();
-        String clause = String.format(SET_EXTERNAL_ID, setClause.getClause());
+        String clause = setClause.getStatement(SET_EXTERNAL_ID);
         String envName = bean.getEnv_name();
         String stageName = bean.getStage_name();
         new QueryRunner(dataSource).update(clause, externalId, envName, stageName);
@@ -180,7 +183,7 @@ public class DBEnvironDAOImpl implements EnvironDAO {
     @Override
     public UpdateStatement genUpdateStatement(String envId, EnvironBean bean) {
         SetClause setClause = bean.genSetClause();
-        String clause = String.format(UPDATE_ENV_BY_ID_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(UPDATE_ENV_BY_ID_TEMPLATE);
         setClause.addValue(envId);
         return new UpdateStatement(clause, setClause.getValueArray());
     }
@@ -218,6 +221,24 @@ public class DBEnvironDAOImpl implements EnvironDAO {
         return new QueryRunner(dataSource).query(GET_ENV_BY_ID, h, envId);
     }
 
+    @Override
+    public List<EnvironBean> getByIds(Collection<String> envIds) throws Exception {
+        if (envIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        ResultSetHandler<List<EnvironBean>> h = new BeanListHandler<>(EnvironBean.class);
+        List<EnvironBean> envs =
+                new QueryRunner(dataSource)
+                        .query(
+                                String.format(
+                                        GET_ENVS_BY_IDS,
+                                        QueryUtils.genStringPlaceholderList(envIds.size())),
+                                h,
+                                envIds.toArray());
+        envs.sort(Comparator.comparing(EnvironBean::getEnv_id));
+        return envs;
+    }
+
     @Override
     public EnvironBean getByDeployId(String deployId) throws SQLException {
         ResultSetHandler<EnvironBean> h = new BeanHandler<>(EnvironBean.class);
@@ -357,6 +378,12 @@ public class DBEnvironDAOImpl implements EnvironDAO {
         return new QueryRunner(dataSource).query(GET_ALL_ENVS, h);
     }
 
+    @Override
+    public List<EnvironBean> getAllEnvStates() throws Exception {
+        ResultSetHandler<List<EnvironBean>> h = new BeanListHandler<>(EnvironBean.class);
+        return new QueryRunner(dataSource).query(GET_ALL_ENV_STATES, h);
+    }
+
     @Override
     public List<EnvironBean> getAllSidecarEnvs() throws Exception {
         ResultSetHandler<List<EnvironBean>> h = new BeanListHandler<>(EnvironBean.class);
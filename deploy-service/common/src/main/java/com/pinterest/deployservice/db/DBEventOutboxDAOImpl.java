@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.db;
+
+import com.pinterest.deployservice.bean.EventOutboxBean;
+import com.pinterest.deployservice.bean.UpdateStatement;
+import com.pinterest.deployservice.dao.EventOutboxDAO;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.apache.commons.dbcp.BasicDataSource;
+import org.apache.commons.dbutils.QueryRunner;
+import org.apache.commons.dbutils.handlers.BeanListHandler;
+import org.apache.commons.dbutils.handlers.ScalarHandler;
+import org.apache.commons.lang3.StringUtils;
+
+public class DBEventOutboxDAOImpl implements EventOutboxDAO {
+    private static final String INSERT_EVENTS =
+            "INSERT INTO event_outbox (source, detail_type, detail, created) VALUES %s";
+    // Stamped by the database, so that the relay compares it with one clock
+    private static final String CREATED_NOW = "ROUND(UNIX_TIMESTAMP(NOW(3))*1000)";
+    private static final String GET_EVENTS_AFTER =
+            "SELECT * FROM event_outbox WHERE seq>? ORDER BY seq LIMIT ?";
+    private static final String GET_EVENTS_BY_SEQS =
+            "SELECT * FROM event_outbox WHERE seq IN (%s) ORDER BY seq";
+    private static final String GET_CURRENT_TIME = "SELECT " + CREATED_NOW;
+    private static final String GET_HIGH_WATER_MARK =
+            "SELECT seq FROM event_outbox_marks WHERE relay=?";
+    private static final String SET_HIGH_WATER_MARK =
+            "INSERT INTO event_outbox_marks (relay, seq) VALUES (?,?) "
+                    + "ON DUPLICATE KEY UPDATE seq=GREATEST(seq, VALUES(seq))";
+    private static final String DELETE_EVENTS_BEFORE =
+            "DELETE FROM event_outbox WHERE created<? AND seq<=?";
+
+    private BasicDataSource dataSource;
+
+    public DBEventOutboxDAOImpl(BasicDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public UpdateStatement genInsertAllStatement(Collection<EventOutboxBean> events) {
+        List<Object> values = new ArrayList<>(events.size() * 3);
+        for (EventOutboxBean event : events) {
+            values.add(event.getSource());
+            values.add(event.getDetail_type());
+            values.add(event.getDetail());
+        }
+        String clause =
+                String.format(
+                        INSERT_EVENTS,
+                        StringUtils.repeat("(?,?,?," + CREATED_NOW + ")", ",", events.size()));
+        return new UpdateStatement(clause, values.toArray());
+    }
+
+    @Override
+    public List<EventOutboxBean> getAfter(long afterSeq, int limit) throws Exception {
+        return new QueryRunner(dataSource)
+                .query(
+                        GET_EVENTS_AFTER,
+                        new BeanListHandler<>(EventOutboxBean.class),
+                        afterSeq,
+                        limit);
+    }
+
+    @Override
+    public List<EventOutboxBean> getBySeqs(Collection<Long> seqs) throws Exception {
+        if (seqs.isEmpty()) {
+            return new ArrayList<>(); // MySQL doesn't allow IN ()
+        }
+        return new QueryRunner(dataSource)
+                .query(
+                        String.format(
+                                GET_EVENTS_BY_SEQS,
+                                QueryUtils.genStringPlaceholderList(seqs.size())),
+                        new BeanListHandler<>(EventOutboxBean.class),
+                        seqs.toArray());
+    }
+
+    @Override
+    public long getCurrentTime() throws Exception {
+        return new QueryRunner(dataSource)
+                .query(GET_CURRENT_TIME, new ScalarHandler<Number>())
+                .longValue();
+    }
+
+    @Override
+    public long getHighWaterMark(String relay) throws Exception {
+        Number seq =
+                new QueryRunner(dataSource)
+                        .query(GET_HIGH_WATER_MARK, new ScalarHandler<Number>(), relay);
+        return seq == null ? 0 : seq.longValue();
+    }
+
+    @Override
+    public void setHighWaterMark(String relay, long seq) throws Exception {
+        new QueryRunner(dataSource).update(SET_HIGH_WATER_MARK, relay, seq);
+    }
+
+    @Override
+    public void deleteBefore(long before, long maxSeq) throws Exception {
+        new QueryRunner(dataSource).update(DELETE_EVENTS_BEFORE, before, maxSeq);
+    }
+}
@@ -47,6 +47,8 @@ public class DBGroupRolesDAOImpl implements GroupRolesDAO {
             "SELECT * FROM groups_and_roles WHERE group_name =? "
                     + "AND resource_id=? AND resource_type=? ORDER BY role";
 
+    private static final String GET_ALL = "SELECT * FROM groups_and_roles";
+
     private BasicDataSource dataSource;
 
     public DBGroupRolesDAOImpl(BasicDataSource dataSource) {
@@ -56,7 +58,7 @@ public class DBGroupRolesDAOImpl implements GroupRolesDAO {
     @Override
     public void insert(GroupRolesBean bean) throws Exception {
         SetClause setClause = bean.genSetClause();
-        String clause = String.format(INSERT_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(INSERT_TEMPLATE);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
 
@@ -75,7 +77,7 @@ public class DBGroupRolesDAOImpl implements GroupRolesDAO {
             AuthZResource.Type resourceType)
             throws Exception {
         SetClause setClause = bean.genSetClause();
-        String clause = String.format(UPDATE_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(UPDATE_TEMPLATE);
         setClause.addValue(groupName);
         setClause.addValue(resourceId);
         setClause.addValue(resourceType.toString());
@@ -97,4 +99,10 @@ public class DBGroupRolesDAOImpl implements GroupRolesDAO {
         return new QueryRunner(dataSource)
                 .query(GET_BY_RESOURCE, h, resourceId, resourceType.toString());
     }
+
+    @Override
+    public List<GroupRolesBean> getAll() throws Exception {
+        ResultSetHandler<List<GroupRolesBean>> h = new BeanListHandler<>(GroupRolesBean.class);
+        return new QueryRunner(dataSource).query(GET_ALL, h);
+    }
 }
@@ -19,16 +19,21 @@ import com.pinterest.deployservice.bean.HostAgentBean;
 import com.pinterest.deployservice.bean.SetClause;
 import com.pinterest.deployservice.dao.HostAgentDAO;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import org.apache.commons.dbcp.BasicDataSource;
 import org.apache.commons.dbutils.QueryRunner;
 import org.apache.commons.dbutils.ResultSetHandler;
 import org.apache.commons.dbutils.handlers.BeanHandler;
 import org.apache.commons.dbutils.handlers.BeanListHandler;
+import org.apache.commons.lang3.StringUtils;
 
 public class DBHostAgentDAOImpl implements HostAgentDAO {
     private static final String INSERT_HOST_TEMPLATE =
-            "INSERT INTO hosts_and_agents SET %s ON DUPLICATE KEY UPDATE %s";
+            "INSERT INTO hosts_and_agents SET %s ON DUPLICATE KEY UPDATE "
+                    + HostAgentBean.UPDATE_CLAUSE;
     private static final String UPDATE_HOST_BY_ID =
             "UPDATE hosts_and_agents SET %s WHERE host_id=?";
     private static final String DELETE_HOST_BY_ID = "DELETE FROM hosts_and_agents WHERE host_id=?";
@@ -46,6 +51,11 @@ public class DBHostAgentDAOImpl implements HostAgentDAO {
             "SELECT * FROM hosts_statuses WHERE agent_version=? ORDER BY host_id LIMIT ?,?";
     private static final String TOUCH_LAST_UPDATE =
             "UPDATE hosts_and_agents SET last_update=? WHERE host_id=?";
+    private static final String TOUCH_LAST_UPDATES =
+            "UPDATE hosts_and_agents SET last_update=? WHERE host_id IN (%s)";
+    private static final String TOUCH_LAST_UPDATES_CASE =
+            "UPDATE hosts_and_agents SET last_update=GREATEST(last_update, CASE host_id %s END) "
+                    + "WHERE host_id IN (%s)";
     private static final String GET_DISTINCT_HOSTS_COUNT =
             "SELECT COUNT(DISTINCT host_id) FROM hosts_and_agents";
 
@@ -58,16 +68,14 @@ public class DBHostAgentDAOImpl implements HostAgentDAO {
     @Override
     public void insert(HostAgentBean hostAgentBean) throws Exception {
         SetClause setClause = hostAgentBean.genSetClause();
-        String clause =
-                String.format(
-                        INSERT_HOST_TEMPLATE, setClause.getClause(), HostAgentBean.UPDATE_CLAUSE);
+        String clause = setClause.getStatement(INSERT_HOST_TEMPLATE);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
 
     @Override
     public void update(String id, HostAgentBean bean) throws Exception {
         SetClause setClause = bean.genSetClause();
-        String clause = String.format(UPDATE_HOST_BY_ID, setClause.getClause());
+        String clause = setClause.getStatement(UPDATE_HOST_BY_ID);
         setClause.addValue(id);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
@@ -122,6 +130,39 @@ public class DBHostAgentDAOImpl implements HostAgentDAO {
         new QueryRunner(dataSource).update(TOUCH_LAST_UPDATE, lastUpdate, hostId);
     }
 
+    @Override
+    public void touchLastUpdates(Collection<String> hostIds, long lastUpdate) throws Exception {
+        if (hostIds.isEmpty()) {
+            return;
+        }
+        String clause =
+                String.format(
+                        TOUCH_LAST_UPDATES, QueryUtils.genStringPlaceholderList(hostIds.size()));
+        List<Object> values = new ArrayList<>(hostIds.size() + 1);
+        values.add(lastUpdate);
+        values.addAll(hostIds);
+        new QueryRunner(dataSource).update(clause, values.toArray());
+    }
+
+    @Override
+    public void touchLastUpdates(Map<String, Long> lastUpdates) throws Exception {
+        if (lastUpdates.isEmpty()) {
+            return;
+        }
+        String clause =
+                String.format(
+                        TOUCH_LAST_UPDATES_CASE,
+                        StringUtils.repeat("WHEN ? THEN ?", " ", lastUpdates.size()),
+                        QueryUtils.genStringPlaceholderList(lastUpdates.size()));
+        List<Object> values = new ArrayList<>(lastUpdates.size() * 3);
+        for (Map.Entry<String, Long> entry : lastUpdates.entrySet()) {
+            values.add(entry.getKey());
+            values.add(entry.getValue());
+        }
+        values.addAll(lastUpdates.keySet());
+        new QueryRunner(dataSource).update(clause, values.toArray());
+    }
+
     @Override
     public long getDistinctHostsCount() throws SQLException {
         Long n =
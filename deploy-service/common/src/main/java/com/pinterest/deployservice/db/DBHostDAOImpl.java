@@ -27,7 +27,10 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.commons.dbcp.BasicDataSource;
@@ -42,7 +45,7 @@ public class DBHostDAOImpl implements HostDAO {
                     + "LEFT JOIN agent_errors ON agents.host_name=agent_errors.host_name WHERE hosts.host_id=?";
     private static final String UPDATE_HOST_BY_ID = "UPDATE hosts SET %s WHERE host_id=?";
     private static final String INSERT_HOST_TEMPLATE =
-            "INSERT INTO hosts SET %s ON DUPLICATE KEY UPDATE %s";
+            "INSERT INTO hosts SET %s ON DUPLICATE KEY UPDATE " + HostBean.UPDATE_CLAUSE;
     private static final String INSERT_UPDATE_TEMPLATE =
             "INSERT INTO hosts %s VALUES %s ON DUPLICATE KEY UPDATE ip=?, last_update=?, account_id=?, "
                     + "state=IF(state!=? AND state!=? AND state!=?, VALUES(state), state), "
@@ -65,6 +68,8 @@ public class DBHostDAOImpl implements HostDAO {
             "SELECT hosts.*, hosts_and_agents.normandie_status, hosts_and_agents.knox_status FROM hosts LEFT JOIN hosts_and_agents ON hosts.host_id = hosts_and_agents.host_id WHERE hosts.host_name=?";
     private static final String GET_HOST_BY_HOSTID =
             "SELECT * FROM hosts WHERE host_id=? ORDER BY create_date";
+    private static final String GET_HOSTS_BY_HOSTIDS =
+            "SELECT * FROM hosts WHERE host_id IN (%s) ORDER BY create_date";
     private static final String GET_HOSTS_BY_STATES =
             "SELECT * FROM hosts WHERE state in (?, ?, ?) GROUP BY host_id ORDER BY last_update";
     private static final String GET_GROUP_NAMES_BY_HOST =
@@ -79,12 +84,25 @@ public class DBHostDAOImpl implements HostDAO {
             "SELECT DISTINCT host_id FROM hosts WHERE group_name=?";
     private static final String GET_HOSTS_BY_ENVID =
             "SELECT h.* FROM hosts h INNER JOIN groups_and_envs ge ON ge.group_name = h.group_name WHERE ge.env_id=? UNION DISTINCT SELECT hs.* FROM hosts hs INNER JOIN hosts_and_envs he ON he.host_name = hs.host_name WHERE he.env_id=?";
+    // Each side of the union is cut to the page on its own, so neither reads the whole env
+    private static final String GET_HOST_PAGE_BY_ENVID =
+            "(SELECT h.* FROM hosts h INNER JOIN groups_and_envs ge ON ge.group_name = h.group_name "
+                    + "WHERE ge.env_id=? AND (h.host_id>? OR (h.host_id=? AND h.group_name>?))%1$s "
+                    + "ORDER BY h.host_id, h.group_name LIMIT ?) UNION DISTINCT "
+                    + "(SELECT hs.* FROM hosts hs INNER JOIN hosts_and_envs he ON he.host_name = hs.host_name "
+                    + "WHERE he.env_id=? AND (hs.host_id>? OR (hs.host_id=? AND hs.group_name>?))%2$s "
+                    + "ORDER BY hs.host_id, hs.group_name LIMIT ?) "
+                    + "ORDER BY host_id, group_name LIMIT ?";
     private static final String GET_HOST_BY_ENVID_AND_HOSTID =
             "SELECT DISTINCT e.* FROM hosts e INNER JOIN groups_and_envs ge ON ge.group_name = e.group_name WHERE ge.env_id=? AND e.host_id=?";
     private static final String GET_HOST_BY_ENVID_AND_HOSTNAME1 =
             "SELECT hs.*, ha.normandie_status, ha.knox_status FROM hosts hs INNER JOIN groups_and_envs ge ON ge.group_name = hs.group_name LEFT JOIN hosts_and_agents ha ON ha.host_id = hs.host_id WHERE ge.env_id=? AND hs.host_name=?";
     private static final String GET_HOST_BY_ENVID_AND_HOSTNAME2 =
             "SELECT hs.*, ha.normandie_status, ha.knox_status FROM hosts hs INNER JOIN hosts_and_envs he ON he.host_name = hs.host_name LEFT JOIN hosts_and_agents ha ON ha.host_id = hs.host_id WHERE he.env_id=? AND he.host_name=?";
+    private static final String GET_HOSTS_BY_ENVID_AND_HOSTNAMES1 =
+            "SELECT hs.*, ha.normandie_status, ha.knox_status FROM hosts hs INNER JOIN groups_and_envs ge ON ge.group_name = hs.group_name LEFT JOIN hosts_and_agents ha ON ha.host_id = hs.host_id WHERE ge.env_id=? AND hs.host_name IN (%s)";
+    private static final String GET_HOSTS_BY_ENVID_AND_HOSTNAMES2 =
+            "SELECT hs.*, ha.normandie_status, ha.knox_status FROM hosts hs INNER JOIN hosts_and_envs he ON he.host_name = hs.host_name LEFT JOIN hosts_and_agents ha ON ha.host_id = hs.host_id WHERE he.env_id=? AND he.host_name IN (%s)";
     private static final String GET_RETIRED_HOSTIDS_BY_GROUP =
             "SELECT DISTINCT host_id FROM hosts WHERE (can_retire=1 OR can_retire=3) AND group_name=? AND state not in (?,?,?) ORDER BY can_retire";
     private static final String GET_RETIRED_AND_FAILED_HOSTIDS_BY_GROUP =
@@ -149,8 +167,7 @@ public class DBHostDAOImpl implements HostDAO {
     @Override
     public void insert(HostBean hostBean) throws Exception {
         SetClause setClause = hostBean.genSetClause();
-        String clause =
-                String.format(INSERT_HOST_TEMPLATE, setClause.getClause(), HostBean.UPDATE_CLAUSE);
+        String clause = setClause.getStatement(INSERT_HOST_TEMPLATE);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
 
@@ -255,6 +272,21 @@ public class DBHostDAOImpl implements HostDAO {
         return new QueryRunner(dataSource).query(GET_HOST_BY_HOSTID, h, hostId);
     }
 
+    @Override
+    public List<HostBean> getHostsByHostIds(Collection<String> hostIds) throws Exception {
+        if (hostIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        ResultSetHandler<List<HostBean>> h = new BeanListHandler<>(HostBean.class);
+        return new QueryRunner(dataSource)
+                .query(
+                        String.format(
+                                GET_HOSTS_BY_HOSTIDS,
+                                QueryUtils.genStringPlaceholderList(hostIds.size())),
+                        h,
+                        hostIds.toArray());
+    }
+
     @Override
     public List<String> getActiveHostIdsByHostIds(Collection<String> hostIds) throws Exception {
         String params = hostIds.stream().map(it -> "?").collect(Collectors.joining(","));
@@ -306,7 +338,7 @@ public class DBHostDAOImpl implements HostDAO {
     @Override
     public void updateHostById(String id, HostBean bean) throws Exception {
         SetClause setClause = bean.genSetClause();
-        String clause = String.format(UPDATE_HOST_BY_ID, setClause.getClause());
+        String clause = setClause.getStatement(UPDATE_HOST_BY_ID);
         setClause.addValue(id);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
@@ -317,6 +349,33 @@ public class DBHostDAOImpl implements HostDAO {
         return new QueryRunner(dataSource).query(GET_HOSTS_BY_ENVID, h, envId, envId);
     }
 
+    @Override
+    public List<HostBean> getPageByEnvId(
+            String envId, HostState state, String afterHostId, String afterGroupName, int limit)
+            throws Exception {
+        String hostId = afterHostId == null ? "" : afterHostId;
+        String groupName = afterHostId == null || afterGroupName == null ? "" : afterGroupName;
+        List<Object> params = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            params.add(envId);
+            params.add(hostId);
+            params.add(hostId);
+            params.add(groupName);
+            if (state != null) {
+                params.add(state.toString());
+            }
+            params.add(limit);
+        }
+        params.add(limit);
+        String sql =
+                state == null
+                        ? String.format(GET_HOST_PAGE_BY_ENVID, "", "")
+                        : String.format(
+                                GET_HOST_PAGE_BY_ENVID, " AND h.state=?", " AND hs.state=?");
+        ResultSetHandler<List<HostBean>> h = new BeanListHandler<>(HostBean.class);
+        return new QueryRunner(dataSource).query(sql, h, params.toArray());
+    }
+
     @Override
     public HostBean getByEnvIdAndHostId(String envId, String hostId) throws Exception {
         ResultSetHandler<HostBean> h = new BeanHandler<>(HostBean.class);
@@ -338,6 +397,56 @@ public class DBHostDAOImpl implements HostDAO {
         return hostBeans;
     }
 
+    @Override
+    public Collection<HostBeanWithStatuses> getByEnvIdAndHostNames(
+            String envId, Collection<String> hostNames) throws Exception {
+        Map<String, HostBeanWithStatuses> hostsByName = new LinkedHashMap<>();
+        if (hostNames.isEmpty()) {
+            return new ArrayList<>();
+        }
+        ResultSetHandler<List<HostBeanWithStatuses>> h =
+                new BeanListHandler<>(HostBeanWithStatuses.class);
+        QueryRunner runner = new QueryRunner(dataSource);
+        for (HostBeanWithStatuses host :
+                runner.query(
+                        String.format(
+                                GET_HOSTS_BY_ENVID_AND_HOSTNAMES1,
+                                QueryUtils.genStringPlaceholderList(hostNames.size())),
+                        h,
+                        hostNamesParams(envId, hostNames))) {
+            hostsByName.putIfAbsent(host.getHost_name(), host);
+        }
+        // Like getByEnvIdAndHostName, fall back to hosts_and_envs for the names not found
+        List<String> missing = new ArrayList<>();
+        for (String hostName : hostNames) {
+            if (!hostsByName.containsKey(hostName)) {
+                missing.add(hostName);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (HostBeanWithStatuses host :
+                    runner.query(
+                            String.format(
+                                    GET_HOSTS_BY_ENVID_AND_HOSTNAMES2,
+                                    QueryUtils.genStringPlaceholderList(missing.size())),
+                            h,
+                            hostNamesParams(envId, missing))) {
+                hostsByName.putIfAbsent(host.getHost_name(), host);
+            }
+        }
+        return new ArrayList<>(hostsByName.values());
+    }
+
+    private static Object[] hostNamesParams(String envId, Collection<String> hostNames) {
+        Object[] params = new Object[hostNames.size() + 1];
+        params[0] = envId;
+        int i = 1;
+        for (String hostName : hostNames) {
+            params[i++] = hostName;
+        }
+        return params;
+    }
+
     @Override
     public Collection<String> getToBeRetiredHostIdsByGroup(String groupName) throws Exception {
         return new QueryRunner(dataSource)
@@ -19,8 +19,9 @@ import com.google.common.collect.ImmutableList;
 import com.pinterest.deployservice.bean.HostTagBean;
 import com.pinterest.deployservice.bean.HostTagInfo;
 import com.pinterest.deployservice.bean.SetClause;
-import com.pinterest.deployservice.bean.UpdateStatement;
 import com.pinterest.deployservice.dao.HostTagDAO;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import org.apache.commons.dbcp.BasicDataSource;
 import org.apache.commons.dbutils.QueryRunner;
@@ -28,11 +29,18 @@ import org.apache.commons.dbutils.ResultSetHandler;
 import org.apache.commons.dbutils.RowProcessor;
 import org.apache.commons.dbutils.handlers.BeanHandler;
 import org.apache.commons.dbutils.handlers.BeanListHandler;
+import org.apache.commons.lang3.StringUtils;
 
 public class DBHostTagDAOImpl implements HostTagDAO {
 
     private static final String INSERT_HOST_TAG_TEMPLATE =
-            "INSERT INTO host_tags SET %s ON DUPLICATE KEY UPDATE %s";
+            "INSERT INTO host_tags SET %s ON DUPLICATE KEY UPDATE " + HostTagBean.UPDATE_CLAUSE;
+    // create_date is assigned before tag_value, so that it still compares against the old value
+    private static final String INSERT_HOST_TAGS_TEMPLATE =
+            "INSERT INTO host_tags (host_id, env_id, tag_name, tag_value, create_date) VALUES %s "
+                    + "ON DUPLICATE KEY UPDATE "
+                    + "create_date=IF(tag_value <=> VALUES(tag_value), create_date, VALUES(create_date)),"
+                    + "tag_value=VALUES(tag_value)";
     private static final String DELETE_HOST_TAG_BY_ENV_ID_AND_HOST_ID =
             "DELETE FROM host_tags WHERE env_id = ? AND host_id IN (%s) ";
     private static final String DELETE_HOST_TAG_BY_ENV_ID_AND_TAG_NAME =
@@ -63,19 +71,28 @@ public class DBHostTagDAOImpl implements HostTagDAO {
     @Override
     public void insertOrUpdate(HostTagBean hostTagBean) throws Exception {
         SetClause setClause = hostTagBean.genSetClause();
-        String clause =
-                String.format(
-                        INSERT_HOST_TAG_TEMPLATE, setClause.getClause(), HostTagBean.UPDATE_CLAUSE);
+        String clause = setClause.getStatement(INSERT_HOST_TAG_TEMPLATE);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
 
     @Override
-    public UpdateStatement genInsertOrUpdate(HostTagBean hostTagBean) {
-        SetClause setClause = hostTagBean.genSetClause();
+    public void insertOrUpdateAll(Collection<HostTagBean> hostTagBeans) throws Exception {
+        if (hostTagBeans.isEmpty()) {
+            return;
+        }
         String clause =
                 String.format(
-                        INSERT_HOST_TAG_TEMPLATE, setClause.getClause(), HostTagBean.UPDATE_CLAUSE);
-        return new UpdateStatement(clause, setClause.getValueArray());
+                        INSERT_HOST_TAGS_TEMPLATE,
+                        StringUtils.repeat("(?,?,?,?,?)", ",", hostTagBeans.size()));
+        List<Object> values = new ArrayList<>(hostTagBeans.size() * 5);
+        for (HostTagBean hostTagBean : hostTagBeans) {
+            values.add(hostTagBean.getHost_id());
+            values.add(hostTagBean.getEnv_id());
+            values.add(hostTagBean.getTag_name());
+            values.add(hostTagBean.getTag_value());
+            values.add(hostTagBean.getCreate_date());
+        }
+        new QueryRunner(dataSource).update(clause, values.toArray());
     }
 
     @Override
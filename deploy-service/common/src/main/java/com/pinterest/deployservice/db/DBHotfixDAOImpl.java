@@ -49,14 +49,14 @@ public class DBHotfixDAOImpl implements HotfixDAO {
     @Override
     public void insert(HotfixBean bean) throws Exception {
         SetClause setClause = bean.genSetClause();
-        String clause = String.format(INSERT_HOTFIX_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(INSERT_HOTFIX_TEMPLATE);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
 
     @Override
     public void update(String hotfix_id, HotfixBean bean) throws Exception {
         SetClause setClause = bean.genSetClause();
-        String clause = String.format(UPDATE_HOTFIX_BY_ID_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(UPDATE_HOTFIX_BY_ID_TEMPLATE);
         LOG.debug("Mysql update clause: " + clause);
         Object[] values = setClause.getValueArray();
         for (Object v : values) {
@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.db;
+
+import com.pinterest.deployservice.common.CommonUtils;
+import com.pinterest.deployservice.dao.LockDAO;
+import org.apache.commons.dbcp.BasicDataSource;
+import org.apache.commons.dbutils.QueryRunner;
+
+/**
+ * Compare-and-set on the {@code locks} table. Every statement runs on its own pooled connection in
+ * autocommit mode, so nothing is held between acquiring and releasing a lease.
+ */
+public class DBLockDAOImpl implements LockDAO {
+    private static final String INSERT_LOCK =
+            "INSERT IGNORE INTO locks (lock_name, owner, expires_at) VALUES (?,?,?)";
+    private static final String TAKE_OVER_EXPIRED_LOCK =
+            "UPDATE locks SET owner=?, expires_at=? WHERE lock_name=? AND expires_at<?";
+    private static final String RENEW_LOCK =
+            "UPDATE locks SET expires_at=? WHERE lock_name=? AND owner=?";
+    private static final String DELETE_LOCK = "DELETE FROM locks WHERE lock_name=? AND owner=?";
+
+    private BasicDataSource dataSource;
+
+    public DBLockDAOImpl(BasicDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    // Same hashing as GET_LOCK in DBUtilDAOImpl, keeps arbitrary names within the column size
+    private static String hashLockName(String lockName) {
+        return CommonUtils.getShaHex(lockName.getBytes());
+    }
+
+    @Override
+    public boolean tryAcquire(String lockName, String owner, long now, long expiresAt)
+            throws Exception {
+        String hashedName = hashLockName(lockName);
+        QueryRunner runner = new QueryRunner(dataSource);
+        if (runner.update(INSERT_LOCK, hashedName, owner, expiresAt) == 1) {
+            return true;
+        }
+        return runner.update(TAKE_OVER_EXPIRED_LOCK, owner, expiresAt, hashedName, now) == 1;
+    }
+
+    @Override
+    public boolean renew(String lockName, String owner, long expiresAt) throws Exception {
+        return new QueryRunner(dataSource)
+                        .update(RENEW_LOCK, expiresAt, hashLockName(lockName), owner)
+                == 1;
+    }
+
+    @Override
+    public void release(String lockName, String owner) throws Exception {
+        new QueryRunner(dataSource).update(DELETE_LOCK, hashLockName(lockName), owner);
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.db;
+
+import com.pinterest.deployservice.dao.MemberDAO;
+import java.util.List;
+import org.apache.commons.dbcp.BasicDataSource;
+import org.apache.commons.dbutils.QueryRunner;
+import org.apache.commons.dbutils.handlers.ColumnListHandler;
+
+public class DBMemberDAOImpl implements MemberDAO {
+    private static final String HEARTBEAT =
+            "INSERT INTO service_members (group_name, member_id, host_name, last_heartbeat) "
+                    + "VALUES (?,?,?,?) ON DUPLICATE KEY UPDATE "
+                    + "host_name=VALUES(host_name), last_heartbeat=VALUES(last_heartbeat)";
+    private static final String GET_ACTIVE_MEMBERS =
+            "SELECT member_id FROM service_members WHERE group_name=? AND last_heartbeat>=? "
+                    + "ORDER BY member_id";
+    private static final String DELETE_EXPIRED_MEMBERS =
+            "DELETE FROM service_members WHERE group_name=? AND last_heartbeat<?";
+    private static final String DELETE_MEMBER =
+            "DELETE FROM service_members WHERE group_name=? AND member_id=?";
+
+    private BasicDataSource dataSource;
+
+    public DBMemberDAOImpl(BasicDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void heartbeat(String groupName, String memberId, String hostName, long now)
+            throws Exception {
+        new QueryRunner(dataSource).update(HEARTBEAT, groupName, memberId, hostName, now);
+    }
+
+    @Override
+    public List<String> getActiveMembers(String groupName, long since) throws Exception {
+        return new QueryRunner(dataSource)
+                .query(GET_ACTIVE_MEMBERS, new ColumnListHandler<String>(), groupName, since);
+    }
+
+    @Override
+    public void deleteExpired(String groupName, long before) throws Exception {
+        new QueryRunner(dataSource).update(DELETE_EXPIRED_MEMBERS, groupName, before);
+    }
+
+    @Override
+    public void delete(String groupName, String memberId) throws Exception {
+        new QueryRunner(dataSource).update(DELETE_MEMBER, groupName, memberId);
+    }
+}
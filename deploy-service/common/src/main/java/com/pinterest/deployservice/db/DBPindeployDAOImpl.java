@@ -50,7 +50,7 @@ public class DBPindeployDAOImpl implements PindeployDAO {
     @Override
     public void insertOrUpdate(PindeployBean pindeployBean) throws Exception {
         SetClause setClause = pindeployBean.genSetClause();
-        String clause = String.format(INSERT_OR_UPDATE_PINDEPLOY, setClause.getClause());
+        String clause = setClause.getStatement(INSERT_OR_UPDATE_PINDEPLOY);
         setClause.addValue(pindeployBean.getPipeline());
         setClause.addValue(pindeployBean.getIs_pindeploy());
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
@@ -61,14 +61,14 @@ public class DBPromoteDAOImpl implements PromoteDAO {
     @Override
     public void insert(PromoteBean promoteBean) throws Exception {
         SetClause setClause = promoteBean.genSetClause();
-        String clause = String.format(INSERT_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(INSERT_TEMPLATE);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
 
     @Override
     public void update(String envId, PromoteBean promoteBean) throws Exception {
         SetClause setClause = promoteBean.genSetClause();
-        String clause = String.format(UPDATE_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(UPDATE_TEMPLATE);
         setClause.addValue(envId);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
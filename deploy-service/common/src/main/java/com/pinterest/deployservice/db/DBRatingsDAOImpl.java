@@ -43,7 +43,7 @@ public class DBRatingsDAOImpl implements RatingDAO {
     @Override
     public void insert(RatingBean bean) throws Exception {
         SetClause setClause = bean.genSetClause();
-        String clause = String.format(INSERT_RATING_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(INSERT_RATING_TEMPLATE);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
 
@@ -41,14 +41,14 @@ public class DBScheduleDAOImpl implements ScheduleDAO {
     @Override
     public void insert(ScheduleBean scheduleBean) throws Exception {
         SetClause setClause = scheduleBean.genSetClause();
-        String clause = String.format(INSERT_SCHEDULE, setClause.getClause());
+        String clause = setClause.getStatement(INSERT_SCHEDULE);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
 
     @Override
     public void update(ScheduleBean scheduleBean, String scheduleId) throws Exception {
         SetClause setClause = scheduleBean.genSetClause();
-        String clause = String.format(UPDATE_SCHEDULE, setClause.getClause());
+        String clause = setClause.getStatement(UPDATE_SCHEDULE);
         setClause.addValue(scheduleId);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
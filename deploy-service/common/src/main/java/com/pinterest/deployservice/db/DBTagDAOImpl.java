@@ -60,7 +60,7 @@ public class DBTagDAOImpl implements TagDAO {
 
     public void insert(TagBean tagInfo) throws Exception {
         SetClause setClause = tagInfo.genSetClause();
-        String clause = String.format(INSERT_TAG_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(INSERT_TAG_TEMPLATE);
         new QueryRunner(basicDataSource).update(clause, setClause.getValueArray());
     }
 
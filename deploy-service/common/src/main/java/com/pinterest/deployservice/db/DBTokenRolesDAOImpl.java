@@ -68,7 +68,7 @@ public class DBTokenRolesDAOImpl implements TokenRolesDAO {
     @Override
     public void insert(TokenRolesBean bean) throws Exception {
         SetClause setClause = bean.genSetClause();
-        String clause = String.format(INSERT_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(INSERT_TEMPLATE);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
 
@@ -87,7 +87,7 @@ public class DBTokenRolesDAOImpl implements TokenRolesDAO {
             AuthZResource.Type resourceType)
             throws Exception {
         SetClause setClause = bean.genSetClause();
-        String clause = String.format(UPDATE_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(UPDATE_TEMPLATE);
         setClause.addValue(userName);
         setClause.addValue(resourceId);
         setClause.addValue(resourceType.toString());
@@ -30,7 +30,8 @@ import org.apache.commons.dbutils.handlers.BeanListHandler;
 public class DBUserRolesDAOImpl implements UserRolesDAO {
 
     private static final String INSERT_TEMPLATE =
-            "INSERT INTO users_and_roles SET %s ON DUPLICATE KEY UPDATE %s";
+            "INSERT INTO users_and_roles SET %s ON DUPLICATE KEY UPDATE "
+                    + UserRolesBean.UPDATE_CLAUSE;
 
     private static final String DELETE_TEMPLATE =
             "DELETE FROM users_and_roles WHERE user_name=? AND resource_id=? AND resource_type=?";
@@ -44,6 +45,8 @@ public class DBUserRolesDAOImpl implements UserRolesDAO {
     private static final String GET_BY_NAME_AND_RESOURCE =
             "SELECT * FROM users_and_roles WHERE user_name =? AND resource_id=? AND resource_type=? ORDER BY role";
 
+    private static final String GET_ALL = "SELECT * FROM users_and_roles";
+
     private BasicDataSource dataSource;
 
     public DBUserRolesDAOImpl(BasicDataSource dataSource) {
@@ -53,8 +56,7 @@ public class DBUserRolesDAOImpl implements UserRolesDAO {
     @Override
     public void insert(UserRolesBean bean) throws Exception {
         SetClause setClause = bean.genSetClause();
-        String clause =
-                String.format(INSERT_TEMPLATE, setClause.getClause(), UserRolesBean.UPDATE_CLAUSE);
+        String clause = setClause.getStatement(INSERT_TEMPLATE);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
 
@@ -70,7 +72,7 @@ public class DBUserRolesDAOImpl implements UserRolesDAO {
             UserRolesBean bean, String userName, String resourceId, AuthZResource.Type resourceType)
             throws Exception {
         SetClause setClause = bean.genSetClause();
-        String clause = String.format(UPDATE_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(UPDATE_TEMPLATE);
         setClause.addValue(userName);
         setClause.addValue(resourceId);
         setClause.addValue(resourceType.toString());
@@ -92,4 +94,10 @@ public class DBUserRolesDAOImpl implements UserRolesDAO {
         return new QueryRunner(dataSource)
                 .query(GET_BY_RESOURCE, h, resourceId, resourceType.toString());
     }
+
+    @Override
+    public List<UserRolesBean> getAll() throws Exception {
+        ResultSetHandler<List<UserRolesBean>> h = new BeanListHandler<>(UserRolesBean.class);
+        return new QueryRunner(dataSource).query(GET_ALL, h);
+    }
 }
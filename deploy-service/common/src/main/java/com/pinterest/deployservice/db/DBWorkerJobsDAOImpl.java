@@ -43,7 +43,7 @@ public class DBWorkerJobsDAOImpl implements WorkerJobDAO {
     @Override
     public void insert(WorkerJobBean bean) throws SQLException {
         SetClause setClause = bean.genSetClause();
-        String clause = String.format(INSERT_ENV_TEMPLATE, setClause.getClause());
+        String clause = setClause.getStatement(INSERT_ENV_TEMPLATE);
         new QueryRunner(dataSource).update(clause, setClause.getValueArray());
     }
 
@@ -26,6 +26,8 @@ public class DeployQueryFilter {
 
     private String whereClause;
     private List<Object> values;
+    private String countClause;
+    private List<Object> countValues;
     private DeployFilterBean filter;
 
     public DeployQueryFilter(DeployFilterBean filter) {
@@ -46,10 +48,31 @@ public class DeployQueryFilter {
         return values.toArray();
     }
 
+    /** The filter without the keyset position, ordering and limit, to count the matches. */
+    public String getCountClause() {
+        return countClause;
+    }
+
+    public Object[] getCountValueArray() {
+        return countValues.toArray();
+    }
+
     public DeployFilterBean getFilter() {
         return this.filter;
     }
 
+    public boolean isKeyset() {
+        return filter.getCursorStartDate() != null && filter.getCursorDeployId() != null;
+    }
+
+    /**
+     * Whether one row more than the page is read, to tell if there is a next page without counting
+     * every match. Keyset pages always do, as the count does not tell where they start.
+     */
+    public boolean isFetchingExtraRow() {
+        return filter.getCountLimit() != null || isKeyset();
+    }
+
     private StringBuilder appendSubQuery(StringBuilder sb, String name, List<String> valueList) {
         if (valueList == null || valueList.isEmpty()) {
             return sb;
@@ -121,21 +144,43 @@ public class DeployQueryFilter {
             values.add(filter.getAfter());
         }
 
-        if (sb.length() > 1) {
-            // remove the trialing AND and space
-            sb.setLength(sb.length() - 4);
-            sb.insert(0, "WHERE ");
+        this.countValues = new ArrayList<>(values);
+        this.countClause = toWhereClause(new StringBuilder(sb));
+
+        boolean oldestFirst = filter.getOldestFirst() != null && filter.getOldestFirst();
+        if (isKeyset()) {
+            String comparison = oldestFirst ? ">" : "<";
+            sb.append("(start_date")
+                    .append(comparison)
+                    .append("? OR (start_date=? AND deploy_id")
+                    .append(comparison)
+                    .append("?)) AND ");
+            values.add(filter.getCursorStartDate());
+            values.add(filter.getCursorStartDate());
+            values.add(filter.getCursorDeployId());
         }
 
-        if (filter.getOldestFirst() != null && filter.getOldestFirst()) {
-            sb.append("ORDER BY start_date ASC LIMIT ?,?");
+        sb = new StringBuilder(toWhereClause(sb));
+        // deploy_id breaks ties between deploys started in the same millisecond, so that pages
+        // neither repeat nor skip them
+        if (oldestFirst) {
+            sb.append("ORDER BY start_date ASC, deploy_id ASC LIMIT ?,?");
         } else {
-            sb.append("ORDER BY start_date DESC LIMIT ?,?");
+            sb.append("ORDER BY start_date DESC, deploy_id DESC LIMIT ?,?");
         }
 
-        values.add((filter.getPageIndex() - 1) * filter.getPageSize());
-        values.add(filter.getPageSize());
+        values.add(isKeyset() ? 0 : (filter.getPageIndex() - 1) * filter.getPageSize());
+        values.add(isFetchingExtraRow() ? filter.getPageSize() + 1 : filter.getPageSize());
 
         this.whereClause = sb.toString();
     }
+
+    private static String toWhereClause(StringBuilder sb) {
+        if (sb.length() > 1) {
+            // remove the trialing AND and space
+            sb.setLength(sb.length() - 4);
+            sb.insert(0, "WHERE ");
+        }
+        return sb.toString();
+    }
 }
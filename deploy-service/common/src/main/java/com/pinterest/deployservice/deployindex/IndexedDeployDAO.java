@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.deployindex;
+
+import com.pinterest.deployservice.bean.DeployBean;
+import com.pinterest.deployservice.bean.DeployQueryResultBean;
+import com.pinterest.deployservice.bean.UpdateStatement;
+import com.pinterest.deployservice.dao.DeployDAO;
+import com.pinterest.deployservice.db.DeployQueryFilter;
+import java.sql.SQLException;
+import java.util.List;
+import org.joda.time.Interval;
+
+/**
+ * A {@link DeployDAO} that marks every deploy it writes in a {@link RecentDeployIndex}, once the
+ * write has committed. Generated statements mark theirs when their transaction commits. Reads go
+ * straight to the wrapped DAO.
+ */
+public class IndexedDeployDAO implements DeployDAO {
+    private final DeployDAO delegate;
+    private final RecentDeployIndex index;
+
+    public IndexedDeployDAO(DeployDAO delegate, RecentDeployIndex index) {
+        this.delegate = delegate;
+        this.index = index;
+    }
+
+    @Override
+    public DeployBean getById(String deployId) throws Exception {
+        return delegate.getById(deployId);
+    }
+
+    @Override
+    public DeployQueryResultBean getAllDeploys(DeployQueryFilter filterBean) throws Exception {
+        return delegate.getAllDeploys(filterBean);
+    }
+
+    @Override
+    public void delete(String deployId) throws Exception {
+        delegate.delete(deployId);
+        index.mark(deployId);
+    }
+
+    @Override
+    public void update(String deployId, DeployBean deployBean) throws Exception {
+        delegate.update(deployId, deployBean);
+        index.mark(deployId);
+    }
+
+    @Override
+    public UpdateStatement genUpdateStatement(String deployId, DeployBean deployBean) {
+        return delegate.genUpdateStatement(deployId, deployBean)
+                .afterCommit(() -> index.mark(deployId));
+    }
+
+    @Override
+    public UpdateStatement genInsertStatement(DeployBean deployBean) {
+        String deployId = deployBean.getDeploy_id();
+        return delegate.genInsertStatement(deployBean).afterCommit(() -> index.mark(deployId));
+    }
+
+    @Override
+    public void insert(DeployBean deployBean) throws Exception {
+        delegate.insert(deployBean);
+        index.mark(deployBean.getDeploy_id());
+    }
+
+    @Override
+    public List<DeployBean> getAcceptedDeploys(String envId, Interval interval, int size)
+            throws Exception {
+        return delegate.getAcceptedDeploys(envId, interval, size);
+    }
+
+    @Override
+    public List<DeployBean> getAcceptedDeploysDelayed(String envId, Interval interval)
+            throws Exception {
+        return delegate.getAcceptedDeploysDelayed(envId, interval);
+    }
+
+    @Override
+    public Long countNonRegularDeploys(String envId, long after) throws Exception {
+        return delegate.countNonRegularDeploys(envId, after);
+    }
+
+    @Override
+    public int updateStateSafely(String deployId, String currentState, DeployBean updateBean)
+            throws Exception {
+        int updated = delegate.updateStateSafely(deployId, currentState, updateBean);
+        if (updated > 0) {
+            index.mark(deployId);
+        }
+        return updated;
+    }
+
+    @Override
+    public long countDeploysByEnvId(String envId) throws Exception {
+        return delegate.countDeploysByEnvId(envId);
+    }
+
+    @Override
+    public void deleteUnusedDeploys(String envId, long timeThreshold, long numOfDeploys)
+            throws Exception {
+        delegate.deleteUnusedDeploys(envId, timeThreshold, numOfDeploys);
+        index.markEnv(envId, timeThreshold);
+    }
+
+    @Override
+    public boolean isThereADeployWithBuildId(String buildId) throws Exception {
+        return delegate.isThereADeployWithBuildId(buildId);
+    }
+
+    @Override
+    public long getDailyDeployCount() throws SQLException {
+        return delegate.getDailyDeployCount();
+    }
+
+    @Override
+    public long getRunningDeployCount() throws SQLException {
+        return delegate.getRunningDeployCount();
+    }
+}
@@ -0,0 +1,491 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.deployindex;
+
+import com.google.common.collect.Iterators;
+import com.pinterest.deployservice.bean.DeployBean;
+import com.pinterest.deployservice.bean.DeployFilterBean;
+import com.pinterest.deployservice.bean.DeployQueryResultBean;
+import com.pinterest.deployservice.bean.DeployState;
+import com.pinterest.deployservice.common.StateMachines;
+import com.pinterest.deployservice.dao.DeployDAO;
+import com.pinterest.deployservice.db.DeployQueryFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory copy of the recent deploys, with secondary indexes by env, state and operator, that
+ * answers {@code Deploys.search} without MySQL when it holds every deploy the query can match.
+ *
+ * <p>The index holds every deploy started within the last {@code windowMs}, at most {@code
+ * maxDeploys} of them, plus every deploy in an active state regardless of its age. A query is
+ * answered when either its {@code after} bound lies within the window, or it only asks for active
+ * states. A newest first page may also be answered without such a bound when the whole page, and
+ * the row after it, lie within the window and the query does not ask for a total. Queries on
+ * commits, repos or branches need the builds table and are never answered.
+ *
+ * <p>{@link IndexedDeployDAO} marks every deploy written through it, and marked deploys are re-read
+ * by id before the next query is answered. {@link #reload()} periodically reloads the whole index,
+ * which picks up deploys written by other service replicas, so its interval bounds how stale the
+ * index can be. Returned beans are shared with the index and must not be modified.
+ */
+public class RecentDeployIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(RecentDeployIndex.class);
+    static final String METRIC_PREFIX = "teletraan.deploy_index.";
+    static final int RELOAD_PAGE_SIZE = 1000;
+
+    private static final Comparator<DeployBean> NEWEST_FIRST =
+            Comparator.comparing(DeployBean::getStart_date)
+                    .thenComparing(DeployBean::getDeploy_id)
+                    .reversed();
+
+    private final DeployDAO deployDAO;
+    private final long windowMs;
+    private final int maxDeploys;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, DeployBean> byId = new HashMap<>();
+    private final NavigableSet<DeployBean> all = new TreeSet<>(NEWEST_FIRST);
+    private final Map<String, NavigableSet<DeployBean>> byEnv = new HashMap<>();
+    private final Map<DeployState, NavigableSet<DeployBean>> byState = new HashMap<>();
+    private final Map<String, NavigableSet<DeployBean>> byOperator = new HashMap<>();
+    private final ConcurrentMap<String, Long> marked = new ConcurrentHashMap<>();
+    // Every deploy started at or after coveredSince is in the index
+    private long coveredSince = Long.MAX_VALUE;
+    // Every deploy in an active state is in the index
+    private boolean activeComplete;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter reloadFailures;
+    private final Timer reloadTimer;
+
+    /**
+     * @param deployDAO the undecorated deploy DAO, used to reload the index and re-read deploys
+     * @param windowMs how far back from the last reload deploys are held
+     * @param maxDeploys the most deploys held for the window, the oldest are dropped beyond it
+     */
+    public RecentDeployIndex(DeployDAO deployDAO, long windowMs, int maxDeploys) {
+        this.deployDAO = deployDAO;
+        this.windowMs = windowMs;
+        this.maxDeploys = maxDeploys;
+        hits = lookups("hit");
+        misses = lookups("miss");
+        reloadFailures =
+                Counter.builder(METRIC_PREFIX + "reload_failures").register(Metrics.globalRegistry);
+        reloadTimer =
+                Timer.builder(METRIC_PREFIX + "reload_duration").register(Metrics.globalRegistry);
+        Gauge.builder(METRIC_PREFIX + "deploys", this, RecentDeployIndex::size)
+                .description("Number of deploys held by the index")
+                .register(Metrics.globalRegistry);
+    }
+
+    private static Counter lookups(String result) {
+        return Counter.builder(METRIC_PREFIX + "lookups")
+                .tag("result", result)
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Answers the query the way {@code DeployDAO.getAllDeploys} would, or returns null if the index
+     * may not hold every deploy the query matches.
+     */
+    public DeployQueryResultBean search(DeployQueryFilter query) {
+        DeployFilterBean filter = query.getFilter();
+        if (filter.getCommit() != null
+                || filter.getRepo() != null
+                || filter.getBranch() != null
+                || filter.getCommitDate() != null
+                || !refreshMarked()) {
+            misses.increment();
+            return null;
+        }
+        DeployQueryResultBean result;
+        lock.readLock().lock();
+        try {
+            result = searchLocked(query);
+        } finally {
+            lock.readLock().unlock();
+        }
+        (result != null ? hits : misses).increment();
+        return result;
+    }
+
+    private DeployQueryResultBean searchLocked(DeployQueryFilter query) {
+        DeployFilterBean filter = query.getFilter();
+        boolean oldestFirst = Boolean.TRUE.equals(filter.getOldestFirst());
+        Integer countLimit = filter.getCountLimit();
+        boolean complete = isComplete(filter);
+        if (!complete && (oldestFirst || countLimit == null || countLimit > 0)) {
+            return null;
+        }
+
+        int pageSize = filter.getPageSize();
+        int skip = query.isKeyset() ? 0 : (filter.getPageIndex() - 1) * pageSize;
+        boolean counting = countLimit == null || countLimit > 0;
+        List<DeployBean> page = new ArrayList<>();
+        boolean truncated = false;
+        long total = 0;
+        DeployBean cursor = query.isKeyset() ? cursorOf(filter) : null;
+        // Without a count, deploys before the cursor need not be visited at all
+        Iterator<DeployBean> candidates = candidates(filter, oldestFirst, counting ? null : cursor);
+        while (candidates.hasNext()) {
+            DeployBean deploy = candidates.next();
+            if (!complete && deploy.getStart_date() < coveredSince) {
+                break;
+            }
+            if (!matches(filter, deploy)) {
+                continue;
+            }
+            total++;
+            if (cursor == null || isPastCursor(cursor, deploy, oldestFirst)) {
+                if (skip > 0) {
+                    skip--;
+                } else if (page.size() < pageSize) {
+                    page.add(deploy);
+                } else {
+                    truncated = true;
+                }
+            }
+            if (truncated && (!counting || (countLimit != null && total >= countLimit))) {
+                break;
+            }
+        }
+        if (!complete && !truncated) {
+            // Ran out of deploys before the row after the page, older ones may be missing
+            return null;
+        }
+        if (!query.isFetchingExtraRow()) {
+            // Mirrors DBDeployDAOImpl, which derives truncated from the total
+            truncated = total > (long) filter.getPageIndex() * pageSize;
+        }
+        if (countLimit != null) {
+            total = Math.min(total, countLimit);
+        }
+        return new DeployQueryResultBean(page, counting ? total : null, truncated);
+    }
+
+    private boolean isComplete(DeployFilterBean filter) {
+        if (filter.getAfter() != null && filter.getAfter() >= coveredSince) {
+            return true;
+        }
+        List<DeployState> states = filter.getDeployStates();
+        return activeComplete
+                && states != null
+                && !states.isEmpty()
+                && StateMachines.DEPLOY_ACTIVE_STATES.containsAll(states);
+    }
+
+    /**
+     * Iterates, in the requested order, over the deploys of the most selective index the filter
+     * restricts, starting after from unless it is null.
+     */
+    private Iterator<DeployBean> candidates(
+            DeployFilterBean filter, boolean oldestFirst, DeployBean from) {
+        List<NavigableSet<DeployBean>> best = Collections.singletonList(all);
+        int bestSize = all.size();
+        for (List<NavigableSet<DeployBean>> sets :
+                Arrays.asList(
+                        lookup(byEnv, filter.getEnvIds()),
+                        lookup(byState, filter.getDeployStates()),
+                        lookup(byOperator, filter.getOperators()))) {
+            if (sets == null) {
+                continue;
+            }
+            int size = 0;
+            for (NavigableSet<DeployBean> set : sets) {
+                size += set.size();
+            }
+            if (size < bestSize) {
+                best = sets;
+                bestSize = size;
+            }
+        }
+        List<Iterator<DeployBean>> iterators = new ArrayList<>();
+        for (NavigableSet<DeployBean> set : best) {
+            if (from != null) {
+                set = oldestFirst ? set.headSet(from, false) : set.tailSet(from, false);
+            }
+            iterators.add(oldestFirst ? set.descendingIterator() : set.iterator());
+        }
+        return Iterators.mergeSorted(
+                iterators, oldestFirst ? NEWEST_FIRST.reversed() : NEWEST_FIRST);
+    }
+
+    private static <K> List<NavigableSet<DeployBean>> lookup(
+            Map<K, NavigableSet<DeployBean>> index, List<K> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return null;
+        }
+        List<NavigableSet<DeployBean>> sets = new ArrayList<>();
+        for (K key : new TreeSet<>(keys)) {
+            NavigableSet<DeployBean> set = index.get(key);
+            if (set != null) {
+                sets.add(set);
+            }
+        }
+        return sets;
+    }
+
+    // Mirrors DeployQueryFilter, less the builds table
+    private static boolean matches(DeployFilterBean filter, DeployBean deploy) {
+        return contains(filter.getEnvIds(), deploy.getEnv_id())
+                && contains(filter.getOperators(), deploy.getOperator())
+                && contains(filter.getDeployTypes(), deploy.getDeploy_type())
+                && contains(filter.getDeployStates(), deploy.getState())
+                && contains(filter.getAcceptanceStatuss(), deploy.getAcc_status())
+                && (filter.getBefore() == null || deploy.getStart_date() <= filter.getBefore())
+                && (filter.getAfter() == null || deploy.getStart_date() >= filter.getAfter());
+    }
+
+    private static <T> boolean contains(List<T> values, T value) {
+        return values == null || values.isEmpty() || values.contains(value);
+    }
+
+    private static DeployBean cursorOf(DeployFilterBean filter) {
+        DeployBean cursor = new DeployBean();
+        cursor.setStart_date(filter.getCursorStartDate());
+        cursor.setDeploy_id(filter.getCursorDeployId());
+        return cursor;
+    }
+
+    private static boolean isPastCursor(DeployBean cursor, DeployBean deploy, boolean oldestFirst) {
+        int order = NEWEST_FIRST.compare(deploy, cursor);
+        return oldestFirst ? order < 0 : order > 0;
+    }
+
+    /** Marks the deploy to be re-read before the next query is answered. */
+    void mark(String deployId) {
+        if (deployId != null) {
+            marked.put(deployId, System.currentTimeMillis());
+        }
+    }
+
+    /** Marks every held deploy of the env last updated before the time. */
+    void markEnv(String envId, long lastUpdateBefore) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<DeployBean> deploys = byEnv.get(envId);
+            if (deploys != null) {
+                for (DeployBean deploy : deploys) {
+                    if (lastUpdate(deploy) < lastUpdateBefore) {
+                        mark(deploy.getDeploy_id());
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Re-reads the marked deploys, returns false if any of them could not be read. */
+    private boolean refreshMarked() {
+        for (Map.Entry<String, Long> entry : marked.entrySet()) {
+            String deployId = entry.getKey();
+            DeployBean deploy;
+            try {
+                deploy = deployDAO.getById(deployId);
+            } catch (Exception e) {
+                LOG.warn("Failed to re-read deploy {}", deployId, e);
+                return false;
+            }
+            lock.writeLock().lock();
+            try {
+                if (deploy != null) {
+                    put(deploy);
+                } else {
+                    remove(deployId);
+                }
+                trim();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            // Deploys are marked once their write has committed, so one re-read is enough, unless
+            // it was marked again meanwhile
+            marked.remove(deployId, entry.getValue());
+        }
+        return true;
+    }
+
+    /**
+     * Reloads the deploys of the window and every active deploy. Deploys re-read since the reload
+     * started are kept if they are newer than the reloaded copy.
+     */
+    public void reload() {
+        long started = System.currentTimeMillis();
+        try {
+            reloadTimer.recordCallable(() -> reload(started));
+        } catch (Exception e) {
+            reloadFailures.increment();
+            LOG.warn("Failed to reload the recent deploy index, keep the current one", e);
+        }
+    }
+
+    private Void reload(long started) throws Exception {
+        DeployFilterBean recent = new DeployFilterBean();
+        recent.setAfter(started - windowMs);
+        List<DeployBean> recentDeploys = new ArrayList<>();
+        boolean capped = load(recent, maxDeploys, recentDeploys);
+        long since =
+                capped
+                        ? recentDeploys.get(recentDeploys.size() - 1).getStart_date() + 1
+                        : recent.getAfter();
+
+        DeployFilterBean active = new DeployFilterBean();
+        active.setDeployStates(new ArrayList<>(StateMachines.DEPLOY_ACTIVE_STATES));
+        List<DeployBean> activeDeploys = new ArrayList<>();
+        load(active, Integer.MAX_VALUE, activeDeploys);
+
+        Map<String, DeployBean> loaded = new HashMap<>();
+        for (DeployBean deploy : recentDeploys) {
+            loaded.put(deploy.getDeploy_id(), deploy);
+        }
+        for (DeployBean deploy : activeDeploys) {
+            loaded.put(deploy.getDeploy_id(), deploy);
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (DeployBean deploy : new ArrayList<>(all)) {
+                if (!loaded.containsKey(deploy.getDeploy_id()) && lastUpdate(deploy) < started) {
+                    remove(deploy.getDeploy_id());
+                }
+            }
+            for (DeployBean deploy : loaded.values()) {
+                DeployBean existing = byId.get(deploy.getDeploy_id());
+                if (existing == null || lastUpdate(existing) <= lastUpdate(deploy)) {
+                    put(deploy);
+                }
+            }
+            coveredSince = since;
+            activeComplete = true;
+            trim();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOG.debug("Reloaded {} deploys, covered since {}.", loaded.size(), since);
+        return null;
+    }
+
+    /** Loads up to limit deploys matching the filter, returns true if there were more. */
+    private boolean load(DeployFilterBean filter, int limit, List<DeployBean> into)
+            throws Exception {
+        filter.setPageSize(RELOAD_PAGE_SIZE);
+        filter.setCountLimit(0);
+        while (true) {
+            DeployQueryResultBean result = deployDAO.getAllDeploys(new DeployQueryFilter(filter));
+            for (DeployBean deploy : result.getDeploys()) {
+                if (into.size() >= limit) {
+                    return true;
+                }
+                into.add(deploy);
+            }
+            if (!result.isTruncated()) {
+                return false;
+            }
+            DeployBean last = into.get(into.size() - 1);
+            filter.setCursorStartDate(last.getStart_date());
+            filter.setCursorDeployId(last.getDeploy_id());
+        }
+    }
+
+    // Drops the oldest inactive deploys beyond maxDeploys, and the coverage with them
+    private void trim() {
+        int inactive = all.size();
+        for (DeployState state : StateMachines.DEPLOY_ACTIVE_STATES) {
+            NavigableSet<DeployBean> deploys = byState.get(state);
+            inactive -= deploys == null ? 0 : deploys.size();
+        }
+        Iterator<DeployBean> oldestFirst = all.descendingIterator();
+        while (inactive > maxDeploys && oldestFirst.hasNext()) {
+            DeployBean deploy = oldestFirst.next();
+            if (!StateMachines.DEPLOY_ACTIVE_STATES.contains(deploy.getState())) {
+                coveredSince = Math.max(coveredSince, deploy.getStart_date() + 1);
+                oldestFirst.remove();
+                removeFromIndexes(deploy);
+                inactive--;
+            }
+        }
+    }
+
+    private void put(DeployBean deploy) {
+        remove(deploy.getDeploy_id());
+        byId.put(deploy.getDeploy_id(), deploy);
+        all.add(deploy);
+        add(byEnv, deploy.getEnv_id(), deploy);
+        add(byState, deploy.getState(), deploy);
+        add(byOperator, deploy.getOperator(), deploy);
+    }
+
+    private void remove(String deployId) {
+        DeployBean deploy = byId.get(deployId);
+        if (deploy != null) {
+            all.remove(deploy);
+            removeFromIndexes(deploy);
+        }
+    }
+
+    private void removeFromIndexes(DeployBean deploy) {
+        byId.remove(deploy.getDeploy_id());
+        remove(byEnv, deploy.getEnv_id(), deploy);
+        remove(byState, deploy.getState(), deploy);
+        remove(byOperator, deploy.getOperator(), deploy);
+    }
+
+    private static <K> void add(Map<K, NavigableSet<DeployBean>> index, K key, DeployBean deploy) {
+        index.computeIfAbsent(key, k -> new TreeSet<>(NEWEST_FIRST)).add(deploy);
+    }
+
+    private static <K> void remove(
+            Map<K, NavigableSet<DeployBean>> index, K key, DeployBean deploy) {
+        NavigableSet<DeployBean> deploys = index.get(key);
+        if (deploys != null) {
+            deploys.remove(deploy);
+            if (deploys.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static long lastUpdate(DeployBean deploy) {
+        return deploy.getLast_update() != null ? deploy.getLast_update() : 0;
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return all.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.entitycache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.pinterest.deployservice.bean.BuildBean;
+import com.pinterest.deployservice.bean.DeployBean;
+import com.pinterest.deployservice.bean.EnvironBean;
+import com.pinterest.deployservice.dao.BuildDAO;
+import com.pinterest.deployservice.dao.DeployDAO;
+import com.pinterest.deployservice.dao.EnvironDAO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Process wide, read-through cache of builds, deploys and environs by id.
+ *
+ * <p>Only reads that tolerate a slightly stale row should go through it, such as the fields of a
+ * deploy that never change after it is created. Deploy and environ writes made through {@link
+ * InvalidatingDeployDAO} and {@link InvalidatingEnvironDAO} drop the cached row. Writes made by
+ * other service replicas are dropped too when an {@link EntityInvalidationBroadcaster} is attached,
+ * and otherwise only age out with the expiry of the cache spec. Builds are never updated in place.
+ *
+ * <p>Returned beans are shared and must not be modified.
+ */
+public class EntityCache {
+    static final String METRIC_PREFIX = "teletraan.entity_cache.";
+
+    /** The kinds of cached entities. */
+    public enum Entity {
+        BUILD,
+        DEPLOY,
+        ENVIRON
+    }
+
+    private final LoadingCache<String, BuildBean> builds;
+    private final LoadingCache<String, DeployBean> deploys;
+    private final LoadingCache<String, EnvironBean> environs;
+    private final Map<Entity, LoadingCache<String, ?>> caches = new EnumMap<>(Entity.class);
+    private final Map<Entity, Counter> localInvalidations = new EnumMap<>(Entity.class);
+    private final Map<Entity, Counter> remoteInvalidations = new EnumMap<>(Entity.class);
+    private volatile EntityInvalidationBroadcaster broadcaster;
+
+    /**
+     * @param spec a Caffeine spec such as {@code maximumSize=10000,expireAfterWrite=10m}, applied
+     *     to each of the three caches
+     */
+    public EntityCache(BuildDAO buildDAO, DeployDAO deployDAO, EnvironDAO environDAO, String spec) {
+        builds = Caffeine.from(spec).recordStats().build(buildDAO::getById);
+        deploys = Caffeine.from(spec).recordStats().build(deployDAO::getById);
+        environs = Caffeine.from(spec).recordStats().build(environDAO::getById);
+        caches.put(Entity.BUILD, builds);
+        caches.put(Entity.DEPLOY, deploys);
+        caches.put(Entity.ENVIRON, environs);
+        for (Map.Entry<Entity, LoadingCache<String, ?>> entry : caches.entrySet()) {
+            bindMetrics(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void bindMetrics(Entity entity, LoadingCache<String, ?> cache) {
+        String tag = entity.name().toLowerCase();
+        FunctionCounter.builder(METRIC_PREFIX + "lookups", cache, c -> c.stats().hitCount())
+                .tags("entity", tag, "result", "hit")
+                .register(Metrics.globalRegistry);
+        FunctionCounter.builder(METRIC_PREFIX + "lookups", cache, c -> c.stats().missCount())
+                .tags("entity", tag, "result", "miss")
+                .register(Metrics.globalRegistry);
+        Gauge.builder(METRIC_PREFIX + "hit_ratio", cache, c -> hitRatio(c.stats()))
+                .tag("entity", tag)
+                .register(Metrics.globalRegistry);
+        Gauge.builder(METRIC_PREFIX + "size", cache, LoadingCache::estimatedSize)
+                .tag("entity", tag)
+                .register(Metrics.globalRegistry);
+        localInvalidations.put(entity, invalidations(tag, "local"));
+        remoteInvalidations.put(entity, invalidations(tag, "remote"));
+    }
+
+    private static double hitRatio(CacheStats stats) {
+        return stats.requestCount() == 0 ? Double.NaN : stats.hitRate();
+    }
+
+    private static Counter invalidations(String entity, String source) {
+        return Counter.builder(METRIC_PREFIX + "invalidations")
+                .tags("entity", entity, "source", source)
+                .register(Metrics.globalRegistry);
+    }
+
+    /** Sends the invalidations of this process to the other replicas through the broadcaster. */
+    public void setBroadcaster(EntityInvalidationBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    public BuildBean getBuild(String buildId) throws Exception {
+        return get(builds, buildId);
+    }
+
+    public DeployBean getDeploy(String deployId) throws Exception {
+        return get(deploys, deployId);
+    }
+
+    public EnvironBean getEnv(String envId) throws Exception {
+        return get(environs, envId);
+    }
+
+    private static <V> V get(LoadingCache<String, V> cache, String id) throws Exception {
+        if (id == null) {
+            return null;
+        }
+        try {
+            return cache.get(id);
+        } catch (CompletionException e) {
+            // Caffeine wraps the checked exceptions of the DAO
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public void invalidateDeploy(String deployId) {
+        invalidate(Entity.DEPLOY, deployId);
+    }
+
+    public void invalidateEnv(String envId) {
+        invalidate(Entity.ENVIRON, envId);
+    }
+
+    /** Drops every cached environ, for writes that do not name the envs they change. */
+    public void invalidateAllEnvs() {
+        invalidate(Entity.ENVIRON, null);
+    }
+
+    public void invalidateBuild(String buildId) {
+        invalidate(Entity.BUILD, buildId);
+    }
+
+    /** Drops the row, or every row of the kind if id is null, and broadcasts the invalidation. */
+    void invalidate(Entity entity, String id) {
+        invalidateLocally(entity, id);
+        localInvalidations.get(entity).increment();
+        EntityInvalidationBroadcaster current = broadcaster;
+        if (current != null) {
+            current.publish(entity, id);
+        }
+    }
+
+    /** Applies an invalidation received from another replica. */
+    void invalidateRemotely(Entity entity, String id) {
+        invalidateLocally(entity, id);
+        remoteInvalidations.get(entity).increment();
+    }
+
+    private void invalidateLocally(Entity entity, String id) {
+        LoadingCache<String, ?> cache = caches.get(entity);
+        if (id == null) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidate(id);
+        }
+    }
+}
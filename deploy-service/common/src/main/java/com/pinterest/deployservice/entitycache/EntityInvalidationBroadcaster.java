@@ -0,0 +1,217 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.entitycache;
+
+import com.pinterest.deployservice.bean.EntityInvalidationBean;
+import com.pinterest.deployservice.dao.EntityInvalidationDAO;
+import com.pinterest.deployservice.entitycache.EntityCache.Entity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shares the invalidations of an {@link EntityCache} with the caches of the other service replicas
+ * through the {@code entity_invalidations} table.
+ *
+ * <p>Invalidations are buffered, deduplicated, and written in one statement by {@link #sync()},
+ * which then applies the invalidations written by other processes since the last sync. A cache is
+ * thus stale for at most about two sync periods after another replica wrote. Rows older than the
+ * retention are deleted as they are no longer needed; a process that could not sync for longer than
+ * that drops its whole cache instead of missing some of them.
+ *
+ * <p>A seq may become visible after a higher one, when its insert commits later. The seqs of a gap
+ * that was read past are therefore read again on every sync for {@code GAP_WATCH_MS}, well within
+ * the retention, and an invalidation that shows up late is applied then. A gap left by a failed
+ * insert is simply dropped once the watch ends.
+ */
+public class EntityInvalidationBroadcaster {
+    private static final Logger LOG = LoggerFactory.getLogger(EntityInvalidationBroadcaster.class);
+    static final int READ_BATCH_SIZE = 1000;
+    // Buffered invalidations beyond this are collapsed into dropping every cached entity of a kind
+    static final int MAX_PENDING = 10000;
+    static final long GAP_WATCH_MS = TimeUnit.MINUTES.toMillis(1);
+    // Bounds the seqs watched after gaps, a larger gap is only partly watched
+    static final int MAX_WATCHED_SEQS = 1000;
+
+    private final EntityCache cache;
+    private final EntityInvalidationDAO invalidationDAO;
+    private final long retentionMs;
+    private final String origin = UUID.randomUUID().toString();
+    private final Map<String, EntityInvalidationBean> pending = new LinkedHashMap<>();
+    // Seqs of gaps that were read past, by the time they were passed
+    private final Map<Long, Long> skipped = new TreeMap<>();
+    private final Counter published;
+    private final Counter received;
+    private final Counter syncFailures;
+    private final Counter skippedSeqs;
+    private final Counter lateInvalidations;
+    private long lastSeq = -1;
+    private long lastSync;
+
+    public EntityInvalidationBroadcaster(
+            EntityCache cache, EntityInvalidationDAO invalidationDAO, long retentionMs) {
+        this.cache = cache;
+        this.invalidationDAO = invalidationDAO;
+        this.retentionMs = retentionMs;
+        published =
+                Counter.builder(EntityCache.METRIC_PREFIX + "broadcasts")
+                        .tag("direction", "published")
+                        .register(Metrics.globalRegistry);
+        received =
+                Counter.builder(EntityCache.METRIC_PREFIX + "broadcasts")
+                        .tag("direction", "received")
+                        .register(Metrics.globalRegistry);
+        syncFailures =
+                Counter.builder(EntityCache.METRIC_PREFIX + "sync_failures")
+                        .register(Metrics.globalRegistry);
+        skippedSeqs =
+                Counter.builder(EntityCache.METRIC_PREFIX + "broadcast_gap_skipped")
+                        .register(Metrics.globalRegistry);
+        lateInvalidations =
+                Counter.builder(EntityCache.METRIC_PREFIX + "broadcast_late")
+                        .register(Metrics.globalRegistry);
+    }
+
+    /** Buffers the invalidation until the next sync, a null id stands for every entity. */
+    void publish(Entity entity, String id) {
+        EntityInvalidationBean invalidation = new EntityInvalidationBean();
+        invalidation.setEntity_type(entity.name());
+        invalidation.setEntity_id(id);
+        synchronized (pending) {
+            if (pending.size() >= MAX_PENDING) {
+                // Replace the ids of the kind with a single row dropping all of them
+                pending.values().removeIf(p -> p.getEntity_type().equals(entity.name()));
+                invalidation.setEntity_id(null);
+            }
+            pending.putIfAbsent(entity.name() + ":" + invalidation.getEntity_id(), invalidation);
+        }
+    }
+
+    /** Writes the buffered invalidations, then applies the ones of other processes. */
+    public void sync() {
+        long now = System.currentTimeMillis();
+        List<EntityInvalidationBean> toWrite;
+        synchronized (pending) {
+            toWrite = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        try {
+            invalidationDAO.insertAll(origin, toWrite, now);
+            published.increment(toWrite.size());
+        } catch (Exception e) {
+            LOG.warn("Failed to publish {} entity invalidations", toWrite.size(), e);
+            syncFailures.increment();
+            requeue(toWrite);
+        }
+
+        try {
+            receive(now);
+        } catch (Exception e) {
+            LOG.warn("Failed to read entity invalidations after {}", lastSeq, e);
+            syncFailures.increment();
+        }
+    }
+
+    private void requeue(List<EntityInvalidationBean> invalidations) {
+        for (EntityInvalidationBean invalidation : invalidations) {
+            publish(Entity.valueOf(invalidation.getEntity_type()), invalidation.getEntity_id());
+        }
+    }
+
+    private void receive(long now) throws Exception {
+        if (lastSeq < 0 || now - lastSync > retentionMs) {
+            // First sync, or rows we have not read yet may already be deleted
+            long seq = invalidationDAO.getLastSeq();
+            if (lastSeq >= 0) {
+                LOG.warn("Entity invalidations were not read for too long, drop the whole cache");
+                for (Entity entity : Entity.values()) {
+                    cache.invalidateRemotely(entity, null);
+                }
+            }
+            lastSeq = seq;
+            lastSync = now;
+            skipped.clear();
+            return;
+        }
+        receiveSkipped(now);
+        List<EntityInvalidationBean> batch;
+        do {
+            batch = invalidationDAO.getAfter(lastSeq, READ_BATCH_SIZE);
+            for (EntityInvalidationBean invalidation : batch) {
+                long seq = invalidation.getSeq();
+                if (seq != lastSeq + 1) {
+                    skippedSeqs.increment(seq - lastSeq - 1);
+                    for (long gap = lastSeq + 1;
+                            gap < seq && skipped.size() < MAX_WATCHED_SEQS;
+                            gap++) {
+                        skipped.put(gap, now);
+                    }
+                }
+                if (!Objects.equals(invalidation.getOrigin(), origin)) {
+                    apply(invalidation);
+                }
+                lastSeq = seq;
+            }
+        } while (batch.size() == READ_BATCH_SIZE);
+        lastSync = now;
+    }
+
+    // Applies the invalidations of passed gaps that were committed since
+    private void receiveSkipped(long now) throws Exception {
+        skipped.values().removeIf(passed -> now - passed > GAP_WATCH_MS);
+        if (skipped.isEmpty()) {
+            return;
+        }
+        for (EntityInvalidationBean invalidation : invalidationDAO.getBySeqs(skipped.keySet())) {
+            skipped.remove(invalidation.getSeq());
+            if (!Objects.equals(invalidation.getOrigin(), origin)) {
+                apply(invalidation);
+                lateInvalidations.increment();
+            }
+        }
+    }
+
+    private void apply(EntityInvalidationBean invalidation) {
+        Entity entity;
+        try {
+            entity = Entity.valueOf(invalidation.getEntity_type());
+        } catch (IllegalArgumentException e) {
+            // Written by a newer version
+            LOG.debug("Ignore invalidation of unknown entity {}", invalidation.getEntity_type());
+            return;
+        }
+        cache.invalidateRemotely(entity, invalidation.getEntity_id());
+        received.increment();
+    }
+
+    /** Deletes the invalidations older than the retention. */
+    public void cleanUp() {
+        try {
+            invalidationDAO.deleteBefore(System.currentTimeMillis() - retentionMs);
+        } catch (Exception e) {
+            LOG.warn("Failed to delete old entity invalidations", e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.entitycache;
+
+import com.pinterest.deployservice.bean.DeployBean;
+import com.pinterest.deployservice.bean.DeployQueryResultBean;
+import com.pinterest.deployservice.bean.UpdateStatement;
+import com.pinterest.deployservice.dao.DeployDAO;
+import com.pinterest.deployservice.db.DeployQueryFilter;
+import java.sql.SQLException;
+import java.util.List;
+import org.joda.time.Interval;
+
+/**
+ * A {@link DeployDAO} that drops every deploy it writes from an {@link EntityCache}. Generated
+ * update statements drop theirs once their transaction commits. Reads go straight to the wrapped
+ * DAO.
+ */
+public class InvalidatingDeployDAO implements DeployDAO {
+    private final DeployDAO delegate;
+    private final EntityCache cache;
+
+    public InvalidatingDeployDAO(DeployDAO delegate, EntityCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public DeployBean getById(String deployId) throws Exception {
+        return delegate.getById(deployId);
+    }
+
+    @Override
+    public DeployQueryResultBean getAllDeploys(DeployQueryFilter filterBean) throws Exception {
+        return delegate.getAllDeploys(filterBean);
+    }
+
+    @Override
+    public void delete(String deployId) throws Exception {
+        delegate.delete(deployId);
+        cache.invalidateDeploy(deployId);
+    }
+
+    @Override
+    public void update(String deployId, DeployBean deployBean) throws Exception {
+        delegate.update(deployId, deployBean);
+        cache.invalidateDeploy(deployId);
+    }
+
+    @Override
+    public UpdateStatement genUpdateStatement(String deployId, DeployBean deployBean) {
+        return delegate.genUpdateStatement(deployId, deployBean)
+                .afterCommit(() -> cache.invalidateDeploy(deployId));
+    }
+
+    @Override
+    public UpdateStatement genInsertStatement(DeployBean deployBean) {
+        return delegate.genInsertStatement(deployBean);
+    }
+
+    @Override
+    public void insert(DeployBean deployBean) throws Exception {
+        delegate.insert(deployBean);
+    }
+
+    @Override
+    public List<DeployBean> getAcceptedDeploys(String envId, Interval interval, int size)
+            throws Exception {
+        return delegate.getAcceptedDeploys(envId, interval, size);
+    }
+
+    @Override
+    public List<DeployBean> getAcceptedDeploysDelayed(String envId, Interval interval)
+            throws Exception {
+        return delegate.getAcceptedDeploysDelayed(envId, interval);
+    }
+
+    @Override
+    public Long countNonRegularDeploys(String envId, long after) throws Exception {
+        return delegate.countNonRegularDeploys(envId, after);
+    }
+
+    @Override
+    public int updateStateSafely(String deployId, String currentState, DeployBean updateBean)
+            throws Exception {
+        int updated = delegate.updateStateSafely(deployId, currentState, updateBean);
+        if (updated > 0) {
+            cache.invalidateDeploy(deployId);
+        }
+        return updated;
+    }
+
+    @Override
+    public long countDeploysByEnvId(String envId) throws Exception {
+        return delegate.countDeploysByEnvId(envId);
+    }
+
+    @Override
+    public void deleteUnusedDeploys(String envId, long timeThreshold, long numOfDeploys)
+            throws Exception {
+        // Only long unused deploys are deleted, any cached copy simply expires
+        delegate.deleteUnusedDeploys(envId, timeThreshold, numOfDeploys);
+    }
+
+    @Override
+    public boolean isThereADeployWithBuildId(String buildId) throws Exception {
+        return delegate.isThereADeployWithBuildId(buildId);
+    }
+
+    @Override
+    public long getDailyDeployCount() throws SQLException {
+        return delegate.getDailyDeployCount();
+    }
+
+    @Override
+    public long getRunningDeployCount() throws SQLException {
+        return delegate.getRunningDeployCount();
+    }
+}
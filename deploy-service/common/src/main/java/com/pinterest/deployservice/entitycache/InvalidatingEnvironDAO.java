@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.entitycache;
+
+import com.pinterest.deployservice.bean.EnvironBean;
+import com.pinterest.deployservice.bean.UpdateStatement;
+import com.pinterest.deployservice.dao.EnvironDAO;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An {@link EnvironDAO} that drops every environ it writes from an {@link EntityCache}. Generated
+ * update statements drop theirs once their transaction commits. Writes by env name and stage drop
+ * every cached environ. Reads go straight to the wrapped DAO.
+ */
+public class InvalidatingEnvironDAO implements EnvironDAO {
+    private final EnvironDAO delegate;
+    private final EntityCache cache;
+
+    public InvalidatingEnvironDAO(EnvironDAO delegate, EntityCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public void insert(EnvironBean bean) throws Exception {
+        delegate.insert(bean);
+    }
+
+    @Override
+    public void update(String envId, EnvironBean bean) throws Exception {
+        delegate.update(envId, bean);
+        cache.invalidateEnv(envId);
+    }
+
+    @Override
+    public void update(String envName, String envStage, EnvironBean bean) throws Exception {
+        delegate.update(envName, envStage, bean);
+        cache.invalidateAllEnvs();
+    }
+
+    @Override
+    public void updateAll(EnvironBean bean) throws Exception {
+        delegate.updateAll(bean);
+        cache.invalidateAllEnvs();
+    }
+
+    @Override
+    public void setExternalId(EnvironBean bean, String externalId) throws Exception {
+        delegate.setExternalId(bean, externalId);
+        cache.invalidateEnv(bean.getEnv_id());
+    }
+
+    @Override
+    public UpdateStatement genUpdateStatement(String envId, EnvironBean bean) {
+        return delegate.genUpdateStatement(envId, bean)
+                .afterCommit(() -> cache.invalidateEnv(envId));
+    }
+
+    @Override
+    public void delete(String envId) throws Exception {
+        delegate.delete(envId);
+        cache.invalidateEnv(envId);
+    }
+
+    @Override
+    public List<String> getAllEnvNames(String nameFilter, long pageIndex, int pageSize)
+            throws Exception {
+        return delegate.getAllEnvNames(nameFilter, pageIndex, pageSize);
+    }
+
+    @Override
+    public EnvironBean getById(String envId) throws Exception {
+        return delegate.getById(envId);
+    }
+
+    @Override
+    public List<EnvironBean> getByIds(Collection<String> envIds) throws Exception {
+        return delegate.getByIds(envIds);
+    }
+
+    @Override
+    public EnvironBean getByDeployId(String deployId) throws SQLException {
+        return delegate.getByDeployId(deployId);
+    }
+
+    @Override
+    public List<EnvironBean> getByName(String envName) throws Exception {
+        return delegate.getByName(envName);
+    }
+
+    @Override
+    public EnvironBean getByStage(String envName, String envStage) throws Exception {
+        return delegate.getByStage(envName, envStage);
+    }
+
+    @Override
+    public EnvironBean getByCluster(String clusterName) throws Exception {
+        return delegate.getByCluster(clusterName);
+    }
+
+    @Override
+    public List<String> getOverrideHosts(String envId, String envName, String envStage)
+            throws Exception {
+        return delegate.getOverrideHosts(envId, envName, envStage);
+    }
+
+    @Override
+    public long countTotalCapacity(String envId, String envName, String envStage) throws Exception {
+        return delegate.countTotalCapacity(envId, envName, envStage);
+    }
+
+    @Override
+    public List<String> getTotalCapacityHosts(String envId, String envName, String envStage)
+            throws Exception {
+        return delegate.getTotalCapacityHosts(envId, envName, envStage);
+    }
+
+    @Override
+    public Collection<String> getMissingHosts(String envId) throws Exception {
+        return delegate.getMissingHosts(envId);
+    }
+
+    @Override
+    public List<EnvironBean> getEnvsByHost(String host) throws Exception {
+        return delegate.getEnvsByHost(host);
+    }
+
+    @Override
+    public EnvironBean getMainEnvByHostId(String hostId) throws SQLException {
+        return delegate.getMainEnvByHostId(hostId);
+    }
+
+    @Override
+    public EnvironBean getMainEnvByHostName(String hostName) throws SQLException {
+        return delegate.getMainEnvByHostName(hostName);
+    }
+
+    @Override
+    public List<EnvironBean> getEnvsByGroups(Collection<String> groups) throws Exception {
+        return delegate.getEnvsByGroups(groups);
+    }
+
+    @Override
+    public List<String> getCurrentDeployIds() throws Exception {
+        return delegate.getCurrentDeployIds();
+    }
+
+    @Override
+    public List<String> getAllEnvIds() throws Exception {
+        return delegate.getAllEnvIds();
+    }
+
+    @Override
+    public List<EnvironBean> getAllEnvs() throws Exception {
+        return delegate.getAllEnvs();
+    }
+
+    @Override
+    public List<EnvironBean> getAllEnvStates() throws Exception {
+        return delegate.getAllEnvStates();
+    }
+
+    @Override
+    public List<EnvironBean> getAllSidecarEnvs() throws Exception {
+        return delegate.getAllSidecarEnvs();
+    }
+
+    @Override
+    public void deleteSchedule(String envName, String stageName) throws Exception {
+        delegate.deleteSchedule(envName, stageName);
+        cache.invalidateAllEnvs();
+    }
+
+    @Override
+    public void deleteCluster(String envName, String stageName) throws Exception {
+        delegate.deleteCluster(envName, stageName);
+        cache.invalidateAllEnvs();
+    }
+
+    @Override
+    public EnvironBean getEnvByDeployConstraintId(String constraintId) throws Exception {
+        return delegate.getEnvByDeployConstraintId(constraintId);
+    }
+
+    @Override
+    public void deleteConstraint(String envName, String stageName) throws Exception {
+        delegate.deleteConstraint(envName, stageName);
+        cache.invalidateAllEnvs();
+    }
+}
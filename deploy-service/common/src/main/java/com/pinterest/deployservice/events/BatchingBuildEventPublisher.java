@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.events;
+
+import com.pinterest.deployservice.bean.BuildBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Takes build events off the request threads: {@link #publish} queues the event and {@link #flush},
+ * run on a fixed interval, hands the queued events to the delegate in batches, so that the Event
+ * Bridge publisher sends them several to a call.
+ *
+ * <p>When {@code maxPending} events are queued the event is published inline, as without the queue.
+ * Events still queued when the process dies are lost, as are the events of a batch the delegate
+ * fails to publish.
+ */
+public class BatchingBuildEventPublisher implements BuildEventPublisher {
+    private static final Logger LOG = LoggerFactory.getLogger(BatchingBuildEventPublisher.class);
+    static final String METRIC_PREFIX = "teletraan.build_events.";
+
+    private final BuildEventPublisher delegate;
+    private final int batchSize;
+    private final BlockingQueue<BuildEvent> pending;
+    private final Counter queuedEvents;
+    private final Counter inlineEvents;
+    private final Counter publishedEvents;
+    private final Counter failedEvents;
+    private final Timer flushTimer;
+
+    public BatchingBuildEventPublisher(
+            BuildEventPublisher delegate, int maxPending, int batchSize) {
+        this.delegate = delegate;
+        this.batchSize = batchSize;
+        pending = new ArrayBlockingQueue<>(maxPending);
+        queuedEvents =
+                Counter.builder(METRIC_PREFIX + "events")
+                        .tag("result", "queued")
+                        .register(Metrics.globalRegistry);
+        inlineEvents =
+                Counter.builder(METRIC_PREFIX + "events")
+                        .tag("result", "inline")
+                        .register(Metrics.globalRegistry);
+        publishedEvents = Metrics.counter(METRIC_PREFIX + "published");
+        failedEvents = Metrics.counter(METRIC_PREFIX + "failed");
+        flushTimer = Metrics.timer(METRIC_PREFIX + "flush_duration");
+        Gauge.builder(METRIC_PREFIX + "pending", pending, BlockingQueue::size)
+                .description("Number of build events waiting for the next flush")
+                .register(Metrics.globalRegistry);
+    }
+
+    @Override
+    public void publish(BuildBean buildBean, String action) {
+        if (pending.offer(new BuildEvent(buildBean, action))) {
+            queuedEvents.increment();
+            return;
+        }
+        inlineEvents.increment();
+        delegate.publish(buildBean, action);
+    }
+
+    @Override
+    public void publishAll(List<BuildEvent> events) {
+        for (BuildEvent event : events) {
+            publish(event.getBuildBean(), event.getAction());
+        }
+    }
+
+    /** Publishes every queued event. */
+    public void flush() {
+        flushTimer.record(this::flushPending);
+    }
+
+    private void flushPending() {
+        // Events queued during the flush go to the next one, so a busy queue cannot hold it forever
+        int remaining = pending.size();
+        List<BuildEvent> batch = new ArrayList<>(batchSize);
+        while (remaining > 0 && pending.drainTo(batch, Math.min(batchSize, remaining)) > 0) {
+            remaining -= batch.size();
+            try {
+                delegate.publishAll(batch);
+                publishedEvents.increment(batch.size());
+            } catch (Exception e) {
+                LOG.error("Failed to publish {} build events", batch.size(), e);
+                failedEvents.increment(batch.size());
+            }
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+}
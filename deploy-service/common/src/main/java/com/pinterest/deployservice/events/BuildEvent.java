@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.events;
+
+import com.pinterest.deployservice.bean.BuildBean;
+
+/** An action on a build, waiting to be published. */
+public final class BuildEvent {
+    private final BuildBean buildBean;
+    private final String action;
+
+    public BuildEvent(BuildBean buildBean, String action) {
+        this.buildBean = buildBean;
+        this.action = action;
+    }
+
+    public BuildBean getBuildBean() {
+        return buildBean;
+    }
+
+    public String getAction() {
+        return action;
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.events;
+
+import com.pinterest.deployservice.bean.BuildBean;
+import com.pinterest.deployservice.bean.EventOutboxBean;
+import com.pinterest.deployservice.bean.UpdateStatement;
+import com.pinterest.deployservice.dao.EventOutboxDAO;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.dbcp.BasicDataSource;
+import org.apache.commons.dbutils.QueryRunner;
+
+/**
+ * Publishes build events by writing them to {@code event_outbox}, from where {@link
+ * EventOutboxRelay} delivers them. Callers that change builds add {@link #genInsertStatement} to
+ * their transaction, so an event is recorded if and only if its change is.
+ *
+ * <p>The events have the source, detail type and detail of those of {@link EventBridgePublisher}.
+ */
+public class BuildEventOutbox implements BuildEventPublisher {
+    // Name of the relay delivering the build events, its lock and high-water mark go by it
+    public static final String RELAY_NAME = "build_events";
+
+    private final EventOutboxDAO eventOutboxDAO;
+    private final BasicDataSource dataSource;
+
+    public BuildEventOutbox(EventOutboxDAO eventOutboxDAO, BasicDataSource dataSource) {
+        this.eventOutboxDAO = eventOutboxDAO;
+        this.dataSource = dataSource;
+    }
+
+    /** Statement recording the events, to run in the transaction of the change. */
+    public UpdateStatement genInsertStatement(List<BuildEvent> events) {
+        List<EventOutboxBean> rows = new ArrayList<>(events.size());
+        for (BuildEvent event : events) {
+            EventOutboxBean row = new EventOutboxBean();
+            row.setSource(EventBridgePublisher.TELETRAAN_SOURCE);
+            row.setDetail_type(EventBridgePublisher.DETAIL_TYPE);
+            row.setDetail(
+                    EventBridgePublisher.buildEventDetailJson(
+                            event.getBuildBean(), event.getAction()));
+            rows.add(row);
+        }
+        return eventOutboxDAO.genInsertAllStatement(rows);
+    }
+
+    /** Records the event on its own, for changes made outside a transaction. */
+    @Override
+    public void publish(BuildBean buildBean, String action) {
+        publishAll(Collections.singletonList(new BuildEvent(buildBean, action)));
+    }
+
+    @Override
+    public void publishAll(List<BuildEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        UpdateStatement statement = genInsertStatement(events);
+        try {
+            new QueryRunner(dataSource).update(statement.getStatement(), statement.getValueArray());
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to record build events", e);
+        }
+    }
+}
@@ -16,7 +16,15 @@
 package com.pinterest.deployservice.events;
 
 import com.pinterest.deployservice.bean.BuildBean;
+import java.util.List;
 
 public interface BuildEventPublisher {
     void publish(BuildBean buildBean, String action);
+
+    /** Publishes the events in order, in as few calls as the publisher allows. */
+    default void publishAll(List<BuildEvent> events) {
+        for (BuildEvent event : events) {
+            publish(event.getBuildBean(), event.getAction());
+        }
+    }
 }
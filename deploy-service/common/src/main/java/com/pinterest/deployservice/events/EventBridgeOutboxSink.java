@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.events;
+
+import com.pinterest.deployservice.bean.EventOutboxBean;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.eventbridge.EventBridgeAsyncClient;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsRequestEntry;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsResultEntry;
+
+/** Delivers outbox events to an Event Bridge bus, one PutEvents call per batch. */
+public class EventBridgeOutboxSink implements EventOutboxSink {
+    private static final Logger LOG = LoggerFactory.getLogger(EventBridgeOutboxSink.class);
+
+    private final EventBridgeAsyncClient eventBridgeAsyncClient;
+    private final String eventBusName;
+
+    public EventBridgeOutboxSink(
+            EventBridgeAsyncClient eventBridgeAsyncClient, String eventBusName) {
+        this.eventBridgeAsyncClient = eventBridgeAsyncClient;
+        this.eventBusName = eventBusName;
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return EventBridgePublisher.MAX_ENTRIES_PER_REQUEST;
+    }
+
+    @Override
+    public CompletableFuture<Set<Long>> deliver(List<EventOutboxBean> events) {
+        List<PutEventsRequestEntry> entries = new ArrayList<>(events.size());
+        for (EventOutboxBean event : events) {
+            entries.add(
+                    PutEventsRequestEntry.builder()
+                            .eventBusName(eventBusName)
+                            .source(event.getSource())
+                            .detailType(event.getDetail_type())
+                            .detail(event.getDetail())
+                            .build());
+        }
+        return eventBridgeAsyncClient
+                .putEvents(r -> r.entries(entries))
+                .thenApply(
+                        response -> {
+                            // Result entries are in the order of the request entries
+                            Set<Long> failed = new HashSet<>();
+                            List<PutEventsResultEntry> results = response.entries();
+                            for (int i = 0; i < events.size(); i++) {
+                                if (i >= results.size() || results.get(i).errorCode() != null) {
+                                    failed.add(events.get(i).getSeq());
+                                }
+                            }
+                            if (!failed.isEmpty()) {
+                                LOG.warn(
+                                        "Event Bridge rejected {} of {} events: {}",
+                                        failed.size(),
+                                        events.size(),
+                                        results);
+                            }
+                            return failed;
+                        });
+    }
+}
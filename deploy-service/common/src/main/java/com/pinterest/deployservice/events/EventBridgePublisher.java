@@ -15,10 +15,12 @@
  */
 package com.pinterest.deployservice.events;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.pinterest.deployservice.bean.BuildBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,11 +32,13 @@ public class EventBridgePublisher implements BuildEventPublisher {
     public static final String TELETRAAN_SOURCE = "teletraan.build";
     public static final String DETAIL_TYPE = "Teletraan Build Action";
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
     private final EventBridgeAsyncClient eventBridgeAsyncClient;
     private final String eventBusName;
     private static final Logger logger = LoggerFactory.getLogger(EventBridgePublisher.class);
     private static final String ORIGIN_PREFIX = "origin/";
+    // The most entries Event Bridge takes in one PutEvents call
+    public static final int MAX_ENTRIES_PER_REQUEST = 10;
 
     public EventBridgePublisher(
             EventBridgeAsyncClient eventBridgeAsyncClient, String eventBusName) {
@@ -44,49 +48,71 @@ public class EventBridgePublisher implements BuildEventPublisher {
 
     @Override
     public void publish(BuildBean buildBean, String action) {
-        final String originalBranch = buildBean.getScm_branch();
+        putEvents(Collections.singletonList(buildEventEntry(buildBean, action)));
+    }
 
-        // Some legacy CI jobs still use remote-tracking branch (with prefix "origin/" added to
-        // branch name).
-        // Remove this prefix before publishing.
-        if (StringUtils.startsWithIgnoreCase(originalBranch, ORIGIN_PREFIX)
-                && !StringUtils.equalsIgnoreCase(originalBranch, ORIGIN_PREFIX)) {
-            final String localBranch = buildBean.getScm_branch().substring(ORIGIN_PREFIX.length());
-            buildBean.setScm_branch(localBranch);
+    @Override
+    public void publishAll(List<BuildEvent> events) {
+        List<PutEventsRequestEntry> entries = new ArrayList<>(MAX_ENTRIES_PER_REQUEST);
+        for (BuildEvent event : events) {
+            entries.add(buildEventEntry(event.getBuildBean(), event.getAction()));
+            if (entries.size() == MAX_ENTRIES_PER_REQUEST) {
+                putEvents(entries);
+                entries = new ArrayList<>(MAX_ENTRIES_PER_REQUEST);
+            }
+        }
+        if (!entries.isEmpty()) {
+            putEvents(entries);
         }
+    }
 
-        PutEventsRequestEntry entry =
-                PutEventsRequestEntry.builder()
-                        .eventBusName(eventBusName)
-                        .source(TELETRAAN_SOURCE)
-                        .detail(buildEventDetailJson(buildBean, action))
-                        .detailType(DETAIL_TYPE)
-                        .build();
+    private PutEventsRequestEntry buildEventEntry(BuildBean buildBean, String action) {
+        return PutEventsRequestEntry.builder()
+                .eventBusName(eventBusName)
+                .source(TELETRAAN_SOURCE)
+                .detail(buildEventDetailJson(buildBean, action))
+                .detailType(DETAIL_TYPE)
+                .build();
+    }
 
+    private void putEvents(List<PutEventsRequestEntry> entries) {
         try {
             eventBridgeAsyncClient
-                    .putEvents(e -> e.entries(entry).build())
+                    .putEvents(e -> e.entries(entries).build())
                     .whenCompleteAsync(
                             (response, err) -> {
                                 if (err != null) {
                                     logger.error(
-                                            "Failed to publish event to Event Bridge: {}",
-                                            entry,
+                                            "Failed to publish events to Event Bridge: {}",
+                                            entries,
                                             err);
+                                } else if (response != null
+                                        && response.failedEntryCount() != null
+                                        && response.failedEntryCount() > 0) {
+                                    logger.error(
+                                            "Event Bridge rejected {} of the events: {}",
+                                            response.failedEntryCount(),
+                                            response.entries());
                                 }
                             });
-            logger.info("Published build event {}", entry);
+            logger.info("Published build events {}", entries);
         } catch (Exception e) {
-            logger.error("Failed to publish event to Event Bridge: {}", entry, e);
+            logger.error("Failed to publish events to Event Bridge: {}", entries, e);
         }
-
-        // set branch name back to its original value in case it's expected.
-        buildBean.setScm_branch(originalBranch);
     }
 
-    private String buildEventDetailJson(BuildBean buildBean, String action) {
-        JsonNode buildBeanJsonNode = objectMapper.valueToTree(buildBean);
-        ((ObjectNode) buildBeanJsonNode).put("action-type", action);
+    static String buildEventDetailJson(BuildBean buildBean, String action) {
+        ObjectNode buildBeanJsonNode = OBJECT_MAPPER.valueToTree(buildBean);
+        // Some legacy CI jobs still use remote-tracking branch (with prefix "origin/" added to
+        // branch name).
+        // Remove this prefix before publishing. The bean is left as is, it may be in use by the
+        // request that published it.
+        String branch = buildBean.getScm_branch();
+        if (StringUtils.startsWithIgnoreCase(branch, ORIGIN_PREFIX)
+                && !StringUtils.equalsIgnoreCase(branch, ORIGIN_PREFIX)) {
+            buildBeanJsonNode.put("branch", branch.substring(ORIGIN_PREFIX.length()));
+        }
+        buildBeanJsonNode.put("action-type", action);
         return buildBeanJsonNode.toString();
     }
 }
@@ -0,0 +1,256 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.events;
+
+import com.google.common.collect.Lists;
+import com.pinterest.deployservice.bean.EventOutboxBean;
+import com.pinterest.deployservice.dao.EventOutboxDAO;
+import com.pinterest.deployservice.lock.LockManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delivers the events of {@code event_outbox} to a sink, in seq order and at least once.
+ *
+ * <p>Each {@link #relay} run reads the events above the high-water mark, the seq up to which every
+ * event was delivered, and hands them to the sink in batches of at most {@link
+ * EventOutboxSink#maxBatchSize}, with up to {@code maxInFlight} batches outstanding. The mark then
+ * moves up to the first event that was not delivered, so that event and the ones after it are
+ * delivered again on the next run. Delivered events stay in the outbox until {@link #purge}.
+ *
+ * <p>Only one service process relays at a time, under the {@code EVENT_OUTBOX} lock. A seq may
+ * become visible after a higher one, when its transaction commits later. The relay therefore does
+ * not pass a gap in the seqs until the event after it is {@code gapGraceMs} old, by the database
+ * clock that stamps the events. A gap left by a rolled back transaction only delays delivery by
+ * that much. The seqs of a passed gap are read again on the runs of this process for {@code
+ * GAP_WATCH_GRACES} times the grace, well within the retention, and an event that shows up late is
+ * delivered out of order.
+ */
+public class EventOutboxRelay {
+    private static final Logger LOG = LoggerFactory.getLogger(EventOutboxRelay.class);
+    static final String METRIC_PREFIX = "teletraan.event_outbox.";
+    static final String LOCK_FAMILY = "EVENT_OUTBOX";
+    // How long a run waits for the sink before it counts the outstanding batches as failed
+    private static final long DELIVERY_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(60);
+    static final int GAP_WATCH_GRACES = 10;
+    // Bounds the seqs watched after a gap, a larger gap is only partly watched
+    static final int MAX_WATCHED_SEQS = 1000;
+
+    private final String name;
+    private final EventOutboxDAO eventOutboxDAO;
+    private final EventOutboxSink sink;
+    private final LockManager lockManager;
+    private final int maxInFlight;
+    private final int maxBatchesPerRun;
+    private final long gapGraceMs;
+    private final AtomicLong highWaterMark = new AtomicLong();
+    // Seqs of passed gaps, by the database time they were passed
+    private final Map<Long, Long> skipped = new TreeMap<>();
+    private final Counter deliveredEvents;
+    private final Counter failedEvents;
+    private final Counter skippedSeqs;
+    private final Counter lateEvents;
+    private final Timer relayTimer;
+
+    public EventOutboxRelay(
+            String name,
+            EventOutboxDAO eventOutboxDAO,
+            EventOutboxSink sink,
+            LockManager lockManager,
+            int maxInFlight,
+            int maxBatchesPerRun,
+            long gapGraceMs) {
+        this.name = name;
+        this.eventOutboxDAO = eventOutboxDAO;
+        this.sink = sink;
+        this.lockManager = lockManager;
+        this.maxInFlight = maxInFlight;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.gapGraceMs = gapGraceMs;
+        deliveredEvents = Metrics.counter(METRIC_PREFIX + "delivered", "relay", name);
+        failedEvents = Metrics.counter(METRIC_PREFIX + "failed", "relay", name);
+        skippedSeqs = Metrics.counter(METRIC_PREFIX + "gap_skipped", "relay", name);
+        lateEvents = Metrics.counter(METRIC_PREFIX + "late", "relay", name);
+        relayTimer = Metrics.timer(METRIC_PREFIX + "relay_duration", "relay", name);
+        Gauge.builder(METRIC_PREFIX + "high_water_mark", highWaterMark, AtomicLong::get)
+                .tag("relay", name)
+                .description("Seq up to which every outbox event was delivered")
+                .register(Metrics.globalRegistry);
+    }
+
+    /** Delivers the pending events, unless another process is doing so. */
+    public void relay() {
+        LockManager.Lock lock = lockManager.tryLock(LOCK_FAMILY, name);
+        if (lock == null) {
+            return;
+        }
+        try {
+            relayTimer.recordCallable(this::relayPending);
+        } catch (Exception e) {
+            LOG.error("Failed to relay outbox events", e);
+        } finally {
+            lock.release();
+        }
+    }
+
+    private Void relayPending() throws Exception {
+        long now = eventOutboxDAO.getCurrentTime();
+        relaySkipped(now);
+        long mark = eventOutboxDAO.getHighWaterMark(name);
+        highWaterMark.set(mark);
+        List<EventOutboxBean> events =
+                untilGap(
+                        mark,
+                        eventOutboxDAO.getAfter(mark, sink.maxBatchSize() * maxBatchesPerRun),
+                        now);
+        if (events.isEmpty()) {
+            return null;
+        }
+
+        Set<Long> failed = deliver(events);
+        long newMark = mark;
+        for (EventOutboxBean event : events) {
+            if (failed.contains(event.getSeq())) {
+                break;
+            }
+            newMark = event.getSeq();
+        }
+        deliveredEvents.increment(events.size() - failed.size());
+        failedEvents.increment(failed.size());
+        if (newMark > mark) {
+            eventOutboxDAO.setHighWaterMark(name, newMark);
+            highWaterMark.set(newMark);
+        }
+        return null;
+    }
+
+    // The events up to the first gap in the seqs that may still be filled
+    private List<EventOutboxBean> untilGap(long mark, List<EventOutboxBean> events, long now) {
+        long expected = mark + 1;
+        List<EventOutboxBean> ready = new ArrayList<>(events.size());
+        for (EventOutboxBean event : events) {
+            if (event.getSeq() != expected) {
+                if (now - event.getCreated() < gapGraceMs) {
+                    break;
+                }
+                LOG.warn(
+                        "Passing the gap of outbox seqs {} to {}, {} ms after seq {} was created",
+                        expected,
+                        event.getSeq() - 1,
+                        now - event.getCreated(),
+                        event.getSeq());
+                skippedSeqs.increment(event.getSeq() - expected);
+                for (long seq = expected;
+                        seq < event.getSeq() && skipped.size() < MAX_WATCHED_SEQS;
+                        seq++) {
+                    skipped.put(seq, now);
+                }
+            }
+            ready.add(event);
+            expected = event.getSeq() + 1;
+        }
+        return ready;
+    }
+
+    // Delivers the events of passed gaps that were committed since
+    private void relaySkipped(long now) throws Exception {
+        skipped.values().removeIf(passed -> now - passed > GAP_WATCH_GRACES * gapGraceMs);
+        if (skipped.isEmpty()) {
+            return;
+        }
+        List<EventOutboxBean> late = eventOutboxDAO.getBySeqs(skipped.keySet());
+        if (late.isEmpty()) {
+            return;
+        }
+        Set<Long> failed = deliver(late);
+        for (EventOutboxBean event : late) {
+            if (!failed.contains(event.getSeq())) {
+                skipped.remove(event.getSeq());
+            }
+        }
+        LOG.warn(
+                "Delivered {} outbox events out of order, committed after their gap was passed",
+                late.size() - failed.size());
+        deliveredEvents.increment(late.size() - failed.size());
+        lateEvents.increment(late.size() - failed.size());
+        failedEvents.increment(failed.size());
+    }
+
+    // Returns the seqs of the events that were not delivered
+    private Set<Long> deliver(List<EventOutboxBean> events) throws InterruptedException {
+        Set<Long> failed = new HashSet<>();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        List<CompletableFuture<Set<Long>>> results = new ArrayList<>();
+        List<List<EventOutboxBean>> batches = Lists.partition(events, sink.maxBatchSize());
+        long deadline = System.currentTimeMillis() + DELIVERY_TIMEOUT_MS;
+        for (List<EventOutboxBean> batch : batches) {
+            CompletableFuture<Set<Long>> result = new CompletableFuture<>();
+            if (!inFlight.tryAcquire(remaining(deadline), TimeUnit.MILLISECONDS)) {
+                result.completeExceptionally(
+                        new IllegalStateException("Timed out waiting for earlier batches"));
+            } else {
+                try {
+                    result = sink.deliver(batch);
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+                result.whenComplete((undelivered, error) -> inFlight.release());
+            }
+            results.add(result);
+        }
+        for (int i = 0; i < batches.size(); i++) {
+            List<EventOutboxBean> batch = batches.get(i);
+            try {
+                failed.addAll(results.get(i).get(remaining(deadline), TimeUnit.MILLISECONDS));
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                LOG.warn("Failed to deliver {} outbox events", batch.size(), e);
+                for (EventOutboxBean event : batch) {
+                    failed.add(event.getSeq());
+                }
+            }
+        }
+        return failed;
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, deadline - System.currentTimeMillis());
+    }
+
+    /** Deletes the delivered events created before the time. */
+    public void purge(long before) {
+        try {
+            eventOutboxDAO.deleteBefore(before, eventOutboxDAO.getHighWaterMark(name));
+        } catch (Exception e) {
+            LOG.error("Failed to purge outbox events", e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.events;
+
+import com.pinterest.deployservice.bean.EventOutboxBean;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/** Where {@link EventOutboxRelay} delivers the events of the outbox. */
+public interface EventOutboxSink {
+    /** The most events one {@link #deliver} call takes. */
+    int maxBatchSize();
+
+    /**
+     * Delivers the events.
+     *
+     * @return completes with the seqs of the events that were not delivered, or exceptionally if
+     *     none was
+     */
+    CompletableFuture<Set<Long>> deliver(List<EventOutboxBean> events);
+}
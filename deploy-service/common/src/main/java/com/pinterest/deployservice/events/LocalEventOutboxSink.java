@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.events;
+
+import com.pinterest.deployservice.bean.EventOutboxBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stands in for Event Bridge in tests and local setups: logs the events and keeps the last {@code
+ * capacity} of them in memory.
+ */
+public class LocalEventOutboxSink implements EventOutboxSink {
+    private static final Logger LOG = LoggerFactory.getLogger(LocalEventOutboxSink.class);
+
+    private final int maxBatchSize;
+    private final int capacity;
+    private final List<EventOutboxBean> delivered = new ArrayList<>();
+
+    public LocalEventOutboxSink(int maxBatchSize, int capacity) {
+        this.maxBatchSize = maxBatchSize;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @Override
+    public CompletableFuture<Set<Long>> deliver(List<EventOutboxBean> events) {
+        synchronized (delivered) {
+            for (EventOutboxBean event : events) {
+                LOG.info("Delivered outbox event {}", event);
+                delivered.add(event);
+            }
+            if (delivered.size() > capacity) {
+                delivered.subList(0, delivered.size() - capacity).clear();
+            }
+        }
+        return CompletableFuture.completedFuture(Collections.emptySet());
+    }
+
+    /** Returns the events delivered so far, oldest first. */
+    public List<EventOutboxBean> getDelivered() {
+        synchronized (delivered) {
+            return new ArrayList<>(delivered);
+        }
+    }
+}
@@ -23,11 +23,12 @@ import com.pinterest.deployservice.common.StateMachines;
 import com.pinterest.deployservice.common.WebhookDataFactory;
 import com.pinterest.deployservice.dao.*;
 import com.pinterest.deployservice.email.MailManager;
+import com.pinterest.deployservice.entitycache.EntityCache;
 import com.pinterest.deployservice.events.DeployEvent;
+import com.pinterest.deployservice.lock.LockManager;
 import com.pinterest.teletraan.universal.events.AppEventPublisher;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Metrics;
-import java.sql.Connection;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -43,13 +44,15 @@ public class CommonHandler {
     private DeployDAO deployDAO;
     private EnvironDAO environDAO;
     private BuildDAO buildDAO;
+    private EntityCache entityCache;
     private AgentDAO agentDAO;
-    private UtilDAO utilDAO;
+    private LockManager lockManager;
     private ScheduleDAO scheduleDAO;
     private ChatManager chatManager;
     private AppEventPublisher publisher;
     private MailManager mailManager;
     private ExecutorService jobPool;
+    private WebhookDispatcher webhookDispatcher;
     private DataHandler dataHandler;
     private String deployBoardUrlPrefix;
     private Counter successCounter;
@@ -137,14 +140,16 @@ public class CommonHandler {
         deployDAO = serviceContext.getDeployDAO();
         environDAO = serviceContext.getEnvironDAO();
         buildDAO = serviceContext.getBuildDAO();
+        entityCache = serviceContext.getEntityCache();
         agentDAO = serviceContext.getAgentDAO();
-        utilDAO = serviceContext.getUtilDAO();
+        lockManager = serviceContext.getLockManager();
         scheduleDAO = serviceContext.getScheduleDAO();
         publisher = serviceContext.getAppEventPublisher();
         chatManager = serviceContext.getChatManager();
         mailManager = serviceContext.getMailManager();
         buildTagsManager = serviceContext.getBuildTagsManager();
         jobPool = serviceContext.getJobPool();
+        webhookDispatcher = serviceContext.getWebhookDispatcher();
         dataHandler = new DataHandler(serviceContext);
         deployBoardUrlPrefix = serviceContext.getDeployBoardUrlPrefix();
         initializeMetrics();
@@ -161,6 +166,11 @@ public class CommonHandler {
                         .register(Metrics.globalRegistry);
     }
 
+    /** Builds never change once published, so they are read through the entity cache if any. */
+    private BuildBean getBuild(String buildId) throws Exception {
+        return entityCache == null ? buildDAO.getById(buildId) : entityCache.getBuild(buildId);
+    }
+
     public String getDeployAction(DeployType deployType) {
         String action = "deploy of";
         if (deployType == DeployType.ROLLBACK) {
@@ -175,7 +185,7 @@ public class CommonHandler {
             String buildId, EnvironBean envBean, DeployState state, DeployBean deployBean)
             throws Exception {
         DeployType deployType = deployBean.getDeploy_type();
-        BuildBean buildBean = buildDAO.getById(buildId);
+        BuildBean buildBean = getBuild(buildId);
         String webLink =
                 deployBoardUrlPrefix
                         + String.format(
@@ -339,13 +349,14 @@ public class CommonHandler {
         DeployState oldState = deployBean.getState();
 
         int sucThreshold = envBean.getSuccess_th();
-        long total = agentDAO.countAgentByEnv(envId);
+        AgentStatusHistogram histogram = agentDAO.getStatusHistogram(envId, deployId);
+        long total = histogram.countAgentByEnv();
         LOG.debug("There are total {} agents are expected for env {}", total, envId);
 
-        long succeeded = agentDAO.countSucceededAgent(envId, deployId);
+        long succeeded = histogram.countSucceededAgent();
         LOG.debug("Among them, {} agents are succeeded", succeeded);
 
-        long stucked = agentDAO.countStuckAgent(envId, deployId);
+        long stucked = histogram.countStuckAgent();
         LOG.debug("Among them, {} agents are stuck", stucked);
 
         newDeployBean.setSuc_total((int) succeeded);
@@ -368,7 +379,11 @@ public class CommonHandler {
                         dataHandler.getDataById(
                                 envBean.getWebhooks_config_id(), WebhookDataFactory.class);
                 if (webhooks != null && !CollectionUtils.isEmpty(webhooks.getPostDeployHooks())) {
-                    jobPool.submit(new WebhookJob(webhooks.getPostDeployHooks(), deployBean));
+                    if (webhookDispatcher != null) {
+                        webhookDispatcher.dispatch(webhooks.getPostDeployHooks(), deployBean);
+                    } else {
+                        jobPool.submit(new WebhookJob(webhooks.getPostDeployHooks(), deployBean));
+                    }
                     LOG.info("Submitted post deploy hook job for deploy {}.", deployId);
                 }
 
@@ -474,7 +489,7 @@ public class CommonHandler {
         if (newState == DeployState.SUCCEEDING && oldDeployBean.getSuc_date() == null) {
             try {
                 String build_id = oldDeployBean.getBuild_id();
-                BuildBean buildBean = buildDAO.getById(build_id);
+                BuildBean buildBean = getBuild(build_id);
                 String commit = buildBean.getScm_commit_7();
                 String envName = environBean.getEnv_name();
                 String stageName = environBean.getStage_name();
@@ -490,20 +505,17 @@ public class CommonHandler {
     }
 
     public void transitionDeployState(String deployId, EnvironBean envBean) throws Exception {
-        String lockName = String.format("STATE_TRANSITION-%s", deployId);
-        Connection connection = utilDAO.getLock(lockName);
-        if (connection != null) {
-            LOG.trace(String.format("DB lock operation is successful: get lock %s", lockName));
+        LockManager.Lock lock = lockManager.tryLock("STATE_TRANSITION", deployId);
+        if (lock != null) {
+            LOG.trace("Lock operation is successful: get lock {}", lock.getName());
             try {
                 internalTransition(deployId, envBean);
             } finally {
-                utilDAO.releaseLock(lockName, connection);
-                LOG.trace(
-                        String.format(
-                                "DB lock operation is successful: release lock %s", lockName));
+                lock.release();
+                LOG.trace("Lock operation is successful: release lock {}", lock.getName());
             }
         } else {
-            LOG.warn(String.format("DB lock operation fails: failed to get lock %s", lockName));
+            LOG.warn("Lock operation fails: failed to get lock STATE_TRANSITION-{}", deployId);
         }
     }
 
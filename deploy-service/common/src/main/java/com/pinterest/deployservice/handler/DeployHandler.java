@@ -117,11 +117,13 @@ public class DeployHandler implements DeployHandlerInterface {
     private final DataHandler dataHandler;
     private final SourceControlManagerProxy sourceControlManagerProxy;
     private final ExecutorService jobPool;
+    private final WebhookDispatcher webhookDispatcher;
     private final String deployBoardUrlPrefix;
     private final String changeFeedUrl;
     private final BuildTagsManager buildTagsManager;
     private final Allowlist buildAllowlist;
     private final ConfigHistoryHandler configHistoryHandler;
+    private final EnvChangeNotifier envChangeNotifier;
     static final String PRIVATE_BUILD_SCM_BRANCH = "private";
 
     private final class NotifyJob implements Callable<Void> {
@@ -249,11 +251,13 @@ public class DeployHandler implements DeployHandlerInterface {
         dataHandler = new DataHandler(serviceContext);
         sourceControlManagerProxy = serviceContext.getSourceControlManagerProxy();
         jobPool = serviceContext.getJobPool();
+        webhookDispatcher = serviceContext.getWebhookDispatcher();
         deployBoardUrlPrefix = serviceContext.getDeployBoardUrlPrefix();
         changeFeedUrl = serviceContext.getChangeFeedUrl();
         buildTagsManager = new BuildTagsManagerImpl(tagDAO);
         buildAllowlist = serviceContext.getBuildAllowlist();
         configHistoryHandler = new ConfigHistoryHandler(serviceContext);
+        envChangeNotifier = serviceContext.getEnvChangeNotifier();
     }
 
     private String generateMentions(
@@ -382,6 +386,9 @@ public class DeployHandler implements DeployHandlerInterface {
                 envBean.getEnv_id(),
                 oldDeployId,
                 finalState);
+        if (envChangeNotifier != null) {
+            envChangeNotifier.notifyChange(envBean.getEnv_id());
+        }
 
         jobPool.submit(
                 new NotifyJob(
@@ -396,7 +403,11 @@ public class DeployHandler implements DeployHandlerInterface {
         EnvWebHookBean webhook =
                 dataHandler.getDataById(envBean.getWebhooks_config_id(), WebhookDataFactory.class);
         if (webhook != null && !CollectionUtils.isEmpty(webhook.getPreDeployHooks())) {
-            jobPool.submit(new WebhookJob(webhook.getPreDeployHooks(), deployBean));
+            if (webhookDispatcher != null) {
+                webhookDispatcher.dispatch(webhook.getPreDeployHooks(), deployBean);
+            } else {
+                jobPool.submit(new WebhookJob(webhook.getPreDeployHooks(), deployBean));
+            }
         }
 
         LOG.info("Submitted notify job for deploy {}", deployId);
@@ -584,30 +595,31 @@ public class DeployHandler implements DeployHandlerInterface {
     }
 
     DeployBean getLastSucceededDeploy(EnvironBean envBean) throws Exception {
-        int index = 1;
         int size = 100;
         DeployFilterBean filterBean = new DeployFilterBean();
         filterBean.setEnvIds(Collections.singletonList(envBean.getEnv_id()));
-        filterBean.setPageIndex(index);
         filterBean.setPageSize(size);
+        // Page by keyset and skip counting, so older pages cost no more than the first one
+        filterBean.setCountLimit(0);
         int maxPages = 50; // This makes us check at most 5000 deploys
         int toCheckPages = maxPages;
         while (toCheckPages-- > 0) {
             DeployQueryFilter filter = new DeployQueryFilter(filterBean);
             DeployQueryResultBean resultBean = deployDAO.getAllDeploys(filter);
-            if (resultBean.getTotal() < 1) {
-                LOG.warn(
-                        "Could not find any previous succeeded deploy in env {}",
-                        envBean.getEnv_id());
-                return null;
-            }
             for (DeployBean deploy : resultBean.getDeploys()) {
                 if (deploy.getState() == DeployState.SUCCEEDED) {
                     return deploy;
                 }
             }
-            index += 1;
-            filterBean.setPageIndex(index);
+            if (!resultBean.isTruncated()) {
+                LOG.warn(
+                        "Could not find any previous succeeded deploy in env {}",
+                        envBean.getEnv_id());
+                return null;
+            }
+            DeployBean last = resultBean.getDeploys().get(resultBean.getDeploys().size() - 1);
+            filterBean.setCursorStartDate(last.getStart_date());
+            filterBean.setCursorDeployId(last.getDeploy_id());
         }
         LOG.warn(
                 "Latest {} deploys are all failed for {}. Give up",
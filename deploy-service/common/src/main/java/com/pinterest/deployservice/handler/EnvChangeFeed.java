@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.handler;
+
+import com.pinterest.deployservice.bean.EnvironBean;
+import com.pinterest.deployservice.dao.EnvironDAO;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Feeds {@link EnvChangeNotifier} with the env changes made through other service processes.
+ *
+ * <p>Every {@link #poll} reads the deploy id and states of all envs in one narrow query, and
+ * notifies the envs that differ from the previous poll. The first poll only takes the snapshot.
+ * Changes made in this process are notified twice, which is harmless.
+ */
+public class EnvChangeFeed {
+    private static final Logger LOG = LoggerFactory.getLogger(EnvChangeFeed.class);
+
+    private final EnvironDAO environDAO;
+    private final EnvChangeNotifier notifier;
+    // Only touched by the polling thread
+    private Map<String, String> lastStates;
+
+    public EnvChangeFeed(EnvironDAO environDAO, EnvChangeNotifier notifier) {
+        this.environDAO = environDAO;
+        this.notifier = notifier;
+    }
+
+    public void poll() {
+        try {
+            List<EnvironBean> envs = environDAO.getAllEnvStates();
+            Map<String, String> states = new HashMap<>(envs.size() * 2);
+            for (EnvironBean env : envs) {
+                states.put(
+                        env.getEnv_id(),
+                        env.getDeploy_id() + "/" + env.getEnv_state() + "/" + env.getState());
+            }
+            if (lastStates != null) {
+                for (Map.Entry<String, String> entry : states.entrySet()) {
+                    if (!entry.getValue().equals(lastStates.get(entry.getKey()))) {
+                        notifier.notifyChange(entry.getKey());
+                    }
+                }
+                for (String envId : lastStates.keySet()) {
+                    if (!states.containsKey(envId)) {
+                        notifier.notifyChange(envId);
+                    }
+                }
+            }
+            lastStates = states;
+        } catch (Exception e) {
+            LOG.error("Failed to poll env changes", e);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.handler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wakes up pings parked on a set of envs when one of those envs gets a new deploy or is changed.
+ *
+ * <p>Every {@link #notifyChange} takes the next number of a process-wide sequence and records it as
+ * the env's last change. A waiter subscribes with the sequence it read before computing its current
+ * goal, so a change that lands between that read and the subscription still fires it right away.
+ * Listeners run on the given executor, never on the thread that made the change.
+ *
+ * <p>Changes made through another service process only arrive through {@link EnvChangeFeed}, so
+ * they are seen one poll interval late.
+ */
+public class EnvChangeNotifier {
+    static final String METRIC_PREFIX = "teletraan.env_change_notifier.";
+
+    private final Executor executor;
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentHashMap<String, Long> changedAt = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<Waiter>> waiters = new ConcurrentHashMap<>();
+    private final AtomicInteger waiterCount = new AtomicInteger();
+    private final Counter notifications;
+    private final Counter wakeups;
+
+    public EnvChangeNotifier(Executor executor) {
+        this.executor = executor;
+        notifications = Metrics.counter(METRIC_PREFIX + "notifications");
+        wakeups = Metrics.counter(METRIC_PREFIX + "wakeups");
+        Gauge.builder(METRIC_PREFIX + "waiters", waiterCount, AtomicInteger::get)
+                .description("Number of pings waiting for a change of their envs")
+                .register(Metrics.globalRegistry);
+    }
+
+    /** Returns the current sequence, to be passed to {@link #subscribe} later. */
+    public long sequence() {
+        return sequence.get();
+    }
+
+    /** Records a change of the env and wakes up everyone waiting on it. */
+    public void notifyChange(String envId) {
+        long seq = sequence.incrementAndGet();
+        changedAt.merge(envId, seq, Math::max);
+        notifications.increment();
+        Set<Waiter> envWaiters = waiters.get(envId);
+        if (envWaiters != null) {
+            for (Waiter waiter : envWaiters) {
+                waiter.fire();
+            }
+        }
+    }
+
+    /** Returns true if any of the envs changed after {@code since}. */
+    public boolean changedSince(Collection<String> envIds, long since) {
+        for (String envId : envIds) {
+            Long changed = changedAt.get(envId);
+            if (changed != null && changed > since) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs the listener once, as soon as any of the envs changes after {@code since}. The listener
+     * runs right away if one of them already did.
+     */
+    public Subscription subscribe(Collection<String> envIds, long since, Runnable listener) {
+        Waiter waiter = new Waiter(new ArrayList<>(envIds), listener);
+        waiterCount.incrementAndGet();
+        for (String envId : waiter.envIds) {
+            waiters.compute(
+                    envId,
+                    (key, envWaiters) -> {
+                        if (envWaiters == null) {
+                            envWaiters = ConcurrentHashMap.newKeySet();
+                        }
+                        envWaiters.add(waiter);
+                        return envWaiters;
+                    });
+        }
+        // Registered before checking, so a concurrent notifyChange either sees the waiter or
+        // has already recorded its change
+        if (changedSince(waiter.envIds, since)) {
+            waiter.fire();
+        }
+        return waiter;
+    }
+
+    int waiterCount() {
+        return waiterCount.get();
+    }
+
+    /** A registered listener. */
+    public interface Subscription {
+        /**
+         * Unregisters the listener.
+         *
+         * @return false if the listener already ran or is about to
+         */
+        boolean cancel();
+    }
+
+    private final class Waiter implements Subscription {
+        private final List<String> envIds;
+        private final Runnable listener;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        Waiter(List<String> envIds, Runnable listener) {
+            this.envIds = envIds;
+            this.listener = listener;
+        }
+
+        void fire() {
+            if (unregister()) {
+                wakeups.increment();
+                executor.execute(listener);
+            }
+        }
+
+        @Override
+        public boolean cancel() {
+            return unregister();
+        }
+
+        private boolean unregister() {
+            if (!done.compareAndSet(false, true)) {
+                return false;
+            }
+            for (String envId : envIds) {
+                waiters.computeIfPresent(
+                        envId,
+                        (key, envWaiters) -> {
+                            envWaiters.remove(this);
+                            return envWaiters.isEmpty() ? null : envWaiters;
+                        });
+            }
+            waiterCount.decrementAndGet();
+            return true;
+        }
+    }
+}
@@ -41,6 +41,9 @@ public class EnvironHandler {
     private AgentDAO agentDAO;
     private GroupDAO groupDAO;
     private HostDAO hostDAO;
+    private PingEnvCache pingEnvCache;
+    private EnvChangeNotifier envChangeNotifier;
+    private GoalFingerprintIndex goalFingerprintIndex;
     private UdmDataUpdateService udmDataUpdateService;
     private CommonHandler commonHandler;
     private DataHandler dataHandler;
@@ -51,6 +54,9 @@ public class EnvironHandler {
         agentDAO = serviceContext.getAgentDAO();
         groupDAO = serviceContext.getGroupDAO();
         hostDAO = serviceContext.getHostDAO();
+        pingEnvCache = serviceContext.getPingEnvCache();
+        envChangeNotifier = serviceContext.getEnvChangeNotifier();
+        goalFingerprintIndex = serviceContext.getGoalFingerprintIndex();
         udmDataUpdateService = serviceContext.getUdmDataUpdateService();
         commonHandler = new CommonHandler(serviceContext);
         dataHandler = new DataHandler(serviceContext);
@@ -305,6 +311,17 @@ public class EnvironHandler {
     public void updateStage(EnvironBean updateBean, String operator) throws Exception {
         normalizeEnvRequest(updateBean, operator);
         environDAO.update(updateBean.getEnv_name(), updateBean.getStage_name(), updateBean);
+        invalidatePingEnvCache("stage");
+        // Pause, resume, enable and disable all come through here
+        if (envChangeNotifier != null && updateBean.getEnv_id() != null) {
+            envChangeNotifier.notifyChange(updateBean.getEnv_id());
+        }
+    }
+
+    private void invalidatePingEnvCache(String cause) {
+        if (pingEnvCache != null) {
+            pingEnvCache.invalidate(cause);
+        }
     }
 
     PromoteBean genDefaultEnvPromote(String envId) {
@@ -493,26 +510,18 @@ public class EnvironHandler {
         }
 
         DeployProgressBean progress = new DeployProgressBean();
-        List<AgentBean> agents = new ArrayList<>(agentBeans.size());
-        for (AgentBean agentBean : agentBeans) {
-            agents.add(agentBean);
-            // yep, we've seen it
-            if (!capacityHosts.isEmpty()) {
+        if (!capacityHosts.isEmpty()) {
+            for (AgentBean agentBean : agentBeans) {
+                // yep, we've seen it
                 capacityHosts.remove(agentBean.getHost_name());
             }
         }
 
-        List<HostBean> newHosts = new ArrayList<>();
-        for (String hostName : capacityHosts) {
-            Collection<HostBeanWithStatuses> hostBeans =
-                    hostDAO.getByEnvIdAndHostName(envBean.getEnv_id(), hostName);
-            if (!hostBeans.isEmpty()) {
-                newHosts.add(hostBeans.iterator().next());
-            }
-        }
+        List<HostBean> newHosts =
+                new ArrayList<>(hostDAO.getByEnvIdAndHostNames(envBean.getEnv_id(), capacityHosts));
 
         progress.setMissingHosts(new ArrayList<>(environDAO.getMissingHosts(envBean.getEnv_id())));
-        progress.setAgents(agents);
+        progress.setAgents(agentBeans);
         progress.setProvisioningHosts(newHosts);
         return progress;
     }
@@ -538,6 +547,9 @@ public class EnvironHandler {
         hostBean.setState(state);
         hostBean.setLast_update(System.currentTimeMillis());
         hostDAO.updateHostById(hostId, hostBean);
+        if (goalFingerprintIndex != null) {
+            goalFingerprintIndex.invalidateHost(hostId);
+        }
     }
 
     public void stopServiceOnHosts(Collection<String> hostIds, boolean replaceHost)
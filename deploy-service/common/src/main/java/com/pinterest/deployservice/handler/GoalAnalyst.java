@@ -17,7 +17,6 @@ package com.pinterest.deployservice.handler;
 
 import static com.pinterest.teletraan.universal.metrics.micrometer.PinStatsNamingConvention.CUSTOM_NAME_PREFIX;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pinterest.deployservice.bean.AgentBean;
 import com.pinterest.deployservice.bean.AgentState;
 import com.pinterest.deployservice.bean.AgentStatus;
@@ -36,7 +35,7 @@ import com.pinterest.deployservice.dao.DeployConstraintDAO;
 import com.pinterest.deployservice.dao.DeployDAO;
 import com.pinterest.deployservice.dao.EnvironDAO;
 import com.pinterest.deployservice.dao.HostDAO;
-import com.pinterest.deployservice.dao.HostTagDAO;
+import com.pinterest.deployservice.hosttag.HostTagIngester;
 import io.micrometer.core.instrument.Metrics;
 import java.time.Duration;
 import java.util.ArrayList;
@@ -66,11 +65,11 @@ public class GoalAnalyst {
     private String host;
     private String host_id;
     private DeployDAO deployDAO;
-    private HostTagDAO hostTagDAO;
     private DeployConstraintDAO deployConstraintDAO;
     private HostDAO hostDAO;
 
     private String ec2Tags;
+    private Map<String, String> parsedEc2Tags;
 
     // input maps, all keyed by envId
     private Map<String, EnvironBean> envs;
@@ -98,6 +97,9 @@ public class GoalAnalyst {
     // Uninstall candidates
     private List<UninstallCandidate> uninstallCandidates = new ArrayList<>();
 
+    // Host tags of the envs with a deploy constraint
+    private List<HostTagBean> observedHostTags = new ArrayList<>();
+
     private static final Set<AgentStatus> FATAL_AGENT_STATUSES = new HashSet<>();
 
     static {
@@ -228,7 +230,6 @@ public class GoalAnalyst {
 
     GoalAnalyst(
             DeployConstraintDAO deployConstraintDAO,
-            HostTagDAO hostTagDAO,
             DeployDAO deployDAO,
             EnvironDAO environDAO,
             HostDAO hostDAO,
@@ -245,7 +246,6 @@ public class GoalAnalyst {
         this.reports = reports;
         this.agents = agents;
         this.ec2Tags = ec2Tags;
-        this.hostTagDAO = hostTagDAO;
         this.deployConstraintDAO = deployConstraintDAO;
         this.hostDAO = hostDAO;
 
@@ -288,6 +288,21 @@ public class GoalAnalyst {
         return errorMessages;
     }
 
+    /**
+     * Host tags reported by the ping for envs with a deploy constraint. The analyst does not write
+     * them, the caller hands them to {@code HostTagIngester}.
+     */
+    public List<HostTagBean> getObservedHostTags() {
+        return observedHostTags;
+    }
+
+    private Map<String, String> getParsedEc2Tags() throws Exception {
+        if (parsedEc2Tags == null) {
+            parsedEc2Tags = HostTagIngester.parseTags(ec2Tags);
+        }
+        return parsedEc2Tags;
+    }
+
     private DeployStage getNextStage(DeployType deployType, DeployStage currStage) {
         return StateMachines.DEPLOY_TYPE_TRANSITION_MAP.get(deployType).get(currStage);
     }
@@ -671,41 +686,20 @@ public class GoalAnalyst {
             }
         }
 
-        // update host_tags table
+        // collect the host tag of envs with a deploy constraint, see getObservedHostTags
         if (ec2Tags != null && env != null && env.getDeploy_constraint_id() != null) {
             String constraintId = env.getDeploy_constraint_id();
             DeployConstraintBean deployConstraintBean = deployConstraintDAO.getById(constraintId);
             String tagName = deployConstraintBean.getConstraint_key();
-            ObjectMapper mapper = new ObjectMapper();
-            Map<String, String> tags = mapper.readValue(ec2Tags, Map.class);
-            if (tags.containsKey(tagName)) {
-                String tagValue = tags.get(tagName);
-                HostTagBean hostTagBean = hostTagDAO.get(host_id, tagName);
-                if (hostTagBean == null) {
-                    hostTagBean = new HostTagBean();
-                    hostTagBean.setHost_id(host_id);
-                    hostTagBean.setTag_name(tagName);
-                    hostTagBean.setTag_value(tagValue);
-                    hostTagBean.setEnv_id(envId);
-                    hostTagBean.setCreate_date(System.currentTimeMillis());
-                    hostTagDAO.insertOrUpdate(hostTagBean);
-                    LOG.info(
-                            "Create host tags from Deployd: insert host_tags with env id {}, host id {}, tag name {}, tag value {}",
-                            envId,
-                            host_id,
-                            tagName,
-                            tagValue);
-                } else if (tagValue.equals(hostTagBean.getTag_value()) == false) {
-                    hostTagBean.setTag_value(tagValue);
-                    hostTagBean.setCreate_date(System.currentTimeMillis());
-                    hostTagDAO.insertOrUpdate(hostTagBean);
-                    LOG.info(
-                            "Update host tags from Deployd: update host_tags with env id {}, host id {}, tag name {}, tag value {}",
-                            envId,
-                            host_id,
-                            tagName,
-                            tagValue);
-                }
+            String tagValue = getParsedEc2Tags().get(tagName);
+            if (tagValue != null) {
+                HostTagBean hostTagBean = new HostTagBean();
+                hostTagBean.setHost_id(host_id);
+                hostTagBean.setTag_name(tagName);
+                hostTagBean.setTag_value(tagValue);
+                hostTagBean.setEnv_id(envId);
+                hostTagBean.setCreate_date(System.currentTimeMillis());
+                observedHostTags.add(hostTagBean);
             }
         }
 
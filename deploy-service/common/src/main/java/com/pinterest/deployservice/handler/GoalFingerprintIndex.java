@@ -0,0 +1,231 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.handler;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.pinterest.deployservice.bean.AgentBean;
+import com.pinterest.deployservice.bean.EnvironBean;
+import com.pinterest.deployservice.bean.PingReportBean;
+import com.pinterest.deployservice.bean.PingRequestBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers, per host, the fingerprint of the last steady state NOOP computed by {@link
+ * PingHandler}, so that the next identical ping can be answered without touching MySQL.
+ *
+ * <p>The fingerprint covers the ping request and the server side state the goal was computed from:
+ * the deploy id and states of the host's envs, and the deploy stage, state and status of its
+ * agents. It is handed to the agent with the NOOP. A ping that echoes it back, with a request
+ * identical to the recorded one, matches when none of the host's envs changed since, according to
+ * {@link EnvChangeNotifier}.
+ *
+ * <p>Only goals without install, uninstall or agent updates are recorded, as those are the only
+ * ones that cannot move forward on their own. Changes the notifier does not see, such as capacity,
+ * deploy constraints or agents edited by workers, are bounded by the ttl of the entries, or dropped
+ * explicitly with {@link #invalidateHost} and {@link #invalidateAll}.
+ */
+public class GoalFingerprintIndex {
+    static final String METRIC_PREFIX = "teletraan.goal_fingerprint.";
+
+    private final EnvChangeNotifier notifier;
+    private final Cache<String, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+
+    public GoalFingerprintIndex(EnvChangeNotifier notifier, long ttlMs, long maxSize) {
+        this.notifier = notifier;
+        entries =
+                CacheBuilder.newBuilder()
+                        .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                        .maximumSize(maxSize)
+                        .build();
+        hits = lookups("hit");
+        misses = lookups("miss");
+    }
+
+    private static Counter lookups(String result) {
+        return Counter.builder(METRIC_PREFIX + "lookups")
+                .tag("result", result)
+                .register(Metrics.globalRegistry);
+    }
+
+    /** Returns the sequence to pass to {@link #record}, read before the goal is computed. */
+    public long sequence() {
+        return notifier.sequence();
+    }
+
+    /**
+     * Returns the env ids of the host if the request echoes a fingerprint that is still current, in
+     * which case the goal is NOOP. Returns null otherwise.
+     */
+    public Collection<String> match(PingRequestBean request) {
+        String fingerprint = request.getGoalFingerprint();
+        if (fingerprint == null) {
+            return null;
+        }
+        Entry entry = entries.getIfPresent(request.getHostId());
+        if (entry == null
+                || !entry.fingerprint.equals(fingerprint)
+                || !entry.requestDigest.equals(digest(request))
+                || notifier.changedSince(entry.envIds, entry.sequence)) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.envIds;
+    }
+
+    /**
+     * Records a steady state NOOP of the host.
+     *
+     * @param sequence the value of {@link #sequence} before envs and agents were read
+     * @return the fingerprint to hand to the agent
+     */
+    public String record(
+            PingRequestBean request,
+            long sequence,
+            Collection<EnvironBean> envs,
+            Collection<AgentBean> agents) {
+        String requestDigest = digest(request);
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        putString(hasher, requestDigest);
+        List<EnvironBean> sortedEnvs = new ArrayList<>(envs);
+        sortedEnvs.sort(Comparator.comparing(EnvironBean::getEnv_id));
+        List<String> envIds = new ArrayList<>(sortedEnvs.size());
+        for (EnvironBean env : sortedEnvs) {
+            envIds.add(env.getEnv_id());
+            putString(hasher, env.getEnv_id());
+            putString(hasher, env.getDeploy_id());
+            putString(hasher, env.getEnv_state());
+            putString(hasher, env.getState());
+        }
+        List<AgentBean> sortedAgents = new ArrayList<>(agents);
+        sortedAgents.sort(Comparator.comparing(AgentBean::getEnv_id));
+        for (AgentBean agent : sortedAgents) {
+            putString(hasher, agent.getEnv_id());
+            putString(hasher, agent.getDeploy_id());
+            putString(hasher, agent.getDeploy_stage());
+            putString(hasher, agent.getState());
+            putString(hasher, agent.getStatus());
+        }
+        String fingerprint = hasher.hash().toString();
+        entries.put(
+                request.getHostId(),
+                new Entry(
+                        fingerprint,
+                        requestDigest,
+                        Collections.unmodifiableList(envIds),
+                        sequence));
+        return fingerprint;
+    }
+
+    public void invalidateHost(String hostId) {
+        entries.invalidate(hostId);
+    }
+
+    public void invalidateAll() {
+        entries.invalidateAll();
+    }
+
+    // Every request field except the fingerprint itself, new fields must be added here
+    static String digest(PingRequestBean request) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        putString(hasher, request.getHostId());
+        putString(hasher, request.getHostName());
+        putString(hasher, request.getHostIp());
+        putString(hasher, request.getAutoscalingGroup());
+        putString(hasher, request.getAvailabilityZone());
+        putString(hasher, request.getEc2Tags());
+        putString(hasher, request.getAgentVersion());
+        putString(hasher, request.getStageType());
+        putString(hasher, request.getAccountId());
+        putString(hasher, request.getNormandieStatus());
+        putString(hasher, request.getKnoxStatus());
+        if (request.getGroups() != null) {
+            for (String group : new TreeSet<>(request.getGroups())) {
+                putString(hasher, group);
+            }
+        }
+        hasher.putInt(-1);
+        if (request.getReports() != null) {
+            List<PingReportBean> reports = new ArrayList<>(request.getReports());
+            reports.sort(
+                    Comparator.comparing(
+                            PingReportBean::getEnvId,
+                            Comparator.nullsFirst(Comparator.naturalOrder())));
+            for (PingReportBean report : reports) {
+                putString(hasher, report.getEnvId());
+                putString(hasher, report.getDeployId());
+                putString(hasher, report.getDeployStage());
+                putString(hasher, report.getAgentStatus());
+                putString(hasher, report.getErrorCode());
+                putString(hasher, report.getErrorMessage());
+                putString(hasher, report.getFailCount());
+                putString(hasher, report.getDeployAlias());
+                putString(hasher, report.getContainerHealthStatus());
+                putString(hasher, report.getAgentState());
+                if (report.getExtraInfo() != null) {
+                    for (Map.Entry<String, String> info :
+                            new TreeMap<>(report.getExtraInfo()).entrySet()) {
+                        putString(hasher, info.getKey());
+                        putString(hasher, info.getValue());
+                    }
+                }
+                hasher.putInt(-1);
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    // Length prefixed, so that adjacent values cannot run into each other
+    private static void putString(Hasher hasher, Object value) {
+        if (value == null) {
+            hasher.putInt(-1);
+            return;
+        }
+        String string = value.toString();
+        hasher.putInt(string.length());
+        hasher.putString(string, StandardCharsets.UTF_8);
+    }
+
+    private static final class Entry {
+        final String fingerprint;
+        final String requestDigest;
+        final List<String> envIds;
+        final long sequence;
+
+        Entry(String fingerprint, String requestDigest, List<String> envIds, long sequence) {
+            this.fingerprint = fingerprint;
+            this.requestDigest = requestDigest;
+            this.envIds = envIds;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.handler;
+
+import com.pinterest.deployservice.dao.GroupDAO;
+import java.util.List;
+
+/**
+ * A {@link GroupDAO} that drops the group and cluster mappings of a {@link PingEnvCache}, and the
+ * fingerprints of a {@link GoalFingerprintIndex}, on every capacity write, so that no write path
+ * can leave pings on a stale mapping or keep a host that just joined an env on a NOOP. Either may
+ * be null when it is not enabled. Reads go straight to the wrapped DAO.
+ */
+public class InvalidatingGroupDAO implements GroupDAO {
+    private final GroupDAO delegate;
+    private final PingEnvCache pingEnvCache;
+    private final GoalFingerprintIndex goalFingerprintIndex;
+
+    public InvalidatingGroupDAO(
+            GroupDAO delegate,
+            PingEnvCache pingEnvCache,
+            GoalFingerprintIndex goalFingerprintIndex) {
+        this.delegate = delegate;
+        this.pingEnvCache = pingEnvCache;
+        this.goalFingerprintIndex = goalFingerprintIndex;
+    }
+
+    @Override
+    public List<String> getAllEnvGroups() throws Exception {
+        return delegate.getAllEnvGroups();
+    }
+
+    @Override
+    public List<String> getEnvsByGroupName(String groupName) throws Exception {
+        return delegate.getEnvsByGroupName(groupName);
+    }
+
+    @Override
+    public List<String> getCapacityHosts(String envId) throws Exception {
+        return delegate.getCapacityHosts(envId);
+    }
+
+    @Override
+    public void addHostCapacity(String envId, String host) throws Exception {
+        delegate.addHostCapacity(envId, host);
+        invalidate("hosts");
+    }
+
+    @Override
+    public void removeHostCapacity(String envId, String host) throws Exception {
+        delegate.removeHostCapacity(envId, host);
+        invalidate("hosts");
+    }
+
+    @Override
+    public List<String> getCapacityGroups(String envId) throws Exception {
+        return delegate.getCapacityGroups(envId);
+    }
+
+    @Override
+    public void addGroupCapacity(String envId, String group) throws Exception {
+        delegate.addGroupCapacity(envId, group);
+        invalidate("groups");
+    }
+
+    @Override
+    public void removeGroupCapacity(String envId, String group) throws Exception {
+        delegate.removeGroupCapacity(envId, group);
+        invalidate("groups");
+    }
+
+    // Capacity names hosts, not host ids, so every fingerprint is dropped
+    private void invalidate(String cause) {
+        if (pingEnvCache != null) {
+            pingEnvCache.invalidate(cause);
+        }
+        if (goalFingerprintIndex != null) {
+            goalFingerprintIndex.invalidateAll();
+        }
+    }
+}
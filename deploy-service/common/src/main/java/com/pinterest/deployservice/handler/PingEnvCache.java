@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.handler;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.pinterest.deployservice.bean.EnvironBean;
+import com.pinterest.deployservice.dao.EnvironDAO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches how {@link PingHandler} resolves the groups and cluster a host reports to envs.
+ *
+ * <p>Group lookups join {@code groups_and_envs} with {@code environs}, and only change when someone
+ * edits capacity. The cache keeps the env ids matched by each group set, and loads the envs
+ * themselves by primary key on every ping, so deploy state such as {@code deploy_id} is never
+ * served stale. Cluster lookups are only used to find the stage type, and are cached whole.
+ *
+ * <p>Every entry remembers the version of the cache it was loaded under. {@link #invalidate} bumps
+ * the version, which also discards lookups that were in flight while the capacity changed. Entries
+ * also expire after a short ttl, which is what bounds staleness for edits made by other service
+ * processes.
+ */
+public class PingEnvCache {
+    static final String METRIC_PREFIX = "teletraan.ping_env_cache.";
+
+    private final EnvironDAO environDAO;
+    private final AtomicLong version = new AtomicLong();
+    private final Cache<Set<String>, Entry<List<String>>> groupEnvIds;
+    private final Cache<String, Entry<EnvironBean>> clusterEnvs;
+    private final Counter groupHits;
+    private final Counter groupMisses;
+    private final Counter clusterHits;
+    private final Counter clusterMisses;
+
+    public PingEnvCache(EnvironDAO environDAO, long ttlMs, long maxSize) {
+        this.environDAO = environDAO;
+        groupEnvIds =
+                CacheBuilder.newBuilder()
+                        .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                        .maximumSize(maxSize)
+                        .build();
+        clusterEnvs =
+                CacheBuilder.newBuilder()
+                        .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                        .maximumSize(maxSize)
+                        .build();
+        groupHits = requests("group", "hit");
+        groupMisses = requests("group", "miss");
+        clusterHits = requests("cluster", "hit");
+        clusterMisses = requests("cluster", "miss");
+    }
+
+    private static Counter requests(String lookup, String result) {
+        return Counter.builder(METRIC_PREFIX + "requests")
+                .tag("lookup", lookup)
+                .tag("result", result)
+                .register(Metrics.globalRegistry);
+    }
+
+    /** Same as {@link EnvironDAO#getEnvsByGroups}, with the group to env mapping cached. */
+    public List<EnvironBean> getEnvsByGroups(Set<String> groups) throws Exception {
+        Entry<List<String>> entry = groupEnvIds.getIfPresent(groups);
+        if (isCurrent(entry)) {
+            groupHits.increment();
+            if (entry.value.isEmpty()) {
+                return Collections.emptyList();
+            }
+            return environDAO.getByIds(entry.value);
+        }
+        groupMisses.increment();
+        long loadVersion = version.get();
+        List<EnvironBean> envs = environDAO.getEnvsByGroups(groups);
+        List<String> envIds = new ArrayList<>(envs.size());
+        for (EnvironBean env : envs) {
+            envIds.add(env.getEnv_id());
+        }
+        groupEnvIds.put(ImmutableSet.copyOf(groups), new Entry<>(loadVersion, envIds));
+        return envs;
+    }
+
+    /**
+     * Same as {@link EnvironDAO#getByCluster}, but the env may be up to a ttl old. Only use it for
+     * fields that change through {@code EnvironHandler.updateStage}, such as the stage type.
+     */
+    public EnvironBean getByCluster(String clusterName) throws Exception {
+        Entry<EnvironBean> entry = clusterEnvs.getIfPresent(clusterName);
+        if (isCurrent(entry)) {
+            clusterHits.increment();
+            return entry.value;
+        }
+        clusterMisses.increment();
+        long loadVersion = version.get();
+        EnvironBean env = environDAO.getByCluster(clusterName);
+        clusterEnvs.put(clusterName, new Entry<>(loadVersion, env));
+        return env;
+    }
+
+    /** Drops every cached mapping. {@code cause} only tags the invalidation metric. */
+    public void invalidate(String cause) {
+        version.incrementAndGet();
+        groupEnvIds.invalidateAll();
+        clusterEnvs.invalidateAll();
+        Metrics.counter(METRIC_PREFIX + "invalidations", "cause", cause).increment();
+    }
+
+    private boolean isCurrent(Entry<?> entry) {
+        return entry != null && entry.version == version.get();
+    }
+
+    private static final class Entry<V> {
+        final long version;
+        final V value;
+
+        Entry(long version, V value) {
+            this.version = version;
+            this.value = value;
+        }
+    }
+}
@@ -17,7 +17,6 @@ package com.pinterest.deployservice.handler;
 
 import static com.pinterest.teletraan.universal.metrics.micrometer.PinStatsNamingConvention.CUSTOM_NAME_PREFIX;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -63,10 +62,12 @@ import com.pinterest.deployservice.dao.HostAgentDAO;
 import com.pinterest.deployservice.dao.HostDAO;
 import com.pinterest.deployservice.dao.HostTagDAO;
 import com.pinterest.deployservice.dao.ScheduleDAO;
-import com.pinterest.deployservice.dao.UtilDAO;
+import com.pinterest.deployservice.entitycache.EntityCache;
+import com.pinterest.deployservice.heartbeat.HeartbeatBuffer;
+import com.pinterest.deployservice.hosttag.HostTagIngester;
+import com.pinterest.deployservice.lock.LockManager;
 import com.pinterest.deployservice.pingrequests.PingRequestValidator;
 import io.micrometer.core.instrument.Metrics;
-import java.sql.Connection;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -74,6 +75,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -110,9 +112,13 @@ public class PingHandler {
     private DeployDAO deployDAO;
     private BuildDAO buildDAO;
     private EnvironDAO environDAO;
+    private PingEnvCache pingEnvCache;
+    private GoalFingerprintIndex goalFingerprintIndex;
     private HostDAO hostDAO;
     private HostAgentDAO hostAgentDAO;
-    private UtilDAO utilDAO;
+    private HeartbeatBuffer heartbeatBuffer;
+    private HostTagIngester hostTagIngester;
+    private LockManager lockManager;
     private ScheduleDAO scheduleDAO;
     private HostTagDAO hostTagDAO;
     private GroupDAO groupDAO;
@@ -121,6 +127,7 @@ public class PingHandler {
     private DataHandler dataHandler;
     private LoadingCache<String, BuildBean> buildCache;
     private LoadingCache<String, DeployBean> deployCache;
+    private EntityCache entityCache;
     private List<PingRequestValidator> validators;
     private Long agentCountCacheTtl;
     private Long maxParallelThreshold;
@@ -134,10 +141,14 @@ public class PingHandler {
         deployDAO = serviceContext.getDeployDAO();
         buildDAO = serviceContext.getBuildDAO();
         environDAO = serviceContext.getEnvironDAO();
+        pingEnvCache = serviceContext.getPingEnvCache();
+        goalFingerprintIndex = serviceContext.getGoalFingerprintIndex();
         groupDAO = serviceContext.getGroupDAO();
         hostDAO = serviceContext.getHostDAO();
         hostAgentDAO = serviceContext.getHostAgentDAO();
-        utilDAO = serviceContext.getUtilDAO();
+        heartbeatBuffer = serviceContext.getHeartbeatBuffer();
+        hostTagIngester = serviceContext.getHostTagIngester();
+        lockManager = serviceContext.getLockManager();
         scheduleDAO = serviceContext.getScheduleDAO();
         hostTagDAO = serviceContext.getHostTagDAO();
         deployConstraintDAO = serviceContext.getDeployConstraintDAO();
@@ -147,8 +158,10 @@ public class PingHandler {
         agentCountCacheTtl = serviceContext.getAgentCountCacheTtl();
         maxParallelThreshold = serviceContext.getMaxParallelThreshold();
         accountAllowList = serviceContext.getAccountAllowList();
+        entityCache = serviceContext.getEntityCache();
 
-        if (serviceContext.isBuildCacheEnabled()) {
+        // The shared entity cache supersedes the build and deploy caches of this handler
+        if (entityCache == null && serviceContext.isBuildCacheEnabled()) {
             buildCache =
                     CacheBuilder.from(serviceContext.getBuildCacheSpec().replace(";", ","))
                             .build(
@@ -160,7 +173,7 @@ public class PingHandler {
                                     });
         }
 
-        if (serviceContext.isDeployCacheEnabled()) {
+        if (entityCache == null && serviceContext.isDeployCacheEnabled()) {
             deployCache =
                     CacheBuilder.from(serviceContext.getDeployCacheSpec().replace(";", ","))
                             .build(
@@ -222,6 +235,20 @@ public class PingHandler {
             NormandieStatus normandieStatus,
             KnoxStatus knoxStatus)
             throws Exception {
+        updateHostStatus(
+                hostId, hostName, hostIp, agentVersion, asg, normandieStatus, knoxStatus, null);
+    }
+
+    void updateHostStatus(
+            String hostId,
+            String hostName,
+            String hostIp,
+            String agentVersion,
+            String asg,
+            NormandieStatus normandieStatus,
+            KnoxStatus knoxStatus,
+            PingBatch batch)
+            throws Exception {
         HostAgentBean existingBean = hostAgentDAO.getHostById(hostId);
         long currentTime = System.currentTimeMillis();
 
@@ -251,7 +278,43 @@ public class PingHandler {
             existingBean.setKnox_status(knoxStatus);
             hostAgentDAO.update(hostId, existingBean);
         } else {
-            // Nothing changed except the heartbeat timestamp - lightweight single-column update
+            // Nothing changed except the heartbeat timestamp
+            touchLastUpdate(hostId, currentTime, batch);
+        }
+    }
+
+    /**
+     * Hands the host tags seen in the ping to the ingester. Without one, or when it is full, a tag
+     * is written right away if it differs from the stored one.
+     */
+    private void ingestHostTags(List<HostTagBean> hostTags) throws Exception {
+        List<HostTagBean> changed = new ArrayList<>();
+        for (HostTagBean hostTag : hostTags) {
+            if (hostTagIngester != null && hostTagIngester.record(hostTag)) {
+                continue;
+            }
+            HostTagBean stored = hostTagDAO.get(hostTag.getHost_id(), hostTag.getTag_name());
+            if (stored == null || !hostTag.getTag_value().equals(stored.getTag_value())) {
+                changed.add(hostTag);
+            }
+        }
+        if (!changed.isEmpty()) {
+            LOG.info("Update host tags from Deployd: {}", changed);
+            hostTagDAO.insertOrUpdateAll(changed);
+        }
+    }
+
+    private void touchLastUpdate(String hostId, long currentTime, PingBatch batch)
+            throws Exception {
+        if (heartbeatBuffer != null && heartbeatBuffer.record(hostId, currentTime)) {
+            // Written by the next buffer flush
+            return;
+        }
+        if (batch != null) {
+            // Touched with the rest of the batch
+            batch.heartbeats.add(hostId);
+        } else {
+            // Lightweight single-column update
             hostAgentDAO.touchLastUpdate(hostId, currentTime);
         }
     }
@@ -298,6 +361,11 @@ public class PingHandler {
     }
 
     void updateAgentsSafely(Collection<AgentBean> updateBeans, Map<String, String> errorMessages) {
+        updateAgentsSafely(updateBeans, errorMessages, null);
+    }
+
+    void updateAgentsSafely(
+            Collection<AgentBean> updateBeans, Map<String, String> errorMessages, PingBatch batch) {
         LOG.debug("Update agent beans with the following: {}", updateBeans);
         for (AgentBean bean : updateBeans) {
             try {
@@ -324,7 +392,11 @@ public class PingHandler {
                         }
                     }
                 }
-                agentDAO.insertOrUpdate(bean);
+                if (batch != null) {
+                    batch.agentUpdates.add(bean);
+                } else {
+                    agentDAO.insertOrUpdate(bean);
+                }
             } catch (Exception e) {
                 LOG.error("Failed to update agent {}.", bean, e);
             }
@@ -406,16 +478,15 @@ public class PingHandler {
          * while the cache is expired. Pings that lose the lock defer to their next cycle
          * instead of duplicating the scans.
          */
-        String deployLockName = String.format("DEPLOY-%s", envId);
-        Connection connection = utilDAO.getLock(deployLockName);
-        if (connection == null) {
+        LockManager.Lock lock = lockManager.tryLock("DEPLOY", envId);
+        if (lock == null) {
             LOG.debug(
                     "Env {}: agent count is being refreshed by another host, host {} will wait for deploy.",
                     envId,
                     host);
             return false;
         }
-        LOG.info("Successfully get lock on {}", deployLockName);
+        LOG.info("Successfully get lock on {}", lock.getName());
         try {
             LOG.debug(
                     "Got lock on behavor of host {} for env {}, verify active agents", host, envId);
@@ -512,8 +583,8 @@ public class PingHandler {
                     e.toString());
             return false;
         } finally {
-            utilDAO.releaseLock(deployLockName, connection);
-            LOG.info("Successfully released lock on {}", deployLockName);
+            lock.release();
+            LOG.info("Successfully released lock on {}", lock.getName());
         }
     }
 
@@ -831,20 +902,37 @@ public class PingHandler {
         return pingRequest;
     }
 
-    private EnvironBean populateEnviron(String asgName) throws Exception {
+    private EnvironBean populateEnviron(String asgName, PingBatch batch) throws Exception {
         if (asgName == null) {
             return null;
         }
-        EnvironBean envBean = environDAO.getByCluster(asgName);
+        if (batch == null) {
+            return populateEnviron(asgName);
+        }
+        // Null is a valid answer too, so check the key rather than the value
+        if (!batch.clusterEnvs.containsKey(asgName)) {
+            batch.clusterEnvs.put(asgName, populateEnviron(asgName));
+        }
+        return batch.clusterEnvs.get(asgName);
+    }
+
+    private EnvironBean populateEnviron(String asgName) throws Exception {
+        EnvironBean envBean = getByCluster(asgName);
         String spot_postfix = "-spot";
         if (envBean == null && asgName.endsWith(spot_postfix)) {
             // spot asg case
             StringUtils.removeEnd(asgName, spot_postfix);
-            envBean = environDAO.getByCluster(asgName);
+            envBean = getByCluster(asgName);
         }
         return envBean;
     }
 
+    private EnvironBean getByCluster(String clusterName) throws Exception {
+        return pingEnvCache == null
+                ? environDAO.getByCluster(clusterName)
+                : pingEnvCache.getByCluster(clusterName);
+    }
+
     private EnvType stageTypeMapping(EnvType type) {
         if (type == EnvType.DEV || type == EnvType.STAGING) {
             return EnvType.LATEST;
@@ -853,12 +941,13 @@ public class PingHandler {
         }
     }
 
-    private EnvType populateStageType(PingRequestBean pingRequest) throws Exception {
+    private EnvType populateStageType(PingRequestBean pingRequest, PingBatch batch)
+            throws Exception {
         if (pingRequest.getStageType() != null) {
             return pingRequest.getStageType();
         }
 
-        EnvironBean envBean = populateEnviron(pingRequest.getAutoscalingGroup());
+        EnvironBean envBean = populateEnviron(pingRequest.getAutoscalingGroup(), batch);
         if (envBean != null && envBean.getStage_type() != EnvType.DEFAULT) {
             return envBean.getStage_type();
         }
@@ -866,7 +955,7 @@ public class PingHandler {
         // Search for stage type from groups like CMP,group
         Set<String> groups = pingRequest.getGroups();
         for (String group : groups) {
-            envBean = populateEnviron(group);
+            envBean = populateEnviron(group, batch);
             if (envBean != null && envBean.getStage_type() != EnvType.DEFAULT) {
                 return envBean.getStage_type();
             }
@@ -908,10 +997,14 @@ public class PingHandler {
     // Creates composite deploy group. size is limited by group_name size in hosts table.
     // TODO: Consider storing host <-> shard mapping separately.
     GroupBuckets bucketGroups(PingRequestBean pingRequest) throws Exception {
+        return bucketGroups(pingRequest, null);
+    }
+
+    GroupBuckets bucketGroups(PingRequestBean pingRequest, PingBatch batch) throws Exception {
         Set<String> reported = new HashSet<>(pingRequest.getGroups());
 
         List<String> shards = new ArrayList<>();
-        EnvType stageType = populateStageType(pingRequest);
+        EnvType stageType = populateStageType(pingRequest, batch);
         // A tmp solution to map dev and staging to latest.
         // This way sidecar deployments will work without sidecar owners to update their env/stage
         // setup and spinnaker pipelines, which might take a long time.
@@ -949,8 +1042,95 @@ public class PingHandler {
         return bucketGroups(pingRequest).all();
     }
 
+    private List<EnvironBean> getEnvsByGroups(Set<String> groups, PingBatch batch)
+            throws Exception {
+        if (groups.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (batch == null) {
+            return getEnvsByGroups(groups);
+        }
+        List<EnvironBean> envs = batch.groupEnvs.get(groups);
+        if (envs == null) {
+            envs = getEnvsByGroups(groups);
+            batch.groupEnvs.put(new HashSet<>(groups), envs);
+        }
+        return envs;
+    }
+
+    private List<EnvironBean> getEnvsByGroups(Set<String> groups) throws Exception {
+        return pingEnvCache == null
+                ? environDAO.getEnvsByGroups(groups)
+                : pingEnvCache.getEnvsByGroups(groups);
+    }
+
+    /**
+     * State shared by the pings of one {@link #pingBatch} call: env lookups by cluster and group,
+     * which hosts of the same fleet mostly have in common, and the heartbeat and agent writes that
+     * are deferred until the end of the batch.
+     */
+    static final class PingBatch {
+        final Map<String, EnvironBean> clusterEnvs = new HashMap<>();
+        final Map<Set<String>, List<EnvironBean>> groupEnvs = new HashMap<>();
+        final Set<String> heartbeats = new LinkedHashSet<>();
+        final List<AgentBean> agentUpdates = new ArrayList<>();
+    }
+
+    /**
+     * Handles the pings of many hosts in one call. Each ping is handled as by {@link #ping}, except
+     * that env lookups are shared across the batch, and timestamp-only heartbeats and agent updates
+     * are written once every ping has been handled, as batched statements. Agents admitted by
+     * {@link #canDeploy} are still written immediately, so that later pings in the batch count
+     * them.
+     *
+     * @return one result per request, in request order. A request that fails gets a null result and
+     *     does not fail the rest of the batch.
+     */
+    public List<PingResult> pingBatch(List<PingRequestBean> pingRequests, boolean rate_limited)
+            throws Exception {
+        PingBatch batch = new PingBatch();
+        List<PingResult> results = new ArrayList<>(pingRequests.size());
+        for (PingRequestBean pingRequest : pingRequests) {
+            try {
+                results.add(ping(pingRequest, rate_limited, batch));
+            } catch (Exception e) {
+                LOG.error("Failed to handle ping {} in batch", pingRequest, e);
+                results.add(null);
+            }
+        }
+
+        try {
+            hostAgentDAO.touchLastUpdates(batch.heartbeats, System.currentTimeMillis());
+        } catch (Exception e) {
+            // The heartbeats are only timestamps, the next ping of each host writes them again
+            LOG.error("Failed to update {} heartbeats for ping batch", batch.heartbeats.size(), e);
+        }
+        if (!batch.agentUpdates.isEmpty()) {
+            LOG.debug("Update {} agent records for ping batch.", batch.agentUpdates.size());
+            try {
+                agentDAO.insertOrUpdateAll(batch.agentUpdates);
+            } catch (Exception e) {
+                // Fall back to one row at a time, so one bad row does not drop the others
+                LOG.warn("Failed to batch update agents, retry one by one", e);
+                for (AgentBean bean : batch.agentUpdates) {
+                    try {
+                        agentDAO.insertOrUpdate(bean);
+                    } catch (Exception ex) {
+                        LOG.error("Failed to update agent {}.", bean, ex);
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
     /** This is the core function to update agent status and compute deploy goal */
     public PingResult ping(PingRequestBean pingRequest, boolean rate_limited) throws Exception {
+        return ping(pingRequest, rate_limited, null);
+    }
+
+    private PingResult ping(PingRequestBean pingRequest, boolean rate_limited, PingBatch batch)
+            throws Exception {
         // handle empty or unexpected request fields
         pingRequest = normalizePingRequest(pingRequest);
 
@@ -961,11 +1141,27 @@ public class PingHandler {
             }
         }
 
+        long fingerprintSequence = 0;
+        if (goalFingerprintIndex != null) {
+            Collection<String> envIds = goalFingerprintIndex.match(pingRequest);
+            if (envIds != null) {
+                // Same request, same goal, only the heartbeat moves
+                touchLastUpdate(pingRequest.getHostId(), System.currentTimeMillis(), batch);
+                LOG.info(
+                        "Return NOOP for host {} ping, goal fingerprint unchanged.",
+                        pingRequest.getHostName());
+                return new PingResult()
+                        .withResponseBean(fingerprintedNoop(pingRequest.getGoalFingerprint()))
+                        .withEnvIds(envIds);
+            }
+            fingerprintSequence = goalFingerprintIndex.sequence();
+        }
+
         String hostIp = pingRequest.getHostIp();
         String hostId = pingRequest.getHostId();
         String hostName = pingRequest.getHostName();
         String asg = pingRequest.getAutoscalingGroup();
-        GroupBuckets groupBuckets = this.bucketGroups(pingRequest);
+        GroupBuckets groupBuckets = this.bucketGroups(pingRequest, batch);
         // Union of reported + sharded groups, used for host <-> group membership and logging.
         Set<String> groups = groupBuckets.all();
         String accountId = pingRequest.getAccountId();
@@ -974,8 +1170,7 @@ public class PingHandler {
         String ec2Tags = pingRequest.getEc2Tags();
         LOG.debug("go through ec2 tags: {}", ec2Tags);
         if (ec2Tags != null && LOG.isDebugEnabled()) {
-            ObjectMapper mapper = new ObjectMapper();
-            Map<String, String> tags = mapper.readValue(ec2Tags, Map.class);
+            Map<String, String> tags = HostTagIngester.parseTags(ec2Tags);
             for (Map.Entry<String, String> entry : tags.entrySet()) {
                 LOG.debug("key: {}, val: {}", entry.getKey(), entry.getValue());
             }
@@ -995,7 +1190,7 @@ public class PingHandler {
                         : KnoxStatus.UNKNOWN;
 
         this.updateHostStatus(
-                hostId, hostName, hostIp, agentVersion, asg, normandieStatus, knoxStatus);
+                hostId, hostName, hostIp, agentVersion, asg, normandieStatus, knoxStatus, batch);
 
         // update the host <-> groups mapping
         this.updateHosts(hostName, hostIp, hostId, groups, accountId);
@@ -1009,14 +1204,8 @@ public class PingHandler {
         // server-synthesized sharded group names (see convergeEnvs). The converged
         // env map is keyed by envId.
         List<EnvironBean> hostEnvs = environDAO.getEnvsByHost(hostName);
-        List<EnvironBean> reportedGroupEnvs =
-                groupBuckets.reported.isEmpty()
-                        ? Collections.emptyList()
-                        : environDAO.getEnvsByGroups(groupBuckets.reported);
-        List<EnvironBean> shardedGroupEnvs =
-                groupBuckets.sharded.isEmpty()
-                        ? Collections.emptyList()
-                        : environDAO.getEnvsByGroups(groupBuckets.sharded);
+        List<EnvironBean> reportedGroupEnvs = getEnvsByGroups(groupBuckets.reported, batch);
+        List<EnvironBean> shardedGroupEnvs = getEnvsByGroups(groupBuckets.sharded, batch);
         Map<String, EnvironBean> envs =
                 convergeEnvs(hostName, hostEnvs, reportedGroupEnvs, shardedGroupEnvs);
         LOG.debug(
@@ -1034,7 +1223,6 @@ public class PingHandler {
         GoalAnalyst analyst =
                 new GoalAnalyst(
                         deployConstraintDAO,
-                        hostTagDAO,
                         deployDAO,
                         environDAO,
                         hostDAO,
@@ -1045,6 +1233,7 @@ public class PingHandler {
                         agents,
                         ec2Tags);
         analyst.analysis();
+        ingestHostTags(analyst.getObservedHostTags());
 
         PingResponseBean response = null;
         Map<String, AgentBean> updateBeans = analyst.getNeedUpdateAgents();
@@ -1127,21 +1316,37 @@ public class PingHandler {
         // Apply ping report change as needed
         if (!updateBeans.isEmpty()) {
             LOG.debug("Update {} agent records for host {}.", updateBeans.size(), hostName);
-            updateAgentsSafely(updateBeans.values(), analyst.getErrorMessages());
+            updateAgentsSafely(updateBeans.values(), analyst.getErrorMessages(), batch);
         }
 
         if (response != null) {
             LOG.info("Return response {} for host {}.", response, hostName);
             return new PingResult()
                     .withResponseBean(response)
-                    .withInstallCandidates(installCandidates);
+                    .withInstallCandidates(installCandidates)
+                    .withEnvIds(envs.keySet());
         }
 
         if (uninstallCandidates.isEmpty()) {
             LOG.info("Return NOOP for host {} ping, no install or uninstall candidates.", hostName);
+            PingResponseBean noop = NOOP;
+            if (goalFingerprintIndex != null
+                    && installCandidates.isEmpty()
+                    && updateBeans.isEmpty()
+                    && needDeleteAgentIds.isEmpty()) {
+                // Nothing is in motion, so the goal stays NOOP until something changes
+                noop =
+                        fingerprintedNoop(
+                                goalFingerprintIndex.record(
+                                        pingRequest,
+                                        fingerprintSequence,
+                                        envs.values(),
+                                        agents.values()));
+            }
             return new PingResult()
-                    .withResponseBean(NOOP)
-                    .withUnInstallCandidates(uninstallCandidates);
+                    .withResponseBean(noop)
+                    .withUnInstallCandidates(uninstallCandidates)
+                    .withEnvIds(envs.keySet());
         }
 
         // otherwise, we do uninstall
@@ -1150,7 +1355,15 @@ public class PingHandler {
         LOG.info("Return uninstall response {} for host {}.", response, hostName);
         return new PingResult()
                 .withResponseBean(response)
-                .withUnInstallCandidates(uninstallCandidates);
+                .withUnInstallCandidates(uninstallCandidates)
+                .withEnvIds(envs.keySet());
+    }
+
+    private static PingResponseBean fingerprintedNoop(String fingerprint) {
+        PingResponseBean response = new PingResponseBean();
+        response.setOpCode(OpCode.NOOP);
+        response.setGoalFingerprint(fingerprint);
+        return response;
     }
 
     // TODO need to refactor for different opCode
@@ -1257,6 +1470,11 @@ public class PingHandler {
     }
 
     public void fillBuildForDeployGoal(DeployGoalBean goal) throws Exception {
+        if (entityCache != null) {
+            DeployBean deployBean = entityCache.getDeploy(goal.getDeployId());
+            goal.setBuild(entityCache.getBuild(deployBean.getBuild_id()));
+            return;
+        }
         DeployBean deployBean =
                 deployCache == null
                         ? deployDAO.getById(goal.getDeployId())
@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.handler;
+
+import com.google.common.collect.ImmutableSet;
+import com.pinterest.deployservice.bean.DeployBean;
+import com.pinterest.deployservice.bean.WebHookBean;
+import com.pinterest.deployservice.handler.WebhookJob.PreparedCall;
+import com.pinterest.teletraan.universal.http.HttpClient;
+import com.pinterest.teletraan.universal.http.RetryInterceptor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.ws.rs.WebApplicationException;
+import okhttp3.HttpUrl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Calls deploy webhooks asynchronously, with a bulkhead per destination host.
+ *
+ * <p>{@link WebhookJob} calls the webhooks of a deploy one after another on the shared job pool, so
+ * a slow endpoint holds pool threads and can fill the pool queue for every env. Here each call runs
+ * on the OkHttp dispatcher of {@code httpClient}, which caps the concurrent calls per host and
+ * times them out after the client's call timeout. At most {@code maxPendingPerHost} calls may be
+ * waiting or running for one host, past it new calls to that host are dropped, which only affects
+ * the envs using it.
+ *
+ * <p>Calls that could not connect, or that got a retryable status, are tried again, up to {@code
+ * maxAttempts} in total, after a jittered exponential backoff. Other I/O errors, such as a read
+ * timeout, may come after the webhook received the request, and webhooks are not idempotent, so
+ * those calls are not retried. The retry is scheduled rather than slept, so no thread waits on it.
+ *
+ * <p>Metrics are not tagged by host, since webhook URLs are set by users.
+ */
+public class WebhookDispatcher {
+    private static final Logger LOG = LoggerFactory.getLogger(WebhookDispatcher.class);
+    static final String METRIC_PREFIX = "teletraan.webhook.";
+    private static final Set<String> SUPPORTED_METHODS =
+            ImmutableSet.of("GET", "POST", "PUT", "DELETE");
+
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService retryScheduler;
+    private final int maxPendingPerHost;
+    private final int maxAttempts;
+    private final long retryBaseDelayMs;
+    private final ConcurrentMap<String, AtomicInteger> pendingByHost = new ConcurrentHashMap<>();
+
+    public WebhookDispatcher(
+            HttpClient httpClient,
+            ScheduledExecutorService retryScheduler,
+            int maxPendingPerHost,
+            int maxAttempts,
+            long retryBaseDelayMs) {
+        this.httpClient = httpClient;
+        this.retryScheduler = retryScheduler;
+        this.maxPendingPerHost = maxPendingPerHost;
+        this.maxAttempts = maxAttempts;
+        this.retryBaseDelayMs = retryBaseDelayMs;
+        Gauge.builder(
+                        METRIC_PREFIX + "pending",
+                        pendingByHost,
+                        counts -> counts.values().stream().mapToInt(AtomicInteger::get).sum())
+                .description("Number of webhook calls waiting or running")
+                .register(Metrics.globalRegistry);
+    }
+
+    /** Starts calling the webhooks of the deploy and returns right away. */
+    public void dispatch(List<WebHookBean> webhooks, DeployBean deployBean) {
+        for (PreparedCall call : WebhookJob.prepare(webhooks, deployBean)) {
+            submit(call);
+        }
+    }
+
+    /** @return false if the call was dropped */
+    boolean submit(PreparedCall call) {
+        if (!SUPPORTED_METHODS.contains(call.method.toUpperCase())) {
+            LOG.error("Current http method " + call.method + " is not supported!");
+            return false;
+        }
+        String host = hostOf(call.url);
+        AtomicInteger pending = pendingByHost.computeIfAbsent(host, key -> new AtomicInteger());
+        if (pending.incrementAndGet() > maxPendingPerHost) {
+            pending.decrementAndGet();
+            Metrics.counter(METRIC_PREFIX + "calls", "result", "rejected").increment();
+            LOG.warn(
+                    "Dropped webhook call {}, {} calls to {} are pending already",
+                    call.url,
+                    maxPendingPerHost,
+                    host);
+            return false;
+        }
+        attempt(call, host, pending, 1);
+        return true;
+    }
+
+    private void attempt(PreparedCall call, String host, AtomicInteger pending, int attempt) {
+        long start = System.nanoTime();
+        httpClient
+                .callAsync(call.method, call.url, call.body, call.headers)
+                .whenComplete(
+                        (response, error) -> {
+                            Metrics.timer(METRIC_PREFIX + "call_duration")
+                                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                            if (error == null) {
+                                LOG.info("Successfully completed Webhook call " + call.url);
+                                finish(pending, "success");
+                                return;
+                            }
+                            Throwable cause =
+                                    error instanceof CompletionException && error.getCause() != null
+                                            ? error.getCause()
+                                            : error;
+                            if (attempt < maxAttempts
+                                    && isRetryable(cause)
+                                    && scheduleRetry(call, host, pending, attempt)) {
+                                return;
+                            }
+                            LOG.error("Failed to call webhook " + call.url, cause);
+                            finish(pending, "failure");
+                        });
+    }
+
+    private boolean scheduleRetry(
+            PreparedCall call, String host, AtomicInteger pending, int attempt) {
+        try {
+            retryScheduler.schedule(
+                    () -> attempt(call, host, pending, attempt + 1),
+                    backoffMs(attempt),
+                    TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+        Metrics.counter(METRIC_PREFIX + "retries").increment();
+        return true;
+    }
+
+    // Half of the exponential backoff is fixed, the other half random, so retries to a host that
+    // failed for many envs at once spread out
+    long backoffMs(int attempt) {
+        long backoff = retryBaseDelayMs << Math.min(attempt - 1, 20);
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    private static void finish(AtomicInteger pending, String result) {
+        pending.decrementAndGet();
+        Metrics.counter(METRIC_PREFIX + "calls", "result", result).increment();
+    }
+
+    // Only failures before the request was sent, or statuses saying it was not handled
+    static boolean isRetryable(Throwable t) {
+        if (t instanceof ConnectException
+                || t instanceof NoRouteToHostException
+                || t instanceof UnknownHostException) {
+            return true;
+        }
+        return t instanceof WebApplicationException
+                && RetryInterceptor.isRetryable(
+                        ((WebApplicationException) t).getResponse().getStatus());
+    }
+
+    private static String hostOf(String url) {
+        HttpUrl httpUrl = HttpUrl.parse(url);
+        return httpUrl == null ? "invalid" : httpUrl.host();
+    }
+
+    int pendingCount(String host) {
+        AtomicInteger pending = pendingByHost.get(host);
+        return pending == null ? 0 : pending.get();
+    }
+}
@@ -19,6 +19,7 @@ import com.google.common.base.Splitter;
 import com.pinterest.deployservice.bean.DeployBean;
 import com.pinterest.deployservice.bean.WebHookBean;
 import com.pinterest.teletraan.universal.http.HttpClient;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
@@ -38,6 +39,33 @@ public class WebhookJob implements Callable<Void> {
     }
 
     public Void call() {
+        for (PreparedCall webhookCall : prepare(webhooks, deployBean)) {
+            String method = webhookCall.method;
+            String url = webhookCall.url;
+            try {
+                // Supports http GET, PUT, POST, DELETE
+                if (method.equalsIgnoreCase("GET")) {
+                    httpClient.get(url, null, webhookCall.headers);
+                } else if (method.equalsIgnoreCase("POST")) {
+                    httpClient.post(url, webhookCall.body, webhookCall.headers);
+                } else if (method.equalsIgnoreCase("PUT")) {
+                    httpClient.put(url, webhookCall.body, webhookCall.headers);
+                } else if (method.equalsIgnoreCase("DELETE")) {
+                    httpClient.delete(url, webhookCall.body, webhookCall.headers);
+                } else {
+                    LOG.error("Current http method " + method + " is not supported!");
+                }
+                LOG.info("Successfully completed Webhook call " + url);
+            } catch (Throwable t) {
+                LOG.error("Failed to call webhook " + url, t);
+            }
+        }
+        return null;
+    }
+
+    /** Resolves the placeholders of the webhooks for the deploy. */
+    static List<PreparedCall> prepare(List<WebHookBean> webhooks, DeployBean deployBean) {
+        List<PreparedCall> calls = new ArrayList<>(webhooks.size());
         for (WebHookBean webhook : webhooks) {
             // TODO we transform $TELETRAAN_NAME into the actual values, currently we support
             // $TELETRAAN_DEPLOY_ID, $TELETRAAN_DEPLOY_START, $TELETRAAN_NUMERIC_DEPLOY_STATE,
@@ -90,25 +118,22 @@ public class WebhookJob implements Callable<Void> {
             if (StringUtils.isEmpty(method)) {
                 method = "POST";
             }
+            calls.add(new PreparedCall(method, url, headers, bodyString));
+        }
+        return calls;
+    }
 
-            try {
-                // Supports http GET, PUT, POST, DELETE
-                if (method.equalsIgnoreCase("GET")) {
-                    httpClient.get(url, null, headers);
-                } else if (method.equalsIgnoreCase("POST")) {
-                    httpClient.post(url, bodyString, headers);
-                } else if (method.equalsIgnoreCase("PUT")) {
-                    httpClient.put(url, bodyString, headers);
-                } else if (method.equalsIgnoreCase("DELETE")) {
-                    httpClient.delete(url, bodyString, headers);
-                } else {
-                    LOG.error("Current http method " + method + " is not supported!");
-                }
-                LOG.info("Successfully completed Webhook call " + url);
-            } catch (Throwable t) {
-                LOG.error("Failed to call webhook " + url, t);
-            }
+    static final class PreparedCall {
+        final String method;
+        final String url;
+        final Map<String, String> headers;
+        final String body;
+
+        PreparedCall(String method, String url, Map<String, String> headers, String body) {
+            this.method = method;
+            this.url = url;
+            this.headers = headers;
+            this.body = body;
         }
-        return null;
     }
 }
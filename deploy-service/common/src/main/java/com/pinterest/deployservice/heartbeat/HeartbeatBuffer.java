@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.heartbeat;
+
+import com.pinterest.deployservice.dao.HostAgentDAO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Absorbs timestamp-only host heartbeats in memory and writes them to {@code hosts_and_agents} in
+ * multi-row updates.
+ *
+ * <p>In a fleet in steady state nearly every ping only bumps {@code last_update}. Such pings {@link
+ * #record} the heartbeat here instead, and {@link #flush} is run on a fixed interval. Pings that
+ * change host metadata keep writing through immediately, and the flush never moves a timestamp
+ * backwards, so a late flush cannot undo them.
+ *
+ * <p>{@code last_update} in the database lags by at most the flush interval plus the time a flush
+ * takes, which must stay well below the stale host thresholds of {@code AgentJanitor}. When more
+ * than {@code maxPendingHosts} heartbeats are pending, {@link #record} returns false and the caller
+ * writes the heartbeat itself, so a stuck flush degrades to the unbuffered behavior rather than
+ * growing the lag or the buffer.
+ */
+public class HeartbeatBuffer {
+    private static final Logger LOG = LoggerFactory.getLogger(HeartbeatBuffer.class);
+    static final String METRIC_PREFIX = "teletraan.heartbeat_buffer.";
+
+    private final HostAgentDAO hostAgentDAO;
+    private final int maxPendingHosts;
+    private final int flushBatchSize;
+    private final ConcurrentMap<String, Long> pending = new ConcurrentHashMap<>();
+    private final Counter bufferedHeartbeats;
+    private final Counter overflowHeartbeats;
+    private final Counter flushedHosts;
+    private final Counter flushFailures;
+    private final Timer flushTimer;
+
+    public HeartbeatBuffer(HostAgentDAO hostAgentDAO, int maxPendingHosts, int flushBatchSize) {
+        this.hostAgentDAO = hostAgentDAO;
+        this.maxPendingHosts = maxPendingHosts;
+        this.flushBatchSize = flushBatchSize;
+        bufferedHeartbeats =
+                Counter.builder(METRIC_PREFIX + "heartbeats")
+                        .tag("result", "buffered")
+                        .register(Metrics.globalRegistry);
+        overflowHeartbeats =
+                Counter.builder(METRIC_PREFIX + "heartbeats")
+                        .tag("result", "overflow")
+                        .register(Metrics.globalRegistry);
+        flushedHosts = Metrics.counter(METRIC_PREFIX + "flushed_hosts");
+        flushFailures = Metrics.counter(METRIC_PREFIX + "flush_failures");
+        flushTimer = Metrics.timer(METRIC_PREFIX + "flush_duration");
+        Gauge.builder(METRIC_PREFIX + "pending", pending, Map::size)
+                .description("Number of host heartbeats waiting for the next flush")
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Buffers a timestamp-only heartbeat of the host.
+     *
+     * @return false if the buffer is full, in which case the caller must write the heartbeat
+     */
+    public boolean record(String hostId, long lastUpdate) {
+        if (pending.size() >= maxPendingHosts && !pending.containsKey(hostId)) {
+            overflowHeartbeats.increment();
+            return false;
+        }
+        pending.merge(hostId, lastUpdate, Math::max);
+        bufferedHeartbeats.increment();
+        return true;
+    }
+
+    /**
+     * Writes every pending heartbeat. Heartbeats that fail to be written are kept for next time.
+     */
+    public void flush() {
+        flushTimer.record(this::flushPending);
+    }
+
+    private void flushPending() {
+        Map<String, Long> drained = new HashMap<>();
+        for (String hostId : pending.keySet()) {
+            // remove() hands over the latest value, a heartbeat recorded after it goes to the
+            // next flush
+            Long lastUpdate = pending.remove(hostId);
+            if (lastUpdate != null) {
+                drained.put(hostId, lastUpdate);
+            }
+        }
+        Map<String, Long> batch = new HashMap<>();
+        for (Map.Entry<String, Long> entry : drained.entrySet()) {
+            batch.put(entry.getKey(), entry.getValue());
+            if (batch.size() >= flushBatchSize) {
+                write(batch);
+                batch = new HashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void write(Map<String, Long> batch) {
+        try {
+            hostAgentDAO.touchLastUpdates(batch);
+            flushedHosts.increment(batch.size());
+        } catch (Exception e) {
+            LOG.error("Failed to flush {} host heartbeats, will retry", batch.size(), e);
+            flushFailures.increment();
+            for (Map.Entry<String, Long> entry : batch.entrySet()) {
+                pending.merge(entry.getKey(), entry.getValue(), Math::max);
+            }
+        }
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+}
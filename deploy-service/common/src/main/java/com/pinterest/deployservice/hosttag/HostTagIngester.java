@@ -0,0 +1,214 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.hosttag;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.pinterest.deployservice.bean.HostTagBean;
+import com.pinterest.deployservice.dao.HostTagDAO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the host tags that agents report in their pings, and writes them to {@code host_tags} in
+ * multi-row upserts.
+ *
+ * <p>Pings of hosts in envs with a deploy constraint {@link #record} the tag they carry here, and
+ * {@link #flush} is run on a fixed interval. Observations are deduped per host, env and tag name,
+ * the latest value winning. Values that were already written are remembered for a while, so a fleet
+ * whose tags do not change causes no writes at all.
+ *
+ * <p>A tag shows up in {@code host_tags} up to a flush interval after the first ping that carries
+ * it. Until then the deploy constraint check treats the host as untagged and keeps it waiting, as
+ * it does for hosts {@code DeployTagWorker} has not synced yet. When more than {@code
+ * maxPendingTags} tags are pending, {@link #record} returns false and the caller writes the tag
+ * itself.
+ */
+public class HostTagIngester {
+    private static final Logger LOG = LoggerFactory.getLogger(HostTagIngester.class);
+    static final String METRIC_PREFIX = "teletraan.host_tag_ingest.";
+    private static final ObjectReader TAGS_READER =
+            new ObjectMapper().readerFor(new TypeReference<Map<String, String>>() {});
+
+    private final HostTagDAO hostTagDAO;
+    private final int maxPendingTags;
+    private final int flushBatchSize;
+    private final ConcurrentMap<Key, HostTagBean> pending = new ConcurrentHashMap<>();
+    private final Cache<Key, String> written;
+    private final Counter unchangedTags;
+    private final Counter bufferedTags;
+    private final Counter overflowTags;
+    private final Counter flushedTags;
+    private final Counter flushFailures;
+    private final Timer flushTimer;
+
+    public HostTagIngester(
+            HostTagDAO hostTagDAO,
+            int maxPendingTags,
+            int flushBatchSize,
+            long writtenTtlMs,
+            long writtenMaxSize) {
+        this.hostTagDAO = hostTagDAO;
+        this.maxPendingTags = maxPendingTags;
+        this.flushBatchSize = flushBatchSize;
+        written =
+                CacheBuilder.newBuilder()
+                        .expireAfterWrite(writtenTtlMs, TimeUnit.MILLISECONDS)
+                        .maximumSize(writtenMaxSize)
+                        .build();
+        unchangedTags = tags("unchanged");
+        bufferedTags = tags("buffered");
+        overflowTags = tags("overflow");
+        flushedTags = Metrics.counter(METRIC_PREFIX + "flushed_tags");
+        flushFailures = Metrics.counter(METRIC_PREFIX + "flush_failures");
+        flushTimer = Metrics.timer(METRIC_PREFIX + "flush_duration");
+        Gauge.builder(METRIC_PREFIX + "pending", pending, Map::size)
+                .description("Number of host tags waiting for the next flush")
+                .register(Metrics.globalRegistry);
+    }
+
+    private static Counter tags(String result) {
+        return Counter.builder(METRIC_PREFIX + "tags")
+                .tag("result", result)
+                .register(Metrics.globalRegistry);
+    }
+
+    /** Parses the ec2 tags json of a ping. */
+    public static Map<String, String> parseTags(String ec2Tags) throws IOException {
+        Map<String, String> tags = TAGS_READER.readValue(ec2Tags);
+        return tags == null ? Collections.emptyMap() : tags;
+    }
+
+    /**
+     * Buffers a host tag observed in a ping.
+     *
+     * @return false if the buffer is full, in which case the caller must write the tag
+     */
+    public boolean record(HostTagBean hostTag) {
+        Key key = Key.of(hostTag);
+        if (pending.containsKey(key)) {
+            pending.put(key, hostTag);
+            bufferedTags.increment();
+            return true;
+        }
+        if (Objects.equals(written.getIfPresent(key), hostTag.getTag_value())) {
+            unchangedTags.increment();
+            return true;
+        }
+        if (pending.size() >= maxPendingTags) {
+            overflowTags.increment();
+            return false;
+        }
+        pending.put(key, hostTag);
+        bufferedTags.increment();
+        return true;
+    }
+
+    /** Writes every pending tag. Tags that fail to be written are kept for next time. */
+    public void flush() {
+        flushTimer.record(this::flushPending);
+    }
+
+    private void flushPending() {
+        List<HostTagBean> batch = new ArrayList<>();
+        for (Key key : pending.keySet()) {
+            // remove() hands over the latest value, a tag recorded after it goes to the next flush
+            HostTagBean hostTag = pending.remove(key);
+            if (hostTag == null) {
+                continue;
+            }
+            batch.add(hostTag);
+            if (batch.size() >= flushBatchSize) {
+                write(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void write(List<HostTagBean> batch) {
+        try {
+            hostTagDAO.insertOrUpdateAll(batch);
+            for (HostTagBean hostTag : batch) {
+                written.put(Key.of(hostTag), hostTag.getTag_value());
+            }
+            flushedTags.increment(batch.size());
+        } catch (Exception e) {
+            LOG.error("Failed to flush {} host tags, will retry", batch.size(), e);
+            flushFailures.increment();
+            for (HostTagBean hostTag : batch) {
+                pending.putIfAbsent(Key.of(hostTag), hostTag);
+            }
+        }
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    private static final class Key {
+        final String hostId;
+        final String envId;
+        final String tagName;
+
+        private Key(String hostId, String envId, String tagName) {
+            this.hostId = hostId;
+            this.envId = envId;
+            this.tagName = tagName;
+        }
+
+        static Key of(HostTagBean hostTag) {
+            return new Key(hostTag.getHost_id(), hostTag.getEnv_id(), hostTag.getTag_name());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(hostId, other.hostId)
+                    && Objects.equals(envId, other.envId)
+                    && Objects.equals(tagName, other.tagName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(hostId, envId, tagName);
+        }
+    }
+}
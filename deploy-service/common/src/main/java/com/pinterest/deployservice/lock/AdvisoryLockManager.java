@@ -0,0 +1,52 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.lock;
+
+import com.pinterest.deployservice.dao.UtilDAO;
+import java.sql.Connection;
+
+/**
+ * Locks with MySQL {@code GET_LOCK}. Holds a pooled connection for as long as the lock is held, and
+ * is only kept for rolling upgrades, where processes still using {@code GET_LOCK} must exclude the
+ * upgraded ones.
+ */
+public class AdvisoryLockManager implements LockManager {
+    private final UtilDAO utilDAO;
+
+    public AdvisoryLockManager(UtilDAO utilDAO) {
+        this.utilDAO = utilDAO;
+    }
+
+    @Override
+    public Lock tryLock(String family, String key) {
+        String name = LockManager.lockName(family, key);
+        Connection connection = utilDAO.getLock(name);
+        if (connection == null) {
+            return null;
+        }
+        return new Lock() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public void release() {
+                utilDAO.releaseLock(name, connection);
+            }
+        };
+    }
+}
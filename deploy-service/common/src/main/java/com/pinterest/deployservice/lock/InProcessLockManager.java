@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.lock;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Locks within this process only, for single node setups where one process serves the agents, the
+ * API and the workers. Locks are keyed by their exact name in a concurrent map, so unrelated names
+ * never contend the way hashed lock stripes would.
+ */
+public class InProcessLockManager implements LockManager {
+    private final ConcurrentMap<String, Lock> held = new ConcurrentHashMap<>();
+
+    @Override
+    public Lock tryLock(String family, String key) {
+        String name = LockManager.lockName(family, key);
+        Lock lock =
+                new Lock() {
+                    @Override
+                    public String getName() {
+                        return name;
+                    }
+
+                    @Override
+                    public void release() {
+                        held.remove(name, this);
+                    }
+                };
+        return held.putIfAbsent(name, lock) == null ? lock : null;
+    }
+
+    int heldCount() {
+        return held.size();
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.lock;
+
+import com.pinterest.deployservice.dao.LockDAO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Locks as leases in the {@code locks} table. Taking and releasing a lease are single statements,
+ * so unlike {@code GET_LOCK} no database connection is held while the lock is.
+ *
+ * <p>Every lock gets a unique owner token, and a lease lasts {@code leaseMs}. {@link #renewLeases}
+ * must run several times per lease period to extend the leases this process still holds. If the
+ * process dies, its leases expire and are taken over by the next caller. Expiry is checked against
+ * the clock of the caller, so clocks of service hosts must agree to well within the lease period.
+ */
+public class LeaseLockManager implements LockManager {
+    private static final Logger LOG = LoggerFactory.getLogger(LeaseLockManager.class);
+
+    private final LockDAO lockDAO;
+    private final long leaseMs;
+    private final ConcurrentMap<String, String> ownedLeases = new ConcurrentHashMap<>();
+    private final Counter lostLeases;
+
+    public LeaseLockManager(LockDAO lockDAO, long leaseMs) {
+        this.lockDAO = lockDAO;
+        this.leaseMs = leaseMs;
+        lostLeases = Metrics.counter(MeteredLockManager.METRIC_PREFIX + "lost_leases");
+    }
+
+    @Override
+    public Lock tryLock(String family, String key) {
+        String name = LockManager.lockName(family, key);
+        String owner = UUID.randomUUID().toString();
+        long now = System.currentTimeMillis();
+        try {
+            if (!lockDAO.tryAcquire(name, owner, now, now + leaseMs)) {
+                return null;
+            }
+        } catch (Exception e) {
+            LOG.error("Failed to acquire lease on {}.", name, e);
+            return null;
+        }
+        ownedLeases.put(name, owner);
+        return new Lock() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public void release() {
+                ownedLeases.remove(name, owner);
+                try {
+                    lockDAO.release(name, owner);
+                } catch (Exception e) {
+                    // The lease expires on its own
+                    LOG.error("Failed to release lease on {}.", name, e);
+                }
+            }
+        };
+    }
+
+    /** Extends every lease this process holds by another lease period. */
+    public void renewLeases() {
+        long expiresAt = System.currentTimeMillis() + leaseMs;
+        for (Map.Entry<String, String> lease : ownedLeases.entrySet()) {
+            String name = lease.getKey();
+            try {
+                if (!lockDAO.renew(name, lease.getValue(), expiresAt)) {
+                    ownedLeases.remove(name, lease.getValue());
+                    lostLeases.increment();
+                    LOG.error("Lost lease on {}, it expired before it could be renewed.", name);
+                }
+            } catch (Exception e) {
+                // Tried again next round, while the lease has not expired yet
+                LOG.warn("Failed to renew lease on {}.", name, e);
+            }
+        }
+    }
+
+    int ownedCount() {
+        return ownedLeases.size();
+    }
+}
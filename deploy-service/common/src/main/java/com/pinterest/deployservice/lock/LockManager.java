@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.lock;
+
+/**
+ * Mutual exclusion between service processes, e.g. so that only one ping recounts the agents of an
+ * env, or only one worker transitions a deploy.
+ *
+ * <p>Locks are identified by a family, such as {@code DEPLOY} or {@code PROMOTE}, and a key within
+ * that family, usually an env or deploy id. Locking never blocks: {@link #tryLock} either returns
+ * the lock at once or returns null, and callers skip the work until their next round.
+ */
+public interface LockManager {
+
+    /**
+     * Tries to take the lock {@code family-key}.
+     *
+     * @return the held lock, or null if it is held elsewhere or could not be taken
+     */
+    Lock tryLock(String family, String key);
+
+    /** A held lock. */
+    interface Lock {
+        String getName();
+
+        /** Releases the lock, must be called exactly once, usually in a finally block. */
+        void release();
+    }
+
+    static String lockName(String family, String key) {
+        return String.format("%s-%s", family, key);
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.lock;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records, per lock family, how long taking a lock takes and how long locks are held. Both are
+ * published as histograms, the wait time also tagged with whether the lock was taken.
+ */
+public class MeteredLockManager implements LockManager {
+    static final String METRIC_PREFIX = "teletraan.lock.";
+
+    private final LockManager delegate;
+    private final ConcurrentMap<String, FamilyTimers> timers = new ConcurrentHashMap<>();
+
+    public MeteredLockManager(LockManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Lock tryLock(String family, String key) {
+        FamilyTimers familyTimers = timers.computeIfAbsent(family, FamilyTimers::new);
+        long start = System.nanoTime();
+        Lock lock = delegate.tryLock(family, key);
+        long acquired = System.nanoTime();
+        if (lock == null) {
+            familyTimers.busy.record(acquired - start, TimeUnit.NANOSECONDS);
+            return null;
+        }
+        familyTimers.acquired.record(acquired - start, TimeUnit.NANOSECONDS);
+        return new Lock() {
+            @Override
+            public String getName() {
+                return lock.getName();
+            }
+
+            @Override
+            public void release() {
+                familyTimers.hold.record(System.nanoTime() - acquired, TimeUnit.NANOSECONDS);
+                lock.release();
+            }
+        };
+    }
+
+    private static final class FamilyTimers {
+        final Timer acquired;
+        final Timer busy;
+        final Timer hold;
+
+        FamilyTimers(String family) {
+            acquired = waitTimer(family, "acquired");
+            busy = waitTimer(family, "busy");
+            hold =
+                    Timer.builder(METRIC_PREFIX + "hold")
+                            .tag("family", family)
+                            .publishPercentileHistogram()
+                            .register(Metrics.globalRegistry);
+        }
+
+        private static Timer waitTimer(String family, String result) {
+            return Timer.builder(METRIC_PREFIX + "wait")
+                    .tag("family", family)
+                    .tag("result", result)
+                    .publishPercentileHistogram()
+                    .register(Metrics.globalRegistry);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.membership;
+
+import com.google.common.collect.ImmutableList;
+import com.pinterest.deployservice.dao.MemberDAO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import java.util.List;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Membership of this process in a group of service processes that split work between them.
+ *
+ * <p>Every member writes a heartbeat to {@code service_members} with {@link #heartbeat}, which must
+ * run several times per {@code ttlMs}, and reads back the members with a heartbeat within the ttl.
+ * Keys are assigned to the active members by a {@link HashRing}, so every member computes the same
+ * assignment as long as they saw the same members. Members of a dead process drop out after the ttl
+ * and their keys move to the others.
+ *
+ * <p>Until the first successful heartbeat, or if the table cannot be read, this process is assumed
+ * to be the only member and owns every key. Work must therefore stay safe to do twice, which is the
+ * case for anything already guarded by a {@code LockManager} lock.
+ */
+public class ServiceMembership {
+    private static final Logger LOG = LoggerFactory.getLogger(ServiceMembership.class);
+    static final String METRIC_PREFIX = "teletraan.membership.";
+    static final int VIRTUAL_NODES = 64;
+    // Rows of members gone for this many ttls are deleted
+    private static final int EXPIRED_MEMBER_TTLS = 10;
+
+    private final MemberDAO memberDAO;
+    private final String groupName;
+    private final String hostName;
+    private final long ttlMs;
+    private final String memberId = UUID.randomUUID().toString();
+    private volatile List<String> members;
+    private volatile HashRing ring;
+
+    public ServiceMembership(MemberDAO memberDAO, String groupName, String hostName, long ttlMs) {
+        this.memberDAO = memberDAO;
+        this.groupName = groupName;
+        this.hostName = hostName;
+        this.ttlMs = ttlMs;
+        setMembers(ImmutableList.of(memberId));
+        Gauge.builder(METRIC_PREFIX + "members", this, m -> m.members.size())
+                .tag("group", groupName)
+                .register(Metrics.globalRegistry);
+    }
+
+    /** Refreshes the heartbeat of this member, and the members the keys are assigned to. */
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        try {
+            memberDAO.heartbeat(groupName, memberId, hostName, now);
+            List<String> active = memberDAO.getActiveMembers(groupName, now - ttlMs);
+            if (!active.contains(memberId)) {
+                // Our own heartbeat is not visible yet, we are a member regardless
+                active = ImmutableList.<String>builder().addAll(active).add(memberId).build();
+            }
+            if (!active.equals(members)) {
+                LOG.info(
+                        "Members of {} changed from {} to {}.",
+                        groupName,
+                        members.size(),
+                        active.size());
+                setMembers(active);
+            }
+            memberDAO.deleteExpired(groupName, now - EXPIRED_MEMBER_TTLS * ttlMs);
+        } catch (Exception e) {
+            // Keep the last known members, they age out on the other members the same way
+            LOG.error("Failed to heartbeat as member of {}.", groupName, e);
+        }
+    }
+
+    private void setMembers(List<String> active) {
+        ring = new HashRing(active, VIRTUAL_NODES);
+        members = active;
+    }
+
+    /** Returns true if {@code key} is assigned to this process. */
+    public boolean owns(String key) {
+        return memberId.equals(ring.getOwner(key));
+    }
+
+    /** Removes this process from the group, for a clean shutdown. */
+    public void leave() {
+        try {
+            memberDAO.delete(groupName, memberId);
+        } catch (Exception e) {
+            LOG.error("Failed to leave {}, it expires after the ttl.", groupName, e);
+        }
+    }
+
+    public String getMemberId() {
+        return memberId;
+    }
+
+    public int getMemberCount() {
+        return members.size();
+    }
+}
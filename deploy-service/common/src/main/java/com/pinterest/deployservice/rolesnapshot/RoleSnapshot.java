@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.rolesnapshot;
+
+import com.pinterest.deployservice.bean.GroupRolesBean;
+import com.pinterest.deployservice.bean.TeletraanPrincipalRole;
+import com.pinterest.deployservice.bean.UserRolesBean;
+import com.pinterest.deployservice.dao.GroupRolesDAO;
+import com.pinterest.deployservice.dao.UserRolesDAO;
+import com.pinterest.teletraan.universal.security.bean.AuthZResource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory copy of {@code users_and_roles} and {@code groups_and_roles}, so that authorization
+ * does not query them on every request.
+ *
+ * <p>{@link #reload()} loads both tables in bulk and is run periodically, which picks up roles
+ * written by other service replicas. Roles written through {@link SnapshotUserRolesDAO} and {@link
+ * SnapshotGroupRolesDAO} are re-read by resource right away. Readers see an immutable state that is
+ * swapped on every change, and {@link #getVersion()} changes with it so that decisions derived from
+ * the snapshot can be keyed by it. Until the first reload, or after a refresh failed, the snapshot
+ * is not loaded and callers should query the DAOs instead.
+ */
+public class RoleSnapshot {
+    private static final Logger LOG = LoggerFactory.getLogger(RoleSnapshot.class);
+    static final String METRIC_PREFIX = "teletraan.role_snapshot.";
+
+    private static final class State {
+        // Resource key to principal name to role
+        final Map<String, Map<String, TeletraanPrincipalRole>> users;
+        final Map<String, Map<String, TeletraanPrincipalRole>> groups;
+
+        State(
+                Map<String, Map<String, TeletraanPrincipalRole>> users,
+                Map<String, Map<String, TeletraanPrincipalRole>> groups) {
+            this.users = users;
+            this.groups = groups;
+        }
+
+        int size() {
+            return users.values().stream().mapToInt(Map::size).sum()
+                    + groups.values().stream().mapToInt(Map::size).sum();
+        }
+    }
+
+    private final UserRolesDAO userRolesDAO;
+    private final GroupRolesDAO groupRolesDAO;
+    private volatile State state;
+    private volatile long version;
+    private final Counter reloadFailures;
+    private final Counter refreshFailures;
+    private final Timer reloadTimer;
+
+    /**
+     * @param userRolesDAO the undecorated user roles DAO
+     * @param groupRolesDAO the undecorated group roles DAO
+     */
+    public RoleSnapshot(UserRolesDAO userRolesDAO, GroupRolesDAO groupRolesDAO) {
+        this.userRolesDAO = userRolesDAO;
+        this.groupRolesDAO = groupRolesDAO;
+        reloadFailures = failures("reload");
+        refreshFailures = failures("refresh");
+        reloadTimer =
+                Timer.builder(METRIC_PREFIX + "reload_duration").register(Metrics.globalRegistry);
+        Gauge.builder(METRIC_PREFIX + "roles", this, RoleSnapshot::size)
+                .description("Number of user and group roles held by the snapshot")
+                .register(Metrics.globalRegistry);
+    }
+
+    private static Counter failures(String operation) {
+        return Counter.builder(METRIC_PREFIX + "failures")
+                .tag("operation", operation)
+                .register(Metrics.globalRegistry);
+    }
+
+    private static String key(String resourceId, AuthZResource.Type resourceType) {
+        return resourceType + "/" + resourceId;
+    }
+
+    private double size() {
+        State current = state;
+        return current == null ? 0 : current.size();
+    }
+
+    public boolean isLoaded() {
+        return state != null;
+    }
+
+    /** Changes whenever the roles held by the snapshot may have changed. */
+    public long getVersion() {
+        return version;
+    }
+
+    /** Returns the role of the user on the resource, null if none or the snapshot is not loaded. */
+    public TeletraanPrincipalRole getUserRole(
+            String userName, String resourceId, AuthZResource.Type resourceType) {
+        State current = state;
+        if (current == null) {
+            return null;
+        }
+        return current.users
+                .getOrDefault(key(resourceId, resourceType), Collections.emptyMap())
+                .get(userName);
+    }
+
+    /** Returns the roles of groups on the resource by group name, read only. */
+    public Map<String, TeletraanPrincipalRole> getGroupRoles(
+            String resourceId, AuthZResource.Type resourceType) {
+        State current = state;
+        if (current == null) {
+            return Collections.emptyMap();
+        }
+        return current.groups.getOrDefault(key(resourceId, resourceType), Collections.emptyMap());
+    }
+
+    /** Reloads both tables in bulk, keeping the current state if it fails. */
+    public synchronized void reload() {
+        long start = System.nanoTime();
+        try {
+            Map<String, Map<String, TeletraanPrincipalRole>> users = new HashMap<>();
+            for (UserRolesBean bean : userRolesDAO.getAll()) {
+                users.computeIfAbsent(
+                                key(bean.getResource_id(), bean.getResource_type()),
+                                k -> new HashMap<>())
+                        .put(bean.getUser_name(), bean.getRole());
+            }
+            Map<String, Map<String, TeletraanPrincipalRole>> groups = new HashMap<>();
+            for (GroupRolesBean bean : groupRolesDAO.getAll()) {
+                groups.computeIfAbsent(
+                                key(bean.getResource_id(), bean.getResource_type()),
+                                k -> new HashMap<>())
+                        .put(bean.getGroup_name(), bean.getRole());
+            }
+            swap(new State(users, groups));
+        } catch (Exception e) {
+            LOG.warn("Failed to reload the role snapshot", e);
+            reloadFailures.increment();
+        } finally {
+            reloadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Re-reads the user and group roles of one resource after a write. If that fails the snapshot
+     * is unloaded until the next reload, since it would otherwise miss the write.
+     */
+    public synchronized void refresh(String resourceId, AuthZResource.Type resourceType) {
+        State current = state;
+        if (current == null) {
+            return;
+        }
+        String key = key(resourceId, resourceType);
+        try {
+            Map<String, TeletraanPrincipalRole> resourceUsers = new HashMap<>();
+            for (UserRolesBean bean : userRolesDAO.getByResource(resourceId, resourceType)) {
+                resourceUsers.put(bean.getUser_name(), bean.getRole());
+            }
+            Map<String, TeletraanPrincipalRole> resourceGroups = new HashMap<>();
+            for (GroupRolesBean bean : groupRolesDAO.getByResource(resourceId, resourceType)) {
+                resourceGroups.put(bean.getGroup_name(), bean.getRole());
+            }
+            swap(
+                    new State(
+                            replace(current.users, key, resourceUsers),
+                            replace(current.groups, key, resourceGroups)));
+        } catch (Exception e) {
+            LOG.warn("Failed to refresh roles of {}, unload the role snapshot", key, e);
+            refreshFailures.increment();
+            swap(null);
+        }
+    }
+
+    private static Map<String, Map<String, TeletraanPrincipalRole>> replace(
+            Map<String, Map<String, TeletraanPrincipalRole>> byResource,
+            String key,
+            Map<String, TeletraanPrincipalRole> roles) {
+        Map<String, Map<String, TeletraanPrincipalRole>> copy = new HashMap<>(byResource);
+        if (roles.isEmpty()) {
+            copy.remove(key);
+        } else {
+            copy.put(key, roles);
+        }
+        return copy;
+    }
+
+    private void swap(State next) {
+        state = next;
+        version++;
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.rolesnapshot;
+
+import com.pinterest.deployservice.bean.GroupRolesBean;
+import com.pinterest.deployservice.dao.GroupRolesDAO;
+import com.pinterest.teletraan.universal.security.bean.AuthZResource;
+import java.util.List;
+
+/**
+ * A {@link GroupRolesDAO} that refreshes the resource of every role it writes in a {@link
+ * RoleSnapshot}. Reads go straight to the wrapped DAO.
+ */
+public class SnapshotGroupRolesDAO implements GroupRolesDAO {
+    private final GroupRolesDAO delegate;
+    private final RoleSnapshot snapshot;
+
+    public SnapshotGroupRolesDAO(GroupRolesDAO delegate, RoleSnapshot snapshot) {
+        this.delegate = delegate;
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public void insert(GroupRolesBean bean) throws Exception {
+        delegate.insert(bean);
+        snapshot.refresh(bean.getResource_id(), bean.getResource_type());
+    }
+
+    @Override
+    public void delete(String groupName, String resourceId, AuthZResource.Type resourceType)
+            throws Exception {
+        delegate.delete(groupName, resourceId, resourceType);
+        snapshot.refresh(resourceId, resourceType);
+    }
+
+    @Override
+    public void update(
+            GroupRolesBean bean,
+            String groupName,
+            String resourceId,
+            AuthZResource.Type resourceType)
+            throws Exception {
+        delegate.update(bean, groupName, resourceId, resourceType);
+        snapshot.refresh(resourceId, resourceType);
+        // The update may move the role to another resource
+        if (bean.getResource_id() != null || bean.getResource_type() != null) {
+            snapshot.refresh(
+                    bean.getResource_id() != null ? bean.getResource_id() : resourceId,
+                    bean.getResource_type() != null ? bean.getResource_type() : resourceType);
+        }
+    }
+
+    @Override
+    public GroupRolesBean getByNameAndResource(
+            String groupName, String resourceId, AuthZResource.Type resourceType) throws Exception {
+        return delegate.getByNameAndResource(groupName, resourceId, resourceType);
+    }
+
+    @Override
+    public List<GroupRolesBean> getByResource(String resourceId, AuthZResource.Type resourceType)
+            throws Exception {
+        return delegate.getByResource(resourceId, resourceType);
+    }
+
+    @Override
+    public List<GroupRolesBean> getAll() throws Exception {
+        return delegate.getAll();
+    }
+}
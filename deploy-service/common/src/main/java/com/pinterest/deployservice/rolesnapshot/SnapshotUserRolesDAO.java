@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.rolesnapshot;
+
+import com.pinterest.deployservice.bean.UserRolesBean;
+import com.pinterest.deployservice.dao.UserRolesDAO;
+import com.pinterest.teletraan.universal.security.bean.AuthZResource;
+import java.util.List;
+
+/**
+ * A {@link UserRolesDAO} that refreshes the resource of every role it writes in a {@link
+ * RoleSnapshot}. Reads go straight to the wrapped DAO.
+ */
+public class SnapshotUserRolesDAO implements UserRolesDAO {
+    private final UserRolesDAO delegate;
+    private final RoleSnapshot snapshot;
+
+    public SnapshotUserRolesDAO(UserRolesDAO delegate, RoleSnapshot snapshot) {
+        this.delegate = delegate;
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public void insert(UserRolesBean bean) throws Exception {
+        delegate.insert(bean);
+        snapshot.refresh(bean.getResource_id(), bean.getResource_type());
+    }
+
+    @Override
+    public void delete(String userName, String resourceId, AuthZResource.Type resourceType)
+            throws Exception {
+        delegate.delete(userName, resourceId, resourceType);
+        snapshot.refresh(resourceId, resourceType);
+    }
+
+    @Override
+    public void update(
+            UserRolesBean bean, String userName, String resourceId, AuthZResource.Type resourceType)
+            throws Exception {
+        delegate.update(bean, userName, resourceId, resourceType);
+        snapshot.refresh(resourceId, resourceType);
+        // The update may move the role to another resource
+        if (bean.getResource_id() != null || bean.getResource_type() != null) {
+            snapshot.refresh(
+                    bean.getResource_id() != null ? bean.getResource_id() : resourceId,
+                    bean.getResource_type() != null ? bean.getResource_type() : resourceType);
+        }
+    }
+
+    @Override
+    public UserRolesBean getByNameAndResource(
+            String userName, String resourceId, AuthZResource.Type resourceType) throws Exception {
+        return delegate.getByNameAndResource(userName, resourceId, resourceType);
+    }
+
+    @Override
+    public List<UserRolesBean> getByResource(String resourceId, AuthZResource.Type resourceType)
+            throws Exception {
+        return delegate.getByResource(resourceId, resourceType);
+    }
+
+    @Override
+    public List<UserRolesBean> getAll() throws Exception {
+        return delegate.getAll();
+    }
+}
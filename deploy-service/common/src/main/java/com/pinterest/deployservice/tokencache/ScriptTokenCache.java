@@ -0,0 +1,224 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.tokencache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.google.common.hash.Hashing;
+import com.pinterest.deployservice.bean.TokenRolesBean;
+import com.pinterest.deployservice.dao.TokenRolesDAO;
+import com.pinterest.teletraan.universal.security.bean.AuthZResource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches script token lookups by the SHA-256 of the token, so that raw tokens are not kept as keys.
+ *
+ * <p>Tokens that are found and not expired are held in the first level until the ttl, or until
+ * their {@code expire_date} if that comes first. Unknown and expired tokens are held in a separate,
+ * short lived second level, so that clients retrying a bad token do not reach the database and
+ * cannot evict the valid tokens. An index from script, resource and type to the token hash lets
+ * {@link #invalidate} drop a token when its role is updated or deleted, which only takes effect in
+ * this process; other replicas see the change within the ttl.
+ */
+public class ScriptTokenCache {
+    static final String METRIC_PREFIX = "teletraan.script_token_cache.";
+
+    private final TokenRolesDAO tokenRolesDAO;
+    private final long ttlNanos;
+    private final Cache<String, TokenRolesBean> valid;
+    private final Cache<String, Optional<TokenRolesBean>> rejected;
+    private final Map<String, String> hashByRole = new ConcurrentHashMap<>();
+    // Lookups started before an invalidation must not cache what they read
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Counter hits;
+    private final Counter negativeHits;
+    private final Counter misses;
+    private final Counter invalidated;
+
+    public ScriptTokenCache(
+            TokenRolesDAO tokenRolesDAO,
+            long maxTokens,
+            long ttlSeconds,
+            long maxRejectedTokens,
+            long rejectedTtlSeconds) {
+        this.tokenRolesDAO = tokenRolesDAO;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        valid =
+                Caffeine.newBuilder()
+                        .maximumSize(maxTokens)
+                        .expireAfter(new UntilExpireDate())
+                        .removalListener(
+                                (String hash, TokenRolesBean bean, RemovalCause cause) ->
+                                        unindex(hash, bean))
+                        .build();
+        rejected =
+                Caffeine.newBuilder()
+                        .maximumSize(maxRejectedTokens)
+                        .expireAfterWrite(rejectedTtlSeconds, TimeUnit.SECONDS)
+                        .removalListener(
+                                (String hash, Optional<TokenRolesBean> bean, RemovalCause cause) ->
+                                        unindex(hash, bean == null ? null : bean.orElse(null)))
+                        .build();
+        hits = lookups("hit");
+        negativeHits = lookups("negative_hit");
+        misses = lookups("miss");
+        invalidated =
+                Counter.builder(METRIC_PREFIX + "invalidations").register(Metrics.globalRegistry);
+        Gauge.builder(METRIC_PREFIX + "size", valid, Cache::estimatedSize)
+                .tag("level", "valid")
+                .register(Metrics.globalRegistry);
+        Gauge.builder(METRIC_PREFIX + "size", rejected, Cache::estimatedSize)
+                .tag("level", "rejected")
+                .register(Metrics.globalRegistry);
+    }
+
+    private static Counter lookups(String result) {
+        return Counter.builder(METRIC_PREFIX + "lookups")
+                .tag("result", result)
+                .register(Metrics.globalRegistry);
+    }
+
+    /** Expires an entry after the ttl, or at the expire date of the token if that is sooner. */
+    private final class UntilExpireDate implements Expiry<String, TokenRolesBean> {
+        @Override
+        public long expireAfterCreate(String hash, TokenRolesBean bean, long currentTime) {
+            if (bean.getExpire_date() == null) {
+                return ttlNanos;
+            }
+            long untilExpiry =
+                    TimeUnit.MILLISECONDS.toNanos(
+                            bean.getExpire_date() - System.currentTimeMillis());
+            return Math.max(0, Math.min(ttlNanos, untilExpiry));
+        }
+
+        @Override
+        public long expireAfterUpdate(
+                String hash, TokenRolesBean bean, long currentTime, long currentDuration) {
+            return expireAfterCreate(hash, bean, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(
+                String hash, TokenRolesBean bean, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    static String hash(String token) {
+        return Hashing.sha256().hashString(token, StandardCharsets.UTF_8).toString();
+    }
+
+    private static String roleKey(
+            String scriptName, String resourceId, AuthZResource.Type resourceType) {
+        return resourceType + "/" + resourceId + "/" + scriptName;
+    }
+
+    private static String roleKey(TokenRolesBean bean) {
+        return roleKey(bean.getScript_name(), bean.getResource_id(), bean.getResource_type());
+    }
+
+    // Removal notices are delivered asynchronously, possibly after the token was cached again, so
+    // the index is only dropped while neither level holds the token
+    private void unindex(String hash, TokenRolesBean bean) {
+        if (bean != null) {
+            hashByRole.computeIfPresent(
+                    roleKey(bean),
+                    (key, indexed) ->
+                            indexed.equals(hash)
+                                            && valid.getIfPresent(hash) == null
+                                            && rejected.getIfPresent(hash) == null
+                                    ? null
+                                    : indexed);
+        }
+    }
+
+    /**
+     * Returns the token role of the token, without the token itself, or null if there is none. The
+     * caller still has to check the expire date.
+     */
+    public TokenRolesBean getByToken(String token) throws Exception {
+        String hash = hash(token);
+        TokenRolesBean bean = valid.getIfPresent(hash);
+        if (bean != null) {
+            hits.increment();
+            return bean;
+        }
+        Optional<TokenRolesBean> rejectedBean = rejected.getIfPresent(hash);
+        if (rejectedBean != null) {
+            negativeHits.increment();
+            return rejectedBean.orElse(null);
+        }
+        misses.increment();
+
+        long seen = invalidations.get();
+        bean = withoutToken(tokenRolesDAO.getByToken(token));
+        if (invalidations.get() != seen) {
+            // Raced with an update or delete, do not cache what may be the old role
+            return bean;
+        }
+        if (bean != null
+                && (bean.getExpire_date() == null
+                        || bean.getExpire_date() > System.currentTimeMillis())) {
+            valid.put(hash, bean);
+        } else {
+            rejected.put(hash, Optional.ofNullable(bean));
+        }
+        // Indexed after the put, so that a late removal notice of an earlier entry sees it held
+        if (bean != null) {
+            hashByRole.put(roleKey(bean), hash);
+        }
+        if (invalidations.get() != seen) {
+            // An invalidation between the check and the put may have missed the entry
+            valid.invalidate(hash);
+            rejected.invalidate(hash);
+        }
+        return bean;
+    }
+
+    private static TokenRolesBean withoutToken(TokenRolesBean bean) {
+        if (bean == null) {
+            return null;
+        }
+        TokenRolesBean copy = new TokenRolesBean();
+        copy.setScript_name(bean.getScript_name());
+        copy.setResource_id(bean.getResource_id());
+        copy.setResource_type(bean.getResource_type());
+        copy.setRole(bean.getRole());
+        copy.setExpire_date(bean.getExpire_date());
+        return copy;
+    }
+
+    /** Drops the cached token of the script on the resource, after it was updated or deleted. */
+    public void invalidate(String scriptName, String resourceId, AuthZResource.Type resourceType) {
+        invalidations.incrementAndGet();
+        String hash = hashByRole.remove(roleKey(scriptName, resourceId, resourceType));
+        if (hash != null) {
+            valid.invalidate(hash);
+            rejected.invalidate(hash);
+        }
+        invalidated.increment();
+    }
+}
@@ -30,3 +30,9 @@ DROP TABLE IF EXISTS deploy_constraints;
 DROP TABLE IF EXISTS agent_counts;
 DROP TABLE IF EXISTS pindeploy;
 DROP TABLE IF EXISTS worker_jobs;
+DROP TABLE IF EXISTS locks;
+DROP TABLE IF EXISTS service_members;
+DROP TABLE IF EXISTS entity_invalidations;
+DROP TABLE IF EXISTS build_idempotency_keys;
+DROP TABLE IF EXISTS event_outbox;
+DROP TABLE IF EXISTS event_outbox_marks;
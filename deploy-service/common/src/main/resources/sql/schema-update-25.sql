@@ -0,0 +1,10 @@
+-- This script upgrade DB schema from version 24 to version 25
+CREATE TABLE IF NOT EXISTS locks (
+    lock_name         CHAR(40)        NOT NULL,
+    owner             CHAR(36)        NOT NULL,
+    expires_at        BIGINT          NOT NULL,
+    PRIMARY KEY (lock_name)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+
+-- make sure to update the schema version to 25
+UPDATE schema_versions SET version=25;
@@ -0,0 +1,11 @@
+-- This script upgrade DB schema from version 25 to version 26
+CREATE TABLE IF NOT EXISTS service_members (
+    group_name        VARCHAR(64)     NOT NULL,
+    member_id         CHAR(36)        NOT NULL,
+    host_name         VARCHAR(256),
+    last_heartbeat    BIGINT          NOT NULL,
+    PRIMARY KEY (group_name, member_id)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+
+-- make sure to update the schema version to 26
+UPDATE schema_versions SET version=26;
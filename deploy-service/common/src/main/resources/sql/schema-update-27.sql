@@ -0,0 +1,6 @@
+-- This script upgrade DB schema from version 26 to version 27
+-- Lets agent listings page through an env in host_id order
+CREATE INDEX agent_env_host_id_idx ON agents (env_id, host_id);
+
+-- make sure to update the schema version to 27
+UPDATE schema_versions SET version=27;
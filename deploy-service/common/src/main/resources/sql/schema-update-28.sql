@@ -0,0 +1,8 @@
+-- This script upgrade DB schema from version 27 to version 28
+-- Lets deploy searches page by keyset on (start_date, deploy_id), and the recent deploy
+-- index load the active deploys without a full scan
+CREATE INDEX deploy_start_date_idx ON deploys (start_date, deploy_id);
+CREATE INDEX deploy_state_idx ON deploys (state, start_date);
+
+-- make sure to update the schema version to 28
+UPDATE schema_versions SET version=28;
@@ -0,0 +1,14 @@
+-- This script upgrade DB schema from version 28 to version 29
+-- Lets service processes tell each other which cached builds, deploys and environs changed
+CREATE TABLE IF NOT EXISTS entity_invalidations (
+    seq           BIGINT          NOT NULL AUTO_INCREMENT,
+    origin        CHAR(36)        NOT NULL,
+    entity_type   VARCHAR(16)     NOT NULL,
+    entity_id     VARCHAR(64),
+    created       BIGINT          NOT NULL,
+    PRIMARY KEY   (seq),
+    INDEX entity_invalidations_created_idx (created)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+
+-- make sure to update the schema version to 29
+UPDATE schema_versions SET version=29;
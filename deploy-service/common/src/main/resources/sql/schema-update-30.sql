@@ -0,0 +1,13 @@
+-- This script upgrade DB schema from version 29 to version 30
+-- Remembers the build published for each idempotency key of a batch publish
+CREATE TABLE IF NOT EXISTS build_idempotency_keys (
+    publisher         VARCHAR(64)     NOT NULL,
+    idempotency_key   VARCHAR(128)    NOT NULL,
+    build_id          VARCHAR(30)     NOT NULL,
+    created           BIGINT          NOT NULL,
+    PRIMARY KEY   (publisher, idempotency_key),
+    INDEX build_idempotency_keys_created_idx (created)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- make sure to update the schema version to 30
+UPDATE schema_versions SET version=30;
@@ -0,0 +1,20 @@
+-- This script upgrade DB schema from version 30 to version 31
+-- Events written in the transaction of the change they describe, and how far they were relayed
+CREATE TABLE IF NOT EXISTS event_outbox (
+    seq           BIGINT          NOT NULL AUTO_INCREMENT,
+    source        VARCHAR(64)     NOT NULL,
+    detail_type   VARCHAR(64)     NOT NULL,
+    detail        MEDIUMTEXT      NOT NULL,
+    created       BIGINT          NOT NULL,
+    PRIMARY KEY   (seq),
+    INDEX event_outbox_created_idx (created)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+CREATE TABLE IF NOT EXISTS event_outbox_marks (
+    relay         VARCHAR(32)     NOT NULL,
+    seq           BIGINT          NOT NULL,
+    PRIMARY KEY   (relay)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- make sure to update the schema version to 31
+UPDATE schema_versions SET version=31;
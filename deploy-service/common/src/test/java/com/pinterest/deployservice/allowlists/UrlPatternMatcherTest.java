@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.allowlists;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class UrlPatternMatcherTest {
+    private static final List<String> PATTERNS =
+            Arrays.asList(
+                    "https://artifacts\\.example\\.com/.*",
+                    "https://artifacts\\.example\\.com/exact\\.tar\\.gz",
+                    "https://ci\\.example\\.com/job/[a-z]+/\\d+/.*",
+                    "s3://bucket-(one|two)/.*",
+                    "(?i)https://MIXED\\.example\\.com/.*",
+                    "https://backref\\.example\\.com/(a+)/\\1",
+                    ".*\\.example\\.org/.*");
+
+    private static final List<String> URLS =
+            Arrays.asList(
+                    "https://artifacts.example.com/builds/1.tar.gz",
+                    "https://artifacts.example.com/",
+                    "https://artifacts.example.com",
+                    "https://artifacts.example.com/line\nbreak",
+                    "https://artifactsXexample.com/builds/1.tar.gz",
+                    "https://artifacts.example.com/exact.tar.gz",
+                    "https://ci.example.com/job/deploy/42/artifact.tar.gz",
+                    "https://ci.example.com/job/Deploy/42/artifact.tar.gz",
+                    "s3://bucket-one/build.tar.gz",
+                    "s3://bucket-three/build.tar.gz",
+                    "https://mixed.example.com/build.tar.gz",
+                    "https://backref.example.com/aa/aa",
+                    "https://backref.example.com/aa/a",
+                    "https://www.example.org/build.tar.gz",
+                    "https://evil.com/?https://artifacts.example.com/",
+                    "");
+
+    @Test
+    public void testSameVerdictsAsStringMatches() {
+        UrlPatternMatcher matcher = new UrlPatternMatcher(PATTERNS);
+        for (String url : URLS) {
+            boolean expected = PATTERNS.stream().anyMatch(url::matches);
+            assertEquals(expected, matcher.matches(url), url);
+            // Again from the verdict cache
+            assertEquals(expected, matcher.matches(url), url);
+        }
+    }
+
+    @Test
+    public void testEachPatternAlone() {
+        for (String pattern : PATTERNS) {
+            UrlPatternMatcher matcher = new UrlPatternMatcher(Collections.singletonList(pattern));
+            for (String url : URLS) {
+                assertEquals(url.matches(pattern), matcher.matches(url), pattern + " " + url);
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyAndNullLists() {
+        assertFalse(new UrlPatternMatcher(Collections.emptyList()).matches("https://a.com/"));
+        assertFalse(new UrlPatternMatcher(null).matches("https://a.com/"));
+    }
+
+    @Test
+    public void testSameGroupNameInTwoPatterns() {
+        UrlPatternMatcher matcher =
+                new UrlPatternMatcher(
+                        Arrays.asList(
+                                "https://a\\.com/(?<id>\\d+)", "https://b\\.com/(?<id>\\d+)"));
+        assertTrue(matcher.matches("https://b.com/12"));
+        assertFalse(matcher.matches("https://c.com/12"));
+    }
+
+    @Test
+    public void testBuildAllowlist() {
+        BuildAllowlistImpl allowlist =
+                new BuildAllowlistImpl(
+                        PATTERNS,
+                        Collections.singletonList("https://artifacts\\.example\\.com/.*"),
+                        Collections.emptyList());
+        assertTrue(allowlist.approved("https://www.example.org/build.tar.gz"));
+        assertFalse(allowlist.trusted("https://www.example.org/build.tar.gz"));
+        assertTrue(allowlist.trusted("https://artifacts.example.com/build.tar.gz"));
+        assertFalse(allowlist.sox_compliant("https://artifacts.example.com/build.tar.gz"));
+    }
+}
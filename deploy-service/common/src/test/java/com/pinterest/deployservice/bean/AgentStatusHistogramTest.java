@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.bean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+public class AgentStatusHistogramTest {
+    private static AgentStatusCountBean bucket(
+            DeployStage stage, AgentState state, boolean currentDeploy, long count) {
+        AgentStatusCountBean bucket = new AgentStatusCountBean();
+        bucket.setDeploy_stage(stage);
+        bucket.setState(state);
+        bucket.setStatus(AgentStatus.SUCCEEDED);
+        bucket.setCurrent_deploy(currentDeploy);
+        bucket.setAgent_count(count);
+        return bucket;
+    }
+
+    @Test
+    public void testCounts() {
+        AgentStatusHistogram histogram =
+                new AgentStatusHistogram(
+                        Arrays.asList(
+                                bucket(DeployStage.SERVING_BUILD, AgentState.NORMAL, true, 5),
+                                bucket(DeployStage.STOPPED, AgentState.NORMAL, true, 1),
+                                // Not on the deploy
+                                bucket(DeployStage.SERVING_BUILD, AgentState.NORMAL, false, 7),
+                                bucket(
+                                        DeployStage.SERVING_BUILD,
+                                        AgentState.PAUSED_BY_USER,
+                                        true,
+                                        2),
+                                bucket(
+                                        DeployStage.DOWNLOADING,
+                                        AgentState.PAUSED_BY_SYSTEM,
+                                        true,
+                                        3),
+                                bucket(
+                                        DeployStage.DOWNLOADING,
+                                        AgentState.PAUSED_BY_SYSTEM,
+                                        false,
+                                        4)));
+
+        assertEquals(22, histogram.countAgentByEnv());
+        assertEquals(6, histogram.countSucceededAgent());
+        assertEquals(3, histogram.countStuckAgent());
+    }
+}
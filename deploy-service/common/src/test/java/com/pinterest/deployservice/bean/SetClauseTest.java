@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.bean;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+public class SetClauseTest {
+    private static final String TEMPLATE = "UPDATE agents SET %s WHERE host_id=?";
+
+    private static AgentBean agent(String hostId, AgentState state) {
+        AgentBean bean = new AgentBean();
+        bean.setHost_id(hostId);
+        bean.setState(state);
+        return bean;
+    }
+
+    @Test
+    public void testClauseSkipsNullColumns() {
+        SetClause setClause = agent("host-1", AgentState.NORMAL).genSetClause();
+        setClause.addValue("host-1");
+
+        assertEquals("host_id=?,state=?", setClause.getClause());
+        assertArrayEquals(new Object[] {"host-1", "NORMAL", "host-1"}, setClause.getValueArray());
+    }
+
+    @Test
+    public void testSameShapeSharesStatement() {
+        SetClause first = agent("host-1", AgentState.NORMAL).genSetClause();
+        SetClause second = agent("host-2", AgentState.STOP).genSetClause();
+
+        assertEquals(
+                "UPDATE agents SET host_id=?,state=? WHERE host_id=?",
+                first.getStatement(TEMPLATE));
+        assertSame(first.getStatement(TEMPLATE), second.getStatement(TEMPLATE));
+        assertSame(first.getClause(), second.getClause());
+    }
+
+    @Test
+    public void testOtherShapeHasOwnStatement() {
+        SetClause withState = agent("host-1", AgentState.NORMAL).genSetClause();
+        SetClause withoutState = agent("host-1", null).genSetClause();
+
+        assertEquals("host_id=?", withoutState.getClause());
+        assertEquals(
+                "UPDATE agents SET host_id=? WHERE host_id=?", withoutState.getStatement(TEMPLATE));
+        assertEquals("host_id=?,state=?", withState.getClause());
+    }
+
+    @Test
+    public void testValuesGrowPastInitialCapacity() {
+        SetClause setClause = new SetClause();
+        for (int i = 0; i < 40; i++) {
+            setClause.addColumn("c" + i, i);
+        }
+
+        assertEquals(40, setClause.getValueArray().length);
+        assertEquals(39, setClause.getValueArray()[39]);
+    }
+}
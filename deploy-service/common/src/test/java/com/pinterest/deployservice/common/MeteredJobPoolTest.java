@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MeteredJobPoolTest {
+    private ThreadPoolExecutor executor;
+    private MeteredJobPool jobPool;
+
+    @BeforeAll
+    public static void setUpClass() {
+        Metrics.addRegistry(new SimpleMeterRegistry());
+    }
+
+    @BeforeEach
+    public void setUp() {
+        executor =
+                new ThreadPoolExecutor(
+                        1,
+                        1,
+                        0,
+                        TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(1),
+                        new ThreadPoolExecutor.AbortPolicy());
+        jobPool = new MeteredJobPool(executor);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        // Jobs record their duration as they end, which must not leak into the next test
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testCountsPendingJobsPerType() throws Exception {
+        long finished = durationTimer().count();
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> running = jobPool.submit(new BlockingJob(release));
+        Future<String> queued = jobPool.submit(new BlockingJob(release));
+        assertEquals(2, jobPool.pendingCount("BlockingJob"));
+
+        release.countDown();
+        assertEquals("done", running.get(5, TimeUnit.SECONDS));
+        assertEquals("done", queued.get(5, TimeUnit.SECONDS));
+        assertEquals(0, jobPool.pendingCount("BlockingJob"));
+        assertEquals(finished + 2, durationTimer().count());
+    }
+
+    @Test
+    public void testRejectedJobIsNotPending() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        jobPool.submit(new BlockingJob(release));
+        jobPool.submit(new BlockingJob(release));
+
+        assertThrows(
+                RejectedExecutionException.class, () -> jobPool.submit(new BlockingJob(release)));
+        assertEquals(2, jobPool.pendingCount("BlockingJob"));
+        release.countDown();
+    }
+
+    private static Timer durationTimer() {
+        return Metrics.timer(MeteredJobPool.METRIC_PREFIX + "duration", "job", "BlockingJob");
+    }
+
+    static class BlockingJob implements Callable<String> {
+        private final CountDownLatch release;
+
+        BlockingJob(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public String call() throws Exception {
+            release.await(5, TimeUnit.SECONDS);
+            return "done";
+        }
+    }
+}
@@ -19,13 +19,16 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.pinterest.deployservice.bean.AcceptanceStatus;
 import com.pinterest.deployservice.bean.AgentBean;
 import com.pinterest.deployservice.bean.AgentErrorBean;
+import com.pinterest.deployservice.bean.AgentFilterBean;
 import com.pinterest.deployservice.bean.AgentState;
 import com.pinterest.deployservice.bean.AgentStatus;
+import com.pinterest.deployservice.bean.AgentStatusHistogram;
 import com.pinterest.deployservice.bean.BuildBean;
 import com.pinterest.deployservice.bean.ConfigHistoryBean;
 import com.pinterest.deployservice.bean.DataBean;
@@ -35,7 +38,9 @@ import com.pinterest.deployservice.bean.DeployQueryResultBean;
 import com.pinterest.deployservice.bean.DeployStage;
 import com.pinterest.deployservice.bean.DeployState;
 import com.pinterest.deployservice.bean.DeployType;
+import com.pinterest.deployservice.bean.EntityInvalidationBean;
 import com.pinterest.deployservice.bean.EnvironBean;
+import com.pinterest.deployservice.bean.EventOutboxBean;
 import com.pinterest.deployservice.bean.GroupRolesBean;
 import com.pinterest.deployservice.bean.HostAgentBean;
 import com.pinterest.deployservice.bean.HostBean;
@@ -60,15 +65,20 @@ import com.pinterest.deployservice.common.Constants;
 import com.pinterest.deployservice.dao.AgentDAO;
 import com.pinterest.deployservice.dao.AgentErrorDAO;
 import com.pinterest.deployservice.dao.BuildDAO;
+import com.pinterest.deployservice.dao.BuildIdempotencyKeyDAO;
 import com.pinterest.deployservice.dao.ConfigHistoryDAO;
 import com.pinterest.deployservice.dao.DataDAO;
 import com.pinterest.deployservice.dao.DeployDAO;
+import com.pinterest.deployservice.dao.EntityInvalidationDAO;
 import com.pinterest.deployservice.dao.EnvironDAO;
+import com.pinterest.deployservice.dao.EventOutboxDAO;
 import com.pinterest.deployservice.dao.GroupDAO;
 import com.pinterest.deployservice.dao.GroupRolesDAO;
 import com.pinterest.deployservice.dao.HostAgentDAO;
 import com.pinterest.deployservice.dao.HostDAO;
 import com.pinterest.deployservice.dao.HostTagDAO;
+import com.pinterest.deployservice.dao.LockDAO;
+import com.pinterest.deployservice.dao.MemberDAO;
 import com.pinterest.deployservice.dao.PromoteDAO;
 import com.pinterest.deployservice.dao.RatingDAO;
 import com.pinterest.deployservice.dao.ScheduleDAO;
@@ -79,13 +89,17 @@ import com.pinterest.deployservice.dao.UtilDAO;
 import com.pinterest.deployservice.fixture.EnvironBeanFixture;
 import com.pinterest.teletraan.universal.security.bean.AuthZResource;
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import org.apache.commons.dbcp.BasicDataSource;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.joda.time.DateTime;
@@ -113,6 +127,11 @@ public class DBDAOTest {
     private static TagDAO tagDAO;
     private static ScheduleDAO scheduleDAO;
     private static UtilDAO utilDAO;
+    private static LockDAO lockDAO;
+    private static MemberDAO memberDAO;
+    private static EntityInvalidationDAO entityInvalidationDAO;
+    private static BuildIdempotencyKeyDAO buildIdempotencyKeyDAO;
+    private static EventOutboxDAO eventOutboxDAO;
     private static HostAgentDAO hostAgentDAO;
     private static BasicDataSource dataSource;
 
@@ -139,6 +158,11 @@ public class DBDAOTest {
         scheduleDAO = new DBScheduleDAOImpl(dataSource);
         hostAgentDAO = new DBHostAgentDAOImpl(dataSource);
         utilDAO = new DBUtilDAOImpl(dataSource);
+        lockDAO = new DBLockDAOImpl(dataSource);
+        memberDAO = new DBMemberDAOImpl(dataSource);
+        entityInvalidationDAO = new DBEntityInvalidationDAOImpl(dataSource);
+        buildIdempotencyKeyDAO = new DBBuildIdempotencyKeyDAOImpl(dataSource);
+        eventOutboxDAO = new DBEventOutboxDAOImpl(dataSource);
     }
 
     @AfterEach
@@ -266,6 +290,32 @@ public class DBDAOTest {
         assertEquals(resultBean.getDeploys().size(), 2);
         assertEquals(resultBean.getTotal().longValue(), 6);
 
+        // Keyset pages break start_date ties by deploy_id, and skip the count
+        DeployFilterBean keysetFilter = new DeployFilterBean();
+        keysetFilter.setAfter(now - 1000);
+        keysetFilter.setPageSize(4);
+        keysetFilter.setCountLimit(0);
+        resultBean = deployDAO.getAllDeploys(new DeployQueryFilter(keysetFilter));
+        assertEquals(
+                Arrays.asList("d-3", "d-2", "d-6", "d-5"),
+                resultBean.getDeploys().stream()
+                        .map(DeployBean::getDeploy_id)
+                        .collect(Collectors.toList()));
+        assertNull(resultBean.getTotal());
+        assertTrue(resultBean.isTruncated());
+        keysetFilter.setCursorStartDate(now);
+        keysetFilter.setCursorDeployId("d-5");
+        resultBean = deployDAO.getAllDeploys(new DeployQueryFilter(keysetFilter));
+        assertEquals(
+                Arrays.asList("d-4", "d-1"),
+                resultBean.getDeploys().stream()
+                        .map(DeployBean::getDeploy_id)
+                        .collect(Collectors.toList()));
+        assertFalse(resultBean.isTruncated());
+        keysetFilter.setCountLimit(3);
+        resultBean = deployDAO.getAllDeploys(new DeployQueryFilter(keysetFilter));
+        assertEquals(3L, resultBean.getTotal().longValue());
+
         EnvironBean envBean1 = genDefaultEnvBean("env-1", "s-1", "prod", "d-3");
         EnvironBean envBean2 = genDefaultEnvBean("env-2", "s-2", "prod", "d-4");
         EnvironBean envBean3 = genDefaultEnvBean("env-3", "s-3", "prod", "d-5");
@@ -479,6 +529,34 @@ public class DBDAOTest {
         assertEquals(0L, count);
     }
 
+    @Test
+    public void testInsertOrUpdateAllHostTags() throws Exception {
+        HostTagBean tag1 = new HostTagBean();
+        tag1.setHost_id("host-7");
+        tag1.setEnv_id("e-7");
+        tag1.setTag_name("tag-1");
+        tag1.setTag_value("value-1");
+        tag1.setCreate_date(100L);
+        HostTagBean tag2 = new HostTagBean();
+        tag2.setHost_id("host-8");
+        tag2.setEnv_id("e-7");
+        tag2.setTag_name("tag-1");
+        tag2.setTag_value("value-2");
+        tag2.setCreate_date(100L);
+        hostTagDAO.insertOrUpdateAll(Arrays.asList(tag1, tag2));
+        assertEquals(2, hostTagDAO.getAllByEnvIdAndTagName("e-7", "tag-1").size());
+
+        // An unchanged value keeps its create_date, a changed one moves it
+        tag1.setCreate_date(200L);
+        tag2.setCreate_date(200L);
+        tag2.setTag_value("value-3");
+        hostTagDAO.insertOrUpdateAll(Arrays.asList(tag1, tag2));
+        assertEquals(100L, (long) hostTagDAO.get("host-7", "tag-1").getCreate_date());
+        HostTagBean updated = hostTagDAO.get("host-8", "tag-1");
+        assertEquals("value-3", updated.getTag_value());
+        assertEquals(200L, (long) updated.getCreate_date());
+    }
+
     @Test
     public void testFirstDeployCount() throws Exception {
         AgentBean agentBean1 =
@@ -553,6 +631,22 @@ public class DBDAOTest {
         assertEquals(agentDAO.countServingTotal("e-1"), 1);
         assertEquals(agentDAO.countSucceededAgent("e-1", "d-1"), 1);
         assertEquals(agentDAO.countStuckAgent("e-1", "d-1"), 0);
+        AgentStatusHistogram histogram = agentDAO.getStatusHistogram("e-1", "d-1");
+        assertEquals(3, histogram.countAgentByEnv());
+        assertEquals(1, histogram.countSucceededAgent());
+        assertEquals(0, histogram.countStuckAgent());
+        List<AgentBean> page = agentDAO.getPageByEnv("e-1", null, null, 2);
+        assertEquals(2, page.size());
+        assertEquals("id-1", page.get(0).getHost_id());
+        assertEquals("id-3", page.get(1).getHost_id());
+        page = agentDAO.getPageByEnv("e-1", null, "id-3", 2);
+        assertEquals(1, page.size());
+        assertEquals("id-4", page.get(0).getHost_id());
+        AgentFilterBean filter = new AgentFilterBean();
+        filter.setDeploy_stage(DeployStage.SERVING_BUILD);
+        page = agentDAO.getPageByEnv("e-1", filter, null, 10);
+        assertEquals(1, page.size());
+        assertEquals("id-4", page.get(0).getHost_id());
         assertEquals(agentDAO.getByEnvAndFirstDeployTime("e-1", 0).size(), 1);
         assertEquals(agentDAO.getByEnvAndFirstDeployTime("e-2", 0).size(), 0);
 
@@ -640,6 +734,7 @@ public class DBDAOTest {
                 "host-2", "1.1.1.2", "id-123435", HostState.ACTIVE.toString(), groups, "test");
         List<HostBean> hostBeans = hostDAO.getHostsByHostId("id-123435");
         assertEquals(hostBeans.get(0).getState(), HostState.TERMINATING);
+        assertEquals(hostDAO.getHostsByHostIds(Arrays.asList("id-123434", "id-123435")).size(), 4);
 
         // Total capacity for env-1 should be 2, host-1(group1), host-2(group2) and one missing
         // host1
@@ -756,10 +851,19 @@ public class DBDAOTest {
 
         Collection<HostBeanWithStatuses> hostBean3 = hostDAO.getByEnvIdAndHostName("e-3", "host-3");
         assertEquals(hostBean3.iterator().next().getHost_name(), "host-3");
+        hostBean3 = hostDAO.getByEnvIdAndHostNames("e-3", Arrays.asList("host-3", "host-none"));
+        assertEquals(1, hostBean3.size());
+        assertEquals("host-3", hostBean3.iterator().next().getHost_name());
+        List<HostBean> hostPage = hostDAO.getPageByEnvId("e-3", null, null, null, 10);
+        assertEquals(1, hostPage.size());
+        assertEquals("id-3", hostPage.get(0).getHost_id());
+        assertTrue(hostDAO.getPageByEnvId("e-3", null, "id-3", "new_group", 10).isEmpty());
+        assertTrue(hostDAO.getPageByEnvId("e-3", HostState.ACTIVE, null, null, 10).isEmpty());
 
         groupDAO.addGroupCapacity("e-3", "new_group");
         hostBean3 = hostDAO.getByEnvIdAndHostName("e-3", "host-3");
         assertEquals(hostBean3.iterator().next().getHost_name(), "host-3");
+        assertEquals(1, hostDAO.getByEnvIdAndHostNames("e-3", Arrays.asList("host-3")).size());
         groupDAO.removeGroupCapacity("e-3", "new_group");
 
         // test host insertOrUpdate
@@ -1083,6 +1187,12 @@ public class DBDAOTest {
         UserRolesBean bean2 =
                 userRolesDAO.getByNameAndResource("test", "envTest", AuthZResource.Type.ENV);
         assertEquals(bean2.getRole(), TeletraanPrincipalRole.ADMIN);
+        assertTrue(
+                userRolesDAO.getAll().stream()
+                        .anyMatch(
+                                b ->
+                                        b.getUser_name().equals("test")
+                                                && b.getResource_id().equals("envTest")));
     }
 
     @Test
@@ -1096,6 +1206,12 @@ public class DBDAOTest {
         GroupRolesBean bean2 =
                 groupRolesDAO.getByNameAndResource("group", "123", AuthZResource.Type.ENV);
         assertEquals(bean2.getRole(), TeletraanPrincipalRole.ADMIN);
+        assertTrue(
+                groupRolesDAO.getAll().stream()
+                        .anyMatch(
+                                b ->
+                                        b.getGroup_name().equals("group")
+                                                && b.getResource_id().equals("123")));
     }
 
     @Test
@@ -1242,6 +1358,174 @@ public class DBDAOTest {
         }
     }
 
+    @Test
+    public void testLockDAO() throws Exception {
+        assertTrue(lockDAO.tryAcquire("DEPLOY-env-1", "owner-1", 1000L, 2000L));
+        assertFalse(lockDAO.tryAcquire("DEPLOY-env-1", "owner-2", 1500L, 2500L));
+        assertTrue(lockDAO.renew("DEPLOY-env-1", "owner-1", 3000L));
+        assertFalse(lockDAO.renew("DEPLOY-env-1", "owner-2", 3000L));
+
+        // An expired lease is taken over, and its old owner can neither renew nor release it
+        assertTrue(lockDAO.tryAcquire("DEPLOY-env-1", "owner-2", 3500L, 4500L));
+        assertFalse(lockDAO.renew("DEPLOY-env-1", "owner-1", 5000L));
+        lockDAO.release("DEPLOY-env-1", "owner-1");
+        assertFalse(lockDAO.tryAcquire("DEPLOY-env-1", "owner-3", 4000L, 5000L));
+
+        lockDAO.release("DEPLOY-env-1", "owner-2");
+        assertTrue(lockDAO.tryAcquire("DEPLOY-env-1", "owner-3", 4000L, 5000L));
+    }
+
+    @Test
+    public void testMemberDAO() throws Exception {
+        memberDAO.heartbeat("group-1", "member-1", "host-1", 1000L);
+        memberDAO.heartbeat("group-1", "member-2", "host-2", 1000L);
+        memberDAO.heartbeat("group-2", "member-3", "host-3", 1000L);
+        memberDAO.heartbeat("group-1", "member-2", "host-2", 2000L);
+
+        assertEquals(
+                Arrays.asList("member-1", "member-2"),
+                memberDAO.getActiveMembers("group-1", 1000L));
+        assertEquals(Arrays.asList("member-2"), memberDAO.getActiveMembers("group-1", 1500L));
+
+        memberDAO.deleteExpired("group-1", 1500L);
+        memberDAO.delete("group-1", "member-2");
+        assertTrue(memberDAO.getActiveMembers("group-1", 0L).isEmpty());
+        assertEquals(Arrays.asList("member-3"), memberDAO.getActiveMembers("group-2", 0L));
+    }
+
+    @Test
+    public void testEntityInvalidationDAO() throws Exception {
+        EntityInvalidationBean deploy = new EntityInvalidationBean();
+        deploy.setEntity_type("DEPLOY");
+        deploy.setEntity_id("d-1");
+        EntityInvalidationBean envs = new EntityInvalidationBean();
+        envs.setEntity_type("ENVIRON");
+        long before = entityInvalidationDAO.getLastSeq();
+        entityInvalidationDAO.insertAll("origin-1", Arrays.asList(deploy, envs), 1000L);
+        entityInvalidationDAO.insertAll("origin-2", Collections.emptyList(), 1000L);
+
+        List<EntityInvalidationBean> rows = entityInvalidationDAO.getAfter(before, 10);
+        assertEquals(2, rows.size());
+        assertEquals("origin-1", rows.get(0).getOrigin());
+        assertEquals("d-1", rows.get(0).getEntity_id());
+        assertNull(rows.get(1).getEntity_id());
+        assertEquals(rows.get(1).getSeq().longValue(), entityInvalidationDAO.getLastSeq());
+        assertEquals(1, entityInvalidationDAO.getAfter(before, 1).size());
+        long last = rows.get(1).getSeq();
+        assertEquals(
+                Collections.singletonList("ENVIRON"),
+                entityInvalidationDAO.getBySeqs(Arrays.asList(last, last + 100)).stream()
+                        .map(EntityInvalidationBean::getEntity_type)
+                        .collect(Collectors.toList()));
+        assertTrue(entityInvalidationDAO.getBySeqs(Collections.emptyList()).isEmpty());
+
+        entityInvalidationDAO.deleteBefore(2000L);
+        assertTrue(entityInvalidationDAO.getAfter(before, 10).isEmpty());
+    }
+
+    @Test
+    public void testBuildIdempotencyKeyDAO() throws Exception {
+        long now = System.currentTimeMillis();
+        BuildBean build1 = genDefaultBuildInfoBean("bk-1", "batch-1", "c-1", "r-1", now);
+        BuildBean build2 = genDefaultBuildInfoBean("bk-2", "batch-1", "c-1", "r-1", now);
+        build2.setPublish_info(null);
+        Map<String, String> keys = new HashMap<>();
+        keys.put("key-1", "bk-1");
+        keys.put("key-2", "bk-2");
+        DatabaseUtil.transactionalUpdate(
+                dataSource,
+                Arrays.asList(
+                        buildDAO.genInsertAllStatement(Arrays.asList(build1, build2)),
+                        buildIdempotencyKeyDAO.genInsertAllStatement("ci", keys, 1000L)));
+
+        assertTrue(EqualsBuilder.reflectionEquals(build1, buildDAO.getById("bk-1")));
+        assertTrue(EqualsBuilder.reflectionEquals(build2, buildDAO.getById("bk-2")));
+        assertEquals(
+                keys,
+                buildIdempotencyKeyDAO.getBuildIds("ci", Arrays.asList("key-1", "key-2", "key-3")));
+        assertTrue(buildIdempotencyKeyDAO.getBuildIds("other", keys.keySet()).isEmpty());
+        assertTrue(buildIdempotencyKeyDAO.getBuildIds("ci", Collections.emptyList()).isEmpty());
+
+        // A key that exists fails the whole transaction
+        BuildBean build3 = genDefaultBuildInfoBean("bk-3", "batch-1", "c-1", "r-1", now);
+        assertThrows(
+                SQLException.class,
+                () ->
+                        DatabaseUtil.transactionalUpdate(
+                                dataSource,
+                                Arrays.asList(
+                                        buildDAO.genInsertAllStatement(
+                                                Collections.singletonList(build3)),
+                                        buildIdempotencyKeyDAO.genInsertAllStatement(
+                                                "ci",
+                                                Collections.singletonMap("key-1", "bk-3"),
+                                                1000L))));
+        assertNull(buildDAO.getById("bk-3"));
+
+        DatabaseUtil.transactionalUpdate(
+                dataSource,
+                Collections.singletonList(
+                        buildIdempotencyKeyDAO.genDeleteStatement(
+                                "ci", Collections.singletonList("key-1"))));
+        assertEquals(
+                Collections.singletonMap("key-2", "bk-2"),
+                buildIdempotencyKeyDAO.getBuildIds("ci", keys.keySet()));
+        buildIdempotencyKeyDAO.deleteBefore(2000L);
+        assertTrue(buildIdempotencyKeyDAO.getBuildIds("ci", keys.keySet()).isEmpty());
+    }
+
+    @Test
+    public void testEventOutboxDAO() throws Exception {
+        long now = System.currentTimeMillis();
+        List<EventOutboxBean> events = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            EventOutboxBean event = new EventOutboxBean();
+            event.setSource("teletraan");
+            event.setDetail_type("build");
+            event.setDetail("{\"buildId\":\"b-" + i + "\"}");
+            events.add(event);
+        }
+        BuildBean build = genDefaultBuildInfoBean("bo-1", "outbox-1", "c-1", "r-1", now);
+        long before = eventOutboxDAO.getCurrentTime();
+        DatabaseUtil.transactionalUpdate(
+                dataSource,
+                Arrays.asList(
+                        buildDAO.genInsertAllStatement(Collections.singletonList(build)),
+                        eventOutboxDAO.genInsertAllStatement(events)));
+        long after = eventOutboxDAO.getCurrentTime();
+
+        List<EventOutboxBean> stored = eventOutboxDAO.getAfter(0, 10);
+        assertEquals(3, stored.size());
+        assertEquals("{\"buildId\":\"b-0\"}", stored.get(0).getDetail());
+        // Stamped with the database clock
+        assertTrue(stored.get(0).getCreated() >= before);
+        assertTrue(stored.get(0).getCreated() <= after);
+        assertTrue(stored.get(0).getSeq() < stored.get(1).getSeq());
+        long second = stored.get(1).getSeq();
+        assertEquals(1, eventOutboxDAO.getAfter(second, 10).size());
+        assertEquals(1, eventOutboxDAO.getAfter(0, 1).size());
+        assertEquals(
+                Collections.singletonList(second),
+                eventOutboxDAO.getBySeqs(Arrays.asList(second, second + 100)).stream()
+                        .map(EventOutboxBean::getSeq)
+                        .collect(Collectors.toList()));
+
+        assertEquals(0, eventOutboxDAO.getHighWaterMark("builds"));
+        eventOutboxDAO.setHighWaterMark("builds", second);
+        assertEquals(second, eventOutboxDAO.getHighWaterMark("builds"));
+        eventOutboxDAO.setHighWaterMark("builds", second + 1);
+        assertEquals(second + 1, eventOutboxDAO.getHighWaterMark("builds"));
+        // A relay that lost its lock cannot move the mark back
+        eventOutboxDAO.setHighWaterMark("builds", second);
+        assertEquals(second + 1, eventOutboxDAO.getHighWaterMark("builds"));
+
+        // Only the events up to the seq are deleted
+        eventOutboxDAO.deleteBefore(after + 1, second);
+        stored = eventOutboxDAO.getAfter(0, 10);
+        assertEquals(1, stored.size());
+        assertTrue(stored.get(0).getSeq() > second);
+    }
+
     private EnvironBean genDefaultEnvBean(
             String envId, String envName, String envStage, String deployId) {
         EnvironBean envBean = EnvironBeanFixture.createRandomEnvironBean();
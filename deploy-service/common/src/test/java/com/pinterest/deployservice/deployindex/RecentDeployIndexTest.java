@@ -0,0 +1,237 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.deployindex;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.pinterest.deployservice.bean.DeployBean;
+import com.pinterest.deployservice.bean.DeployFilterBean;
+import com.pinterest.deployservice.bean.DeployQueryResultBean;
+import com.pinterest.deployservice.bean.DeployState;
+import com.pinterest.deployservice.bean.UpdateStatement;
+import com.pinterest.deployservice.dao.DeployDAO;
+import com.pinterest.deployservice.db.DeployQueryFilter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RecentDeployIndexTest {
+    private static final long WINDOW_MS = TimeUnit.HOURS.toMillis(1);
+
+    private final long now = System.currentTimeMillis();
+    private final Map<String, DeployBean> rows = new TreeMap<>();
+    private DeployDAO deployDAO;
+    private RecentDeployIndex index;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        deployDAO = mock(DeployDAO.class);
+        // Just enough of DBDeployDAOImpl to reload the index
+        when(deployDAO.getAllDeploys(any()))
+                .thenAnswer(
+                        invocation -> {
+                            DeployFilterBean filter =
+                                    invocation.<DeployQueryFilter>getArgument(0).getFilter();
+                            List<DeployBean> deploys = new ArrayList<>();
+                            for (DeployBean deploy : rows.values()) {
+                                if ((filter.getAfter() == null
+                                                || deploy.getStart_date() >= filter.getAfter())
+                                        && (filter.getDeployStates() == null
+                                                || filter.getDeployStates()
+                                                        .contains(deploy.getState()))) {
+                                    deploys.add(deploy);
+                                }
+                            }
+                            return new DeployQueryResultBean(deploys, null, false);
+                        });
+        when(deployDAO.getById(any()))
+                .thenAnswer(invocation -> rows.get(invocation.<String>getArgument(0)));
+        index = new RecentDeployIndex(deployDAO, WINDOW_MS, 1000);
+    }
+
+    private DeployBean deploy(String id, String envId, long age, DeployState state) {
+        DeployBean bean = new DeployBean();
+        bean.setDeploy_id(id);
+        bean.setEnv_id(envId);
+        bean.setState(state);
+        bean.setOperator("foo");
+        bean.setStart_date(now - age);
+        bean.setLast_update(now - age);
+        rows.put(id, bean);
+        return bean;
+    }
+
+    private static DeployQueryFilter query(DeployFilterBean filter, int pageSize) {
+        filter.setPageIndex(1);
+        filter.setPageSize(pageSize);
+        return new DeployQueryFilter(filter);
+    }
+
+    private static List<String> ids(DeployQueryResultBean result) {
+        return result.getDeploys().stream()
+                .map(DeployBean::getDeploy_id)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testAnswersBoundedQueryWithTotal() throws Exception {
+        deploy("d-1", "env-1", 3000, DeployState.SUCCEEDED);
+        deploy("d-2", "env-1", 2000, DeployState.SUCCEEDED);
+        deploy("d-3", "env-2", 1000, DeployState.SUCCEEDED);
+        deploy("d-4", "env-1", 1000, DeployState.RUNNING);
+        index.reload();
+
+        DeployFilterBean filter = new DeployFilterBean();
+        filter.setEnvIds(Collections.singletonList("env-1"));
+        filter.setAfter(now - 60_000);
+        DeployQueryResultBean result = index.search(query(filter, 2));
+
+        assertNotNull(result);
+        assertEquals(Arrays.asList("d-4", "d-2"), ids(result));
+        assertEquals(3L, result.getTotal().longValue());
+        assertTrue(result.isTruncated());
+
+        filter.setPageIndex(2);
+        result = index.search(new DeployQueryFilter(filter));
+        assertEquals(Collections.singletonList("d-1"), ids(result));
+        assertFalse(result.isTruncated());
+        // Only the two loads of the reload went to the database
+        verify(deployDAO, times(2)).getAllDeploys(any());
+    }
+
+    @Test
+    public void testPagesByKeysetWithinWindow() throws Exception {
+        deploy("d-1", "env-1", 3000, DeployState.SUCCEEDED);
+        deploy("d-2", "env-1", 2000, DeployState.SUCCEEDED);
+        deploy("d-3", "env-1", 2000, DeployState.SUCCEEDED);
+        index.reload();
+
+        DeployFilterBean filter = new DeployFilterBean();
+        filter.setCountLimit(0);
+        DeployQueryResultBean result = index.search(query(filter, 2));
+        assertEquals(Arrays.asList("d-3", "d-2"), ids(result));
+        assertNull(result.getTotal());
+        assertTrue(result.isTruncated());
+
+        // The last page could continue past the window, which the index cannot tell
+        filter.setCursorStartDate(now - 2000);
+        filter.setCursorDeployId("d-2");
+        assertNull(index.search(new DeployQueryFilter(filter)));
+
+        // Unless the query is bounded within the window
+        filter.setAfter(now - 60_000);
+        result = index.search(new DeployQueryFilter(filter));
+        assertEquals(Collections.singletonList("d-1"), ids(result));
+        assertFalse(result.isTruncated());
+    }
+
+    @Test
+    public void testAnswersActiveStatesRegardlessOfAge() throws Exception {
+        deploy("d-1", "env-1", TimeUnit.DAYS.toMillis(10), DeployState.FAILING);
+        deploy("d-2", "env-1", TimeUnit.DAYS.toMillis(10), DeployState.SUCCEEDED);
+        deploy("d-3", "env-2", 1000, DeployState.RUNNING);
+        index.reload();
+
+        DeployFilterBean filter = new DeployFilterBean();
+        filter.setDeployStates(Arrays.asList(DeployState.RUNNING, DeployState.FAILING));
+        DeployQueryResultBean result = index.search(query(filter, 1));
+
+        assertEquals(Collections.singletonList("d-3"), ids(result));
+        assertEquals(2L, result.getTotal().longValue());
+        assertTrue(result.isTruncated());
+
+        // Older deploys in final states are not held, so unbounded totals go to the database
+        assertNull(index.search(query(new DeployFilterBean(), 1)));
+    }
+
+    @Test
+    public void testRereadsDeploysWrittenThroughDAO() throws Exception {
+        deploy("d-1", "env-1", 1000, DeployState.RUNNING);
+        index.reload();
+        IndexedDeployDAO indexedDAO = new IndexedDeployDAO(deployDAO, index);
+
+        DeployBean update = new DeployBean();
+        update.setState(DeployState.SUCCEEDED);
+        indexedDAO.update("d-1", update);
+        deploy("d-1", "env-1", 1000, DeployState.SUCCEEDED);
+        DeployBean inserted = deploy("d-2", "env-1", 0, DeployState.RUNNING);
+        indexedDAO.insert(inserted);
+
+        DeployFilterBean filter = new DeployFilterBean();
+        filter.setDeployStates(Collections.singletonList(DeployState.RUNNING));
+        DeployQueryResultBean result = index.search(query(filter, 10));
+
+        assertEquals(Collections.singletonList("d-2"), ids(result));
+        assertEquals(1L, result.getTotal().longValue());
+    }
+
+    @Test
+    public void testMarksGeneratedStatementsAfterCommit() throws Exception {
+        deploy("d-1", "env-1", 1000, DeployState.RUNNING);
+        index.reload();
+        IndexedDeployDAO indexedDAO = new IndexedDeployDAO(deployDAO, index);
+        when(deployDAO.genUpdateStatement(any(), any()))
+                .thenReturn(new UpdateStatement("UPDATE deploys", new Object[0]));
+
+        UpdateStatement statement = indexedDAO.genUpdateStatement("d-1", new DeployBean());
+        deploy("d-1", "env-1", 1000, DeployState.SUCCEEDED);
+        DeployFilterBean filter = new DeployFilterBean();
+        filter.setDeployStates(Collections.singletonList(DeployState.RUNNING));
+
+        // Not committed yet, so the deploy is not re-read
+        assertEquals(Collections.singletonList("d-1"), ids(index.search(query(filter, 10))));
+
+        statement.getAfterCommit().forEach(Runnable::run);
+        assertEquals(Collections.emptyList(), ids(index.search(query(filter, 10))));
+    }
+
+    @Test
+    public void testMissesWhatItCannotAnswer() throws Exception {
+        deploy("d-1", "env-1", 1000, DeployState.RUNNING);
+        DeployFilterBean filter = new DeployFilterBean();
+        filter.setAfter(now - 60_000);
+
+        // Not loaded yet
+        assertNull(index.search(query(filter, 10)));
+
+        index.reload();
+        assertNotNull(index.search(query(filter, 10)));
+
+        filter.setCommit("abc");
+        assertNull(index.search(query(filter, 10)));
+        filter.setCommit(null);
+
+        // Beyond the window
+        filter.setAfter(now - 2 * WINDOW_MS);
+        assertNull(index.search(query(filter, 10)));
+    }
+}
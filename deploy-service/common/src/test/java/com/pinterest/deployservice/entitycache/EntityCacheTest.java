@@ -0,0 +1,288 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.entitycache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.pinterest.deployservice.bean.BuildBean;
+import com.pinterest.deployservice.bean.DeployBean;
+import com.pinterest.deployservice.bean.DeployState;
+import com.pinterest.deployservice.bean.EntityInvalidationBean;
+import com.pinterest.deployservice.bean.EnvironBean;
+import com.pinterest.deployservice.bean.UpdateStatement;
+import com.pinterest.deployservice.dao.BuildDAO;
+import com.pinterest.deployservice.dao.DeployDAO;
+import com.pinterest.deployservice.dao.EntityInvalidationDAO;
+import com.pinterest.deployservice.dao.EnvironDAO;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class EntityCacheTest {
+    private static final String SPEC = "maximumSize=100,expireAfterWrite=10m";
+
+    private final List<EntityInvalidationBean> invalidations = new ArrayList<>();
+    private boolean failInserts;
+    private BuildDAO buildDAO;
+    private DeployDAO deployDAO;
+    private EnvironDAO environDAO;
+    private EntityInvalidationDAO invalidationDAO;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        buildDAO = mock(BuildDAO.class);
+        deployDAO = mock(DeployDAO.class);
+        environDAO = mock(EnvironDAO.class);
+        when(buildDAO.getById(anyString()))
+                .thenAnswer(invocation -> build(invocation.getArgument(0)));
+        when(deployDAO.getById(anyString()))
+                .thenAnswer(invocation -> deploy(invocation.getArgument(0)));
+        when(environDAO.getById(anyString()))
+                .thenAnswer(invocation -> env(invocation.getArgument(0)));
+
+        // An in-memory entity_invalidations table
+        invalidationDAO = mock(EntityInvalidationDAO.class);
+        doAnswer(
+                        invocation -> {
+                            if (failInserts) {
+                                throw new SQLException("down");
+                            }
+                            Collection<EntityInvalidationBean> rows = invocation.getArgument(1);
+                            for (EntityInvalidationBean row : rows) {
+                                row.setSeq((long) invalidations.size() + 1);
+                                row.setOrigin(invocation.getArgument(0));
+                                invalidations.add(row);
+                            }
+                            return null;
+                        })
+                .when(invalidationDAO)
+                .insertAll(anyString(), any(), anyLong());
+        when(invalidationDAO.getLastSeq()).thenAnswer(invocation -> (long) invalidations.size());
+        when(invalidationDAO.getAfter(anyLong(), anyInt()))
+                .thenAnswer(
+                        invocation -> {
+                            long after = invocation.getArgument(0);
+                            int limit = invocation.getArgument(1);
+                            return invalidations.stream()
+                                    .filter(row -> row.getSeq() > after)
+                                    .sorted(Comparator.comparing(EntityInvalidationBean::getSeq))
+                                    .limit(limit)
+                                    .collect(Collectors.toList());
+                        });
+        when(invalidationDAO.getBySeqs(any()))
+                .thenAnswer(
+                        invocation -> {
+                            Collection<Long> seqs = invocation.getArgument(0);
+                            return invalidations.stream()
+                                    .filter(row -> seqs.contains(row.getSeq()))
+                                    .collect(Collectors.toList());
+                        });
+    }
+
+    private static BuildBean build(String id) {
+        BuildBean bean = new BuildBean();
+        bean.setBuild_id(id);
+        return bean;
+    }
+
+    private static DeployBean deploy(String id) {
+        DeployBean bean = new DeployBean();
+        bean.setDeploy_id(id);
+        return bean;
+    }
+
+    private static EnvironBean env(String id) {
+        EnvironBean bean = new EnvironBean();
+        bean.setEnv_id(id);
+        return bean;
+    }
+
+    @Test
+    public void testReadsThrough() throws Exception {
+        EntityCache cache = new EntityCache(buildDAO, deployDAO, environDAO, SPEC);
+
+        BuildBean build = cache.getBuild("b1");
+        assertEquals("b1", build.getBuild_id());
+        assertSame(build, cache.getBuild("b1"));
+        assertEquals("d1", cache.getDeploy("d1").getDeploy_id());
+        assertEquals("e1", cache.getEnv("e1").getEnv_id());
+        cache.getDeploy("d1");
+        cache.getEnv("e1");
+        assertNull(cache.getBuild(null));
+
+        verify(buildDAO, times(1)).getById("b1");
+        verify(deployDAO, times(1)).getById("d1");
+        verify(environDAO, times(1)).getById("e1");
+    }
+
+    @Test
+    public void testMissingRowsAreNotCached() throws Exception {
+        when(deployDAO.getById("gone")).thenReturn(null);
+        EntityCache cache = new EntityCache(buildDAO, deployDAO, environDAO, SPEC);
+
+        assertNull(cache.getDeploy("gone"));
+        assertNull(cache.getDeploy("gone"));
+        verify(deployDAO, times(2)).getById("gone");
+    }
+
+    @Test
+    public void testDaoExceptionsAreUnwrapped() throws Exception {
+        when(environDAO.getById("e1")).thenThrow(new SQLException("down"));
+        EntityCache cache = new EntityCache(buildDAO, deployDAO, environDAO, SPEC);
+
+        assertThrows(SQLException.class, () -> cache.getEnv("e1"));
+    }
+
+    @Test
+    public void testWritesInvalidate() throws Exception {
+        EntityCache cache = new EntityCache(buildDAO, deployDAO, environDAO, SPEC);
+        DeployDAO deploys = new InvalidatingDeployDAO(deployDAO, cache);
+        EnvironDAO envs = new InvalidatingEnvironDAO(environDAO, cache);
+        cache.getDeploy("d1");
+        cache.getDeploy("d2");
+        cache.getEnv("e1");
+        cache.getEnv("e2");
+
+        deploys.update("d1", new DeployBean());
+        when(deployDAO.updateStateSafely(eq("d2"), any(), any())).thenReturn(0);
+        deploys.updateStateSafely("d2", DeployState.RUNNING.toString(), new DeployBean());
+        cache.getDeploy("d1");
+        cache.getDeploy("d2");
+        verify(deployDAO, times(2)).getById("d1");
+        verify(deployDAO, times(1)).getById("d2");
+
+        when(environDAO.genUpdateStatement(any(), any()))
+                .thenReturn(new UpdateStatement("UPDATE environs", new Object[0]));
+        UpdateStatement statement = envs.genUpdateStatement("e1", new EnvironBean());
+        cache.getEnv("e1");
+        verify(environDAO, times(1)).getById("e1");
+
+        // Dropped only once the transaction has committed
+        statement.getAfterCommit().forEach(Runnable::run);
+        cache.getEnv("e1");
+        cache.getEnv("e2");
+        verify(environDAO, times(2)).getById("e1");
+        verify(environDAO, times(1)).getById("e2");
+
+        envs.updateAll(new EnvironBean());
+        cache.getEnv("e1");
+        cache.getEnv("e2");
+        verify(environDAO, times(3)).getById("e1");
+        verify(environDAO, times(2)).getById("e2");
+    }
+
+    @Test
+    public void testBroadcastReachesOtherReplicas() throws Exception {
+        long retentionMs = TimeUnit.MINUTES.toMillis(10);
+        EntityCache writer = new EntityCache(buildDAO, deployDAO, environDAO, SPEC);
+        EntityCache reader = new EntityCache(buildDAO, deployDAO, environDAO, SPEC);
+        EntityInvalidationBroadcaster writerBroadcaster =
+                new EntityInvalidationBroadcaster(writer, invalidationDAO, retentionMs);
+        EntityInvalidationBroadcaster readerBroadcaster =
+                new EntityInvalidationBroadcaster(reader, invalidationDAO, retentionMs);
+        writer.setBroadcaster(writerBroadcaster);
+        reader.setBroadcaster(readerBroadcaster);
+        writerBroadcaster.sync();
+        readerBroadcaster.sync();
+        reader.getDeploy("d1");
+        reader.getDeploy("d2");
+
+        writer.invalidateDeploy("d1");
+        writer.invalidateDeploy("d1");
+        writerBroadcaster.sync();
+        assertEquals(1, invalidations.size());
+
+        readerBroadcaster.sync();
+        reader.getDeploy("d1");
+        reader.getDeploy("d2");
+        verify(deployDAO, times(2)).getById("d1");
+        verify(deployDAO, times(1)).getById("d2");
+    }
+
+    @Test
+    public void testLateCommittedInvalidationIsApplied() throws Exception {
+        EntityCache cache = new EntityCache(buildDAO, deployDAO, environDAO, SPEC);
+        EntityInvalidationBroadcaster broadcaster =
+                new EntityInvalidationBroadcaster(
+                        cache, invalidationDAO, TimeUnit.MINUTES.toMillis(10));
+        cache.setBroadcaster(broadcaster);
+        broadcaster.sync();
+        cache.getDeploy("d1");
+        cache.getDeploy("d2");
+
+        // Seq 2 commits before seq 1
+        invalidations.add(remoteInvalidation(2, "d2"));
+        broadcaster.sync();
+        invalidations.add(remoteInvalidation(1, "d1"));
+        broadcaster.sync();
+
+        cache.getDeploy("d1");
+        cache.getDeploy("d2");
+        verify(deployDAO, times(2)).getById("d1");
+        verify(deployDAO, times(2)).getById("d2");
+
+        // Applied once
+        broadcaster.sync();
+        cache.getDeploy("d1");
+        verify(deployDAO, times(2)).getById("d1");
+    }
+
+    private static EntityInvalidationBean remoteInvalidation(long seq, String deployId) {
+        EntityInvalidationBean invalidation = new EntityInvalidationBean();
+        invalidation.setSeq(seq);
+        invalidation.setOrigin("other");
+        invalidation.setEntity_type("DEPLOY");
+        invalidation.setEntity_id(deployId);
+        return invalidation;
+    }
+
+    @Test
+    public void testFailedPublishIsRetried() throws Exception {
+        EntityCache cache = new EntityCache(buildDAO, deployDAO, environDAO, SPEC);
+        EntityInvalidationBroadcaster broadcaster =
+                new EntityInvalidationBroadcaster(
+                        cache, invalidationDAO, TimeUnit.MINUTES.toMillis(10));
+        cache.setBroadcaster(broadcaster);
+        cache.invalidateEnv("e1");
+
+        failInserts = true;
+        broadcaster.sync();
+        assertEquals(0, invalidations.size());
+        failInserts = false;
+        broadcaster.sync();
+        assertEquals(1, invalidations.size());
+        assertEquals("e1", invalidations.get(0).getEntity_id());
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.pinterest.deployservice.bean.BuildBean;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BatchingBuildEventPublisherTest {
+    private List<List<BuildEvent>> batches;
+    private BuildEventPublisher delegate;
+    private BatchingBuildEventPublisher publisher;
+
+    @BeforeEach
+    public void setUp() {
+        batches = new ArrayList<>();
+        delegate =
+                mock(
+                        BuildEventPublisher.class,
+                        invocation -> {
+                            if ("publishAll".equals(invocation.getMethod().getName())) {
+                                batches.add(new ArrayList<>(invocation.getArgument(0)));
+                            }
+                            return null;
+                        });
+        publisher = new BatchingBuildEventPublisher(delegate, 5, 2);
+    }
+
+    private static BuildBean build(String id) {
+        BuildBean buildBean = new BuildBean();
+        buildBean.setBuild_id(id);
+        return buildBean;
+    }
+
+    @Test
+    public void testFlushInBatches() {
+        for (int i = 0; i < 5; i++) {
+            publisher.publish(build("b-" + i), "CREATE");
+        }
+        assertEquals(5, publisher.pendingCount());
+        verify(delegate, never()).publish(any(), any());
+
+        publisher.flush();
+        assertEquals(0, publisher.pendingCount());
+        assertEquals(3, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertEquals(1, batches.get(2).size());
+        assertEquals("b-0", batches.get(0).get(0).getBuildBean().getBuild_id());
+        assertEquals("b-4", batches.get(2).get(0).getBuildBean().getBuild_id());
+        assertEquals("CREATE", batches.get(2).get(0).getAction());
+    }
+
+    @Test
+    public void testPublishInlineWhenFull() {
+        for (int i = 0; i < 6; i++) {
+            publisher.publish(build("b-" + i), "CREATE");
+        }
+        assertEquals(5, publisher.pendingCount());
+        verify(delegate, times(1)).publish(any(), any());
+    }
+
+    @Test
+    public void testFailedBatchIsDropped() {
+        BuildEventPublisher failing = mock(BuildEventPublisher.class);
+        doThrow(new RuntimeException("unavailable")).when(failing).publishAll(any());
+        BatchingBuildEventPublisher batching = new BatchingBuildEventPublisher(failing, 5, 2);
+        batching.publish(build("b-0"), "CREATE");
+        batching.publish(build("b-1"), "DELETE");
+        batching.publish(build("b-2"), "CREATE");
+
+        batching.flush();
+        assertEquals(0, batching.pendingCount());
+        verify(failing, times(2)).publishAll(any());
+    }
+}
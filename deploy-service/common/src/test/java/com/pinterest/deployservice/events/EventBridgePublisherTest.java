@@ -28,6 +28,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.pinterest.deployservice.bean.BuildBean;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import org.junit.jupiter.api.Test;
@@ -96,6 +99,41 @@ public class EventBridgePublisherTest {
         assertEquals(ACTION, jsonNode.get("action-type").textValue());
     }
 
+    @Test
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void publishAll() throws JsonProcessingException {
+        ArgumentCaptor<Consumer> putEventsRequestArgumentCaptor =
+                ArgumentCaptor.forClass(Consumer.class);
+        when(eventBridgeAsyncClient.putEvents(any(Consumer.class)))
+                .thenReturn(mock(CompletableFuture.class));
+        BuildBean buildBean = generateBuild();
+        buildBean.setScm_branch("origin/" + BRANCH);
+        List<BuildEvent> events = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            events.add(new BuildEvent(buildBean, ACTION));
+        }
+
+        eventBridgePublisher.publishAll(events);
+
+        // At most 10 entries per PutEvents call
+        Mockito.verify(eventBridgeAsyncClient, Mockito.times(3))
+                .putEvents(putEventsRequestArgumentCaptor.capture());
+        List<Integer> sizes = new ArrayList<>();
+        for (Consumer consumer : putEventsRequestArgumentCaptor.getAllValues()) {
+            PutEventsRequest.Builder builder = PutEventsRequest.builder();
+            consumer.accept(builder);
+            sizes.add(builder.build().entries().size());
+        }
+        assertEquals(Arrays.asList(10, 10, 5), sizes);
+
+        // The origin/ prefix is removed from the event, not from the bean
+        PutEventsRequest.Builder builder = PutEventsRequest.builder();
+        putEventsRequestArgumentCaptor.getValue().accept(builder);
+        JsonNode jsonNode = objectMapper.readTree(builder.build().entries().get(0).detail());
+        assertEquals(BRANCH, jsonNode.get("branch").textValue());
+        assertEquals("origin/" + BRANCH, buildBean.getScm_branch());
+    }
+
     private String buildEventDetailJson(BuildBean buildBean) {
         JsonNode buildBeanJsonNode = objectMapper.valueToTree(buildBean);
         ((ObjectNode) buildBeanJsonNode).put("action-type", ACTION);
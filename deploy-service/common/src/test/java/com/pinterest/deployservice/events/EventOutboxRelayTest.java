@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.pinterest.deployservice.bean.EventOutboxBean;
+import com.pinterest.deployservice.bean.UpdateStatement;
+import com.pinterest.deployservice.dao.EventOutboxDAO;
+import com.pinterest.deployservice.lock.InProcessLockManager;
+import com.pinterest.deployservice.lock.LockManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class EventOutboxRelayTest {
+    private static final String RELAY = "test";
+
+    private FakeEventOutboxDAO dao;
+    private LockManager lockManager;
+
+    @BeforeEach
+    public void setUp() {
+        dao = new FakeEventOutboxDAO();
+        lockManager = new InProcessLockManager();
+    }
+
+    private EventOutboxRelay relay(EventOutboxSink sink, int batchesPerRun) {
+        return new EventOutboxRelay(RELAY, dao, sink, lockManager, 2, batchesPerRun, 60_000);
+    }
+
+    private static List<Long> seqs(List<EventOutboxBean> events) {
+        return events.stream().map(EventOutboxBean::getSeq).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testRelayInBatches() throws Exception {
+        dao.add(25, 0);
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        LocalEventOutboxSink local = new LocalEventOutboxSink(10, 100);
+        EventOutboxSink sink =
+                new EventOutboxSink() {
+                    @Override
+                    public int maxBatchSize() {
+                        return 10;
+                    }
+
+                    @Override
+                    public CompletableFuture<Set<Long>> deliver(List<EventOutboxBean> events) {
+                        batchSizes.add(events.size());
+                        return local.deliver(events);
+                    }
+                };
+
+        relay(sink, 2).relay();
+        assertEquals(20, dao.getHighWaterMark(RELAY));
+        relay(sink, 2).relay();
+        assertEquals(25, dao.getHighWaterMark(RELAY));
+
+        assertEquals(25, local.getDelivered().size());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 10));
+        // Nothing left, the next run delivers nothing again
+        relay(sink, 2).relay();
+        assertEquals(25, local.getDelivered().size());
+    }
+
+    @Test
+    public void testStopAtFailure() throws Exception {
+        dao.add(30, 0);
+        // The second batch fails as a whole, one event of the third fails
+        EventOutboxSink sink =
+                new EventOutboxSink() {
+                    @Override
+                    public int maxBatchSize() {
+                        return 10;
+                    }
+
+                    @Override
+                    public CompletableFuture<Set<Long>> deliver(List<EventOutboxBean> events) {
+                        CompletableFuture<Set<Long>> result = new CompletableFuture<>();
+                        long first = events.get(0).getSeq();
+                        if (first == 11) {
+                            result.completeExceptionally(new RuntimeException("unavailable"));
+                        } else if (first == 21) {
+                            result.complete(Collections.singleton(25L));
+                        } else {
+                            result.complete(Collections.emptySet());
+                        }
+                        return result;
+                    }
+                };
+
+        relay(sink, 5).relay();
+
+        assertEquals(10, dao.getHighWaterMark(RELAY));
+    }
+
+    @Test
+    public void testWaitForGap() throws Exception {
+        dao.add(4, 0);
+        // Seq 4 is not committed yet, or rolled back
+        dao.events.remove(3);
+        dao.add(2, 0);
+        LocalEventOutboxSink sink = new LocalEventOutboxSink(10, 100);
+
+        relay(sink, 1).relay();
+        assertEquals(3, dao.getHighWaterMark(RELAY));
+        assertEquals(3, sink.getDelivered().size());
+
+        // The gap is old enough to be passed
+        for (EventOutboxBean event : dao.events) {
+            event.setCreated(System.currentTimeMillis() - 120_000);
+        }
+        relay(sink, 1).relay();
+        assertEquals(6, dao.getHighWaterMark(RELAY));
+        assertEquals(Arrays.asList(5L, 6L), seqs(sink.getDelivered()).subList(3, 5));
+    }
+
+    @Test
+    public void testDeliverLateEventOfPassedGap() throws Exception {
+        dao.add(3, 120_000);
+        // Seq 2 commits after its gap is passed
+        EventOutboxBean late = dao.events.remove(1);
+        LocalEventOutboxSink sink = new LocalEventOutboxSink(10, 100);
+        EventOutboxRelay relay = relay(sink, 1);
+
+        relay.relay();
+        assertEquals(3, dao.getHighWaterMark(RELAY));
+        assertEquals(Arrays.asList(1L, 3L), seqs(sink.getDelivered()));
+
+        dao.events.add(1, late);
+        relay.relay();
+        assertEquals(3, dao.getHighWaterMark(RELAY));
+        assertEquals(Arrays.asList(1L, 3L, 2L), seqs(sink.getDelivered()));
+
+        // Delivered once
+        relay.relay();
+        assertEquals(3, sink.getDelivered().size());
+    }
+
+    @Test
+    public void testSkipWhenLocked() throws Exception {
+        dao.add(5, 0);
+        LocalEventOutboxSink sink = new LocalEventOutboxSink(10, 100);
+        LockManager.Lock lock = lockManager.tryLock(EventOutboxRelay.LOCK_FAMILY, RELAY);
+
+        relay(sink, 1).relay();
+        assertEquals(0, dao.getHighWaterMark(RELAY));
+
+        lock.release();
+        relay(sink, 1).relay();
+        assertEquals(5, dao.getHighWaterMark(RELAY));
+    }
+
+    @Test
+    public void testPurgeDeliveredOnly() throws Exception {
+        dao.add(5, 0);
+        dao.setHighWaterMark(RELAY, 3);
+
+        relay(new LocalEventOutboxSink(10, 100), 1).purge(System.currentTimeMillis() + 1);
+
+        assertEquals(Arrays.asList(4L, 5L), seqs(dao.events));
+    }
+
+    private static class FakeEventOutboxDAO implements EventOutboxDAO {
+        private final List<EventOutboxBean> events = new ArrayList<>();
+        private final Map<String, Long> marks = new HashMap<>();
+        private long nextSeq = 1;
+
+        void add(int count, long age) {
+            for (int i = 0; i < count; i++) {
+                EventOutboxBean event = new EventOutboxBean();
+                event.setSeq(nextSeq++);
+                event.setDetail("{}");
+                event.setCreated(System.currentTimeMillis() - age);
+                events.add(event);
+            }
+        }
+
+        @Override
+        public UpdateStatement genInsertAllStatement(Collection<EventOutboxBean> events) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public synchronized List<EventOutboxBean> getBySeqs(Collection<Long> seqs) {
+            return events.stream()
+                    .filter(event -> seqs.contains(event.getSeq()))
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public long getCurrentTime() {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public synchronized List<EventOutboxBean> getAfter(long afterSeq, int limit) {
+            return events.stream()
+                    .filter(event -> event.getSeq() > afterSeq)
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public synchronized long getHighWaterMark(String relay) {
+            return marks.getOrDefault(relay, 0L);
+        }
+
+        @Override
+        public synchronized void setHighWaterMark(String relay, long seq) {
+            marks.put(relay, seq);
+        }
+
+        @Override
+        public synchronized void deleteBefore(long before, long maxSeq) {
+            events.removeIf(event -> event.getCreated() < before && event.getSeq() <= maxSeq);
+        }
+    }
+}
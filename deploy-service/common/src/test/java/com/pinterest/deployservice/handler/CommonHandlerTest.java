@@ -38,6 +38,7 @@ import com.pinterest.deployservice.dao.EnvironDAO;
 import com.pinterest.deployservice.dao.ScheduleDAO;
 import com.pinterest.deployservice.dao.UtilDAO;
 import com.pinterest.deployservice.email.MailManager;
+import com.pinterest.deployservice.lock.AdvisoryLockManager;
 import com.pinterest.teletraan.universal.events.AppEventPublisher;
 import java.util.concurrent.ExecutorService;
 import java.util.stream.Stream;
@@ -83,6 +84,7 @@ public class CommonHandlerTest {
         serviceContext.setBuildDAO(buildDAO);
         serviceContext.setAgentDAO(agentDAO);
         serviceContext.setUtilDAO(utilDAO);
+        serviceContext.setLockManager(new AdvisoryLockManager(utilDAO));
         serviceContext.setScheduleDAO(scheduleDAO);
         serviceContext.setAppEventPublisher(publisher);
         serviceContext.setChatManager(chatManager);
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class EnvChangeNotifierTest {
+    private EnvChangeNotifier notifier;
+    private AtomicInteger calls;
+
+    @BeforeEach
+    public void setUp() {
+        notifier = new EnvChangeNotifier(MoreExecutors.directExecutor());
+        calls = new AtomicInteger();
+    }
+
+    @Test
+    public void testChangeWakesWaiterOnce() {
+        notifier.subscribe(
+                Arrays.asList("e-1", "e-2"), notifier.sequence(), calls::incrementAndGet);
+        assertEquals(0, calls.get());
+
+        notifier.notifyChange("e-2");
+        notifier.notifyChange("e-1");
+
+        assertEquals(1, calls.get());
+        assertEquals(0, notifier.waiterCount());
+    }
+
+    @Test
+    public void testOtherEnvsDoNotWakeWaiter() {
+        notifier.subscribe(
+                Collections.singletonList("e-1"), notifier.sequence(), calls::incrementAndGet);
+
+        notifier.notifyChange("e-3");
+
+        assertEquals(0, calls.get());
+        assertEquals(1, notifier.waiterCount());
+    }
+
+    @Test
+    public void testChangeBeforeSubscribeWakesWaiter() {
+        long since = notifier.sequence();
+        notifier.notifyChange("e-1");
+
+        notifier.subscribe(Collections.singletonList("e-1"), since, calls::incrementAndGet);
+
+        assertEquals(1, calls.get());
+        // Only changes after the given sequence count
+        notifier.subscribe(
+                Collections.singletonList("e-1"), notifier.sequence(), calls::incrementAndGet);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testCancelledWaiterIsNotWoken() {
+        EnvChangeNotifier.Subscription subscription =
+                notifier.subscribe(
+                        Collections.singletonList("e-1"),
+                        notifier.sequence(),
+                        calls::incrementAndGet);
+
+        assertTrue(subscription.cancel());
+        notifier.notifyChange("e-1");
+
+        assertEquals(0, calls.get());
+        assertEquals(0, notifier.waiterCount());
+        assertFalse(subscription.cancel());
+    }
+}
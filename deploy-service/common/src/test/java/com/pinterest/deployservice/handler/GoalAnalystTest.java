@@ -96,8 +96,7 @@ public class GoalAnalystTest {
         envs.put(envBean.getEnv_id(), envBean);
 
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 0);
@@ -117,8 +116,7 @@ public class GoalAnalystTest {
         reports.put(report.getEnvId(), report);
 
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 1);
@@ -141,8 +139,7 @@ public class GoalAnalystTest {
         agents.put(envBean.getEnv_id(), agent);
 
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 1);
@@ -160,8 +157,7 @@ public class GoalAnalystTest {
         reports.put(report.getEnvId(), report);
 
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 1);
@@ -180,8 +176,7 @@ public class GoalAnalystTest {
         reports.put(report.getEnvId(), report);
 
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 1);
@@ -209,8 +204,7 @@ public class GoalAnalystTest {
         agents.put(agent.getEnv_id(), agent);
 
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 1);
@@ -229,8 +223,7 @@ public class GoalAnalystTest {
         envs.put(envBean.getEnv_id(), envBean);
         // no report, no agents
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 0);
@@ -254,17 +247,7 @@ public class GoalAnalystTest {
         Mockito.when(environDAO.getById("foo2")).thenReturn(envBean);
         GoalAnalyst analyst =
                 new GoalAnalyst(
-                        null,
-                        null,
-                        null,
-                        environDAO,
-                        null,
-                        "foo",
-                        "id-1",
-                        envs,
-                        reports,
-                        agents,
-                        null);
+                        null, null, environDAO, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 0);
@@ -289,17 +272,7 @@ public class GoalAnalystTest {
         Mockito.when(environDAO.getById("foo2")).thenReturn(envBean2);
         GoalAnalyst analyst =
                 new GoalAnalyst(
-                        null,
-                        null,
-                        null,
-                        environDAO,
-                        null,
-                        "foo",
-                        "id-1",
-                        envs,
-                        reports,
-                        agents,
-                        null);
+                        null, null, environDAO, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 0);
@@ -324,8 +297,7 @@ public class GoalAnalystTest {
         agent.setFirst_deploy(true);
         agents.put(agent.getEnv_id(), agent);
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 1);
@@ -351,8 +323,7 @@ public class GoalAnalystTest {
         agent.setStart_date(0L);
         agents.put(agent.getEnv_id(), agent);
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 1);
@@ -365,8 +336,7 @@ public class GoalAnalystTest {
 
         reports.get(report.getEnvId()).setDeployStage(DeployStage.SERVING_BUILD);
         GoalAnalyst analyst1 =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst1.analysis();
         assertEquals(analyst1.getNeedUpdateAgents().size(), 1);
         assertEquals(analyst1.getNeedDeleteAgentEnvIds().size(), 0);
@@ -389,8 +359,7 @@ public class GoalAnalystTest {
         agent.setStart_date(0L);
         agents.put(agent.getEnv_id(), agent);
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 1);
@@ -417,8 +386,7 @@ public class GoalAnalystTest {
         agents.put(agent.getEnv_id(), agent);
 
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 1);
@@ -443,8 +411,7 @@ public class GoalAnalystTest {
         reports.put(report.getEnvId(), report);
 
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 1);
@@ -469,8 +436,7 @@ public class GoalAnalystTest {
         reports.put(report.getEnvId(), report);
 
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 1);
@@ -500,8 +466,7 @@ public class GoalAnalystTest {
         agents.put(agent.getEnv_id(), agent);
 
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 1);
@@ -527,8 +492,7 @@ public class GoalAnalystTest {
         reports.put(report.getEnvId(), report);
 
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 1);
@@ -559,8 +523,7 @@ public class GoalAnalystTest {
         agents.put(agent.getEnv_id(), agent);
 
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 1);
@@ -580,8 +543,7 @@ public class GoalAnalystTest {
         envs.put(envBean.getEnv_id(), envBean);
 
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 0);
@@ -603,8 +565,7 @@ public class GoalAnalystTest {
         agents.put(report.getEnvId(), agent);
 
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 1);
@@ -620,8 +581,7 @@ public class GoalAnalystTest {
         agents.put(agent.getEnv_id(), agent);
 
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 0);
@@ -646,8 +606,7 @@ public class GoalAnalystTest {
         Mockito.when(deployDAO.getById("bar")).thenReturn(deployBean);
         GoalAnalyst analyst =
                 new GoalAnalyst(
-                        null, null, deployDAO, null, null, "foo", "id-1", envs, reports, agents,
-                        null);
+                        null, deployDAO, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
         Mockito.verify(deployDAO).getById("bar");
 
@@ -677,8 +636,7 @@ public class GoalAnalystTest {
         Mockito.when(deployDAO.getById("bar")).thenReturn(deployBean);
         GoalAnalyst analyst =
                 new GoalAnalyst(
-                        null, null, deployDAO, null, null, "foo", "id-1", envs, reports, agents,
-                        null);
+                        null, deployDAO, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         Mockito.verify(deployDAO).getById("bar");
@@ -867,8 +825,7 @@ public class GoalAnalystTest {
         agents.put(agent66.getEnv_id(), agent66);
 
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 13);
@@ -914,8 +871,7 @@ public class GoalAnalystTest {
         agents.put(agent1.getEnv_id(), agent1);
         agent1.setFirst_deploy(true);
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         // Making sure the candidates are sorted as expected
@@ -926,8 +882,7 @@ public class GoalAnalystTest {
 
         envBean3.setDeploy_type(DeployType.ROLLBACK);
         analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         // First deploy
@@ -939,8 +894,7 @@ public class GoalAnalystTest {
         agent1.setFirst_deploy(false);
 
         analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
         candidates = analyst.getInstallCandidates();
         assertEquals(candidates.get(0).env.getEnv_id(), "e3");
@@ -1038,8 +992,7 @@ public class GoalAnalystTest {
         agents.put(agent24.getEnv_id(), agent24);
 
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
         assertEquals(analyst.getInstallCandidates().size(), 6);
 
@@ -1064,8 +1017,7 @@ public class GoalAnalystTest {
         reports.put(report.getEnvId(), report);
 
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 1);
@@ -1092,8 +1044,7 @@ public class GoalAnalystTest {
         reports.put(report.getEnvId(), report);
 
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 1);
@@ -1119,8 +1070,7 @@ public class GoalAnalystTest {
         reports.put(report.getEnvId(), report);
 
         GoalAnalyst analyst =
-                new GoalAnalyst(
-                        null, null, null, null, null, "foo", "id-1", envs, reports, agents, null);
+                new GoalAnalyst(null, null, null, null, "foo", "id-1", envs, reports, agents, null);
         analyst.analysis();
 
         assertEquals(analyst.getNeedUpdateAgents().size(), 1);
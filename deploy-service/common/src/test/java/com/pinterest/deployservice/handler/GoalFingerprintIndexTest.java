@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.pinterest.deployservice.bean.AgentBean;
+import com.pinterest.deployservice.bean.AgentState;
+import com.pinterest.deployservice.bean.AgentStatus;
+import com.pinterest.deployservice.bean.DeployStage;
+import com.pinterest.deployservice.bean.EnvironBean;
+import com.pinterest.deployservice.bean.PingReportBean;
+import com.pinterest.deployservice.bean.PingRequestBean;
+import com.pinterest.deployservice.dao.GroupDAO;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class GoalFingerprintIndexTest {
+    private EnvChangeNotifier notifier;
+    private GoalFingerprintIndex index;
+    private EnvironBean env;
+    private AgentBean agent;
+
+    @BeforeEach
+    public void setUp() {
+        notifier = new EnvChangeNotifier(MoreExecutors.directExecutor());
+        index = new GoalFingerprintIndex(notifier, 60_000, 100);
+        env = new EnvironBean();
+        env.setEnv_id("e-1");
+        env.setDeploy_id("d-1");
+        agent = new AgentBean();
+        agent.setEnv_id("e-1");
+        agent.setDeploy_id("d-1");
+        agent.setDeploy_stage(DeployStage.SERVING_BUILD);
+        agent.setState(AgentState.NORMAL);
+        agent.setStatus(AgentStatus.SUCCEEDED);
+    }
+
+    private static PingRequestBean request(String fingerprint) {
+        PingReportBean report = new PingReportBean();
+        report.setEnvId("e-1");
+        report.setDeployId("d-1");
+        report.setDeployStage(DeployStage.SERVING_BUILD);
+        report.setAgentStatus(AgentStatus.SUCCEEDED);
+        return PingRequestBean.builder()
+                .hostId("i-1")
+                .hostName("host-1")
+                .groups(new HashSet<>(Arrays.asList("g-2", "g-1")))
+                .reports(Collections.singletonList(report))
+                .goalFingerprint(fingerprint)
+                .build();
+    }
+
+    private String record() {
+        return index.record(
+                request(null),
+                index.sequence(),
+                Collections.singletonList(env),
+                Collections.singletonList(agent));
+    }
+
+    @Test
+    public void testEchoedFingerprintMatches() {
+        String fingerprint = record();
+
+        Collection<String> envIds = index.match(request(fingerprint));
+
+        assertEquals(Collections.singletonList("e-1"), envIds);
+    }
+
+    @Test
+    public void testChangedRequestMisses() {
+        String fingerprint = record();
+        PingRequestBean changed = request(fingerprint);
+        changed.getReports().get(0).setAgentStatus(AgentStatus.AGENT_FAILED);
+
+        assertNull(index.match(changed));
+        assertNull(index.match(request("stale")));
+        assertNull(index.match(request(null)));
+    }
+
+    @Test
+    public void testEnvChangeMisses() {
+        String fingerprint = record();
+
+        notifier.notifyChange("e-2");
+        assertEquals(Collections.singletonList("e-1"), index.match(request(fingerprint)));
+
+        notifier.notifyChange("e-1");
+        assertNull(index.match(request(fingerprint)));
+    }
+
+    @Test
+    public void testInvalidateHost() {
+        String fingerprint = record();
+
+        index.invalidateHost("i-1");
+
+        assertNull(index.match(request(fingerprint)));
+    }
+
+    @Test
+    public void testCapacityWritesMiss() throws Exception {
+        GroupDAO groupDAO = new InvalidatingGroupDAO(mock(GroupDAO.class), null, index);
+        String fingerprint = record();
+
+        groupDAO.getCapacityHosts("e-2");
+        assertEquals(Collections.singletonList("e-1"), index.match(request(fingerprint)));
+
+        // The host may have just joined another env
+        groupDAO.addHostCapacity("e-2", "host-1");
+        assertNull(index.match(request(fingerprint)));
+
+        fingerprint = record();
+        groupDAO.addGroupCapacity("e-2", "g-1");
+        assertNull(index.match(request(fingerprint)));
+    }
+
+    @Test
+    public void testFingerprintCoversServerState() {
+        String fingerprint = record();
+        agent.setState(AgentState.PAUSED_BY_USER);
+
+        assertNotEquals(fingerprint, record());
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableSet;
+import com.pinterest.deployservice.bean.EnvironBean;
+import com.pinterest.deployservice.dao.EnvironDAO;
+import com.pinterest.deployservice.dao.GroupDAO;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class PingEnvCacheTest {
+    private static final Set<String> GROUPS = ImmutableSet.of("group-1", "group-2");
+
+    private EnvironDAO environDAO;
+    private PingEnvCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        environDAO = mock(EnvironDAO.class);
+        cache = new PingEnvCache(environDAO, 60_000L, 100L);
+    }
+
+    private static EnvironBean env(String envId) {
+        EnvironBean bean = new EnvironBean();
+        bean.setEnv_id(envId);
+        return bean;
+    }
+
+    @Test
+    public void testGroupHitReloadsEnvsById() throws Exception {
+        List<EnvironBean> envs = Collections.singletonList(env("env-1"));
+        when(environDAO.getEnvsByGroups(GROUPS)).thenReturn(envs);
+        EnvironBean fresh = env("env-1");
+        fresh.setDeploy_id("deploy-2");
+        when(environDAO.getByIds(Collections.singletonList("env-1")))
+                .thenReturn(Collections.singletonList(fresh));
+
+        assertSame(envs, cache.getEnvsByGroups(GROUPS));
+        List<EnvironBean> cached = cache.getEnvsByGroups(GROUPS);
+
+        // Only the mapping is cached, the env itself is read again
+        assertEquals("deploy-2", cached.get(0).getDeploy_id());
+        verify(environDAO, times(1)).getEnvsByGroups(any());
+    }
+
+    @Test
+    public void testEmptyGroupMappingNeedsNoQuery() throws Exception {
+        when(environDAO.getEnvsByGroups(GROUPS)).thenReturn(Collections.emptyList());
+
+        cache.getEnvsByGroups(GROUPS);
+        assertTrue(cache.getEnvsByGroups(GROUPS).isEmpty());
+
+        verify(environDAO, times(1)).getEnvsByGroups(any());
+        verify(environDAO, never()).getByIds(any());
+    }
+
+    @Test
+    public void testInvalidateDropsMappings() throws Exception {
+        when(environDAO.getEnvsByGroups(GROUPS)).thenReturn(Collections.emptyList());
+        when(environDAO.getByCluster("cluster-1")).thenReturn(env("env-1"));
+
+        cache.getEnvsByGroups(GROUPS);
+        cache.getByCluster("cluster-1");
+        cache.invalidate("groups");
+        cache.getEnvsByGroups(GROUPS);
+        cache.getByCluster("cluster-1");
+
+        verify(environDAO, times(2)).getEnvsByGroups(any());
+        verify(environDAO, times(2)).getByCluster("cluster-1");
+    }
+
+    @Test
+    public void testCapacityWritesInvalidate() throws Exception {
+        when(environDAO.getEnvsByGroups(GROUPS)).thenReturn(Collections.emptyList());
+        GroupDAO groupDAO = new InvalidatingGroupDAO(mock(GroupDAO.class), cache, null);
+
+        cache.getEnvsByGroups(GROUPS);
+        groupDAO.addGroupCapacity("env-1", "group-3");
+        cache.getEnvsByGroups(GROUPS);
+        groupDAO.removeHostCapacity("env-1", "host-1");
+        cache.getEnvsByGroups(GROUPS);
+        groupDAO.getCapacityGroups("env-1");
+        cache.getEnvsByGroups(GROUPS);
+
+        verify(environDAO, times(3)).getEnvsByGroups(any());
+    }
+
+    @Test
+    public void testMissingClusterIsCached() throws Exception {
+        when(environDAO.getByCluster("cluster-1")).thenReturn(null);
+
+        cache.getByCluster("cluster-1");
+        cache.getByCluster("cluster-1");
+
+        verify(environDAO, times(1)).getByCluster("cluster-1");
+    }
+
+    @Test
+    public void testLoadRacingInvalidateIsNotTrusted() throws Exception {
+        when(environDAO.getByCluster("cluster-1"))
+                .thenAnswer(
+                        invocation -> {
+                            // Capacity changes while the lookup is in flight
+                            cache.invalidate("stage");
+                            return env("env-1");
+                        });
+
+        cache.getByCluster("cluster-1");
+        cache.getByCluster("cluster-1");
+
+        verify(environDAO, times(2)).getByCluster("cluster-1");
+    }
+}
@@ -19,10 +19,12 @@ import static com.pinterest.deployservice.bean.BeanUtils.createScheduleBean;
 import static com.pinterest.deployservice.fixture.EnvironBeanFixture.createRandomEnvironBean;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -37,6 +39,9 @@ import com.pinterest.deployservice.bean.EnvironBean;
 import com.pinterest.deployservice.bean.HostAgentBean;
 import com.pinterest.deployservice.bean.KnoxStatus;
 import com.pinterest.deployservice.bean.NormandieStatus;
+import com.pinterest.deployservice.bean.OpCode;
+import com.pinterest.deployservice.bean.PingRequestBean;
+import com.pinterest.deployservice.bean.PingResult;
 import com.pinterest.deployservice.bean.ScheduleBean;
 import com.pinterest.deployservice.bean.ScheduleState;
 import com.pinterest.deployservice.dao.AgentCountDAO;
@@ -52,9 +57,15 @@ import com.pinterest.deployservice.dao.HostDAO;
 import com.pinterest.deployservice.dao.HostTagDAO;
 import com.pinterest.deployservice.dao.ScheduleDAO;
 import com.pinterest.deployservice.dao.UtilDAO;
+import com.pinterest.deployservice.heartbeat.HeartbeatBuffer;
+import com.pinterest.deployservice.lock.AdvisoryLockManager;
 import java.sql.Connection;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 import org.apache.commons.dbcp.BasicDataSource;
@@ -64,6 +75,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
 
 public class PingHandlerTest {
 
@@ -120,6 +132,7 @@ public class PingHandlerTest {
         serviceContext.setHostDAO(hostDAO);
         serviceContext.setHostAgentDAO(hostAgentDAO);
         serviceContext.setUtilDAO(utilDAO);
+        serviceContext.setLockManager(new AdvisoryLockManager(utilDAO));
         serviceContext.setScheduleDAO(scheduleDAO);
         serviceContext.setHostTagDAO(hostTagDAO);
         serviceContext.setGroupDAO(groupDAO);
@@ -204,6 +217,28 @@ public class PingHandlerTest {
         verify(hostAgentDAO, never()).touchLastUpdate(anyString(), anyLong());
     }
 
+    @Test
+    public void testUpdateHostStatus_unchanged_buffersHeartbeat() throws Exception {
+        PingRequestBean request = batchedPing("host-1");
+        when(hostAgentDAO.getHostById("host-1")).thenReturn(unchangedHost(request));
+        HeartbeatBuffer buffer = new HeartbeatBuffer(hostAgentDAO, 10, 10);
+        serviceContext.setHeartbeatBuffer(buffer);
+        pingHandler = new PingHandler(serviceContext);
+
+        pingHandler.updateHostStatus(
+                "host-1",
+                request.getHostName(),
+                request.getHostIp(),
+                request.getAgentVersion(),
+                request.getAutoscalingGroup(),
+                NormandieStatus.UNKNOWN,
+                KnoxStatus.UNKNOWN);
+
+        verify(hostAgentDAO, never()).touchLastUpdate(anyString(), anyLong());
+        buffer.flush();
+        verify(hostAgentDAO).touchLastUpdates(ArgumentMatchers.<Map<String, Long>>any());
+    }
+
     @Test
     public void testUpdateHostStatus_fieldsChanged_fullUpdate() throws Exception {
         HostAgentBean existing =
@@ -602,4 +637,68 @@ public class PingHandlerTest {
         verify(agentCountDAO, never()).get(anyString());
         verify(utilDAO, never()).getLock(anyString());
     }
+
+    private PingRequestBean batchedPing(String hostId) {
+        PingRequestBean request = new PingRequestBean();
+        request.setHostId(hostId);
+        request.setHostName("name-" + hostId);
+        request.setHostIp("10.0.0.1");
+        request.setAgentVersion("2.0");
+        request.setAutoscalingGroup("asg-1");
+        request.setAvailabilityZone("us-east-1a");
+        request.setGroups(new HashSet<>(Collections.singletonList("group-1")));
+        return request;
+    }
+
+    private HostAgentBean unchangedHost(PingRequestBean request) {
+        return HostAgentBean.builder()
+                .host_id(request.getHostId())
+                .host_name(request.getHostName())
+                .ip(request.getHostIp())
+                .agent_version(request.getAgentVersion())
+                .auto_scaling_group(request.getAutoscalingGroup())
+                .normandie_status(NormandieStatus.UNKNOWN)
+                .knox_status(KnoxStatus.UNKNOWN)
+                .build();
+    }
+
+    @Test
+    public void testPingBatch_sharesLookupsAndDefersHeartbeats() throws Exception {
+        PingRequestBean first = batchedPing("host-1");
+        PingRequestBean second = batchedPing("host-2");
+        when(hostAgentDAO.getHostById("host-1")).thenReturn(unchangedHost(first));
+        when(hostAgentDAO.getHostById("host-2")).thenReturn(unchangedHost(second));
+
+        List<PingResult> results =
+                pingHandler.pingBatch(Arrays.asList(first, new PingRequestBean(), second), false);
+
+        assertEquals(3, results.size());
+        assertEquals(OpCode.NOOP, results.get(0).getResponseBean().getOpCode());
+        // The request without a host id fails on its own
+        assertNull(results.get(1));
+        assertEquals(OpCode.NOOP, results.get(2).getResponseBean().getOpCode());
+
+        // Both hosts share the asg and group lookups
+        verify(environDAO, times(1)).getByCluster("asg-1");
+        verify(environDAO, times(1)).getByCluster("group-1");
+        verify(environDAO, times(2)).getEnvsByGroups(any());
+        // Both heartbeats are written by one statement at the end of the batch
+        verify(hostAgentDAO, never()).touchLastUpdate(anyString(), anyLong());
+        verify(hostAgentDAO)
+                .touchLastUpdates(
+                        eq(new LinkedHashSet<>(Arrays.asList("host-1", "host-2"))), anyLong());
+    }
+
+    @Test
+    public void testPingBatch_heartbeatFailureKeepsResults() throws Exception {
+        PingRequestBean first = batchedPing("host-1");
+        when(hostAgentDAO.getHostById("host-1")).thenReturn(unchangedHost(first));
+        doThrow(new RuntimeException("boom"))
+                .when(hostAgentDAO)
+                .touchLastUpdates(ArgumentMatchers.<Collection<String>>any(), anyLong());
+
+        List<PingResult> results = pingHandler.pingBatch(Collections.singletonList(first), false);
+
+        assertEquals(OpCode.NOOP, results.get(0).getResponseBean().getOpCode());
+    }
 }
@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.pinterest.deployservice.bean.DeployBean;
+import com.pinterest.deployservice.bean.DeployState;
+import com.pinterest.deployservice.bean.DeployType;
+import com.pinterest.deployservice.bean.WebHookBean;
+import com.pinterest.deployservice.handler.WebhookJob.PreparedCall;
+import com.pinterest.teletraan.universal.http.HttpClient;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class WebhookDispatcherTest {
+    private MockWebServer mockWebServer;
+    private ScheduledExecutorService retryScheduler;
+    private WebhookDispatcher sut;
+    private String host;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        host = mockWebServer.url("/").host();
+        retryScheduler = Executors.newSingleThreadScheduledExecutor();
+        HttpClient httpClient = HttpClient.builder().maxRetries(1).maxRequestsPerHost(1).build();
+        sut = new WebhookDispatcher(httpClient, retryScheduler, 2, 3, 10);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        retryScheduler.shutdownNow();
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void testDispatchCallsWebhook() throws Exception {
+        mockWebServer.enqueue(new MockResponse());
+        WebHookBean webhook = new WebHookBean();
+        webhook.setMethod("PUT");
+        webhook.setUrl(mockWebServer.url("/hook/$TELETRAAN_DEPLOY_ID").toString());
+        webhook.setBody("{\"state\":\"$TELETRAAN_NUMERIC_DEPLOY_STATE\"}");
+
+        sut.dispatch(ImmutableList.of(webhook), deployBean());
+
+        RecordedRequest request = mockWebServer.takeRequest(5, TimeUnit.SECONDS);
+        assertNotNull(request);
+        assertEquals("PUT", request.getMethod());
+        assertEquals("/hook/deploy-1", request.getPath());
+        assertEquals(
+                "{\"state\":\"" + DeployState.RUNNING.ordinal() + "\"}",
+                request.getBody().readUtf8());
+        awaitNoPendingCalls();
+    }
+
+    @Test
+    void testServerErrorIsRetried() throws Exception {
+        mockWebServer.setDispatcher(new StatusDispatcher(503));
+
+        assertTrue(sut.submit(post()));
+
+        awaitNoPendingCalls();
+        assertEquals(3, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void testClientErrorIsNotRetried() throws Exception {
+        mockWebServer.setDispatcher(new StatusDispatcher(404));
+
+        assertTrue(sut.submit(post()));
+
+        awaitNoPendingCalls();
+        assertEquals(1, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void testFullHostDropsCalls() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        mockWebServer.setDispatcher(
+                new Dispatcher() {
+                    @Override
+                    public MockResponse dispatch(RecordedRequest request)
+                            throws InterruptedException {
+                        release.await(5, TimeUnit.SECONDS);
+                        return new MockResponse();
+                    }
+                });
+
+        assertTrue(sut.submit(post()));
+        assertTrue(sut.submit(post()));
+        assertFalse(sut.submit(post()));
+
+        release.countDown();
+        awaitNoPendingCalls();
+        assertEquals(2, mockWebServer.getRequestCount());
+        // Room is made again once calls finish
+        assertTrue(sut.submit(post()));
+        awaitNoPendingCalls();
+    }
+
+    @Test
+    void testOnlyUnsentCallsAreRetried() {
+        assertTrue(WebhookDispatcher.isRetryable(new ConnectException("refused")));
+        assertTrue(WebhookDispatcher.isRetryable(new UnknownHostException("hook.example.com")));
+        // The webhook may have received the request already
+        assertFalse(WebhookDispatcher.isRetryable(new SocketTimeoutException("timeout")));
+        assertFalse(WebhookDispatcher.isRetryable(new InterruptedIOException("timeout")));
+        assertFalse(WebhookDispatcher.isRetryable(new IOException("unexpected end of stream")));
+    }
+
+    @Test
+    void testBackoffIsJittered() {
+        for (int i = 0; i < 100; i++) {
+            long backoff = sut.backoffMs(3);
+            assertTrue(backoff >= 20 && backoff <= 40, "backoff " + backoff);
+        }
+    }
+
+    private PreparedCall post() {
+        return new PreparedCall("POST", mockWebServer.url("/hook").toString(), null, "{}");
+    }
+
+    private static DeployBean deployBean() {
+        DeployBean deployBean = new DeployBean();
+        deployBean.setDeploy_id("deploy-1");
+        deployBean.setState(DeployState.RUNNING);
+        deployBean.setStart_date(1L);
+        deployBean.setDeploy_type(DeployType.REGULAR);
+        return deployBean;
+    }
+
+    private void awaitNoPendingCalls() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sut.pendingCount(host) > 0 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertEquals(0, sut.pendingCount(host));
+    }
+
+    static class StatusDispatcher extends Dispatcher {
+        private final int status;
+
+        StatusDispatcher(int status) {
+            this.status = status;
+        }
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            return new MockResponse().setResponseCode(status);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.heartbeat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.collect.ImmutableMap;
+import com.pinterest.deployservice.dao.HostAgentDAO;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+public class HeartbeatBufferTest {
+    private HostAgentDAO hostAgentDAO;
+    private HeartbeatBuffer buffer;
+
+    @BeforeEach
+    public void setUp() {
+        hostAgentDAO = mock(HostAgentDAO.class);
+        buffer = new HeartbeatBuffer(hostAgentDAO, 3, 2);
+    }
+
+    @Test
+    public void testFlushKeepsLatestHeartbeatPerHost() throws Exception {
+        buffer.record("host-1", 100L);
+        buffer.record("host-1", 300L);
+        buffer.record("host-1", 200L);
+
+        buffer.flush();
+
+        verify(hostAgentDAO).touchLastUpdates(ImmutableMap.of("host-1", 300L));
+        assertEquals(0, buffer.pendingCount());
+    }
+
+    @Test
+    public void testFlushSplitsIntoBatches() throws Exception {
+        buffer.record("host-1", 100L);
+        buffer.record("host-2", 100L);
+        buffer.record("host-3", 100L);
+
+        buffer.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Long>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(hostAgentDAO, times(2)).touchLastUpdates(captor.capture());
+        assertEquals(3, captor.getAllValues().stream().mapToInt(Map::size).sum());
+    }
+
+    @Test
+    public void testEmptyFlushWritesNothing() throws Exception {
+        buffer.flush();
+
+        verify(hostAgentDAO, never()).touchLastUpdates(anyMap());
+    }
+
+    @Test
+    public void testFullBufferRejectsNewHosts() {
+        assertTrue(buffer.record("host-1", 100L));
+        assertTrue(buffer.record("host-2", 100L));
+        assertTrue(buffer.record("host-3", 100L));
+
+        assertFalse(buffer.record("host-4", 100L));
+        // Hosts already pending can still move forward
+        assertTrue(buffer.record("host-1", 200L));
+    }
+
+    @Test
+    public void testFailedFlushIsRetried() throws Exception {
+        doThrow(new RuntimeException("boom")).when(hostAgentDAO).touchLastUpdates(anyMap());
+        buffer.record("host-1", 100L);
+
+        buffer.flush();
+        assertEquals(1, buffer.pendingCount());
+
+        // A heartbeat recorded meanwhile wins over the retried one
+        buffer.record("host-1", 200L);
+        buffer.flush();
+        verify(hostAgentDAO).touchLastUpdates(ImmutableMap.of("host-1", 200L));
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.hosttag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.pinterest.deployservice.bean.HostTagBean;
+import com.pinterest.deployservice.dao.HostTagDAO;
+import java.util.Collection;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+public class HostTagIngesterTest {
+    private HostTagDAO hostTagDAO;
+    private HostTagIngester ingester;
+
+    @BeforeEach
+    public void setUp() {
+        hostTagDAO = mock(HostTagDAO.class);
+        ingester = new HostTagIngester(hostTagDAO, 3, 2, 60_000, 100);
+    }
+
+    private static HostTagBean tag(String hostId, String value) {
+        HostTagBean hostTag = new HostTagBean();
+        hostTag.setHost_id(hostId);
+        hostTag.setEnv_id("e-1");
+        hostTag.setTag_name("az");
+        hostTag.setTag_value(value);
+        hostTag.setCreate_date(100L);
+        return hostTag;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Collection<HostTagBean>> flushed(int times) throws Exception {
+        ArgumentCaptor<Collection<HostTagBean>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(hostTagDAO, times(times)).insertOrUpdateAll(captor.capture());
+        return captor.getAllValues();
+    }
+
+    @Test
+    public void testFlushKeepsLatestValuePerTag() throws Exception {
+        ingester.record(tag("host-1", "us-east-1a"));
+        ingester.record(tag("host-1", "us-east-1b"));
+
+        ingester.flush();
+
+        Collection<HostTagBean> batch = flushed(1).get(0);
+        assertEquals(1, batch.size());
+        assertEquals("us-east-1b", batch.iterator().next().getTag_value());
+        assertEquals(0, ingester.pendingCount());
+    }
+
+    @Test
+    public void testWrittenTagsAreNotWrittenAgain() throws Exception {
+        ingester.record(tag("host-1", "us-east-1a"));
+        ingester.flush();
+
+        assertTrue(ingester.record(tag("host-1", "us-east-1a")));
+        assertEquals(0, ingester.pendingCount());
+        ingester.flush();
+        flushed(1);
+
+        // A changed value is written again
+        ingester.record(tag("host-1", "us-east-1b"));
+        assertEquals(1, ingester.pendingCount());
+    }
+
+    @Test
+    public void testFlushSplitsIntoBatches() throws Exception {
+        ingester.record(tag("host-1", "us-east-1a"));
+        ingester.record(tag("host-2", "us-east-1a"));
+        ingester.record(tag("host-3", "us-east-1a"));
+
+        ingester.flush();
+
+        assertEquals(3, flushed(2).stream().mapToInt(Collection::size).sum());
+    }
+
+    @Test
+    public void testEmptyFlushWritesNothing() throws Exception {
+        ingester.flush();
+
+        verify(hostTagDAO, never()).insertOrUpdateAll(anyCollection());
+    }
+
+    @Test
+    public void testFullBufferRejectsNewTags() {
+        assertTrue(ingester.record(tag("host-1", "us-east-1a")));
+        assertTrue(ingester.record(tag("host-2", "us-east-1a")));
+        assertTrue(ingester.record(tag("host-3", "us-east-1a")));
+
+        assertFalse(ingester.record(tag("host-4", "us-east-1a")));
+        // Tags already pending can still change
+        assertTrue(ingester.record(tag("host-1", "us-east-1b")));
+    }
+
+    @Test
+    public void testFailedFlushIsRetried() throws Exception {
+        doThrow(new RuntimeException("boom")).when(hostTagDAO).insertOrUpdateAll(anyCollection());
+        ingester.record(tag("host-1", "us-east-1a"));
+
+        ingester.flush();
+
+        assertEquals(1, ingester.pendingCount());
+        // Nothing was remembered as written
+        ingester.record(tag("host-1", "us-east-1a"));
+        assertEquals(1, ingester.pendingCount());
+    }
+
+    @Test
+    public void testParseTags() throws Exception {
+        assertEquals("us-east-1a", HostTagIngester.parseTags("{\"az\":\"us-east-1a\"}").get("az"));
+        assertTrue(HostTagIngester.parseTags("{}").isEmpty());
+    }
+}
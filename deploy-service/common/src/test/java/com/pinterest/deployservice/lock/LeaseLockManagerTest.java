@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.lock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.pinterest.deployservice.dao.LockDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+public class LeaseLockManagerTest {
+    private static final long LEASE_MS = 30_000L;
+
+    private LockDAO lockDAO;
+    private LeaseLockManager lockManager;
+
+    @BeforeEach
+    public void setUp() {
+        lockDAO = mock(LockDAO.class);
+        lockManager = new LeaseLockManager(lockDAO, LEASE_MS);
+    }
+
+    @Test
+    public void testAcquireAndRelease() throws Exception {
+        when(lockDAO.tryAcquire(eq("DEPLOY-env-1"), anyString(), anyLong(), anyLong()))
+                .thenReturn(true);
+
+        LockManager.Lock lock = lockManager.tryLock("DEPLOY", "env-1");
+        assertNotNull(lock);
+        assertEquals("DEPLOY-env-1", lock.getName());
+        assertEquals(1, lockManager.ownedCount());
+
+        ArgumentCaptor<String> owner = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Long> now = ArgumentCaptor.forClass(Long.class);
+        ArgumentCaptor<Long> expiresAt = ArgumentCaptor.forClass(Long.class);
+        verify(lockDAO)
+                .tryAcquire(
+                        eq("DEPLOY-env-1"), owner.capture(), now.capture(), expiresAt.capture());
+        assertEquals(LEASE_MS, expiresAt.getValue() - now.getValue());
+
+        lock.release();
+        verify(lockDAO).release("DEPLOY-env-1", owner.getValue());
+        assertEquals(0, lockManager.ownedCount());
+    }
+
+    @Test
+    public void testHeldLeaseIsNotAcquired() throws Exception {
+        when(lockDAO.tryAcquire(anyString(), anyString(), anyLong(), anyLong())).thenReturn(false);
+
+        assertNull(lockManager.tryLock("DEPLOY", "env-1"));
+        assertEquals(0, lockManager.ownedCount());
+    }
+
+    @Test
+    public void testFailedAcquireReturnsNull() throws Exception {
+        when(lockDAO.tryAcquire(anyString(), anyString(), anyLong(), anyLong()))
+                .thenThrow(new RuntimeException("boom"));
+
+        assertNull(lockManager.tryLock("DEPLOY", "env-1"));
+    }
+
+    @Test
+    public void testRenewExtendsOwnedLeases() throws Exception {
+        when(lockDAO.tryAcquire(anyString(), anyString(), anyLong(), anyLong())).thenReturn(true);
+        when(lockDAO.renew(anyString(), anyString(), anyLong())).thenReturn(true);
+        LockManager.Lock lock = lockManager.tryLock("PROMOTE", "env-1");
+
+        lockManager.renewLeases();
+        verify(lockDAO).renew(eq("PROMOTE-env-1"), anyString(), anyLong());
+
+        // Released leases are no longer renewed
+        lock.release();
+        lockManager.renewLeases();
+        verify(lockDAO).renew(eq("PROMOTE-env-1"), anyString(), anyLong());
+    }
+
+    @Test
+    public void testLostLeaseIsForgotten() throws Exception {
+        when(lockDAO.tryAcquire(anyString(), anyString(), anyLong(), anyLong())).thenReturn(true);
+        when(lockDAO.renew(anyString(), anyString(), anyLong())).thenReturn(false);
+        lockManager.tryLock("PROMOTE", "env-1");
+
+        lockManager.renewLeases();
+        assertEquals(0, lockManager.ownedCount());
+
+        lockManager.renewLeases();
+        verify(lockDAO).renew(anyString(), anyString(), anyLong());
+        verify(lockDAO, never()).release(anyString(), anyString());
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.lock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MeteredLockManagerTest {
+    private SimpleMeterRegistry registry;
+    private InProcessLockManager inProcessLockManager;
+    private MeteredLockManager lockManager;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        inProcessLockManager = new InProcessLockManager();
+        lockManager = new MeteredLockManager(inProcessLockManager);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Metrics.removeRegistry(registry);
+    }
+
+    private long count(String name, String... tags) {
+        Timer timer = registry.find(MeteredLockManager.METRIC_PREFIX + name).tags(tags).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    @Test
+    public void testLockIsExclusiveUntilReleased() {
+        LockManager.Lock lock = lockManager.tryLock("DEPLOY", "env-1");
+        assertNotNull(lock);
+        assertNull(lockManager.tryLock("DEPLOY", "env-1"));
+        // Other keys and families are independent
+        assertNotNull(lockManager.tryLock("DEPLOY", "env-2"));
+        assertNotNull(lockManager.tryLock("PROMOTE", "env-1"));
+
+        lock.release();
+        assertNotNull(lockManager.tryLock("DEPLOY", "env-1"));
+    }
+
+    @Test
+    public void testStaleReleaseKeepsNewHolder() {
+        LockManager.Lock first = lockManager.tryLock("HOTFIX", "hotfix-1");
+        first.release();
+        LockManager.Lock second = lockManager.tryLock("HOTFIX", "hotfix-1");
+
+        first.release();
+
+        assertNull(lockManager.tryLock("HOTFIX", "hotfix-1"));
+        second.release();
+        assertEquals(0, inProcessLockManager.heldCount());
+    }
+
+    @Test
+    public void testWaitAndHoldAreRecordedPerFamily() {
+        LockManager.Lock lock = lockManager.tryLock("DEPLOY", "env-1");
+        lockManager.tryLock("DEPLOY", "env-1");
+        lock.release();
+
+        assertEquals(1, count("wait", "family", "DEPLOY", "result", "acquired"));
+        assertEquals(1, count("wait", "family", "DEPLOY", "result", "busy"));
+        assertEquals(1, count("hold", "family", "DEPLOY"));
+        assertEquals(0, count("hold", "family", "PROMOTE"));
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.membership;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class HashRingTest {
+    private static List<String> keys(int count) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            keys.add("deploy-" + i);
+        }
+        return keys;
+    }
+
+    @Test
+    public void testEmptyRingHasNoOwner() {
+        assertNull(new HashRing(ImmutableList.of(), 16).getOwner("deploy-1"));
+    }
+
+    @Test
+    public void testKeysAreSpreadOverMembers() {
+        HashRing ring = new HashRing(ImmutableList.of("a", "b", "c"), 64);
+        Map<String, Integer> counts = new HashMap<>();
+        for (String key : keys(3000)) {
+            counts.merge(ring.getOwner(key), 1, Integer::sum);
+        }
+
+        assertEquals(3, counts.size());
+        for (int count : counts.values()) {
+            assertTrue(count > 600, "unbalanced ring: " + counts);
+        }
+    }
+
+    @Test
+    public void testLeavingMemberOnlyMovesItsKeys() {
+        HashRing before = new HashRing(ImmutableList.of("a", "b", "c"), 64);
+        HashRing after = new HashRing(ImmutableList.of("a", "b"), 64);
+
+        for (String key : keys(1000)) {
+            String owner = before.getOwner(key);
+            if (!owner.equals("c")) {
+                assertEquals(owner, after.getOwner(key));
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.membership;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.pinterest.deployservice.dao.MemberDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ServiceMembershipTest {
+    private MemberDAO memberDAO;
+    private ServiceMembership membership;
+
+    @BeforeEach
+    public void setUp() {
+        memberDAO = mock(MemberDAO.class);
+        membership = new ServiceMembership(memberDAO, "group-1", "host-1", 30_000L);
+    }
+
+    private int ownedCount() {
+        int owned = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (membership.owns("deploy-" + i)) {
+                owned++;
+            }
+        }
+        return owned;
+    }
+
+    @Test
+    public void testOwnsEverythingBeforeHeartbeat() {
+        assertEquals(1000, ownedCount());
+    }
+
+    @Test
+    public void testSharesKeysWithOtherMembers() throws Exception {
+        when(memberDAO.getActiveMembers(eq("group-1"), anyLong()))
+                .thenReturn(ImmutableList.of(membership.getMemberId(), "other-member"));
+
+        membership.heartbeat();
+
+        assertEquals(2, membership.getMemberCount());
+        int owned = ownedCount();
+        assertTrue(owned > 300 && owned < 700, "owned " + owned);
+    }
+
+    @Test
+    public void testOwnHeartbeatNotYetVisible() throws Exception {
+        when(memberDAO.getActiveMembers(eq("group-1"), anyLong()))
+                .thenReturn(ImmutableList.of("other-member"));
+
+        membership.heartbeat();
+
+        assertEquals(2, membership.getMemberCount());
+    }
+
+    @Test
+    public void testFailedHeartbeatKeepsMembers() throws Exception {
+        when(memberDAO.getActiveMembers(eq("group-1"), anyLong()))
+                .thenReturn(ImmutableList.of(membership.getMemberId(), "other-member"));
+        membership.heartbeat();
+
+        doThrow(new RuntimeException("boom"))
+                .when(memberDAO)
+                .heartbeat(anyString(), anyString(), anyString(), anyLong());
+        membership.heartbeat();
+
+        assertEquals(2, membership.getMemberCount());
+    }
+}
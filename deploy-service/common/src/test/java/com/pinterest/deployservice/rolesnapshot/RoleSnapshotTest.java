@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.rolesnapshot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.pinterest.deployservice.bean.GroupRolesBean;
+import com.pinterest.deployservice.bean.TeletraanPrincipalRole;
+import com.pinterest.deployservice.bean.UserRolesBean;
+import com.pinterest.deployservice.dao.GroupRolesDAO;
+import com.pinterest.deployservice.dao.UserRolesDAO;
+import com.pinterest.teletraan.universal.security.bean.AuthZResource;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RoleSnapshotTest {
+    private UserRolesDAO userRolesDAO;
+    private GroupRolesDAO groupRolesDAO;
+    private RoleSnapshot snapshot;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        userRolesDAO = mock(UserRolesDAO.class);
+        groupRolesDAO = mock(GroupRolesDAO.class);
+        when(userRolesDAO.getAll())
+                .thenReturn(
+                        Arrays.asList(
+                                userRole("alice", "env1", TeletraanPrincipalRole.ADMIN),
+                                userRole("bob", "env1", TeletraanPrincipalRole.READER),
+                                userRole("bob", "env2", TeletraanPrincipalRole.OPERATOR)));
+        when(groupRolesDAO.getAll())
+                .thenReturn(
+                        Collections.singletonList(
+                                groupRole("ops", "env2", TeletraanPrincipalRole.OPERATOR)));
+        snapshot = new RoleSnapshot(userRolesDAO, groupRolesDAO);
+    }
+
+    private static UserRolesBean userRole(
+            String userName, String envName, TeletraanPrincipalRole role) {
+        UserRolesBean bean = new UserRolesBean();
+        bean.setUser_name(userName);
+        bean.setResource_id(envName);
+        bean.setResource_type(AuthZResource.Type.ENV);
+        bean.setRole(role);
+        return bean;
+    }
+
+    private static GroupRolesBean groupRole(
+            String groupName, String envName, TeletraanPrincipalRole role) {
+        GroupRolesBean bean = new GroupRolesBean();
+        bean.setGroup_name(groupName);
+        bean.setResource_id(envName);
+        bean.setResource_type(AuthZResource.Type.ENV);
+        bean.setRole(role);
+        return bean;
+    }
+
+    @Test
+    public void testReload() {
+        assertFalse(snapshot.isLoaded());
+        assertNull(snapshot.getUserRole("alice", "env1", AuthZResource.Type.ENV));
+
+        snapshot.reload();
+        assertTrue(snapshot.isLoaded());
+        assertEquals(
+                TeletraanPrincipalRole.ADMIN,
+                snapshot.getUserRole("alice", "env1", AuthZResource.Type.ENV));
+        assertEquals(
+                TeletraanPrincipalRole.OPERATOR,
+                snapshot.getUserRole("bob", "env2", AuthZResource.Type.ENV));
+        assertNull(snapshot.getUserRole("alice", "env1", AuthZResource.Type.SYSTEM));
+        assertEquals(
+                Collections.singletonMap("ops", TeletraanPrincipalRole.OPERATOR),
+                snapshot.getGroupRoles("env2", AuthZResource.Type.ENV));
+        assertTrue(snapshot.getGroupRoles("env1", AuthZResource.Type.ENV).isEmpty());
+    }
+
+    @Test
+    public void testRefreshReplacesOneResource() throws Exception {
+        snapshot.reload();
+        long version = snapshot.getVersion();
+        when(userRolesDAO.getByResource("env1", AuthZResource.Type.ENV))
+                .thenReturn(
+                        Collections.singletonList(
+                                userRole("carol", "env1", TeletraanPrincipalRole.OPERATOR)));
+
+        snapshot.refresh("env1", AuthZResource.Type.ENV);
+        assertNotEquals(version, snapshot.getVersion());
+        assertNull(snapshot.getUserRole("alice", "env1", AuthZResource.Type.ENV));
+        assertEquals(
+                TeletraanPrincipalRole.OPERATOR,
+                snapshot.getUserRole("carol", "env1", AuthZResource.Type.ENV));
+        assertEquals(
+                TeletraanPrincipalRole.OPERATOR,
+                snapshot.getUserRole("bob", "env2", AuthZResource.Type.ENV));
+    }
+
+    @Test
+    public void testFailedRefreshUnloads() throws Exception {
+        snapshot.reload();
+        when(userRolesDAO.getByResource("env1", AuthZResource.Type.ENV))
+                .thenThrow(new SQLException("down"));
+
+        snapshot.refresh("env1", AuthZResource.Type.ENV);
+        assertFalse(snapshot.isLoaded());
+
+        snapshot.reload();
+        assertTrue(snapshot.isLoaded());
+    }
+
+    @Test
+    public void testFailedReloadKeepsState() throws Exception {
+        snapshot.reload();
+        when(groupRolesDAO.getAll()).thenThrow(new SQLException("down"));
+
+        snapshot.reload();
+        assertEquals(
+                TeletraanPrincipalRole.ADMIN,
+                snapshot.getUserRole("alice", "env1", AuthZResource.Type.ENV));
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.deployservice.tokencache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.pinterest.deployservice.bean.TeletraanPrincipalRole;
+import com.pinterest.deployservice.bean.TokenRolesBean;
+import com.pinterest.deployservice.dao.TokenRolesDAO;
+import com.pinterest.teletraan.universal.security.bean.AuthZResource;
+import java.sql.SQLException;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ScriptTokenCacheTest {
+    private static final String TOKEN = "token";
+
+    private TokenRolesDAO tokenRolesDAO;
+    private TokenRolesBean tokenRolesBean;
+    private ScriptTokenCache cache;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        tokenRolesDAO = mock(TokenRolesDAO.class);
+        tokenRolesBean = new TokenRolesBean();
+        tokenRolesBean.setScript_name("script");
+        tokenRolesBean.setResource_id("env1");
+        tokenRolesBean.setResource_type(AuthZResource.Type.ENV);
+        tokenRolesBean.setRole(TeletraanPrincipalRole.OPERATOR);
+        tokenRolesBean.setToken(TOKEN);
+        tokenRolesBean.setExpire_date(Instant.now().plusSeconds(3600).toEpochMilli());
+        when(tokenRolesDAO.getByToken(TOKEN)).thenReturn(tokenRolesBean);
+        cache = new ScriptTokenCache(tokenRolesDAO, 100, 300, 100, 30);
+    }
+
+    @Test
+    public void testValidTokenIsCachedWithoutToken() throws Exception {
+        TokenRolesBean bean = cache.getByToken(TOKEN);
+        assertEquals("script", bean.getScript_name());
+        assertEquals(TeletraanPrincipalRole.OPERATOR, bean.getRole());
+        assertNull(bean.getToken());
+
+        cache.getByToken(TOKEN);
+        verify(tokenRolesDAO, times(1)).getByToken(TOKEN);
+    }
+
+    @Test
+    public void testUnknownAndExpiredTokensAreCached() throws Exception {
+        assertNull(cache.getByToken("unknown"));
+        assertNull(cache.getByToken("unknown"));
+        verify(tokenRolesDAO, times(1)).getByToken("unknown");
+
+        tokenRolesBean.setExpire_date(Instant.now().minusSeconds(1).toEpochMilli());
+        assertEquals("script", cache.getByToken(TOKEN).getScript_name());
+        cache.getByToken(TOKEN);
+        verify(tokenRolesDAO, times(1)).getByToken(TOKEN);
+    }
+
+    @Test
+    public void testTokenExpiringBeforeTtlIsReloaded() throws Exception {
+        tokenRolesBean.setExpire_date(Instant.now().plusMillis(100).toEpochMilli());
+        cache.getByToken(TOKEN);
+        Thread.sleep(200);
+
+        cache.getByToken(TOKEN);
+        cache.getByToken(TOKEN);
+        // Re-read once at the expire date, then held as an expired token
+        verify(tokenRolesDAO, times(2)).getByToken(TOKEN);
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        cache.getByToken(TOKEN);
+        cache.invalidate("script", "env1", AuthZResource.Type.ENV);
+        when(tokenRolesDAO.getByToken(TOKEN)).thenReturn(null);
+
+        assertNull(cache.getByToken(TOKEN));
+        verify(tokenRolesDAO, times(2)).getByToken(TOKEN);
+    }
+
+    @Test
+    public void testInvalidateAfterExpiry() throws Exception {
+        ScriptTokenCache shortLived = new ScriptTokenCache(tokenRolesDAO, 100, 1, 100, 30);
+        shortLived.getByToken(TOKEN);
+        Thread.sleep(1100);
+        // Reloaded, the removal notice of the expired entry follows
+        shortLived.getByToken(TOKEN);
+        Thread.sleep(200);
+
+        shortLived.invalidate("script", "env1", AuthZResource.Type.ENV);
+        when(tokenRolesDAO.getByToken(TOKEN)).thenReturn(null);
+
+        assertNull(shortLived.getByToken(TOKEN));
+        verify(tokenRolesDAO, times(3)).getByToken(TOKEN);
+    }
+
+    @Test
+    public void testFailuresAreNotCached() throws Exception {
+        when(tokenRolesDAO.getByToken("flaky"))
+                .thenThrow(new SQLException("down"))
+                .thenReturn(null);
+
+        assertThrows(SQLException.class, () -> cache.getByToken("flaky"));
+        assertNull(cache.getByToken("flaky"));
+        verify(tokenRolesDAO, times(2)).getByToken("flaky");
+    }
+}
@@ -15,26 +15,37 @@
  */
 package com.pinterest.teletraan;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.pinterest.deployservice.allowlists.BuildAllowlistImpl;
 import com.pinterest.deployservice.buildtags.BuildTagsManagerImpl;
 import com.pinterest.deployservice.ci.CIPlatformManager;
 import com.pinterest.deployservice.ci.CIPlatformManagerProxy;
 import com.pinterest.deployservice.ci.Jenkins;
+import com.pinterest.deployservice.common.MeteredJobPool;
+import com.pinterest.deployservice.dao.BuildIdempotencyKeyDAO;
+import com.pinterest.deployservice.dao.DeployDAO;
+import com.pinterest.deployservice.dao.EventOutboxDAO;
+import com.pinterest.deployservice.dao.UtilDAO;
 import com.pinterest.deployservice.db.DBAgentCountDAOImpl;
 import com.pinterest.deployservice.db.DBAgentDAOImpl;
 import com.pinterest.deployservice.db.DBAgentErrorDAOImpl;
 import com.pinterest.deployservice.db.DBBuildDAOImpl;
+import com.pinterest.deployservice.db.DBBuildIdempotencyKeyDAOImpl;
 import com.pinterest.deployservice.db.DBConfigHistoryDAOImpl;
 import com.pinterest.deployservice.db.DBDataDAOImpl;
 import com.pinterest.deployservice.db.DBDeployConstraintDAOImpl;
 import com.pinterest.deployservice.db.DBDeployDAOImpl;
+import com.pinterest.deployservice.db.DBEntityInvalidationDAOImpl;
 import com.pinterest.deployservice.db.DBEnvironDAOImpl;
+import com.pinterest.deployservice.db.DBEventOutboxDAOImpl;
 import com.pinterest.deployservice.db.DBGroupDAOImpl;
 import com.pinterest.deployservice.db.DBGroupRolesDAOImpl;
 import com.pinterest.deployservice.db.DBHostAgentDAOImpl;
 import com.pinterest.deployservice.db.DBHostDAOImpl;
 import com.pinterest.deployservice.db.DBHostTagDAOImpl;
 import com.pinterest.deployservice.db.DBHotfixDAOImpl;
+import com.pinterest.deployservice.db.DBLockDAOImpl;
+import com.pinterest.deployservice.db.DBMemberDAOImpl;
 import com.pinterest.deployservice.db.DBPindeployDAOImpl;
 import com.pinterest.deployservice.db.DBPromoteDAOImpl;
 import com.pinterest.deployservice.db.DBRatingsDAOImpl;
@@ -44,25 +55,60 @@ import com.pinterest.deployservice.db.DBTokenRolesDAOImpl;
 import com.pinterest.deployservice.db.DBUserRolesDAOImpl;
 import com.pinterest.deployservice.db.DBUtilDAOImpl;
 import com.pinterest.deployservice.db.DBWorkerJobsDAOImpl;
+import com.pinterest.deployservice.db.DatabaseUtil;
+import com.pinterest.deployservice.deployindex.IndexedDeployDAO;
+import com.pinterest.deployservice.deployindex.RecentDeployIndex;
+import com.pinterest.deployservice.entitycache.EntityCache;
+import com.pinterest.deployservice.entitycache.EntityInvalidationBroadcaster;
+import com.pinterest.deployservice.entitycache.InvalidatingDeployDAO;
+import com.pinterest.deployservice.entitycache.InvalidatingEnvironDAO;
+import com.pinterest.deployservice.events.BatchingBuildEventPublisher;
+import com.pinterest.deployservice.events.BuildEventOutbox;
+import com.pinterest.deployservice.events.BuildEventPublisher;
+import com.pinterest.deployservice.events.EventBridgeOutboxSink;
 import com.pinterest.deployservice.events.EventBridgePublisher;
+import com.pinterest.deployservice.events.EventOutboxRelay;
+import com.pinterest.deployservice.events.EventOutboxSink;
+import com.pinterest.deployservice.events.LocalEventOutboxSink;
+import com.pinterest.deployservice.handler.EnvChangeFeed;
+import com.pinterest.deployservice.handler.EnvChangeNotifier;
+import com.pinterest.deployservice.handler.GoalFingerprintIndex;
+import com.pinterest.deployservice.handler.InvalidatingGroupDAO;
+import com.pinterest.deployservice.handler.PingEnvCache;
+import com.pinterest.deployservice.handler.WebhookDispatcher;
+import com.pinterest.deployservice.heartbeat.HeartbeatBuffer;
+import com.pinterest.deployservice.hosttag.HostTagIngester;
+import com.pinterest.deployservice.lock.AdvisoryLockManager;
+import com.pinterest.deployservice.lock.InProcessLockManager;
+import com.pinterest.deployservice.lock.LeaseLockManager;
+import com.pinterest.deployservice.lock.LockManager;
+import com.pinterest.deployservice.lock.MeteredLockManager;
+import com.pinterest.deployservice.membership.ServiceMembership;
 import com.pinterest.deployservice.pingrequests.PingRequestValidator;
 import com.pinterest.deployservice.rodimus.DefaultRodimusManager;
 import com.pinterest.deployservice.rodimus.RodimusManagerImpl;
+import com.pinterest.deployservice.rolesnapshot.RoleSnapshot;
+import com.pinterest.deployservice.rolesnapshot.SnapshotGroupRolesDAO;
+import com.pinterest.deployservice.rolesnapshot.SnapshotUserRolesDAO;
 import com.pinterest.deployservice.scm.SourceControlManager;
 import com.pinterest.deployservice.scm.SourceControlManagerProxy;
+import com.pinterest.deployservice.tokencache.ScriptTokenCache;
 import com.pinterest.deployservice.udm.UdmDataUpdateService;
 import com.pinterest.teletraan.config.AppEventFactory;
+import com.pinterest.teletraan.config.AwsFactory;
 import com.pinterest.teletraan.config.BuildAllowlistFactory;
 import com.pinterest.teletraan.config.CIPlatformFactory;
 import com.pinterest.teletraan.config.JenkinsFactory;
 import com.pinterest.teletraan.config.MetricsUrlAllowlistFactory;
 import com.pinterest.teletraan.config.RodimusFactory;
 import com.pinterest.teletraan.config.SourceControlFactory;
+import com.pinterest.teletraan.config.SystemFactory;
 import com.pinterest.teletraan.config.UdmDataUpdateServiceFactory;
 import com.pinterest.teletraan.config.WorkerConfig;
 import com.pinterest.teletraan.resource.ApplyInfraWorker;
 import com.pinterest.teletraan.security.TeletraanAuthZResourceExtractorFactory;
 import com.pinterest.teletraan.universal.events.AppEventPublisher;
+import com.pinterest.teletraan.universal.http.HttpClient;
 import com.pinterest.teletraan.worker.AgentJanitor;
 import com.pinterest.teletraan.worker.AutoPromoter;
 import com.pinterest.teletraan.worker.BuildJanitor;
@@ -72,10 +118,12 @@ import com.pinterest.teletraan.worker.HostTerminator;
 import com.pinterest.teletraan.worker.HotfixStateTransitioner;
 import com.pinterest.teletraan.worker.MetricsEmitter;
 import com.pinterest.teletraan.worker.StateTransitioner;
+import io.dropwizard.lifecycle.Managed;
 import io.dropwizard.setup.Environment;
 import io.dropwizard.util.Duration;
 import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.net.InetAddress;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
@@ -119,14 +167,23 @@ public class ConfigHelper {
 
         BasicDataSource dataSource = configuration.getDataSourceFactory().build();
         context.setDataSource(dataSource);
+        DatabaseUtil.bindPoolMetrics(dataSource, "primary");
 
         context.setUserRolesDAO(new DBUserRolesDAOImpl(dataSource));
         context.setGroupRolesDAO(new DBGroupRolesDAOImpl(dataSource));
+        setupRoleSnapshot(context, configuration.getSystemFactory(), environment);
         context.setTokenRolesDAO(new DBTokenRolesDAOImpl(dataSource));
 
         context.setBuildDAO(new DBBuildDAOImpl(dataSource));
+        context.setBuildIdempotencyKeyDAO(new DBBuildIdempotencyKeyDAOImpl(dataSource));
         context.setEnvironDAO(new DBEnvironDAOImpl(dataSource));
-        context.setDeployDAO(new DBDeployDAOImpl(dataSource));
+        context.setDeployDAO(
+                setupRecentDeployIndex(
+                        context,
+                        new DBDeployDAOImpl(dataSource),
+                        configuration.getSystemFactory(),
+                        environment));
+        setupEntityCache(context, dataSource, configuration.getSystemFactory(), environment);
         context.setHotfixDAO(new DBHotfixDAOImpl(dataSource));
         context.setRatingDAO(new DBRatingsDAOImpl(dataSource));
         context.setPromoteDAO(new DBPromoteDAOImpl(dataSource));
@@ -135,6 +192,13 @@ public class ConfigHelper {
         context.setPindeployDAO(new DBPindeployDAOImpl(dataSource));
         context.setWorkerJobDAO(new DBWorkerJobsDAOImpl(dataSource));
         context.setUtilDAO(new DBUtilDAOImpl(dataSource));
+        context.setMemberDAO(new DBMemberDAOImpl(dataSource));
+        context.setLockManager(
+                setupLockManager(
+                        context.getUtilDAO(),
+                        dataSource,
+                        configuration.getSystemFactory(),
+                        environment));
 
         context.setConfigHistoryDAO(new DBConfigHistoryDAOImpl(dataSource));
         context.setHostDAO(new DBHostDAOImpl(dataSource));
@@ -149,6 +213,18 @@ public class ConfigHelper {
         context.setTagDAO(new DBTagDAOImpl(dataSource));
         context.setScheduleDAO(new DBScheduleDAOImpl(dataSource));
 
+        // Listings behind the UI read from the replica, everything else, notably pings and
+        // canDeploy, stays on the primary
+        BasicDataSource replicaDataSource = configuration.getDataSourceFactory().buildReplica();
+        if (replicaDataSource != null) {
+            DatabaseUtil.bindPoolMetrics(replicaDataSource, "replica");
+            context.setBuildReadDAO(new DBBuildDAOImpl(replicaDataSource));
+            context.setAgentReadDAO(new DBAgentDAOImpl(replicaDataSource));
+            context.setDeployReadDAO(new DBDeployDAOImpl(replicaDataSource));
+            context.setConfigHistoryReadDAO(new DBConfigHistoryDAOImpl(replicaDataSource));
+            LOG.info("Listings read from the replica at {}.", replicaDataSource.getUrl());
+        }
+
         // Inject proper implementation based on config
         context.setAuthorizationFactory(configuration.getAuthorizationFactory());
         context.setAuthZResourceExtractorFactory(
@@ -274,11 +350,16 @@ public class ConfigHelper {
             context.setPingRequestValidators(validators);
         }
 
-        if (configuration.getAwsFactory() != null) {
-            context.setBuildEventPublisher(
+        // The outbox publishes the build events itself, see setupEventOutbox
+        if (configuration.getAwsFactory() != null
+                && !configuration.getSystemFactory().isEventOutboxEnabled()) {
+            setupBuildEventPublisher(
+                    context,
                     new EventBridgePublisher(
                             configuration.getAwsFactory().buildEventBridgeClient(),
-                            configuration.getAwsFactory().getEventBridgeEventBusName()));
+                            configuration.getAwsFactory().getEventBridgeEventBusName()),
+                    configuration.getSystemFactory(),
+                    environment);
         }
 
         if (configuration.getAccountAllowList() != null) {
@@ -299,7 +380,7 @@ public class ConfigHelper {
                         .rejectedExecutionHandler(new AbortPolicy())
                         .build();
         new ExecutorServiceMetrics(jobPool, jobPoolName, null).bindTo(Metrics.globalRegistry);
-        context.setJobPool(jobPool);
+        context.setJobPool(new MeteredJobPool(jobPool));
 
         context.setDeployBoardUrlPrefix(configuration.getSystemFactory().getDashboardUrl());
         context.setChangeFeedUrl(configuration.getSystemFactory().getChangeFeedUrl());
@@ -311,11 +392,450 @@ public class ConfigHelper {
         // Only applies to Teletraan agent service
         context.setAgentCountCacheTtl(configuration.getSystemFactory().getAgentCountCacheTtl());
         context.setMaxParallelThreshold(configuration.getSystemFactory().getMaxParallelThreshold());
+        context.setPingBatchMaxSize(configuration.getSystemFactory().getPingBatchMaxSize());
+        SystemFactory systemFactory = configuration.getSystemFactory();
+        if (systemFactory.isScriptTokenCacheEnabled()) {
+            context.setScriptTokenCache(
+                    new ScriptTokenCache(
+                            context.getTokenRolesDAO(),
+                            systemFactory.getScriptTokenCacheMaxTokens(),
+                            systemFactory.getScriptTokenCacheTtlSeconds(),
+                            systemFactory.getScriptTokenCacheMaxRejectedTokens(),
+                            systemFactory.getScriptTokenCacheRejectedTtlSeconds()));
+        }
+        if (systemFactory.isPingEnvCacheEnabled()) {
+            context.setPingEnvCache(
+                    new PingEnvCache(
+                            context.getEnvironDAO(),
+                            TimeUnit.SECONDS.toMillis(systemFactory.getPingEnvCacheTtlSeconds()),
+                            systemFactory.getPingEnvCacheMaxSize()));
+        }
+        if (systemFactory.isHeartbeatBufferEnabled()) {
+            setupHeartbeatBuffer(context, systemFactory, environment);
+        }
+        if (systemFactory.isHostTagIngestEnabled()) {
+            setupHostTagIngester(context, systemFactory, environment);
+        }
+        if (systemFactory.isPingWaitEnabled() || systemFactory.isGoalFingerprintEnabled()) {
+            setupEnvChanges(context, systemFactory, environment);
+        }
+        if (context.getPingEnvCache() != null || context.getGoalFingerprintIndex() != null) {
+            // Every capacity write drops the cached mappings and fingerprints
+            context.setGroupDAO(
+                    new InvalidatingGroupDAO(
+                            context.getGroupDAO(),
+                            context.getPingEnvCache(),
+                            context.getGoalFingerprintIndex()));
+        }
+        if (systemFactory.isWebhookDispatcherEnabled()) {
+            setupWebhookDispatcher(context, systemFactory, environment);
+        }
+        if (systemFactory.isEventOutboxEnabled()) {
+            setupEventOutbox(context, configuration.getAwsFactory(), systemFactory, environment);
+        }
+        setupBuildIdempotencyKeyPurge(context, systemFactory, environment);
         return context;
     }
 
+    private static void setupBuildEventPublisher(
+            TeletraanServiceContext context,
+            BuildEventPublisher publisher,
+            SystemFactory systemFactory,
+            Environment environment) {
+        if (!systemFactory.isBuildEventBatchingEnabled()) {
+            context.setBuildEventPublisher(publisher);
+            return;
+        }
+        BatchingBuildEventPublisher batching =
+                new BatchingBuildEventPublisher(
+                        publisher,
+                        systemFactory.getBuildEventMaxPending(),
+                        systemFactory.getBuildEventBatchSize());
+        context.setBuildEventPublisher(batching);
+        ScheduledExecutorService scheduler =
+                environment.lifecycle().scheduledExecutorService("buildEvents").build();
+        long period = systemFactory.getBuildEventFlushMillis();
+        scheduler.scheduleWithFixedDelay(batching::flush, period, period, TimeUnit.MILLISECONDS);
+        environment
+                .lifecycle()
+                .manage(
+                        new Managed() {
+                            @Override
+                            public void start() {}
+
+                            @Override
+                            public void stop() {
+                                batching.flush();
+                            }
+                        });
+        LOG.info("Enabled build event batching, flush every {} ms.", period);
+    }
+
+    /**
+     * Records build events in the transaction of the build change and relays them from there, in
+     * place of publishing them once the change is committed. The relay delivers to EventBridge, or
+     * only logs the events when no AWS config is given or the local sink is asked for.
+     */
+    private static void setupEventOutbox(
+            TeletraanServiceContext context,
+            AwsFactory awsFactory,
+            SystemFactory systemFactory,
+            Environment environment) {
+        EventOutboxDAO eventOutboxDAO = new DBEventOutboxDAOImpl(context.getDataSource());
+        BuildEventOutbox outbox = new BuildEventOutbox(eventOutboxDAO, context.getDataSource());
+        context.setBuildEventOutbox(outbox);
+        context.setBuildEventPublisher(outbox);
+
+        EventOutboxSink sink;
+        if (awsFactory != null && !systemFactory.isEventOutboxLocalSink()) {
+            sink =
+                    new EventBridgeOutboxSink(
+                            awsFactory.buildEventBridgeClient(),
+                            awsFactory.getEventBridgeEventBusName());
+        } else {
+            sink = new LocalEventOutboxSink(EventBridgePublisher.MAX_ENTRIES_PER_REQUEST, 0);
+        }
+        EventOutboxRelay relay =
+                new EventOutboxRelay(
+                        BuildEventOutbox.RELAY_NAME,
+                        eventOutboxDAO,
+                        sink,
+                        context.getLockManager(),
+                        systemFactory.getEventOutboxMaxInFlight(),
+                        systemFactory.getEventOutboxBatchesPerRun(),
+                        systemFactory.getEventOutboxGapGraceMillis());
+        ScheduledExecutorService scheduler =
+                environment.lifecycle().scheduledExecutorService("eventOutbox").build();
+        long period = systemFactory.getEventOutboxRelayMillis();
+        scheduler.scheduleWithFixedDelay(relay::relay, period, period, TimeUnit.MILLISECONDS);
+        long retentionMs = TimeUnit.HOURS.toMillis(systemFactory.getEventOutboxRetentionHours());
+        scheduler.scheduleWithFixedDelay(
+                () -> relay.purge(System.currentTimeMillis() - retentionMs), 1, 1, TimeUnit.HOURS);
+        LOG.info(
+                "Enabled build event outbox, relay every {} ms to {}.",
+                period,
+                sink.getClass().getSimpleName());
+    }
+
+    /** Forgets the idempotency keys of batch publishes once clients are done retrying. */
+    private static void setupBuildIdempotencyKeyPurge(
+            TeletraanServiceContext context, SystemFactory systemFactory, Environment environment) {
+        BuildIdempotencyKeyDAO buildIdempotencyKeyDAO = context.getBuildIdempotencyKeyDAO();
+        long retentionMs =
+                TimeUnit.HOURS.toMillis(systemFactory.getBuildIdempotencyKeyRetentionHours());
+        ScheduledExecutorService scheduler =
+                environment.lifecycle().scheduledExecutorService("buildIdempotencyKeys").build();
+        scheduler.scheduleWithFixedDelay(
+                () -> {
+                    try {
+                        buildIdempotencyKeyDAO.deleteBefore(
+                                System.currentTimeMillis() - retentionMs);
+                    } catch (Exception e) {
+                        LOG.error("Failed to purge build idempotency keys", e);
+                    }
+                },
+                1,
+                1,
+                TimeUnit.HOURS);
+    }
+
+    /**
+     * Tracks env changes for long-polled pings and the goal fingerprint fast path. Parked pings are
+     * computed again on a dedicated pool when one of their envs changes, so a deploy to a large env
+     * never runs them on the thread of the deploy request. Changes made through other service
+     * processes are picked up by polling the environs table.
+     */
+    private static void setupEnvChanges(
+            TeletraanServiceContext context, SystemFactory systemFactory, Environment environment) {
+        int threads = systemFactory.getPingWaitThreads();
+        ExecutorService pool =
+                environment
+                        .lifecycle()
+                        .executorService("pingWait")
+                        .minThreads(threads)
+                        .maxThreads(threads)
+                        .build();
+        new ExecutorServiceMetrics(pool, "pingWait", null).bindTo(Metrics.globalRegistry);
+        EnvChangeNotifier notifier = new EnvChangeNotifier(pool);
+        context.setEnvChangeNotifier(notifier);
+
+        EnvChangeFeed feed = new EnvChangeFeed(context.getEnvironDAO(), notifier);
+        ScheduledExecutorService scheduler =
+                environment.lifecycle().scheduledExecutorService("envChangeFeed").build();
+        long period = systemFactory.getEnvChangePollSeconds();
+        scheduler.scheduleWithFixedDelay(feed::poll, 0, period, TimeUnit.SECONDS);
+
+        if (systemFactory.isPingWaitEnabled()) {
+            context.setPingWaitMaxSeconds(systemFactory.getPingWaitMaxSeconds());
+            LOG.info(
+                    "Enabled ping wait, up to {} seconds on {} threads.",
+                    systemFactory.getPingWaitMaxSeconds(),
+                    threads);
+        }
+        if (systemFactory.isGoalFingerprintEnabled()) {
+            context.setGoalFingerprintIndex(
+                    new GoalFingerprintIndex(
+                            notifier,
+                            TimeUnit.SECONDS.toMillis(systemFactory.getGoalFingerprintTtlSeconds()),
+                            systemFactory.getGoalFingerprintMaxSize()));
+            LOG.info("Enabled goal fingerprints, env changes polled every {} seconds.", period);
+        }
+    }
+
+    private static void setupHeartbeatBuffer(
+            TeletraanServiceContext context, SystemFactory systemFactory, Environment environment) {
+        HeartbeatBuffer buffer =
+                new HeartbeatBuffer(
+                        context.getHostAgentDAO(),
+                        systemFactory.getHeartbeatBufferMaxHosts(),
+                        systemFactory.getHeartbeatFlushBatchSize());
+        context.setHeartbeatBuffer(buffer);
+        ScheduledExecutorService scheduler =
+                environment.lifecycle().scheduledExecutorService("heartbeatBuffer").build();
+        long period = systemFactory.getHeartbeatFlushSeconds();
+        scheduler.scheduleWithFixedDelay(buffer::flush, period, period, TimeUnit.SECONDS);
+        environment
+                .lifecycle()
+                .manage(
+                        new Managed() {
+                            @Override
+                            public void start() {}
+
+                            @Override
+                            public void stop() {
+                                buffer.flush();
+                            }
+                        });
+        LOG.info("Enabled heartbeat buffer, flush every {} seconds.", period);
+    }
+
+    private static void setupHostTagIngester(
+            TeletraanServiceContext context, SystemFactory systemFactory, Environment environment) {
+        HostTagIngester ingester =
+                new HostTagIngester(
+                        context.getHostTagDAO(),
+                        systemFactory.getHostTagIngestMaxPending(),
+                        systemFactory.getHostTagFlushBatchSize(),
+                        TimeUnit.SECONDS.toMillis(systemFactory.getHostTagWrittenTtlSeconds()),
+                        systemFactory.getHostTagWrittenMaxSize());
+        context.setHostTagIngester(ingester);
+        ScheduledExecutorService scheduler =
+                environment.lifecycle().scheduledExecutorService("hostTagIngester").build();
+        long period = systemFactory.getHostTagFlushSeconds();
+        scheduler.scheduleWithFixedDelay(ingester::flush, period, period, TimeUnit.SECONDS);
+        environment
+                .lifecycle()
+                .manage(
+                        new Managed() {
+                            @Override
+                            public void start() {}
+
+                            @Override
+                            public void stop() {
+                                ingester.flush();
+                            }
+                        });
+        LOG.info("Enabled host tag ingest, flush every {} seconds.", period);
+    }
+
+    /**
+     * Calls deploy webhooks asynchronously instead of on the job pool. Retries wait on a small
+     * scheduler, the calls themselves run on the OkHttp dispatcher of their own client.
+     */
+    private static void setupWebhookDispatcher(
+            TeletraanServiceContext context, SystemFactory systemFactory, Environment environment) {
+        HttpClient httpClient =
+                HttpClient.builder()
+                        // The dispatcher retries without holding a thread
+                        .maxRetries(1)
+                        .callTimeout(
+                                Duration.seconds(systemFactory.getWebhookCallTimeoutSeconds())
+                                        .toJavaDuration())
+                        .maxRequests(systemFactory.getWebhookMaxRequests())
+                        .maxRequestsPerHost(systemFactory.getWebhookMaxRequestsPerHost())
+                        .build();
+        ScheduledExecutorService retryScheduler =
+                environment.lifecycle().scheduledExecutorService("webhookRetry").build();
+        context.setWebhookDispatcher(
+                new WebhookDispatcher(
+                        httpClient,
+                        retryScheduler,
+                        systemFactory.getWebhookMaxPendingPerHost(),
+                        systemFactory.getWebhookMaxAttempts(),
+                        systemFactory.getWebhookRetryBaseDelayMs()));
+        LOG.info(
+                "Enabled async webhooks, up to {} concurrent calls per host.",
+                systemFactory.getWebhookMaxRequestsPerHost());
+    }
+
+    /**
+     * Creates the lock manager named by {@code lockManager}: {@code advisory} for MySQL GET_LOCK,
+     * the default, {@code lease} for leases in the locks table, or {@code local} for locks within
+     * this process only. Leases are renewed three times per lease period.
+     *
+     * <p>GET_LOCK and leases do not exclude each other, so all nodes must use the same kind. To
+     * move to leases, apply schema-update-25 and then switch every node at once.
+     */
+    private static LockManager setupLockManager(
+            UtilDAO utilDAO,
+            BasicDataSource dataSource,
+            SystemFactory systemFactory,
+            Environment environment) {
+        LockManager lockManager;
+        String type = systemFactory.getLockManager();
+        if ("lease".equalsIgnoreCase(type)) {
+            long leaseSeconds = systemFactory.getLockLeaseSeconds();
+            LeaseLockManager leaseLockManager =
+                    new LeaseLockManager(
+                            new DBLockDAOImpl(dataSource), TimeUnit.SECONDS.toMillis(leaseSeconds));
+            ScheduledExecutorService scheduler =
+                    environment.lifecycle().scheduledExecutorService("lockLeaseRenewer").build();
+            long period = Math.max(1, leaseSeconds / 3);
+            scheduler.scheduleWithFixedDelay(
+                    leaseLockManager::renewLeases, period, period, TimeUnit.SECONDS);
+            lockManager = leaseLockManager;
+        } else if ("local".equalsIgnoreCase(type)) {
+            lockManager = new InProcessLockManager();
+        } else if ("advisory".equalsIgnoreCase(type)) {
+            lockManager = new AdvisoryLockManager(utilDAO);
+        } else {
+            throw new IllegalArgumentException("Unknown lock manager " + type);
+        }
+        LOG.info("Using {} lock manager.", type);
+        return new MeteredLockManager(lockManager);
+    }
+
+    /**
+     * Wraps the deploy DAO so that deploy writes keep the in-memory recent deploy index current,
+     * and schedules its reloads. Returns the DAO unchanged if the index is disabled.
+     */
+    private static DeployDAO setupRecentDeployIndex(
+            TeletraanServiceContext context,
+            DeployDAO deployDAO,
+            SystemFactory systemFactory,
+            Environment environment) {
+        if (!systemFactory.isDeployIndexEnabled()) {
+            return deployDAO;
+        }
+        RecentDeployIndex index =
+                new RecentDeployIndex(
+                        deployDAO,
+                        TimeUnit.HOURS.toMillis(systemFactory.getDeployIndexWindowHours()),
+                        systemFactory.getDeployIndexMaxDeploys());
+        context.setRecentDeployIndex(index);
+        ScheduledExecutorService scheduler =
+                environment.lifecycle().scheduledExecutorService("recentDeployIndex").build();
+        long period = systemFactory.getDeployIndexReloadSeconds();
+        scheduler.scheduleWithFixedDelay(index::reload, 0, period, TimeUnit.SECONDS);
+        LOG.info("Enabled recent deploy index, reload every {} seconds.", period);
+        return new IndexedDeployDAO(deployDAO, index);
+    }
+
+    /**
+     * Loads the user and group roles into a snapshot for authorization, and wraps the roles DAOs so
+     * that role writes refresh it. Periodic reloads pick up the writes of other replicas.
+     */
+    private static void setupRoleSnapshot(
+            TeletraanServiceContext context, SystemFactory systemFactory, Environment environment) {
+        if (!systemFactory.isRoleSnapshotEnabled()) {
+            return;
+        }
+        RoleSnapshot snapshot =
+                new RoleSnapshot(context.getUserRolesDAO(), context.getGroupRolesDAO());
+        context.setRoleSnapshot(snapshot);
+        context.setUserRolesDAO(new SnapshotUserRolesDAO(context.getUserRolesDAO(), snapshot));
+        context.setGroupRolesDAO(new SnapshotGroupRolesDAO(context.getGroupRolesDAO(), snapshot));
+        ScheduledExecutorService scheduler =
+                environment.lifecycle().scheduledExecutorService("roleSnapshot").build();
+        long period = systemFactory.getRoleSnapshotReloadSeconds();
+        scheduler.scheduleWithFixedDelay(snapshot::reload, 0, period, TimeUnit.SECONDS);
+        LOG.info("Enabled role snapshot, reload every {} seconds.", period);
+    }
+
+    /**
+     * Creates the entity cache on top of the build, deploy and environ DAOs of the context, and
+     * wraps the deploy and environ DAOs so that writes drop cached rows. With broadcasting enabled,
+     * invalidations are also exchanged with the other replicas through {@code
+     * entity_invalidations}.
+     */
+    private static void setupEntityCache(
+            TeletraanServiceContext context,
+            BasicDataSource dataSource,
+            SystemFactory systemFactory,
+            Environment environment) {
+        if (!systemFactory.isEntityCacheEnabled()) {
+            return;
+        }
+        EntityCache cache =
+                new EntityCache(
+                        context.getBuildDAO(),
+                        context.getDeployDAO(),
+                        context.getEnvironDAO(),
+                        systemFactory.getEntityCacheSpec());
+        context.setEntityCache(cache);
+        context.setDeployDAO(new InvalidatingDeployDAO(context.getDeployDAO(), cache));
+        context.setEnvironDAO(new InvalidatingEnvironDAO(context.getEnvironDAO(), cache));
+        LOG.info("Enabled entity cache with spec {}.", systemFactory.getEntityCacheSpec());
+        if (!systemFactory.isEntityCacheBroadcastEnabled()) {
+            return;
+        }
+        long retentionMs =
+                TimeUnit.MINUTES.toMillis(systemFactory.getEntityCacheBroadcastRetentionMinutes());
+        EntityInvalidationBroadcaster broadcaster =
+                new EntityInvalidationBroadcaster(
+                        cache, new DBEntityInvalidationDAOImpl(dataSource), retentionMs);
+        cache.setBroadcaster(broadcaster);
+        ScheduledExecutorService scheduler =
+                environment.lifecycle().scheduledExecutorService("entityCacheBroadcast").build();
+        long period = systemFactory.getEntityCacheBroadcastPeriodMs();
+        scheduler.scheduleWithFixedDelay(broadcaster::sync, period, period, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(
+                broadcaster::cleanUp, retentionMs, retentionMs, TimeUnit.MILLISECONDS);
+        LOG.info("Enabled entity cache invalidation broadcast, sync every {} ms.", period);
+    }
+
+    /**
+     * Joins this process to the group of processes named {@code groupName} in {@code
+     * service_members}. Heartbeats run three times per ttl, and the process leaves the group on
+     * shutdown.
+     */
+    private static ServiceMembership setupMembership(
+            TeletraanServiceContext context,
+            String groupName,
+            SystemFactory systemFactory,
+            Environment environment)
+            throws Exception {
+        long ttlSeconds = systemFactory.getMembershipTtlSeconds();
+        ServiceMembership membership =
+                new ServiceMembership(
+                        context.getMemberDAO(),
+                        groupName,
+                        InetAddress.getLocalHost().getHostName(),
+                        TimeUnit.SECONDS.toMillis(ttlSeconds));
+        ScheduledExecutorService scheduler =
+                environment.lifecycle().scheduledExecutorService(groupName + "Membership").build();
+        long period = Math.max(1, ttlSeconds / 3);
+        scheduler.scheduleWithFixedDelay(membership::heartbeat, 0, period, TimeUnit.SECONDS);
+        environment
+                .lifecycle()
+                .manage(
+                        new Managed() {
+                            @Override
+                            public void start() {}
+
+                            @Override
+                            public void stop() {
+                                membership.leave();
+                            }
+                        });
+        LOG.info("Joined {} as member {}.", groupName, membership.getMemberId());
+        return membership;
+    }
+
     public static void scheduleWorkers(
-            TeletraanServiceConfiguration configuration, TeletraanServiceContext serviceContext)
+            TeletraanServiceConfiguration configuration,
+            Environment environment,
+            TeletraanServiceContext serviceContext)
             throws Exception {
         List<WorkerConfig> workerConfigs = configuration.getWorkerConfigs();
         for (WorkerConfig config : workerConfigs) {
@@ -327,7 +847,26 @@ public class ConfigHelper {
 
             if (workerName.equalsIgnoreCase(StateTransitioner.class.getSimpleName())) {
                 ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
-                Runnable worker = new StateTransitioner(serviceContext);
+                int parallelism =
+                        MapUtils.getIntValue(
+                                properties, "parallelism", StateTransitioner.DEFAULT_PARALLELISM);
+                ExecutorService executor =
+                        Executors.newFixedThreadPool(
+                                parallelism,
+                                new ThreadFactoryBuilder()
+                                        .setNameFormat("state-transitioner-%d")
+                                        .setDaemon(true)
+                                        .build());
+                ServiceMembership membership = null;
+                if (MapUtils.getBooleanValue(properties, "sharded", true)) {
+                    membership =
+                            setupMembership(
+                                    serviceContext,
+                                    StateTransitioner.class.getSimpleName(),
+                                    configuration.getSystemFactory(),
+                                    environment);
+                }
+                Runnable worker = new StateTransitioner(serviceContext, membership, executor);
                 scheduler.scheduleAtFixedRate(worker, initDelay, period, TimeUnit.SECONDS);
                 LOG.info("Scheduled StateTransitioner.");
             }
@@ -374,13 +913,39 @@ public class ConfigHelper {
                                 properties,
                                 "agentlessHostLookbackThreshold",
                                 DEFAULT_AGENTLESS_HOST_LOOKBACK_THRESHOLD_SECONDS);
+                SystemFactory systemFactory = configuration.getSystemFactory();
+                if (systemFactory.isHeartbeatBufferEnabled()
+                        && systemFactory.getHeartbeatFlushSeconds() * 2 >= minStaleHostThreshold) {
+                    // Buffered heartbeats reach the database up to a flush interval late
+                    LOG.warn(
+                            "Heartbeat flush interval {}s is too close to AgentJanitor minStaleHostThreshold {}s, healthy hosts may be treated as stale.",
+                            systemFactory.getHeartbeatFlushSeconds(),
+                            minStaleHostThreshold);
+                }
+                int rodimusBatchSize =
+                        MapUtils.getIntValue(
+                                properties,
+                                "rodimusBatchSize",
+                                AgentJanitor.DEFAULT_RODIMUS_BATCH_SIZE);
+                int parallelism =
+                        MapUtils.getIntValue(
+                                properties, "parallelism", AgentJanitor.DEFAULT_PARALLELISM);
+                ExecutorService executor =
+                        Executors.newFixedThreadPool(
+                                parallelism,
+                                new ThreadFactoryBuilder()
+                                        .setNameFormat("agent-janitor-%d")
+                                        .setDaemon(true)
+                                        .build());
                 Runnable worker =
                         new AgentJanitor(
                                 serviceContext,
                                 minStaleHostThreshold,
                                 maxStaleHostThreshold,
                                 maxLaunchLatencyThreshold,
-                                agentlessHostLookbackThreshold);
+                                agentlessHostLookbackThreshold,
+                                rodimusBatchSize,
+                                executor);
                 scheduler.scheduleAtFixedRate(worker, initDelay, period, TimeUnit.SECONDS);
                 LOG.info("Scheduled AgentJanitor.");
             }
@@ -103,7 +103,7 @@ public class TeletraanService extends Application<TeletraanServiceConfiguration>
         environment.jersey().register(EnvAlerts.class);
 
         // Schedule workers if configured
-        ConfigHelper.scheduleWorkers(configuration, context);
+        ConfigHelper.scheduleWorkers(configuration, environment, context);
 
         environment.healthChecks().register("generic", new GenericHealthCheck(context));
 
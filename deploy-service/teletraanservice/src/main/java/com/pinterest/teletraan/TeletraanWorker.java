@@ -41,7 +41,7 @@ public class TeletraanWorker extends Application<TeletraanServiceConfiguration>
     public void run(TeletraanServiceConfiguration configuration, Environment environment)
             throws Exception {
         TeletraanServiceContext context = ConfigHelper.setupContext(configuration, environment);
-        ConfigHelper.scheduleWorkers(configuration, context);
+        ConfigHelper.scheduleWorkers(configuration, environment, context);
         environment.healthChecks().register("generic", new WorkerHealthCheck(context));
     }
 
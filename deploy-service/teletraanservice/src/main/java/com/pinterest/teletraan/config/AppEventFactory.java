@@ -21,14 +21,28 @@ import com.pinterest.teletraan.universal.events.AppEventPublisher;
 import com.pinterest.teletraan.universal.events.GenericEventPublisher;
 import com.pinterest.teletraan.universal.events.MetricsAsEventsListener;
 import com.pinterest.teletraan.universal.events.ResourceChangedEvent;
+import java.time.Duration;
 
 public class AppEventFactory {
     @JsonProperty private Boolean enableMetricsAsEvent = true;
 
     @JsonProperty private Boolean publishDeployEvents = true;
 
+    /** Max number of events queued per listener */
+    @JsonProperty private int bufferSize = 128;
+
+    /** What to do with an event once a listener's queue is full */
+    @JsonProperty
+    private GenericEventPublisher.OverflowStrategy overflowStrategy =
+            GenericEventPublisher.OverflowStrategy.DROP_OLDEST;
+
+    /** How long the BLOCK overflow strategy waits for room before dropping an event */
+    @JsonProperty private long blockTimeoutMs = 100;
+
     public AppEventPublisher createEventPublisher() {
-        AppEventPublisher publisher = new GenericEventPublisher();
+        AppEventPublisher publisher =
+                new GenericEventPublisher(
+                        bufferSize, overflowStrategy, Duration.ofMillis(blockTimeoutMs));
         if (enableMetricsAsEvent) {
             publisher.subscribe(
                     new MetricsAsEventsListener<ResourceChangedEvent>(ResourceChangedEvent.class));
@@ -22,4 +22,13 @@ import org.apache.commons.dbcp.BasicDataSource;
 @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.PROPERTY, property = "type")
 public interface DataSourceFactory extends Discoverable {
     BasicDataSource build() throws Exception;
+
+    /**
+     * Builds the pool of the read replica, which serves listings that tolerate replication lag.
+     *
+     * @return null if no replica is configured
+     */
+    default BasicDataSource buildReplica() throws Exception {
+        return null;
+    }
 }
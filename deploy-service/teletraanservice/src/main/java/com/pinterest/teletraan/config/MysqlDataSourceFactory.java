@@ -22,6 +22,7 @@ import java.util.Map;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import org.apache.commons.dbcp.BasicDataSource;
+import org.apache.commons.lang3.StringUtils;
 
 @JsonTypeName("mysql")
 public class MysqlDataSourceFactory implements DataSourceFactory {
@@ -41,6 +42,17 @@ public class MysqlDataSourceFactory implements DataSourceFactory {
 
     @JsonProperty private Map<String, String> connectionProperties;
 
+    /** Optional read replica, reached with the same credentials */
+    @JsonProperty private String replicaHost;
+
+    @Min(1)
+    @Max(65535)
+    @JsonProperty
+    private int replicaPort = 3306;
+
+    /** Pool size of the replica, same as pool if not set */
+    @JsonProperty private String replicaPool;
+
     public String getHost() {
         return host;
     }
@@ -89,8 +101,49 @@ public class MysqlDataSourceFactory implements DataSourceFactory {
         this.connectionProperties = connectionProperties;
     }
 
+    public String getReplicaHost() {
+        return replicaHost;
+    }
+
+    public void setReplicaHost(String replicaHost) {
+        this.replicaHost = replicaHost;
+    }
+
+    public int getReplicaPort() {
+        return replicaPort;
+    }
+
+    public void setReplicaPort(int replicaPort) {
+        this.replicaPort = replicaPort;
+    }
+
+    public String getReplicaPool() {
+        return replicaPool;
+    }
+
+    public void setReplicaPool(String replicaPool) {
+        this.replicaPool = replicaPool;
+    }
+
     public BasicDataSource build() throws Exception {
         return DatabaseUtil.createMysqlDataSource(
                 host, port, userName, password, pool, connectionProperties);
     }
+
+    @Override
+    public BasicDataSource buildReplica() throws Exception {
+        if (StringUtils.isEmpty(replicaHost)) {
+            return null;
+        }
+        BasicDataSource dataSource =
+                DatabaseUtil.createMysqlDataSource(
+                        replicaHost,
+                        replicaPort,
+                        userName,
+                        password,
+                        StringUtils.defaultIfEmpty(replicaPool, pool),
+                        connectionProperties);
+        dataSource.setDefaultReadOnly(true);
+        return dataSource;
+    }
 }
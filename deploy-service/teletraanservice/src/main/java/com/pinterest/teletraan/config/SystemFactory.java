@@ -28,6 +28,124 @@ public class SystemFactory {
 
     @JsonProperty private long maxParallelThreshold = 10000;
 
+    @JsonProperty private boolean pingEnvCacheEnabled = false;
+
+    @JsonProperty private long pingEnvCacheTtlSeconds = 30;
+
+    @JsonProperty private long pingEnvCacheMaxSize = 10000;
+
+    @JsonProperty private boolean heartbeatBufferEnabled = false;
+
+    @JsonProperty private long heartbeatFlushSeconds = 10;
+
+    @JsonProperty private int heartbeatBufferMaxHosts = 100000;
+
+    @JsonProperty private int heartbeatFlushBatchSize = 1000;
+
+    @JsonProperty private boolean hostTagIngestEnabled = false;
+
+    @JsonProperty private long hostTagFlushSeconds = 5;
+
+    @JsonProperty private int hostTagIngestMaxPending = 100000;
+
+    @JsonProperty private int hostTagFlushBatchSize = 500;
+
+    @JsonProperty private long hostTagWrittenTtlSeconds = 600;
+
+    @JsonProperty private int hostTagWrittenMaxSize = 100000;
+
+    @JsonProperty private String lockManager = "advisory";
+
+    @JsonProperty private long lockLeaseSeconds = 60;
+
+    @JsonProperty private long membershipTtlSeconds = 30;
+
+    @JsonProperty private boolean pingWaitEnabled = false;
+
+    @JsonProperty private long pingWaitMaxSeconds = 60;
+
+    @JsonProperty private int pingWaitThreads = 16;
+
+    @JsonProperty private int pingBatchMaxSize = 500;
+
+    @JsonProperty private boolean goalFingerprintEnabled = false;
+
+    @JsonProperty private long goalFingerprintTtlSeconds = 60;
+
+    @JsonProperty private long goalFingerprintMaxSize = 100000;
+
+    @JsonProperty private long envChangePollSeconds = 5;
+
+    @JsonProperty private boolean webhookDispatcherEnabled = false;
+
+    @JsonProperty private int webhookMaxRequests = 64;
+
+    @JsonProperty private int webhookMaxRequestsPerHost = 5;
+
+    @JsonProperty private int webhookMaxPendingPerHost = 1000;
+
+    @JsonProperty private long webhookCallTimeoutSeconds = 20;
+
+    @JsonProperty private int webhookMaxAttempts = 3;
+
+    @JsonProperty private long webhookRetryBaseDelayMs = 500;
+
+    @JsonProperty private boolean deployIndexEnabled = false;
+
+    @JsonProperty private long deployIndexWindowHours = 24;
+
+    @JsonProperty private int deployIndexMaxDeploys = 50000;
+
+    @JsonProperty private long deployIndexReloadSeconds = 60;
+
+    @JsonProperty private boolean entityCacheEnabled = false;
+
+    @JsonProperty private String entityCacheSpec = "maximumSize=10000,expireAfterWrite=10m";
+
+    @JsonProperty private boolean entityCacheBroadcastEnabled = false;
+
+    @JsonProperty private long entityCacheBroadcastPeriodMs = 1000;
+
+    @JsonProperty private long entityCacheBroadcastRetentionMinutes = 10;
+
+    @JsonProperty private boolean roleSnapshotEnabled = false;
+
+    @JsonProperty private long roleSnapshotReloadSeconds = 60;
+
+    @JsonProperty private boolean scriptTokenCacheEnabled = false;
+
+    @JsonProperty private long scriptTokenCacheMaxTokens = 10000;
+
+    @JsonProperty private long scriptTokenCacheTtlSeconds = 300;
+
+    @JsonProperty private long scriptTokenCacheMaxRejectedTokens = 10000;
+
+    @JsonProperty private long scriptTokenCacheRejectedTtlSeconds = 30;
+
+    @JsonProperty private boolean buildEventBatchingEnabled = false;
+
+    @JsonProperty private long buildEventFlushMillis = 500;
+
+    @JsonProperty private int buildEventMaxPending = 10000;
+
+    @JsonProperty private int buildEventBatchSize = 100;
+
+    @JsonProperty private long buildIdempotencyKeyRetentionHours = 24;
+
+    @JsonProperty private boolean eventOutboxEnabled = false;
+
+    @JsonProperty private boolean eventOutboxLocalSink = false;
+
+    @JsonProperty private long eventOutboxRelayMillis = 1000;
+
+    @JsonProperty private int eventOutboxMaxInFlight = 4;
+
+    @JsonProperty private int eventOutboxBatchesPerRun = 50;
+
+    @JsonProperty private long eventOutboxGapGraceMillis = 5000;
+
+    @JsonProperty private long eventOutboxRetentionHours = 24;
+
     @JsonProperty private boolean aclManagementEnabled = true;
 
     @JsonProperty
@@ -66,6 +184,478 @@ public class SystemFactory {
         this.maxParallelThreshold = maxParallelThreshold;
     }
 
+    public boolean isPingEnvCacheEnabled() {
+        return pingEnvCacheEnabled;
+    }
+
+    public void setPingEnvCacheEnabled(boolean pingEnvCacheEnabled) {
+        this.pingEnvCacheEnabled = pingEnvCacheEnabled;
+    }
+
+    public long getPingEnvCacheTtlSeconds() {
+        return pingEnvCacheTtlSeconds;
+    }
+
+    public void setPingEnvCacheTtlSeconds(long pingEnvCacheTtlSeconds) {
+        this.pingEnvCacheTtlSeconds = pingEnvCacheTtlSeconds;
+    }
+
+    public long getPingEnvCacheMaxSize() {
+        return pingEnvCacheMaxSize;
+    }
+
+    public void setPingEnvCacheMaxSize(long pingEnvCacheMaxSize) {
+        this.pingEnvCacheMaxSize = pingEnvCacheMaxSize;
+    }
+
+    public boolean isHeartbeatBufferEnabled() {
+        return heartbeatBufferEnabled;
+    }
+
+    public void setHeartbeatBufferEnabled(boolean heartbeatBufferEnabled) {
+        this.heartbeatBufferEnabled = heartbeatBufferEnabled;
+    }
+
+    public long getHeartbeatFlushSeconds() {
+        return heartbeatFlushSeconds;
+    }
+
+    public void setHeartbeatFlushSeconds(long heartbeatFlushSeconds) {
+        this.heartbeatFlushSeconds = heartbeatFlushSeconds;
+    }
+
+    public int getHeartbeatBufferMaxHosts() {
+        return heartbeatBufferMaxHosts;
+    }
+
+    public void setHeartbeatBufferMaxHosts(int heartbeatBufferMaxHosts) {
+        this.heartbeatBufferMaxHosts = heartbeatBufferMaxHosts;
+    }
+
+    public int getHeartbeatFlushBatchSize() {
+        return heartbeatFlushBatchSize;
+    }
+
+    public void setHeartbeatFlushBatchSize(int heartbeatFlushBatchSize) {
+        this.heartbeatFlushBatchSize = heartbeatFlushBatchSize;
+    }
+
+    public boolean isHostTagIngestEnabled() {
+        return hostTagIngestEnabled;
+    }
+
+    public void setHostTagIngestEnabled(boolean hostTagIngestEnabled) {
+        this.hostTagIngestEnabled = hostTagIngestEnabled;
+    }
+
+    public long getHostTagFlushSeconds() {
+        return hostTagFlushSeconds;
+    }
+
+    public void setHostTagFlushSeconds(long hostTagFlushSeconds) {
+        this.hostTagFlushSeconds = hostTagFlushSeconds;
+    }
+
+    public int getHostTagIngestMaxPending() {
+        return hostTagIngestMaxPending;
+    }
+
+    public void setHostTagIngestMaxPending(int hostTagIngestMaxPending) {
+        this.hostTagIngestMaxPending = hostTagIngestMaxPending;
+    }
+
+    public int getHostTagFlushBatchSize() {
+        return hostTagFlushBatchSize;
+    }
+
+    public void setHostTagFlushBatchSize(int hostTagFlushBatchSize) {
+        this.hostTagFlushBatchSize = hostTagFlushBatchSize;
+    }
+
+    public long getHostTagWrittenTtlSeconds() {
+        return hostTagWrittenTtlSeconds;
+    }
+
+    public void setHostTagWrittenTtlSeconds(long hostTagWrittenTtlSeconds) {
+        this.hostTagWrittenTtlSeconds = hostTagWrittenTtlSeconds;
+    }
+
+    public int getHostTagWrittenMaxSize() {
+        return hostTagWrittenMaxSize;
+    }
+
+    public void setHostTagWrittenMaxSize(int hostTagWrittenMaxSize) {
+        this.hostTagWrittenMaxSize = hostTagWrittenMaxSize;
+    }
+
+    public String getLockManager() {
+        return lockManager;
+    }
+
+    public void setLockManager(String lockManager) {
+        this.lockManager = lockManager;
+    }
+
+    public long getLockLeaseSeconds() {
+        return lockLeaseSeconds;
+    }
+
+    public void setLockLeaseSeconds(long lockLeaseSeconds) {
+        this.lockLeaseSeconds = lockLeaseSeconds;
+    }
+
+    public long getMembershipTtlSeconds() {
+        return membershipTtlSeconds;
+    }
+
+    public void setMembershipTtlSeconds(long membershipTtlSeconds) {
+        this.membershipTtlSeconds = membershipTtlSeconds;
+    }
+
+    public boolean isPingWaitEnabled() {
+        return pingWaitEnabled;
+    }
+
+    public void setPingWaitEnabled(boolean pingWaitEnabled) {
+        this.pingWaitEnabled = pingWaitEnabled;
+    }
+
+    public long getPingWaitMaxSeconds() {
+        return pingWaitMaxSeconds;
+    }
+
+    public void setPingWaitMaxSeconds(long pingWaitMaxSeconds) {
+        this.pingWaitMaxSeconds = pingWaitMaxSeconds;
+    }
+
+    public int getPingBatchMaxSize() {
+        return pingBatchMaxSize;
+    }
+
+    public void setPingBatchMaxSize(int pingBatchMaxSize) {
+        this.pingBatchMaxSize = pingBatchMaxSize;
+    }
+
+    public int getPingWaitThreads() {
+        return pingWaitThreads;
+    }
+
+    public void setPingWaitThreads(int pingWaitThreads) {
+        this.pingWaitThreads = pingWaitThreads;
+    }
+
+    public boolean isGoalFingerprintEnabled() {
+        return goalFingerprintEnabled;
+    }
+
+    public void setGoalFingerprintEnabled(boolean goalFingerprintEnabled) {
+        this.goalFingerprintEnabled = goalFingerprintEnabled;
+    }
+
+    public long getGoalFingerprintTtlSeconds() {
+        return goalFingerprintTtlSeconds;
+    }
+
+    public void setGoalFingerprintTtlSeconds(long goalFingerprintTtlSeconds) {
+        this.goalFingerprintTtlSeconds = goalFingerprintTtlSeconds;
+    }
+
+    public long getGoalFingerprintMaxSize() {
+        return goalFingerprintMaxSize;
+    }
+
+    public void setGoalFingerprintMaxSize(long goalFingerprintMaxSize) {
+        this.goalFingerprintMaxSize = goalFingerprintMaxSize;
+    }
+
+    public long getEnvChangePollSeconds() {
+        return envChangePollSeconds;
+    }
+
+    public void setEnvChangePollSeconds(long envChangePollSeconds) {
+        this.envChangePollSeconds = envChangePollSeconds;
+    }
+
+    public boolean isWebhookDispatcherEnabled() {
+        return webhookDispatcherEnabled;
+    }
+
+    public void setWebhookDispatcherEnabled(boolean webhookDispatcherEnabled) {
+        this.webhookDispatcherEnabled = webhookDispatcherEnabled;
+    }
+
+    public int getWebhookMaxRequests() {
+        return webhookMaxRequests;
+    }
+
+    public void setWebhookMaxRequests(int webhookMaxRequests) {
+        this.webhookMaxRequests = webhookMaxRequests;
+    }
+
+    public int getWebhookMaxRequestsPerHost() {
+        return webhookMaxRequestsPerHost;
+    }
+
+    public void setWebhookMaxRequestsPerHost(int webhookMaxRequestsPerHost) {
+        this.webhookMaxRequestsPerHost = webhookMaxRequestsPerHost;
+    }
+
+    public int getWebhookMaxPendingPerHost() {
+        return webhookMaxPendingPerHost;
+    }
+
+    public void setWebhookMaxPendingPerHost(int webhookMaxPendingPerHost) {
+        this.webhookMaxPendingPerHost = webhookMaxPendingPerHost;
+    }
+
+    public long getWebhookCallTimeoutSeconds() {
+        return webhookCallTimeoutSeconds;
+    }
+
+    public void setWebhookCallTimeoutSeconds(long webhookCallTimeoutSeconds) {
+        this.webhookCallTimeoutSeconds = webhookCallTimeoutSeconds;
+    }
+
+    public int getWebhookMaxAttempts() {
+        return webhookMaxAttempts;
+    }
+
+    public void setWebhookMaxAttempts(int webhookMaxAttempts) {
+        this.webhookMaxAttempts = webhookMaxAttempts;
+    }
+
+    public long getWebhookRetryBaseDelayMs() {
+        return webhookRetryBaseDelayMs;
+    }
+
+    public void setWebhookRetryBaseDelayMs(long webhookRetryBaseDelayMs) {
+        this.webhookRetryBaseDelayMs = webhookRetryBaseDelayMs;
+    }
+
+    public boolean isDeployIndexEnabled() {
+        return deployIndexEnabled;
+    }
+
+    public void setDeployIndexEnabled(boolean deployIndexEnabled) {
+        this.deployIndexEnabled = deployIndexEnabled;
+    }
+
+    public long getDeployIndexWindowHours() {
+        return deployIndexWindowHours;
+    }
+
+    public void setDeployIndexWindowHours(long deployIndexWindowHours) {
+        this.deployIndexWindowHours = deployIndexWindowHours;
+    }
+
+    public int getDeployIndexMaxDeploys() {
+        return deployIndexMaxDeploys;
+    }
+
+    public void setDeployIndexMaxDeploys(int deployIndexMaxDeploys) {
+        this.deployIndexMaxDeploys = deployIndexMaxDeploys;
+    }
+
+    public long getDeployIndexReloadSeconds() {
+        return deployIndexReloadSeconds;
+    }
+
+    public void setDeployIndexReloadSeconds(long deployIndexReloadSeconds) {
+        this.deployIndexReloadSeconds = deployIndexReloadSeconds;
+    }
+
+    public boolean isEntityCacheEnabled() {
+        return entityCacheEnabled;
+    }
+
+    public void setEntityCacheEnabled(boolean entityCacheEnabled) {
+        this.entityCacheEnabled = entityCacheEnabled;
+    }
+
+    public String getEntityCacheSpec() {
+        return entityCacheSpec;
+    }
+
+    public void setEntityCacheSpec(String entityCacheSpec) {
+        this.entityCacheSpec = entityCacheSpec;
+    }
+
+    public boolean isEntityCacheBroadcastEnabled() {
+        return entityCacheBroadcastEnabled;
+    }
+
+    public void setEntityCacheBroadcastEnabled(boolean entityCacheBroadcastEnabled) {
+        this.entityCacheBroadcastEnabled = entityCacheBroadcastEnabled;
+    }
+
+    public long getEntityCacheBroadcastPeriodMs() {
+        return entityCacheBroadcastPeriodMs;
+    }
+
+    public void setEntityCacheBroadcastPeriodMs(long entityCacheBroadcastPeriodMs) {
+        this.entityCacheBroadcastPeriodMs = entityCacheBroadcastPeriodMs;
+    }
+
+    public long getEntityCacheBroadcastRetentionMinutes() {
+        return entityCacheBroadcastRetentionMinutes;
+    }
+
+    public void setEntityCacheBroadcastRetentionMinutes(long entityCacheBroadcastRetentionMinutes) {
+        this.entityCacheBroadcastRetentionMinutes = entityCacheBroadcastRetentionMinutes;
+    }
+
+    public boolean isRoleSnapshotEnabled() {
+        return roleSnapshotEnabled;
+    }
+
+    public void setRoleSnapshotEnabled(boolean roleSnapshotEnabled) {
+        this.roleSnapshotEnabled = roleSnapshotEnabled;
+    }
+
+    public long getRoleSnapshotReloadSeconds() {
+        return roleSnapshotReloadSeconds;
+    }
+
+    public void setRoleSnapshotReloadSeconds(long roleSnapshotReloadSeconds) {
+        this.roleSnapshotReloadSeconds = roleSnapshotReloadSeconds;
+    }
+
+    public boolean isScriptTokenCacheEnabled() {
+        return scriptTokenCacheEnabled;
+    }
+
+    public void setScriptTokenCacheEnabled(boolean scriptTokenCacheEnabled) {
+        this.scriptTokenCacheEnabled = scriptTokenCacheEnabled;
+    }
+
+    public long getScriptTokenCacheMaxTokens() {
+        return scriptTokenCacheMaxTokens;
+    }
+
+    public void setScriptTokenCacheMaxTokens(long scriptTokenCacheMaxTokens) {
+        this.scriptTokenCacheMaxTokens = scriptTokenCacheMaxTokens;
+    }
+
+    public long getScriptTokenCacheTtlSeconds() {
+        return scriptTokenCacheTtlSeconds;
+    }
+
+    public void setScriptTokenCacheTtlSeconds(long scriptTokenCacheTtlSeconds) {
+        this.scriptTokenCacheTtlSeconds = scriptTokenCacheTtlSeconds;
+    }
+
+    public long getScriptTokenCacheMaxRejectedTokens() {
+        return scriptTokenCacheMaxRejectedTokens;
+    }
+
+    public void setScriptTokenCacheMaxRejectedTokens(long scriptTokenCacheMaxRejectedTokens) {
+        this.scriptTokenCacheMaxRejectedTokens = scriptTokenCacheMaxRejectedTokens;
+    }
+
+    public long getScriptTokenCacheRejectedTtlSeconds() {
+        return scriptTokenCacheRejectedTtlSeconds;
+    }
+
+    public void setScriptTokenCacheRejectedTtlSeconds(long scriptTokenCacheRejectedTtlSeconds) {
+        this.scriptTokenCacheRejectedTtlSeconds = scriptTokenCacheRejectedTtlSeconds;
+    }
+
+    public boolean isBuildEventBatchingEnabled() {
+        return buildEventBatchingEnabled;
+    }
+
+    public void setBuildEventBatchingEnabled(boolean buildEventBatchingEnabled) {
+        this.buildEventBatchingEnabled = buildEventBatchingEnabled;
+    }
+
+    public long getBuildEventFlushMillis() {
+        return buildEventFlushMillis;
+    }
+
+    public void setBuildEventFlushMillis(long buildEventFlushMillis) {
+        this.buildEventFlushMillis = buildEventFlushMillis;
+    }
+
+    public int getBuildEventMaxPending() {
+        return buildEventMaxPending;
+    }
+
+    public void setBuildEventMaxPending(int buildEventMaxPending) {
+        this.buildEventMaxPending = buildEventMaxPending;
+    }
+
+    public int getBuildEventBatchSize() {
+        return buildEventBatchSize;
+    }
+
+    public void setBuildEventBatchSize(int buildEventBatchSize) {
+        this.buildEventBatchSize = buildEventBatchSize;
+    }
+
+    public long getBuildIdempotencyKeyRetentionHours() {
+        return buildIdempotencyKeyRetentionHours;
+    }
+
+    public void setBuildIdempotencyKeyRetentionHours(long buildIdempotencyKeyRetentionHours) {
+        this.buildIdempotencyKeyRetentionHours = buildIdempotencyKeyRetentionHours;
+    }
+
+    public boolean isEventOutboxEnabled() {
+        return eventOutboxEnabled;
+    }
+
+    public void setEventOutboxEnabled(boolean eventOutboxEnabled) {
+        this.eventOutboxEnabled = eventOutboxEnabled;
+    }
+
+    public boolean isEventOutboxLocalSink() {
+        return eventOutboxLocalSink;
+    }
+
+    public void setEventOutboxLocalSink(boolean eventOutboxLocalSink) {
+        this.eventOutboxLocalSink = eventOutboxLocalSink;
+    }
+
+    public long getEventOutboxRelayMillis() {
+        return eventOutboxRelayMillis;
+    }
+
+    public void setEventOutboxRelayMillis(long eventOutboxRelayMillis) {
+        this.eventOutboxRelayMillis = eventOutboxRelayMillis;
+    }
+
+    public int getEventOutboxMaxInFlight() {
+        return eventOutboxMaxInFlight;
+    }
+
+    public void setEventOutboxMaxInFlight(int eventOutboxMaxInFlight) {
+        this.eventOutboxMaxInFlight = eventOutboxMaxInFlight;
+    }
+
+    public int getEventOutboxBatchesPerRun() {
+        return eventOutboxBatchesPerRun;
+    }
+
+    public void setEventOutboxBatchesPerRun(int eventOutboxBatchesPerRun) {
+        this.eventOutboxBatchesPerRun = eventOutboxBatchesPerRun;
+    }
+
+    public long getEventOutboxGapGraceMillis() {
+        return eventOutboxGapGraceMillis;
+    }
+
+    public void setEventOutboxGapGraceMillis(long eventOutboxGapGraceMillis) {
+        this.eventOutboxGapGraceMillis = eventOutboxGapGraceMillis;
+    }
+
+    public long getEventOutboxRetentionHours() {
+        return eventOutboxRetentionHours;
+    }
+
+    public void setEventOutboxRetentionHours(long eventOutboxRetentionHours) {
+        this.eventOutboxRetentionHours = eventOutboxRetentionHours;
+    }
+
     public boolean isAclManagementEnabled() {
         return aclManagementEnabled;
     }
@@ -117,7 +117,8 @@ public class TokenAuthenticationFactory implements AuthenticationFactory {
         Authenticator<String, ScriptTokenPrincipal<ValueBasedRole>> scriptTokenAuthenticator =
                 new ScriptTokenAuthenticator<>(
                         new TeletraanScriptTokenProvider(context, checkTokenExpiry));
-        if (StringUtils.isNotBlank(getTokenCacheSpec())) {
+        // The script token cache of the context also caches misses and sees token deletions
+        if (StringUtils.isNotBlank(getTokenCacheSpec()) && context.getScriptTokenCache() == null) {
             scriptTokenAuthenticator =
                     new CachingAuthenticator<>(
                             SharedMetricRegistries.getDefault(),
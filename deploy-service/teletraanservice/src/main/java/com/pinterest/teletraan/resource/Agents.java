@@ -18,6 +18,7 @@ package com.pinterest.teletraan.resource;
 import com.pinterest.deployservice.bean.AgentBean;
 import com.pinterest.deployservice.bean.TeletraanPrincipalRole;
 import com.pinterest.deployservice.dao.AgentDAO;
+import com.pinterest.deployservice.handler.GoalFingerprintIndex;
 import com.pinterest.teletraan.TeletraanServiceContext;
 import com.pinterest.teletraan.universal.security.ResourceAuthZInfo;
 import com.pinterest.teletraan.universal.security.bean.AuthZResource;
@@ -45,9 +46,11 @@ import org.slf4j.LoggerFactory;
 public class Agents {
     private static final Logger LOG = LoggerFactory.getLogger(Agents.class);
     private AgentDAO agentDAO;
+    private GoalFingerprintIndex goalFingerprintIndex;
 
     public Agents(@Context TeletraanServiceContext context) {
         agentDAO = context.getAgentDAO();
+        goalFingerprintIndex = context.getGoalFingerprintIndex();
     }
 
     @GET
@@ -80,6 +83,9 @@ public class Agents {
             throws Exception {
         String operator = sc.getUserPrincipal().getName();
         agentDAO.updateAgentById(hostId, agentBean);
+        if (goalFingerprintIndex != null) {
+            goalFingerprintIndex.invalidateHost(hostId);
+        }
         LOG.info("Successfully update agents {} by {}: {}", hostId, operator, agentBean);
     }
 
@@ -28,8 +28,8 @@ import com.pinterest.deployservice.bean.rodimus.RodimusAutoScalingPolicies;
 import com.pinterest.deployservice.bean.rodimus.RodimusAutoScalingPolicy;
 import com.pinterest.deployservice.bean.rodimus.RodimusScheduledAction;
 import com.pinterest.deployservice.dao.EnvironDAO;
-import com.pinterest.deployservice.dao.UtilDAO;
 import com.pinterest.deployservice.dao.WorkerJobDAO;
+import com.pinterest.deployservice.lock.LockManager;
 import com.pinterest.deployservice.rodimus.RodimusManager;
 import com.pinterest.teletraan.TeletraanServiceContext;
 import com.pinterest.teletraan.handler.EnvironmentHandler;
@@ -38,7 +38,6 @@ import com.pinterest.teletraan.worker.HostTerminator;
 import com.pinterest.teletraan.worker.WorkerTimerFactory;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Timer;
-import java.sql.Connection;
 import java.text.SimpleDateFormat;
 import java.util.Collections;
 import java.util.Date;
@@ -60,7 +59,7 @@ public class ApplyInfraWorker implements Runnable {
     private final EnvironDAO environDAO;
     private final EnvironmentHandler environmentHandler;
     private final RodimusManager rodimusManager;
-    private final UtilDAO utilDAO;
+    private final LockManager lockManager;
     private final WorkerJobDAO workerJobDAO;
     private Counter errorBudgetSuccess;
     private Counter errorBudgetFailure;
@@ -69,7 +68,7 @@ public class ApplyInfraWorker implements Runnable {
         environDAO = serviceContext.getEnvironDAO();
         environmentHandler = new EnvironmentHandler(serviceContext);
         rodimusManager = serviceContext.getRodimusManager();
-        utilDAO = serviceContext.getUtilDAO();
+        lockManager = serviceContext.getLockManager();
         workerJobDAO = serviceContext.getWorkerJobDAO();
         errorBudgetSuccess =
                 ErrorBudgetCounterFactory.createSuccessCounter(this.getClass().getSimpleName());
@@ -105,9 +104,9 @@ public class ApplyInfraWorker implements Runnable {
         for (WorkerJobBean workerJobBean : workerJobBeans) {
             String id = workerJobBean.getId();
             String lockName = String.format("APPLY_INFRA-%s", id);
-            Connection connection = utilDAO.getLock(lockName);
+            LockManager.Lock lock = lockManager.tryLock("APPLY_INFRA", id);
 
-            if (connection != null) {
+            if (lock != null) {
                 LOG.info(String.format("DB lock operation is successful: get lock %s", lockName));
                 try {
                     WorkerJobBean latestWorkerJobBean = workerJobDAO.getById(id);
@@ -127,7 +126,7 @@ public class ApplyInfraWorker implements Runnable {
                             workerJobBean, WorkerJobBean.Status.FAILED, System.currentTimeMillis());
                     LOG.error("Failed to process worker job id {}", workerJobBean.getId(), e);
                 } finally {
-                    utilDAO.releaseLock(lockName, connection);
+                    lock.release();
                     LOG.info(
                             String.format(
                                     "DB lock operation is successful: release lock %s", lockName));
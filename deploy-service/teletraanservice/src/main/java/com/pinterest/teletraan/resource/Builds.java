@@ -22,20 +22,37 @@ import com.pinterest.deployservice.buildtags.BuildTagsManager;
 import com.pinterest.deployservice.buildtags.BuildTagsManagerImpl;
 import com.pinterest.deployservice.common.CommonUtils;
 import com.pinterest.deployservice.dao.BuildDAO;
+import com.pinterest.deployservice.dao.BuildIdempotencyKeyDAO;
 import com.pinterest.deployservice.dao.DeployDAO;
 import com.pinterest.deployservice.dao.TagDAO;
+import com.pinterest.deployservice.db.DatabaseUtil;
+import com.pinterest.deployservice.events.BuildEvent;
+import com.pinterest.deployservice.events.BuildEventOutbox;
 import com.pinterest.deployservice.events.BuildEventPublisher;
 import com.pinterest.deployservice.scm.SourceControlManagerProxy;
 import com.pinterest.teletraan.TeletraanServiceContext;
+import com.pinterest.teletraan.config.AuthorizationFactory;
 import com.pinterest.teletraan.universal.security.ResourceAuthZInfo;
+import com.pinterest.teletraan.universal.security.TeletraanAuthorizer;
 import com.pinterest.teletraan.universal.security.bean.AuthZResource;
+import com.pinterest.teletraan.universal.security.bean.TeletraanPrincipal;
 import io.swagger.annotations.*;
 import java.net.URI;
+import java.security.Principal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import javax.annotation.security.RolesAllowed;
 import javax.validation.Valid;
 import javax.ws.rs.*;
 import javax.ws.rs.core.*;
+import org.apache.commons.dbcp.BasicDataSource;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,20 +69,37 @@ import org.slf4j.LoggerFactory;
 public class Builds {
     private static final Logger LOG = LoggerFactory.getLogger(Builds.class);
     private static final int DEFAULT_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 1000;
+    // Length of build_idempotency_keys.idempotency_key
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 128;
+    // SQL state class of duplicate keys, QueryRunner keeps only the state of the driver exception
+    private static final String INTEGRITY_CONSTRAINT_VIOLATION = "23";
     private final BuildDAO buildDAO;
+    private final BuildDAO buildReadDAO;
+    private final BuildIdempotencyKeyDAO buildIdempotencyKeyDAO;
+    private final BasicDataSource dataSource;
     private final DeployDAO deployDAO;
     private final TagDAO tagDAO;
     private final Allowlist buildAllowlist;
     private final SourceControlManagerProxy sourceControlManagerProxy;
     private final BuildEventPublisher buildEventPublisher;
+    private final BuildEventOutbox buildEventOutbox;
+    private final AuthorizationFactory authorizationFactory;
+    private final TeletraanServiceContext context;
 
     public Builds(@Context TeletraanServiceContext context) {
         buildDAO = context.getBuildDAO();
+        buildReadDAO = context.getBuildReadDAO();
+        buildIdempotencyKeyDAO = context.getBuildIdempotencyKeyDAO();
+        dataSource = context.getDataSource();
         tagDAO = context.getTagDAO();
         sourceControlManagerProxy = context.getSourceControlManagerProxy();
         buildAllowlist = context.getBuildAllowlist();
         buildEventPublisher = context.getBuildEventPublisher();
+        buildEventOutbox = context.getBuildEventOutbox();
         deployDAO = context.getDeployDAO();
+        authorizationFactory = context.getAuthorizationFactory();
+        this.context = context;
     }
 
     @GET
@@ -75,7 +109,7 @@ public class Builds {
             @QueryParam("start") Optional<Integer> start,
             @QueryParam("size") Optional<Integer> size)
             throws Exception {
-        return buildDAO.getBuildNames(nameFilter.orNull(), start.or(1), size.or(DEFAULT_SIZE));
+        return buildReadDAO.getBuildNames(nameFilter.orNull(), start.or(1), size.or(DEFAULT_SIZE));
     }
 
     @GET
@@ -88,7 +122,7 @@ public class Builds {
     public List<String> getBranches(
             @ApiParam(value = "BUILD name", required = true) @PathParam("name") String buildName)
             throws Exception {
-        return buildDAO.getBranches(buildName);
+        return buildReadDAO.getBranches(buildName);
     }
 
     @GET
@@ -144,7 +178,8 @@ public class Builds {
                     Response.Status.BAD_REQUEST);
         }
 
-        return buildDAO.get(scmCommit, buildName, scmBranch, pageIndex, pageSize, before, after);
+        return buildReadDAO.get(
+                scmCommit, buildName, scmBranch, pageIndex, pageSize, before, after);
     }
 
     @GET
@@ -155,7 +190,7 @@ public class Builds {
             throw new WebApplicationException(
                     "Require group name in the request.", Response.Status.BAD_REQUEST);
         }
-        return buildDAO.getCurrentBuildsByGroupName(groupName);
+        return buildReadDAO.getCurrentBuildsByGroupName(groupName);
     }
 
     @GET
@@ -181,7 +216,8 @@ public class Builds {
         }
 
         List<BuildBean> builds =
-                buildDAO.get(scmCommit, buildName, scmBranch, pageIndex, pageSize, before, after);
+                buildReadDAO.get(
+                        scmCommit, buildName, scmBranch, pageIndex, pageSize, before, after);
 
         BuildTagsManager manager = new BuildTagsManagerImpl(this.tagDAO);
         return manager.getEffectiveTagsWithBuilds(builds);
@@ -201,6 +237,206 @@ public class Builds {
             @Context UriInfo uriInfo,
             @ApiParam(value = "BUILD object", required = true) @Valid BuildBean buildBean)
             throws Exception {
+        String publisher = sc.getUserPrincipal().getName();
+        prepareBuild(buildBean, publisher);
+        String buildId = buildBean.getBuild_id();
+
+        if (buildEventOutbox != null) {
+            // The event is recorded with the build and relayed from the outbox
+            DatabaseUtil.transactionalUpdate(
+                    dataSource,
+                    Arrays.asList(
+                            buildDAO.genInsertAllStatement(Collections.singletonList(buildBean)),
+                            buildEventOutbox.genInsertStatement(
+                                    Collections.singletonList(
+                                            new BuildEvent(buildBean, "CREATE")))));
+        } else {
+            buildDAO.insert(buildBean);
+        }
+        LOG.info("Successfully published build {} by {}.", buildId, publisher);
+
+        // publish event
+        if (buildEventOutbox == null && buildEventPublisher != null) {
+            buildEventPublisher.publish(buildBean, "CREATE");
+        }
+
+        UriBuilder ub = uriInfo.getAbsolutePathBuilder();
+        URI buildUri = ub.path(buildId).build();
+        // The bean holds everything that was inserted, no need to read the row back
+        return Response.created(buildUri).entity(buildBean).build();
+    }
+
+    @POST
+    @Path("/batch")
+    @ApiOperation(
+            value = "Publish builds",
+            notes =
+                    "Publish builds given a list of build objects, with one insert. All builds "
+                            + "in a batch must have the same buildName, the publisher must be "
+                            + "allowed to publish each of their artifactUrls. A build whose "
+                            + "idempotencyKey the publisher already sent is not published again, "
+                            + "the build published then is returned in its place.",
+            response = BuildBean.class,
+            responseContainer = "List")
+    @RolesAllowed(TeletraanPrincipalRole.Names.PUBLISHER)
+    @ResourceAuthZInfo(
+            type = AuthZResource.Type.BUILD,
+            idLocation = ResourceAuthZInfo.Location.BODY,
+            beanClass = BuildBean[].class)
+    public List<BuildBean> publishBatch(
+            @Context SecurityContext sc,
+            @ApiParam(value = "BUILD objects", required = true) @Valid List<BuildBean> buildBeans)
+            throws Exception {
+        if (buildBeans == null || buildBeans.isEmpty() || buildBeans.size() > MAX_BATCH_SIZE) {
+            throw new WebApplicationException(
+                    String.format("A batch must have 1 to %d builds.", MAX_BATCH_SIZE),
+                    Response.Status.BAD_REQUEST);
+        }
+        String publisher = sc.getUserPrincipal().getName();
+        Set<String> keys = new HashSet<>();
+        for (BuildBean buildBean : buildBeans) {
+            String key = buildBean.getIdempotency_key();
+            if (key == null) {
+                continue;
+            }
+            if (key.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                throw new WebApplicationException(
+                        String.format(
+                                "Idempotency key %s is longer than %d characters.",
+                                key, MAX_IDEMPOTENCY_KEY_LENGTH),
+                        Response.Status.BAD_REQUEST);
+            }
+            if (!keys.add(key)) {
+                throw new WebApplicationException(
+                        String.format("Idempotency key %s is used by more than one build.", key),
+                        Response.Status.BAD_REQUEST);
+            }
+        }
+        authorizeBatch(sc.getUserPrincipal(), buildBeans);
+
+        // Builds published before with the same key, by key. A key whose build has since been
+        // deleted is stale, its build is published again.
+        Map<String, String> publishedIds = buildIdempotencyKeyDAO.getBuildIds(publisher, keys);
+        Map<String, BuildBean> published = new HashMap<>();
+        if (!publishedIds.isEmpty()) {
+            Map<String, BuildBean> buildsById = new HashMap<>();
+            for (BuildBean buildBean : buildDAO.getBuildsFromIds(publishedIds.values())) {
+                buildsById.put(buildBean.getBuild_id(), buildBean);
+            }
+            for (Map.Entry<String, String> entry : publishedIds.entrySet()) {
+                BuildBean buildBean = buildsById.get(entry.getValue());
+                if (buildBean != null) {
+                    published.put(entry.getKey(), buildBean);
+                }
+            }
+        }
+        List<String> staleKeys = new ArrayList<>();
+        for (String key : publishedIds.keySet()) {
+            if (!published.containsKey(key)) {
+                staleKeys.add(key);
+            }
+        }
+
+        List<BuildBean> newBuilds = new ArrayList<>();
+        Map<String, String> newKeys = new HashMap<>();
+        for (BuildBean buildBean : buildBeans) {
+            String key = buildBean.getIdempotency_key();
+            if (key != null && published.containsKey(key)) {
+                continue;
+            }
+            prepareBuild(buildBean, publisher);
+            newBuilds.add(buildBean);
+            if (key != null) {
+                newKeys.put(key, buildBean.getBuild_id());
+            }
+        }
+
+        if (!newBuilds.isEmpty()) {
+            List<BuildEvent> events = new ArrayList<>(newBuilds.size());
+            for (BuildBean buildBean : newBuilds) {
+                events.add(new BuildEvent(buildBean, "CREATE"));
+            }
+            List<UpdateStatement> statements = new ArrayList<>();
+            if (!staleKeys.isEmpty()) {
+                statements.add(buildIdempotencyKeyDAO.genDeleteStatement(publisher, staleKeys));
+            }
+            statements.add(buildDAO.genInsertAllStatement(newBuilds));
+            if (!newKeys.isEmpty()) {
+                statements.add(
+                        buildIdempotencyKeyDAO.genInsertAllStatement(
+                                publisher, newKeys, System.currentTimeMillis()));
+            }
+            if (buildEventOutbox != null) {
+                statements.add(buildEventOutbox.genInsertStatement(events));
+            }
+            try {
+                DatabaseUtil.transactionalUpdate(dataSource, statements);
+            } catch (SQLException e) {
+                if (!StringUtils.startsWith(e.getSQLState(), INTEGRITY_CONSTRAINT_VIOLATION)) {
+                    throw e;
+                }
+                // A concurrent request with some of the same keys got there first, a retry
+                // returns its builds
+                throw new WebApplicationException(
+                        "Builds with some of the idempotency keys are being published "
+                                + "concurrently, please retry.",
+                        Response.Status.CONFLICT);
+            }
+            LOG.info("Successfully published {} builds by {}.", newBuilds.size(), publisher);
+
+            // publish events
+            if (buildEventOutbox == null && buildEventPublisher != null) {
+                buildEventPublisher.publishAll(events);
+            }
+        }
+
+        List<BuildBean> result = new ArrayList<>(buildBeans.size());
+        for (BuildBean buildBean : buildBeans) {
+            String key = buildBean.getIdempotency_key();
+            result.add(key != null && published.containsKey(key) ? published.get(key) : buildBean);
+        }
+        return result;
+    }
+
+    // The request filter only authorized the build name the batch shares, so every artifact URL
+    // of the batch is authorized here
+    private void authorizeBatch(Principal principal, List<BuildBean> buildBeans) {
+        if (!(principal instanceof TeletraanPrincipal)) {
+            throw new UnsupportedOperationException("Only TeletraanPrincipal is allowed");
+        }
+        TeletraanPrincipal teletraanPrincipal = (TeletraanPrincipal) principal;
+        TeletraanAuthorizer<TeletraanPrincipal> authorizer =
+                authorizationFactory.createSecondaryAuthorizer(
+                        context, teletraanPrincipal.getClass());
+
+        Set<AuthZResource> resources = new HashSet<>();
+        for (BuildBean buildBean : buildBeans) {
+            Map<String, String> attributes = new HashMap<>();
+            attributes.put(
+                    AuthZResource.AttributeKeys.BUILD_ARTIFACT_URL.name(),
+                    buildBean.getArtifact_url());
+            resources.add(
+                    new AuthZResource(
+                            buildBean.getBuild_name(), AuthZResource.Type.BUILD, attributes));
+        }
+        for (AuthZResource resource : resources) {
+            if (!authorizer.authorize(
+                    teletraanPrincipal, TeletraanPrincipalRole.Names.PUBLISHER, resource, null)) {
+                throw new ForbiddenException(
+                        String.format(
+                                "Principal %s is not allowed to publish build %s from %s",
+                                principal.getName(),
+                                resource.getName(),
+                                resource.getAttributes()
+                                        .get(
+                                                AuthZResource.AttributeKeys.BUILD_ARTIFACT_URL
+                                                        .name())));
+            }
+        }
+    }
+
+    // Fills in the defaults, checks the build is allowed and assigns its id
+    private void prepareBuild(BuildBean buildBean, String publisher) throws Exception {
         if (StringUtils.isEmpty(buildBean.getScm())) {
             buildBean.setScm(sourceControlManagerProxy.getDefaultTypeName());
         }
@@ -230,7 +466,7 @@ public class Builds {
         }
 
         // Set who published the build
-        buildBean.setPublisher(sc.getUserPrincipal().getName());
+        buildBean.setPublisher(publisher);
 
         // Check if build is approved via our allow list of URLs
         if (!Boolean.TRUE.equals(buildAllowlist.approved(buildBean.getArtifact_url()))) {
@@ -251,20 +487,6 @@ public class Builds {
         String id = CommonUtils.getBase64UUID();
         String buildId = String.format("%s_%s", id, buildBean.getScm_commit_7());
         buildBean.setBuild_id(buildId);
-
-        buildDAO.insert(buildBean);
-        LOG.info(
-                "Successfully published build {} by {}.", buildId, sc.getUserPrincipal().getName());
-
-        // publish event
-        if (buildEventPublisher != null) {
-            buildEventPublisher.publish(buildBean, "CREATE");
-        }
-
-        UriBuilder ub = uriInfo.getAbsolutePathBuilder();
-        URI buildUri = ub.path(buildId).build();
-        buildBean = buildDAO.getById(buildId);
-        return Response.created(buildUri).entity(buildBean).build();
     }
 
     @DELETE
@@ -296,12 +518,22 @@ public class Builds {
                     Response.Status.BAD_REQUEST);
         }
 
-        buildDAO.delete(id);
+        if (buildEventOutbox != null) {
+            DatabaseUtil.transactionalUpdate(
+                    dataSource,
+                    Arrays.asList(
+                            buildDAO.genDeleteStatement(id),
+                            buildEventOutbox.genInsertStatement(
+                                    Collections.singletonList(
+                                            new BuildEvent(buildBean, "DELETE")))));
+        } else {
+            buildDAO.delete(id);
+        }
 
         LOG.info("{} successfully deleted build {}", sc.getUserPrincipal().getName(), id);
 
         // publish event
-        if (buildEventPublisher != null) {
+        if (buildEventOutbox == null && buildEventPublisher != null) {
             buildEventPublisher.publish(buildBean, "DELETE");
         }
     }
@@ -25,6 +25,7 @@ import com.pinterest.deployservice.bean.DeployType;
 import com.pinterest.deployservice.bean.TeletraanPrincipalRole;
 import com.pinterest.deployservice.dao.DeployDAO;
 import com.pinterest.deployservice.db.DeployQueryFilter;
+import com.pinterest.deployservice.deployindex.RecentDeployIndex;
 import com.pinterest.deployservice.handler.DeployHandler;
 import com.pinterest.teletraan.TeletraanServiceContext;
 import com.pinterest.teletraan.universal.security.ResourceAuthZInfo;
@@ -67,10 +68,14 @@ public class Deploys {
     private static final Logger LOG = LoggerFactory.getLogger(Deploys.class);
     private static final int DEFAULT_SIZE = 30;
     private DeployDAO deployDAO;
+    private DeployDAO deployReadDAO;
     private DeployHandler deployHandler;
+    private RecentDeployIndex recentDeployIndex;
 
     public Deploys(@Context TeletraanServiceContext context) {
         deployDAO = context.getDeployDAO();
+        deployReadDAO = context.getDeployReadDAO();
+        recentDeployIndex = context.getRecentDeployIndex();
         deployHandler = new DeployHandler(context);
     }
 
@@ -93,6 +98,14 @@ public class Deploys {
         return deployBean;
     }
 
+    /**
+     * Searches deploys, newest first unless oldestFirst is set.
+     *
+     * <p>Pages can be addressed by pageIndex, or by passing the nextCursor of the previous page as
+     * cursor, which stays cheap however deep the page is. total counts every match, unless
+     * countLimit is set: then at most countLimit matches are counted, and 0 skips the count and
+     * leaves total null. Cursor pages skip the count unless countLimit is set.
+     */
     @GET
     public DeployQueryResultBean search(
             @QueryParam("envId") List<String> envIds,
@@ -108,8 +121,18 @@ public class Deploys {
             @QueryParam("after") Long after,
             @QueryParam("pageIndex") Optional<Integer> pageIndex,
             @QueryParam("pageSize") Optional<Integer> pageSize,
-            @QueryParam("oldestFirst") Optional<Boolean> oldestFirst)
+            @QueryParam("oldestFirst") Optional<Boolean> oldestFirst,
+            @QueryParam("cursor") String cursor,
+            @QueryParam("countLimit") Optional<Integer> countLimit)
             throws Exception {
+        if (cursor != null && pageIndex.isPresent()) {
+            throw new WebApplicationException(
+                    "Only one of cursor and pageIndex can be set.", Response.Status.BAD_REQUEST);
+        }
+        if (countLimit.isPresent() && countLimit.get() < 0) {
+            throw new WebApplicationException(
+                    "countLimit must not be negative.", Response.Status.BAD_REQUEST);
+        }
         DeployFilterBean filter = new DeployFilterBean();
         filter.setEnvIds(envIds);
         filter.setOperators(operators);
@@ -125,8 +148,36 @@ public class Deploys {
         filter.setPageIndex(pageIndex.or(1));
         filter.setPageSize(pageSize.or(DEFAULT_SIZE));
         filter.setOldestFirst(oldestFirst.or(false));
+        String[] keys = KeysetPageOutput.decodeCursor(cursor, 2);
+        if (keys != null) {
+            try {
+                filter.setCursorStartDate(Long.parseLong(keys[0]));
+            } catch (NumberFormatException e) {
+                throw new WebApplicationException(
+                        "Invalid cursor " + cursor, Response.Status.BAD_REQUEST);
+            }
+            filter.setCursorDeployId(keys[1]);
+            filter.setCountLimit(countLimit.or(0));
+        } else {
+            filter.setCountLimit(countLimit.orNull());
+        }
         DeployQueryFilter filterBean = new DeployQueryFilter(filter);
-        return deployDAO.getAllDeploys(filterBean);
+
+        DeployQueryResultBean result = null;
+        if (recentDeployIndex != null) {
+            result = recentDeployIndex.search(filterBean);
+        }
+        if (result == null) {
+            result = deployReadDAO.getAllDeploys(filterBean);
+        }
+        List<DeployBean> deploys = result.getDeploys();
+        if (result.isTruncated() && !deploys.isEmpty()) {
+            DeployBean last = deploys.get(deploys.size() - 1);
+            result.setNextCursor(
+                    KeysetPageOutput.encodeCursor(
+                            String.valueOf(last.getStart_date()), last.getDeploy_id()));
+        }
+        return result;
     }
 
     @PUT
@@ -167,6 +218,6 @@ public class Deploys {
             notes = "Get total numbers of deploys on the current day",
             response = Long.class)
     public long dailyCount() throws Exception {
-        return deployDAO.getDailyDeployCount();
+        return deployReadDAO.getDailyDeployCount();
     }
 }
@@ -19,11 +19,14 @@ import com.pinterest.deployservice.bean.*;
 import com.pinterest.deployservice.dao.AgentDAO;
 import com.pinterest.deployservice.dao.AgentErrorDAO;
 import com.pinterest.deployservice.dao.EnvironDAO;
+import com.pinterest.deployservice.handler.EnvChangeNotifier;
+import com.pinterest.deployservice.handler.GoalFingerprintIndex;
 import com.pinterest.teletraan.TeletraanServiceContext;
 import com.pinterest.teletraan.universal.security.ResourceAuthZInfo;
 import com.pinterest.teletraan.universal.security.bean.AuthZResource;
 import io.swagger.annotations.*;
 import java.util.List;
+import java.util.Optional;
 import javax.annotation.security.RolesAllowed;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.*;
@@ -43,7 +46,10 @@ public class EnvAgents {
     private static final Logger LOG = LoggerFactory.getLogger(EnvAgents.class);
     private EnvironDAO environDAO;
     private AgentDAO agentDAO;
+    private AgentDAO agentReadDAO;
     private AgentErrorDAO agentErrorDAO;
+    private EnvChangeNotifier envChangeNotifier;
+    private GoalFingerprintIndex goalFingerprintIndex;
 
     public enum CountActionType {
         SERVING,
@@ -55,7 +61,10 @@ public class EnvAgents {
     public EnvAgents(@Context TeletraanServiceContext context) {
         environDAO = context.getEnvironDAO();
         agentDAO = context.getAgentDAO();
+        agentReadDAO = context.getAgentReadDAO();
         agentErrorDAO = context.getAgentErrorDAO();
+        envChangeNotifier = context.getEnvChangeNotifier();
+        goalFingerprintIndex = context.getGoalFingerprintIndex();
     }
 
     @GET
@@ -72,7 +81,52 @@ public class EnvAgents {
                     String stageName)
             throws Exception {
         EnvironBean envBean = Utils.getEnvStage(environDAO, envName, stageName);
-        return agentDAO.getAllByEnv(envBean.getEnv_id());
+        return agentReadDAO.getAllByEnv(envBean.getEnv_id());
+    }
+
+    @GET
+    @Path("/page")
+    @ApiOperation(
+            value = "Get a page of deploy agents",
+            notes =
+                    "Returns up to pageSize deploy agents of the given environment name and stage name "
+                            + "in host id order, optionally filtered by state, status and deploy stage. "
+                            + "The response is {\"agents\": [...], \"nextCursor\": \"...\"}, pass "
+                            + "nextCursor back as cursor to get the next page. nextCursor is null on "
+                            + "the last page")
+    public Response getAgentPage(
+            @ApiParam(value = "Environment name", required = true) @PathParam("envName")
+                    String envName,
+            @ApiParam(value = "Stage name", required = true) @PathParam("stageName")
+                    String stageName,
+            @ApiParam(value = "Cursor returned by the previous page") @QueryParam("cursor")
+                    String cursor,
+            @ApiParam(value = "Max number of agents to return") @QueryParam("pageSize")
+                    Optional<Integer> pageSize,
+            @ApiParam(value = "Agent state") @QueryParam("state") AgentState state,
+            @ApiParam(value = "Agent status") @QueryParam("status") AgentStatus status,
+            @ApiParam(value = "Deploy stage") @QueryParam("deployStage") DeployStage deployStage)
+            throws Exception {
+        EnvironBean envBean = Utils.getEnvStage(environDAO, envName, stageName);
+        AgentFilterBean filter = new AgentFilterBean();
+        filter.setState(state);
+        filter.setStatus(status);
+        filter.setDeploy_stage(deployStage);
+        KeysetPageOutput<AgentBean> output =
+                new KeysetPageOutput<>(
+                        "agents",
+                        (afterCursor, limit) -> {
+                            String[] keys = KeysetPageOutput.decodeCursor(afterCursor, 1);
+                            return agentReadDAO.getPageByEnv(
+                                    envBean.getEnv_id(),
+                                    filter,
+                                    keys == null ? null : keys[0],
+                                    limit);
+                        },
+                        agent -> KeysetPageOutput.encodeCursor(agent.getHost_id()),
+                        cursor,
+                        pageSize);
+        return Response.ok(output).build();
     }
 
     @GET
@@ -120,6 +174,9 @@ public class EnvAgents {
         EnvironBean envBean = Utils.getEnvStage(environDAO, envName, stageName);
         String operator = sc.getUserPrincipal().getName();
         agentDAO.update(hostId, envBean.getEnv_id(), agentBean);
+        if (goalFingerprintIndex != null) {
+            goalFingerprintIndex.invalidateHost(hostId);
+        }
         LOG.info(
                 "Successfully updated agent {} with {} in env {}/{} by {}.",
                 hostId,
@@ -149,6 +206,9 @@ public class EnvAgents {
         EnvironBean environBean = Utils.getEnvStage(environDAO, envName, stageName);
         String operator = sc.getUserPrincipal().getName();
         agentDAO.resetFailedAgents(environBean.getEnv_id(), deployId);
+        if (envChangeNotifier != null) {
+            envChangeNotifier.notifyChange(environBean.getEnv_id());
+        }
         LOG.info(
                 "Successfully reset failed agents for deploy {} in env {}/{} by {}.",
                 deployId,
@@ -24,6 +24,7 @@ import com.pinterest.deployservice.dao.EnvironDAO;
 import com.pinterest.deployservice.handler.ConfigHistoryHandler;
 import com.pinterest.deployservice.handler.DeployHandler;
 import com.pinterest.deployservice.handler.EnvironHandler;
+import com.pinterest.deployservice.handler.GoalFingerprintIndex;
 import com.pinterest.teletraan.TeletraanServiceContext;
 import com.pinterest.teletraan.universal.security.ResourceAuthZInfo;
 import com.pinterest.teletraan.universal.security.bean.AuthZResource;
@@ -72,6 +73,7 @@ public class EnvDeploys {
     private EnvironHandler environHandler;
     private DeployHandler deployHandler;
     private ConfigHistoryHandler configHistoryHandler;
+    private GoalFingerprintIndex goalFingerprintIndex;
 
     public EnvDeploys(@Context TeletraanServiceContext context) throws Exception {
         environDAO = context.getEnvironDAO();
@@ -80,6 +82,7 @@ public class EnvDeploys {
         environHandler = new EnvironHandler(context);
         deployHandler = new DeployHandler(context);
         configHistoryHandler = new ConfigHistoryHandler(context);
+        goalFingerprintIndex = context.getGoalFingerprintIndex();
     }
 
     @GET
@@ -229,6 +232,9 @@ public class EnvDeploys {
             default:
                 throw new WebApplicationException("No action found.", Response.Status.BAD_REQUEST);
         }
+        if (goalFingerprintIndex != null) {
+            hostIds.forEach(goalFingerprintIndex::invalidateHost);
+        }
     }
 
     @POST
@@ -47,7 +47,7 @@ public class EnvHistory {
 
     public EnvHistory(@Context TeletraanServiceContext context) {
         environDAO = context.getEnvironDAO();
-        configHistoryDAO = context.getConfigHistoryDAO();
+        configHistoryDAO = context.getConfigHistoryReadDAO();
     }
 
     @GET
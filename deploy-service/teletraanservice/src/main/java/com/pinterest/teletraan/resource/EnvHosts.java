@@ -18,6 +18,7 @@ package com.pinterest.teletraan.resource;
 import com.pinterest.deployservice.bean.EnvironBean;
 import com.pinterest.deployservice.bean.HostBean;
 import com.pinterest.deployservice.bean.HostBeanWithStatuses;
+import com.pinterest.deployservice.bean.HostState;
 import com.pinterest.deployservice.bean.TeletraanPrincipalRole;
 import com.pinterest.deployservice.common.Constants;
 import com.pinterest.deployservice.dao.EnvironDAO;
@@ -43,6 +44,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -82,6 +84,48 @@ public class EnvHosts {
         return hostDAO.getHostsByEnvId(envBean.getEnv_id());
     }
 
+    @GET
+    @Path("/page")
+    @ApiOperation(
+            value = "Get a page of hosts for env stage",
+            notes =
+                    "Returns up to pageSize hosts of the given environment and stage in host id "
+                            + "order, optionally filtered by host state. The response is "
+                            + "{\"hosts\": [...], \"nextCursor\": \"...\"}, pass nextCursor back "
+                            + "as cursor to get the next page. nextCursor is null on the last page")
+    public Response getPage(
+            @ApiParam(value = "Environment name", required = true) @PathParam("envName")
+                    String envName,
+            @ApiParam(value = "Stage name", required = true) @PathParam("stageName")
+                    String stageName,
+            @ApiParam(value = "Cursor returned by the previous page") @QueryParam("cursor")
+                    String cursor,
+            @ApiParam(value = "Max number of hosts to return") @QueryParam("pageSize")
+                    Optional<Integer> pageSize,
+            @ApiParam(value = "Host state") @QueryParam("state") HostState state)
+            throws Exception {
+        EnvironBean envBean = Utils.getEnvStage(environDAO, envName, stageName);
+        KeysetPageOutput<HostBean> output =
+                new KeysetPageOutput<>(
+                        "hosts",
+                        (afterCursor, limit) -> {
+                            // A host is listed once per group, so the group breaks the tie
+                            String[] keys = KeysetPageOutput.decodeCursor(afterCursor, 2);
+                            return hostDAO.getPageByEnvId(
+                                    envBean.getEnv_id(),
+                                    state,
+                                    keys == null ? null : keys[0],
+                                    keys == null ? null : keys[1],
+                                    limit);
+                        },
+                        host ->
+                                KeysetPageOutput.encodeCursor(
+                                        host.getHost_id(), host.getGroup_name()),
+                        cursor,
+                        pageSize);
+        return Response.ok(output).build();
+    }
+
     @GET
     @Path("/{hostName : [a-zA-Z0-9\\-_]+}")
     @ApiOperation(
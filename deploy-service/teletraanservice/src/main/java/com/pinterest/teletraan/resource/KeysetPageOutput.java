@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.teletraan.resource;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+/**
+ * Streams one keyset page of a listing as {@code {"<field>": [...], "nextCursor": "..."}}.
+ *
+ * <p>The page is read from the database in batches of at most {@link #FETCH_SIZE} rows, and every
+ * batch is written out before the next one is read, so a page of thousands of agents is never held
+ * in memory as a whole. The first batch is read when the output is created, so that a failing query
+ * still turns into a regular error response. {@code nextCursor} is null on the last page.
+ */
+class KeysetPageOutput<T> implements StreamingOutput {
+    static final int FETCH_SIZE = 500;
+    static final int DEFAULT_PAGE_SIZE = 1000;
+    static final int MAX_PAGE_SIZE = 10000;
+    private static final ObjectMapper mapper =
+            new ObjectMapper().configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+
+    interface Fetcher<T> {
+        // return at most limit items after the given cursor, null for the first page
+        List<T> fetch(String afterCursor, int limit) throws Exception;
+    }
+
+    private final String field;
+    private final Fetcher<T> fetcher;
+    private final Function<T, String> cursorOf;
+    private final int pageSize;
+    private final List<T> firstBatch;
+    private final String startCursor;
+
+    KeysetPageOutput(
+            String field,
+            Fetcher<T> fetcher,
+            Function<T, String> cursorOf,
+            String cursor,
+            Optional<Integer> pageSize)
+            throws Exception {
+        this.field = field;
+        this.fetcher = fetcher;
+        this.cursorOf = cursorOf;
+        this.pageSize = pageSize.orElse(DEFAULT_PAGE_SIZE);
+        if (this.pageSize < 1 || this.pageSize > MAX_PAGE_SIZE) {
+            throw new WebApplicationException(
+                    String.format("pageSize must be between 1 and %d.", MAX_PAGE_SIZE),
+                    Response.Status.BAD_REQUEST);
+        }
+        startCursor = cursor;
+        firstBatch = fetcher.fetch(cursor, batchLimit(0));
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        JsonGenerator generator = mapper.getFactory().createGenerator(output);
+        generator.writeStartObject();
+        generator.writeArrayFieldStart(field);
+        String cursor = startCursor;
+        List<T> batch = firstBatch;
+        int limit = batchLimit(0);
+        int written = 0;
+        while (true) {
+            for (T item : batch) {
+                generator.writeObject(item);
+            }
+            written += batch.size();
+            if (batch.size() < limit) {
+                // Nothing left after this batch
+                cursor = null;
+                break;
+            }
+            cursor = cursorOf.apply(batch.get(batch.size() - 1));
+            if (written >= pageSize) {
+                break;
+            }
+            generator.flush();
+            limit = batchLimit(written);
+            try {
+                batch = fetcher.fetch(cursor, limit);
+            } catch (Exception e) {
+                // The response is already committed, all we can do is cut it short
+                throw new IOException(
+                        String.format("Failed to read %s after %s", field, cursor), e);
+            }
+        }
+        generator.writeEndArray();
+        generator.writeStringField("nextCursor", cursor);
+        generator.writeEndObject();
+        generator.close();
+    }
+
+    private int batchLimit(int written) {
+        return Math.min(pageSize - written, FETCH_SIZE);
+    }
+
+    /** Packs the sort key of the last item of a page into an opaque cursor. */
+    static String encodeCursor(String... keys) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(String.join("\n", keys).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Unpacks a cursor made by {@link #encodeCursor}, or returns null for a null cursor. */
+    static String[] decodeCursor(String cursor, int keyCount) {
+        if (cursor == null) {
+            return null;
+        }
+        String[] keys;
+        try {
+            keys =
+                    new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                            .split("\n", -1);
+        } catch (IllegalArgumentException e) {
+            keys = null;
+        }
+        if (keys == null || keys.length != keyCount) {
+            throw new WebApplicationException(
+                    "Invalid cursor " + cursor, Response.Status.BAD_REQUEST);
+        }
+        return keys;
+    }
+}
@@ -15,10 +15,12 @@
  */
 package com.pinterest.teletraan.resource;
 
+import com.pinterest.deployservice.bean.OpCode;
 import com.pinterest.deployservice.bean.PingRequestBean;
 import com.pinterest.deployservice.bean.PingResponseBean;
 import com.pinterest.deployservice.bean.PingResult;
 import com.pinterest.deployservice.bean.TeletraanPrincipalRole;
+import com.pinterest.deployservice.handler.EnvChangeNotifier;
 import com.pinterest.deployservice.handler.PingHandler;
 import com.pinterest.teletraan.TeletraanServiceContext;
 import com.pinterest.teletraan.universal.security.ResourceAuthZInfo;
@@ -26,15 +28,26 @@ import com.pinterest.teletraan.universal.security.bean.AuthZResource;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.security.RolesAllowed;
 import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.CompletionCallback;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,9 +60,15 @@ import org.slf4j.LoggerFactory;
 public class Pings {
     private static final Logger LOG = LoggerFactory.getLogger(Pings.class);
     private PingHandler pingHandler;
+    private EnvChangeNotifier envChangeNotifier;
+    private long pingWaitMaxSeconds;
+    private int pingBatchMaxSize;
 
     public Pings(@Context TeletraanServiceContext context) {
         pingHandler = new PingHandler(context);
+        envChangeNotifier = context.getEnvChangeNotifier();
+        pingWaitMaxSeconds = context.getPingWaitMaxSeconds();
+        pingBatchMaxSize = context.getPingBatchMaxSize();
     }
 
     @POST
@@ -73,4 +92,99 @@ public class Pings {
         LOG.info("Send ping response " + result.getResponseBean());
         return result.getResponseBean();
     }
+
+    @POST
+    @Path("/ping:wait")
+    @ApiOperation(
+            value = "Long-poll ping operation for agent",
+            notes =
+                    "Same as ping, except that a NOOP response is held until one of the host's envs"
+                            + " gets a new deploy or is changed, or until timeoutSeconds pass. The"
+                            + " goal is then computed again and returned",
+            response = PingResponseBean.class)
+    @RolesAllowed(TeletraanPrincipalRole.Names.PINGER)
+    @ResourceAuthZInfo(type = AuthZResource.Type.SYSTEM)
+    public void pingWait(
+            @Context SecurityContext sc,
+            @Context HttpHeaders headers,
+            @ApiParam(value = "Max seconds to hold a NOOP response") @QueryParam("timeoutSeconds")
+                    Optional<Long> timeoutSeconds,
+            @ApiParam(value = "Ping request object", required = true) @Valid
+                    PingRequestBean requestBean,
+            @Suspended AsyncResponse asyncResponse)
+            throws Exception {
+        LOG.info("Receive ping wait request " + requestBean);
+        boolean rate_limited =
+                Boolean.parseBoolean(headers.getRequestHeaders().getFirst("x-envoy-low-watermark"));
+        long timeout = Math.min(timeoutSeconds.orElse(pingWaitMaxSeconds), pingWaitMaxSeconds);
+        // Read before the ping, so that a change made while it runs still wakes us up
+        long since = envChangeNotifier == null ? 0 : envChangeNotifier.sequence();
+        PingResult result = pingHandler.ping(requestBean, rate_limited);
+        PingResponseBean response = result.getResponseBean();
+        if (envChangeNotifier == null || timeout <= 0 || response.getOpCode() != OpCode.NOOP) {
+            LOG.info("Send ping response " + response);
+            asyncResponse.resume(response);
+            return;
+        }
+
+        asyncResponse.setTimeoutHandler(timedOut -> timedOut.resume(response));
+        asyncResponse.setTimeout(timeout, TimeUnit.SECONDS);
+        EnvChangeNotifier.Subscription subscription =
+                envChangeNotifier.subscribe(
+                        result.getEnvIds(),
+                        since,
+                        () -> {
+                            if (asyncResponse.isDone()) {
+                                return;
+                            }
+                            try {
+                                PingResult woken = pingHandler.ping(requestBean, rate_limited);
+                                LOG.info("Send woken up ping response " + woken.getResponseBean());
+                                asyncResponse.resume(woken.getResponseBean());
+                            } catch (Exception e) {
+                                LOG.error("Failed to ping again for {}", requestBean, e);
+                                asyncResponse.resume(e);
+                            }
+                        });
+        asyncResponse.register((CompletionCallback) throwable -> subscription.cancel());
+        if (asyncResponse.isDone()) {
+            // Timed out before the callback was registered
+            subscription.cancel();
+        }
+    }
+
+    @POST
+    @Path("/pings:batch")
+    @ApiOperation(
+            value = "Batched ping operation for agents",
+            notes =
+                    "Returns a list of deploy goal objects given a list of ping request objects, in"
+                            + " the same order. A null entry means that ping failed and should be"
+                            + " retried on its own",
+            response = PingResponseBean.class,
+            responseContainer = "List")
+    @RolesAllowed(TeletraanPrincipalRole.Names.PINGER)
+    @ResourceAuthZInfo(type = AuthZResource.Type.SYSTEM)
+    public List<PingResponseBean> pingBatch(
+            @Context SecurityContext sc,
+            @Context HttpHeaders headers,
+            @ApiParam(value = "Ping request objects", required = true) @Valid @NotNull
+                    List<PingRequestBean> requestBeans)
+            throws Exception {
+        if (requestBeans.size() > pingBatchMaxSize) {
+            throw new WebApplicationException(
+                    String.format("A ping batch must have at most %d requests.", pingBatchMaxSize),
+                    Response.Status.BAD_REQUEST);
+        }
+        LOG.info("Receive ping batch of {} requests", requestBeans.size());
+        boolean rate_limited =
+                Boolean.parseBoolean(headers.getRequestHeaders().getFirst("x-envoy-low-watermark"));
+        List<PingResult> results = pingHandler.pingBatch(requestBeans, rate_limited);
+        List<PingResponseBean> responses = new ArrayList<>(results.size());
+        for (PingResult result : results) {
+            responses.add(result == null ? null : result.getResponseBean());
+        }
+        LOG.debug("Send ping batch responses {}", responses);
+        return responses;
+    }
 }
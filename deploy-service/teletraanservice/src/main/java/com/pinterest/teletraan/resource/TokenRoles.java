@@ -19,6 +19,7 @@ import com.pinterest.deployservice.bean.CreatedTokenRolesResponse;
 import com.pinterest.deployservice.bean.TokenRolesBean;
 import com.pinterest.deployservice.common.CommonUtils;
 import com.pinterest.deployservice.dao.TokenRolesDAO;
+import com.pinterest.deployservice.tokencache.ScriptTokenCache;
 import com.pinterest.teletraan.TeletraanServiceContext;
 import com.pinterest.teletraan.universal.security.bean.AuthZResource;
 import java.net.URI;
@@ -33,9 +34,11 @@ public abstract class TokenRoles {
     private static final Logger LOG = LoggerFactory.getLogger(TokenRoles.class);
     public static final long VALIDATE_TIME = 180;
     private final TokenRolesDAO tokenRolesDAO;
+    private final ScriptTokenCache scriptTokenCache;
 
     protected TokenRoles(TeletraanServiceContext context) {
         tokenRolesDAO = context.getTokenRolesDAO();
+        scriptTokenCache = context.getScriptTokenCache();
     }
 
     public List<TokenRolesBean> getByResource(String resourceId, AuthZResource.Type resourceType)
@@ -56,6 +59,7 @@ public abstract class TokenRoles {
             AuthZResource.Type resourceType)
             throws Exception {
         tokenRolesDAO.update(bean, scriptName, resourceId, resourceType);
+        invalidateToken(scriptName, resourceId, resourceType);
         LOG.info(
                 "Successfully updated script {} permission for resource {} with {}",
                 scriptName,
@@ -89,9 +93,17 @@ public abstract class TokenRoles {
     public void delete(String scriptName, String resourceId, AuthZResource.Type resourceType)
             throws Exception {
         tokenRolesDAO.delete(scriptName, resourceId, resourceType);
+        invalidateToken(scriptName, resourceId, resourceType);
         LOG.info(
                 "Successfully deleted script {} permission for resource {}",
                 scriptName,
                 resourceId);
     }
+
+    private void invalidateToken(
+            String scriptName, String resourceId, AuthZResource.Type resourceType) {
+        if (scriptTokenCache != null) {
+            scriptTokenCache.invalidate(scriptName, resourceId, resourceType);
+        }
+    }
 }
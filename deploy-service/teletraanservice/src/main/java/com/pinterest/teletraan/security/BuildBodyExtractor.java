@@ -21,6 +21,8 @@ import com.pinterest.teletraan.universal.security.AuthZResourceExtractor;
 import com.pinterest.teletraan.universal.security.bean.AuthZResource;
 import java.io.InputStream;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
 import javax.ws.rs.container.ContainerRequestContext;
 import org.glassfish.jersey.server.ContainerRequest;
 
@@ -43,4 +45,43 @@ public class BuildBodyExtractor implements AuthZResourceExtractor {
             throw new BeanClassExtractionException(BuildBean.class, e);
         }
     }
+
+    @Override
+    public AuthZResource extractResource(ContainerRequestContext requestContext, Class<?> beanClass)
+            throws ExtractionException {
+        if (!BuildBean[].class.equals(beanClass)) {
+            return extractResource(requestContext);
+        }
+        // A batch is authorized by the build name its builds share. The handler authorizes each
+        // artifact URL of the batch on its own.
+        ContainerRequest request = (ContainerRequest) requestContext;
+        request.bufferEntity();
+        InputStream inputStream = request.getEntityStream();
+        BuildBean[] buildBeans;
+        try {
+            buildBeans = new ObjectMapper().readValue(inputStream, BuildBean[].class);
+        } catch (Exception e) {
+            throw new BeanClassExtractionException(BuildBean[].class, e);
+        }
+        Set<String> buildNames = new HashSet<>();
+        Set<String> artifactUrls = new HashSet<>();
+        for (BuildBean buildBean : buildBeans) {
+            buildNames.add(buildBean.getBuild_name());
+            artifactUrls.add(buildBean.getArtifact_url());
+        }
+        if (buildNames.size() != 1 || buildNames.contains(null)) {
+            throw new BeanClassExtractionException(
+                    BuildBean[].class,
+                    new IllegalArgumentException(
+                            "All builds in a batch must have the same build name"));
+        }
+        HashMap<String, String> attributes = new HashMap<>();
+        if (artifactUrls.size() == 1) {
+            attributes.put(
+                    AuthZResource.AttributeKeys.BUILD_ARTIFACT_URL.name(),
+                    artifactUrls.iterator().next());
+        }
+        return new AuthZResource(
+                buildNames.iterator().next(), AuthZResource.Type.BUILD, attributes);
+    }
 }
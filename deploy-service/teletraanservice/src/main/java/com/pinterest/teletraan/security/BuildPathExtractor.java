@@ -18,6 +18,7 @@ package com.pinterest.teletraan.security;
 import com.pinterest.deployservice.ServiceContext;
 import com.pinterest.deployservice.bean.BuildBean;
 import com.pinterest.deployservice.dao.BuildDAO;
+import com.pinterest.deployservice.entitycache.EntityCache;
 import com.pinterest.teletraan.universal.security.AuthZResourceExtractor;
 import com.pinterest.teletraan.universal.security.bean.AuthZResource;
 import java.util.HashMap;
@@ -27,9 +28,11 @@ import javax.ws.rs.container.ContainerRequestContext;
 public class BuildPathExtractor implements AuthZResourceExtractor {
     private static final String BUILD_ID = "id";
     private final BuildDAO buildDAO;
+    private final EntityCache entityCache;
 
     public BuildPathExtractor(ServiceContext context) {
         this.buildDAO = context.getBuildDAO();
+        this.entityCache = context.getEntityCache();
     }
 
     @Override
@@ -42,7 +45,8 @@ public class BuildPathExtractor implements AuthZResourceExtractor {
 
         BuildBean buildBean;
         try {
-            buildBean = buildDAO.getById(buildId);
+            buildBean =
+                    entityCache == null ? buildDAO.getById(buildId) : entityCache.getBuild(buildId);
         } catch (Exception e) {
             throw new ExtractionException("Failed to get build bean", e);
         }
@@ -16,11 +16,12 @@
 package com.pinterest.teletraan.security;
 
 import com.pinterest.deployservice.ServiceContext;
+import com.pinterest.deployservice.bean.DeployBean;
 import com.pinterest.deployservice.bean.EnvironBean;
 import com.pinterest.deployservice.dao.EnvironDAO;
+import com.pinterest.deployservice.entitycache.EntityCache;
 import com.pinterest.teletraan.universal.security.AuthZResourceExtractor;
 import com.pinterest.teletraan.universal.security.bean.AuthZResource;
-import java.sql.SQLException;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.container.ContainerRequestContext;
 
@@ -28,13 +29,18 @@ import javax.ws.rs.container.ContainerRequestContext;
  * The authentication and authorization resource is extracted based on the deploy ID present in the
  * request's path parameters. It retrieves the corresponding environment bean from the EnvironDAO
  * and creates an AuthZResource object using the environment's name and stage name.
+ *
+ * <p>With an entity cache, the deploy and its environment are read from the cache, and the
+ * EnvironDAO is only asked when the cached environment no longer points at the deploy.
  */
 public class DeployPathExtractor implements AuthZResourceExtractor {
     private static final String DEPLOY_ID = "id";
     private final EnvironDAO environDAO;
+    private final EntityCache entityCache;
 
     public DeployPathExtractor(ServiceContext context) {
         this.environDAO = context.getEnvironDAO();
+        this.entityCache = context.getEntityCache();
     }
 
     @Override
@@ -47,8 +53,11 @@ public class DeployPathExtractor implements AuthZResourceExtractor {
 
         EnvironBean envBean;
         try {
-            envBean = environDAO.getByDeployId(deployID);
-        } catch (SQLException e) {
+            envBean = getCachedEnv(deployID);
+            if (envBean == null) {
+                envBean = environDAO.getByDeployId(deployID);
+            }
+        } catch (Exception e) {
             throw new ExtractionException("Failed to get environment bean", e);
         }
         if (envBean == null) {
@@ -57,4 +66,19 @@ public class DeployPathExtractor implements AuthZResourceExtractor {
         }
         return new AuthZResource(envBean.getEnv_name(), envBean.getStage_name());
     }
+
+    private EnvironBean getCachedEnv(String deployId) throws Exception {
+        if (entityCache == null) {
+            return null;
+        }
+        DeployBean deployBean = entityCache.getDeploy(deployId);
+        if (deployBean == null) {
+            return null;
+        }
+        EnvironBean envBean = entityCache.getEnv(deployBean.getEnv_id());
+        if (envBean == null || !deployId.equals(envBean.getDeploy_id())) {
+            return null;
+        }
+        return envBean;
+    }
 }
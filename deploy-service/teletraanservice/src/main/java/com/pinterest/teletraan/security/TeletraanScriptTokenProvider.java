@@ -17,6 +17,7 @@ package com.pinterest.teletraan.security;
 
 import com.pinterest.deployservice.ServiceContext;
 import com.pinterest.deployservice.bean.TokenRolesBean;
+import com.pinterest.deployservice.tokencache.ScriptTokenCache;
 import com.pinterest.teletraan.universal.security.ScriptTokenProvider;
 import com.pinterest.teletraan.universal.security.bean.AuthZResource;
 import com.pinterest.teletraan.universal.security.bean.ScriptTokenPrincipal;
@@ -40,7 +41,11 @@ public class TeletraanScriptTokenProvider implements ScriptTokenProvider<ValueBa
     @Override
     public Optional<ScriptTokenPrincipal<ValueBasedRole>> getPrincipal(String token) {
         try {
-            TokenRolesBean tokenRolesBean = context.getTokenRolesDAO().getByToken(token);
+            ScriptTokenCache cache = context.getScriptTokenCache();
+            TokenRolesBean tokenRolesBean =
+                    cache == null
+                            ? context.getTokenRolesDAO().getByToken(token)
+                            : cache.getByToken(token);
 
             if (tokenRolesBean != null && isTokenValid(tokenRolesBean.getExpire_date())) {
                 return Optional.of(
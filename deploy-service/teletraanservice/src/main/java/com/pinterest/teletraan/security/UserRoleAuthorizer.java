@@ -15,6 +15,8 @@
  */
 package com.pinterest.teletraan.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.pinterest.deployservice.ServiceContext;
 import com.pinterest.deployservice.bean.EnvironBean;
 import com.pinterest.deployservice.bean.GroupRolesBean;
@@ -23,25 +25,91 @@ import com.pinterest.deployservice.bean.UserRolesBean;
 import com.pinterest.deployservice.dao.EnvironDAO;
 import com.pinterest.deployservice.dao.GroupRolesDAO;
 import com.pinterest.deployservice.dao.UserRolesDAO;
+import com.pinterest.deployservice.rolesnapshot.RoleSnapshot;
 import com.pinterest.teletraan.universal.security.AuthZResourceExtractor;
 import com.pinterest.teletraan.universal.security.BaseAuthorizer;
 import com.pinterest.teletraan.universal.security.bean.AuthZResource;
 import com.pinterest.teletraan.universal.security.bean.UserPrincipal;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import javax.ws.rs.container.ContainerRequestContext;
 import org.apache.commons.collections4.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Authorizes users by their own roles and the roles of their groups, on the requested resource and
+ * on the whole system.
+ *
+ * <p>When the context has a loaded {@link RoleSnapshot}, roles are read from it instead of the
+ * DAOs, and decisions are cached by principal, groups, resource, role and snapshot version, so a
+ * role change is seen by the next request. The environment creation special case always reads
+ * {@code environs}.
+ */
 @Deprecated
 public class UserRoleAuthorizer extends BaseAuthorizer<UserPrincipal> {
     private static final Logger LOG = LoggerFactory.getLogger(UserRoleAuthorizer.class);
+    private static final int MAX_CACHED_DECISIONS = 10000;
+    // Only bounds how long decisions of old snapshot versions are held
+    private static final long DECISION_TTL_MINUTES = 10;
     private final UserRolesDAO userRolesDAO;
     private final GroupRolesDAO groupRolesDAO;
     private final EnvironDAO environDAO;
+    private final RoleSnapshot roleSnapshot;
+    private final Cache<DecisionKey, Boolean> decisions;
+    private final Timer allowedTimer;
+    private final Timer deniedTimer;
+
+    private static final class DecisionKey {
+        private final String principalName;
+        private final Set<String> groups;
+        private final AuthZResource resource;
+        private final TeletraanPrincipalRole role;
+        private final long version;
+
+        DecisionKey(
+                String principalName,
+                Set<String> groups,
+                AuthZResource resource,
+                TeletraanPrincipalRole role,
+                long version) {
+            this.principalName = principalName;
+            this.groups = groups;
+            this.resource = resource;
+            this.role = role;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DecisionKey)) {
+                return false;
+            }
+            DecisionKey that = (DecisionKey) o;
+            return version == that.version
+                    && Objects.equals(principalName, that.principalName)
+                    && groups.equals(that.groups)
+                    && resource.equals(that.resource)
+                    && role == that.role;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(principalName, groups, resource, role, version);
+        }
+    }
 
     public UserRoleAuthorizer(
             ServiceContext context, AuthZResourceExtractor.Factory authZResourceExtractorFactory) {
@@ -49,6 +117,22 @@ public class UserRoleAuthorizer extends BaseAuthorizer<UserPrincipal> {
         userRolesDAO = context.getUserRolesDAO();
         groupRolesDAO = context.getGroupRolesDAO();
         environDAO = context.getEnvironDAO();
+        roleSnapshot = context.getRoleSnapshot();
+        decisions =
+                Caffeine.newBuilder()
+                        .maximumSize(MAX_CACHED_DECISIONS)
+                        .expireAfterWrite(DECISION_TTL_MINUTES, TimeUnit.MINUTES)
+                        .build();
+        allowedTimer = latencyTimer("allowed");
+        deniedTimer = latencyTimer("denied");
+    }
+
+    private static Timer latencyTimer(String result) {
+        return Timer.builder("teletraan.authz.latency")
+                .tag("authorizer", UserRoleAuthorizer.class.getSimpleName())
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry);
     }
 
     @Override
@@ -57,6 +141,19 @@ public class UserRoleAuthorizer extends BaseAuthorizer<UserPrincipal> {
             String role,
             AuthZResource requestedResource,
             @Nullable ContainerRequestContext context) {
+        long start = System.nanoTime();
+        boolean authorized = false;
+        try {
+            authorized = doAuthorize(principal, role, requestedResource);
+            return authorized;
+        } finally {
+            (authorized ? allowedTimer : deniedTimer)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private boolean doAuthorize(
+            UserPrincipal principal, String role, AuthZResource requestedResource) {
         try {
             TeletraanPrincipalRole requiredRole = TeletraanPrincipalRole.valueOf(role);
             AuthZResource convertedRequestedResource = requestedResource;
@@ -66,53 +163,43 @@ public class UserRoleAuthorizer extends BaseAuthorizer<UserPrincipal> {
                         new AuthZResource(requestedResource.getEnvName(), AuthZResource.Type.ENV);
             }
 
-            // Consider group role(s)
+            // Convert to Set for lookup convenience
             Set<String> groupsSet = new HashSet<>();
-            if (principal.getGroups() != null && !principal.getGroups().isEmpty()) {
-                // Convert to Set for lookup convenience
+            if (principal.getGroups() != null) {
                 groupsSet.addAll(principal.getGroups());
-
-                List<GroupRolesBean> resourceGroupBeans =
-                        groupRolesDAO.getByResource(
-                                convertedRequestedResource.getName(),
-                                convertedRequestedResource.getType());
-                for (GroupRolesBean resourceGroupBean : resourceGroupBeans) {
-                    if (groupsSet.contains(resourceGroupBean.getGroup_name())
-                            && hasPermission(
-                                    resourceGroupBean.getRole(), requiredRole, requestedResource)) {
-                        return true;
-                    }
-                }
             }
 
-            // Consider user role(s)
-            UserRolesBean userBean =
-                    userRolesDAO.getByNameAndResource(
-                            principal.getName(),
-                            convertedRequestedResource.getName(),
-                            convertedRequestedResource.getType());
-            if (userBean != null
-                    && hasPermission(userBean.getRole(), requiredRole, requestedResource)) {
-                return true;
-            }
-
-            // Check SYSTEM wide group role
-            if (principal.getGroups() != null && !principal.getGroups().isEmpty()) {
-                List<GroupRolesBean> systemGroupBeans =
-                        groupRolesDAO.getByResource(AuthZResource.ALL, AuthZResource.Type.SYSTEM);
-                for (GroupRolesBean group : systemGroupBeans) {
-                    if (groupsSet.contains(group.getGroup_name())
-                            && group.getRole().isEqualOrSuperior(requiredRole)) {
-                        return true;
-                    }
+            boolean useSnapshot = roleSnapshot != null && roleSnapshot.isLoaded();
+            if (useSnapshot) {
+                DecisionKey key =
+                        new DecisionKey(
+                                principal.getName(),
+                                groupsSet,
+                                requestedResource,
+                                requiredRole,
+                                roleSnapshot.getVersion());
+                Boolean granted = decisions.getIfPresent(key);
+                if (granted == null) {
+                    granted =
+                            hasRole(
+                                    principal,
+                                    groupsSet,
+                                    requiredRole,
+                                    requestedResource,
+                                    convertedRequestedResource,
+                                    true);
+                    decisions.put(key, granted);
                 }
-            }
-
-            // Consider SYSTEM wide role
-            UserRolesBean systemBean =
-                    userRolesDAO.getByNameAndResource(
-                            principal.getName(), AuthZResource.ALL, AuthZResource.Type.SYSTEM);
-            if (systemBean != null && systemBean.getRole().isEqualOrSuperior(requiredRole)) {
+                if (granted) {
+                    return true;
+                }
+            } else if (hasRole(
+                    principal,
+                    groupsSet,
+                    requiredRole,
+                    requestedResource,
+                    convertedRequestedResource,
+                    false)) {
                 return true;
             }
 
@@ -140,6 +227,94 @@ public class UserRoleAuthorizer extends BaseAuthorizer<UserPrincipal> {
         }
     }
 
+    private boolean hasRole(
+            UserPrincipal principal,
+            Set<String> groupsSet,
+            TeletraanPrincipalRole requiredRole,
+            AuthZResource requestedResource,
+            AuthZResource convertedRequestedResource,
+            boolean useSnapshot)
+            throws Exception {
+        // Consider group role(s)
+        if (!groupsSet.isEmpty()) {
+            Map<String, TeletraanPrincipalRole> resourceGroupRoles =
+                    getGroupRoles(
+                            convertedRequestedResource.getName(),
+                            convertedRequestedResource.getType(),
+                            useSnapshot);
+            for (Map.Entry<String, TeletraanPrincipalRole> groupRole :
+                    resourceGroupRoles.entrySet()) {
+                if (groupsSet.contains(groupRole.getKey())
+                        && hasPermission(groupRole.getValue(), requiredRole, requestedResource)) {
+                    return true;
+                }
+            }
+        }
+
+        // Consider user role(s)
+        TeletraanPrincipalRole userRole =
+                getUserRole(
+                        principal.getName(),
+                        convertedRequestedResource.getName(),
+                        convertedRequestedResource.getType(),
+                        useSnapshot);
+        if (userRole != null && hasPermission(userRole, requiredRole, requestedResource)) {
+            return true;
+        }
+
+        // Check SYSTEM wide group role
+        if (!groupsSet.isEmpty()) {
+            Map<String, TeletraanPrincipalRole> systemGroupRoles =
+                    getGroupRoles(AuthZResource.ALL, AuthZResource.Type.SYSTEM, useSnapshot);
+            for (Map.Entry<String, TeletraanPrincipalRole> groupRole :
+                    systemGroupRoles.entrySet()) {
+                if (groupsSet.contains(groupRole.getKey())
+                        && groupRole.getValue().isEqualOrSuperior(requiredRole)) {
+                    return true;
+                }
+            }
+        }
+
+        // Consider SYSTEM wide role
+        TeletraanPrincipalRole systemRole =
+                getUserRole(
+                        principal.getName(),
+                        AuthZResource.ALL,
+                        AuthZResource.Type.SYSTEM,
+                        useSnapshot);
+        return systemRole != null && systemRole.isEqualOrSuperior(requiredRole);
+    }
+
+    private Map<String, TeletraanPrincipalRole> getGroupRoles(
+            String resourceId, AuthZResource.Type resourceType, boolean useSnapshot)
+            throws Exception {
+        if (useSnapshot) {
+            return roleSnapshot.getGroupRoles(resourceId, resourceType);
+        }
+        List<GroupRolesBean> beans = groupRolesDAO.getByResource(resourceId, resourceType);
+        if (beans == null || beans.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, TeletraanPrincipalRole> roles = new HashMap<>();
+        for (GroupRolesBean bean : beans) {
+            roles.put(bean.getGroup_name(), bean.getRole());
+        }
+        return roles;
+    }
+
+    private TeletraanPrincipalRole getUserRole(
+            String userName,
+            String resourceId,
+            AuthZResource.Type resourceType,
+            boolean useSnapshot)
+            throws Exception {
+        if (useSnapshot) {
+            return roleSnapshot.getUserRole(userName, resourceId, resourceType);
+        }
+        UserRolesBean bean = userRolesDAO.getByNameAndResource(userName, resourceId, resourceType);
+        return bean == null ? null : bean.getRole();
+    }
+
     // Special handling for ENV type because they represent environment level
     // resources
     private boolean hasPermission(
@@ -15,6 +15,8 @@
  */
 package com.pinterest.teletraan.worker;
 
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.pinterest.deployservice.ServiceContext;
 import com.pinterest.deployservice.bean.AgentBean;
 import com.pinterest.deployservice.bean.AgentState;
@@ -32,13 +34,19 @@ import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Timer;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,11 +57,19 @@ import org.slf4j.LoggerFactory;
  * source to confirm if the host is terminated, and handle the agent status accordingly.
  *
  * <p>If a host doesn't have any agent for a while, we will handle the host accordingly.
+ *
+ * <p>Termination lookups go to Rodimus in batches of {@code rodimusBatchSize}, issued together on
+ * {@code executor}. Each batch is handled as soon as its lookup returns, with one query for the
+ * host rows of the whole batch, so a run after a large outage is bound by the lookups rather than
+ * by one round trip per host.
  */
 public class AgentJanitor implements Runnable {
     private static final Logger LOG = LoggerFactory.getLogger(AgentJanitor.class);
     private static final Timer WORKER_TIMER =
             WorkerTimerFactory.createWorkerTimer(AgentJanitor.class);
+    static final String METRIC_PREFIX = "teletraan.agent_janitor.";
+    public static final int DEFAULT_RODIMUS_BATCH_SIZE = 100;
+    public static final int DEFAULT_PARALLELISM = 4;
     private final RodimusManager rodimusManager;
     private final long maxLaunchLatencyThreshold;
     private final long agentlessHostLookbackThreshold;
@@ -70,6 +86,11 @@ public class AgentJanitor implements Runnable {
     private final HostHandler hostHandler;
     private final long maxStaleHostThreshold;
     private final long minStaleHostThreshold;
+    private final int rodimusBatchSize;
+    private final ExecutorService executor;
+    private final Map<String, Long> launchGracePeriods = new HashMap<>();
+    private final AtomicInteger pendingHostsCount;
+    private final Timer rodimusLookupTimer;
 
     public AgentJanitor(
             ServiceContext serviceContext,
@@ -77,6 +98,24 @@ public class AgentJanitor implements Runnable {
             int maxStaleHostThresholdSeconds,
             int maxLaunchLatencyThresholdSeconds,
             int agentlessHostLookbackThresholdSeconds) {
+        this(
+                serviceContext,
+                minStaleHostThresholdSeconds,
+                maxStaleHostThresholdSeconds,
+                maxLaunchLatencyThresholdSeconds,
+                agentlessHostLookbackThresholdSeconds,
+                DEFAULT_RODIMUS_BATCH_SIZE,
+                MoreExecutors.newDirectExecutorService());
+    }
+
+    public AgentJanitor(
+            ServiceContext serviceContext,
+            int minStaleHostThresholdSeconds,
+            int maxStaleHostThresholdSeconds,
+            int maxLaunchLatencyThresholdSeconds,
+            int agentlessHostLookbackThresholdSeconds,
+            int rodimusBatchSize,
+            ExecutorService executor) {
         agentDAO = serviceContext.getAgentDAO();
         hostDAO = serviceContext.getHostDAO();
         hostAgentDAO = serviceContext.getHostAgentDAO();
@@ -89,6 +128,10 @@ public class AgentJanitor implements Runnable {
                 TimeUnit.SECONDS.toMillis(agentlessHostLookbackThresholdSeconds);
         unreachableHostsCount = Metrics.gauge("unreachable_hosts", new AtomicInteger(0));
         staleHostsCount = Metrics.gauge("stale_hosts", new AtomicInteger(0));
+        this.rodimusBatchSize = rodimusBatchSize;
+        this.executor = executor;
+        pendingHostsCount = Metrics.gauge(METRIC_PREFIX + "pending_hosts", new AtomicInteger(0));
+        rodimusLookupTimer = Metrics.timer(METRIC_PREFIX + "rodimus_lookup_duration");
 
         errorBudgetSuccess =
                 ErrorBudgetCounterFactory.createSuccessCounter(this.getClass().getSimpleName());
@@ -98,27 +141,65 @@ public class AgentJanitor implements Runnable {
 
     void processAllHosts() {
         janitorStartTime = System.currentTimeMillis();
+        launchGracePeriods.clear();
         processStaleHosts();
         determineStaleHostCandidates();
         cleanUpAgentlessHosts();
         errorBudgetSuccess.increment();
     }
 
-    private Set<String> getTerminatedHostsFromSource(List<String> staleHostIds) {
-        int batchSize = 3;
-        Set<String> terminatedHosts = new HashSet<>();
-        for (int i = 0; i < staleHostIds.size(); i += batchSize) {
+    /**
+     * Looks up which of the hosts are terminated, and calls {@code handler} with each batch of host
+     * ids and the terminated ones among them, in the order the lookups complete. A batch whose
+     * lookup failed is handled as if none of its hosts were terminated.
+     */
+    private void forEachTerminationBatch(
+            String phase, List<String> hostIds, BiConsumer<List<String>, Set<String>> handler) {
+        Counter checkedHosts = Metrics.counter(METRIC_PREFIX + "checked_hosts", "phase", phase);
+        CompletionService<Set<String>> lookups = new ExecutorCompletionService<>(executor);
+        Map<Future<Set<String>>, List<String>> batches = new HashMap<>();
+        for (List<String> batch : Lists.partition(hostIds, rodimusBatchSize)) {
+            batches.put(lookups.submit(() -> getTerminatedHosts(batch)), batch);
+        }
+        pendingHostsCount.set(hostIds.size());
+        for (int i = 0; i < batches.size(); i++) {
+            Future<Set<String>> lookup;
             try {
-                terminatedHosts.addAll(
-                        rodimusManager.getTerminatedHosts(
-                                staleHostIds.subList(
-                                        i, Math.min(i + batchSize, staleHostIds.size()))));
+                lookup = lookups.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOG.warn("Interrupted while waiting for terminated hosts, phase {}", phase);
+                return;
+            }
+            List<String> batch = batches.get(lookup);
+            Set<String> terminatedHosts;
+            try {
+                terminatedHosts = lookup.get();
             } catch (Exception ex) {
                 LOG.error("Failed to get terminated hosts", ex);
                 errorBudgetFailure.increment();
+                terminatedHosts = Collections.emptySet();
             }
+            handler.accept(batch, terminatedHosts);
+            checkedHosts.increment(batch.size());
+            pendingHostsCount.addAndGet(-batch.size());
         }
-        return terminatedHosts;
+    }
+
+    private Set<String> getTerminatedHosts(List<String> hostIds) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return new HashSet<>(rodimusManager.getTerminatedHosts(hostIds));
+        } finally {
+            rodimusLookupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Clusters are looked up once per run, hosts of the same cluster share the result
+    private long getLaunchGracePeriod(String clusterName) {
+        return launchGracePeriods.computeIfAbsent(
+                clusterName == null ? "" : clusterName,
+                key -> getInstanceLaunchGracePeriod(clusterName));
     }
 
     private Long getInstanceLaunchGracePeriod(String clusterName) {
@@ -139,7 +220,7 @@ public class AgentJanitor implements Runnable {
                 : TimeUnit.SECONDS.toMillis(launchGracePeriod);
     }
 
-    private boolean isHostStale(HostAgentBean hostAgentBean) {
+    private boolean isHostStale(HostAgentBean hostAgentBean, Map<String, HostBean> hostBeans) {
         if (hostAgentBean == null || hostAgentBean.getLast_update() == null) {
             return false;
         }
@@ -152,24 +233,15 @@ public class AgentJanitor implements Runnable {
             return true;
         }
 
-        HostBean hostBean;
-        try {
-            List<HostBean> hostBeans = hostDAO.getHostsByHostId(hostAgentBean.getHost_id());
-            if (hostBeans.isEmpty()) {
-                // Usually the host being checked is not terminated. However there might be some
-                // synchronization latency.
-                // Mark it as not stale and we will handle it in the next run.
-                return false;
-            }
-            hostBean = hostBeans.get(0);
-        } catch (Exception ex) {
-            LOG.error("failed to get host bean for ({}), {}", hostAgentBean, ex);
-            errorBudgetFailure.increment();
+        HostBean hostBean = hostBeans.get(hostAgentBean.getHost_id());
+        if (hostBean == null) {
+            // Usually the host being checked is not terminated. However there might be some
+            // synchronization latency.
+            // Mark it as not stale and we will handle it in the next run.
             return false;
         }
 
-        Long launchGracePeriod =
-                getInstanceLaunchGracePeriod(hostAgentBean.getAuto_scaling_group());
+        long launchGracePeriod = getLaunchGracePeriod(hostAgentBean.getAuto_scaling_group());
         if ((hostBean.getState() == HostState.PROVISIONED)
                 && (janitorStartTime - hostAgentBean.getLast_update() >= launchGracePeriod)) {
             LOG.debug(
@@ -220,27 +292,30 @@ public class AgentJanitor implements Runnable {
     private void determineStaleHostCandidates() {
         long minThreshold = janitorStartTime - minStaleHostThreshold;
         long maxThreshold = janitorStartTime - maxStaleHostThreshold;
-        int unreachableHostCount = 0;
         Map<String, HostAgentBean> unreachableHostsMap =
                 getStaleHostsMap(minThreshold, maxThreshold);
 
-        Set<String> terminatedHosts =
-                getTerminatedHostsFromSource(new ArrayList<>(unreachableHostsMap.keySet()));
-        for (String unreachableId : unreachableHostsMap.keySet()) {
-            if (terminatedHosts.contains(unreachableId)) {
-                removeStaleHost(unreachableId);
-            } else {
-                markUnreachableHost(unreachableId);
-                unreachableHostCount++;
-                HostAgentBean host = unreachableHostsMap.get(unreachableId);
-                LOG.info(
-                        "{} has unreachable host {}",
-                        host.getAuto_scaling_group(),
-                        host.getHost_id());
-            }
-            errorBudgetSuccess.increment();
-        }
-        this.unreachableHostsCount.set(unreachableHostCount);
+        AtomicInteger unreachableHostCount = new AtomicInteger();
+        forEachTerminationBatch(
+                "candidate",
+                new ArrayList<>(unreachableHostsMap.keySet()),
+                (batch, terminatedHosts) -> {
+                    for (String unreachableId : batch) {
+                        if (terminatedHosts.contains(unreachableId)) {
+                            removeStaleHost(unreachableId);
+                        } else {
+                            markUnreachableHost(unreachableId);
+                            unreachableHostCount.incrementAndGet();
+                            HostAgentBean host = unreachableHostsMap.get(unreachableId);
+                            LOG.info(
+                                    "{} has unreachable host {}",
+                                    host.getAuto_scaling_group(),
+                                    host.getHost_id());
+                        }
+                        errorBudgetSuccess.increment();
+                    }
+                });
+        this.unreachableHostsCount.set(unreachableHostCount.get());
     }
 
     /**
@@ -249,30 +324,38 @@ public class AgentJanitor implements Runnable {
      */
     private void processStaleHosts() {
         long maxThreshold = janitorStartTime - maxStaleHostThreshold;
-        int staleHostCount = 0;
         Map<String, HostAgentBean> staleHostMap = getStaleHostsMap(0, maxThreshold);
 
-        Set<String> terminatedHosts =
-                getTerminatedHostsFromSource(new ArrayList<>(staleHostMap.keySet()));
-        for (String staleId : staleHostMap.keySet()) {
-            if (terminatedHosts.contains(staleId)) {
-                removeStaleHost(staleId);
-            } else {
-                HostAgentBean hostAgent = staleHostMap.get(staleId);
-                if (isHostStale(hostAgent)) {
-                    markUnreachableHost(staleId);
-                    LOG.warn(
-                            "{}:{} is stale (not Pinging Teletraan), but might be running.",
-                            hostAgent.getAuto_scaling_group(),
-                            hostAgent.getHost_id());
-                    staleHostCount++;
-                    errorBudgetSuccess.increment();
-                } else {
-                    LOG.debug("host {} is not stale", staleId);
-                }
-            }
-        }
-        this.staleHostsCount.set(staleHostCount);
+        AtomicInteger staleHostCount = new AtomicInteger();
+        forEachTerminationBatch(
+                "stale",
+                new ArrayList<>(staleHostMap.keySet()),
+                (batch, terminatedHosts) -> {
+                    List<String> runningIds = new ArrayList<>();
+                    for (String staleId : batch) {
+                        if (terminatedHosts.contains(staleId)) {
+                            removeStaleHost(staleId);
+                        } else {
+                            runningIds.add(staleId);
+                        }
+                    }
+                    Map<String, HostBean> hostBeans = getHostBeans(runningIds);
+                    for (String staleId : runningIds) {
+                        HostAgentBean hostAgent = staleHostMap.get(staleId);
+                        if (isHostStale(hostAgent, hostBeans)) {
+                            markUnreachableHost(staleId);
+                            LOG.warn(
+                                    "{}:{} is stale (not Pinging Teletraan), but might be running.",
+                                    hostAgent.getAuto_scaling_group(),
+                                    hostAgent.getHost_id());
+                            staleHostCount.incrementAndGet();
+                            errorBudgetSuccess.increment();
+                        } else {
+                            LOG.debug("host {} is not stale", staleId);
+                        }
+                    }
+                });
+        this.staleHostsCount.set(staleHostCount.get());
     }
 
     /**
@@ -305,15 +388,37 @@ public class AgentJanitor implements Runnable {
             return;
         }
 
-        Set<String> terminatedHosts = getTerminatedHostsFromSource(agentlessHosts);
-        for (String hostId : agentlessHosts) {
-            if (terminatedHosts.contains(hostId)) {
-                removeStaleHost(hostId);
-            } else {
-                LOG.warn("Agentless host {} is stale but might be running", hostId);
-                errorBudgetSuccess.increment();
+        forEachTerminationBatch(
+                "agentless",
+                agentlessHosts,
+                (batch, terminatedHosts) -> {
+                    for (String hostId : batch) {
+                        if (terminatedHosts.contains(hostId)) {
+                            removeStaleHost(hostId);
+                        } else {
+                            LOG.warn("Agentless host {} is stale but might be running", hostId);
+                            errorBudgetSuccess.increment();
+                        }
+                    }
+                });
+    }
+
+    // The oldest row of each host, as getHostsByHostId would return first. Hosts whose rows could
+    // not be read are left out, which makes them not stale for this run.
+    private Map<String, HostBean> getHostBeans(List<String> hostIds) {
+        Map<String, HostBean> hostBeans = new HashMap<>();
+        if (hostIds.isEmpty()) {
+            return hostBeans;
+        }
+        try {
+            for (HostBean hostBean : hostDAO.getHostsByHostIds(hostIds)) {
+                hostBeans.putIfAbsent(hostBean.getHost_id(), hostBean);
             }
+        } catch (Exception ex) {
+            LOG.error("failed to get host beans for {} hosts", hostIds.size(), ex);
+            errorBudgetFailure.increment();
         }
+        return hostBeans;
     }
 
     // remove the stale host from db
@@ -26,12 +26,12 @@ import com.pinterest.deployservice.dao.BuildDAO;
 import com.pinterest.deployservice.dao.DeployDAO;
 import com.pinterest.deployservice.dao.EnvironDAO;
 import com.pinterest.deployservice.dao.PromoteDAO;
-import com.pinterest.deployservice.dao.UtilDAO;
+import com.pinterest.deployservice.entitycache.EntityCache;
 import com.pinterest.deployservice.handler.DeployHandler;
+import com.pinterest.deployservice.lock.LockManager;
 import com.pinterest.teletraan.universal.metrics.ErrorBudgetCounterFactory;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Timer;
-import java.sql.Connection;
 import java.util.*;
 import java.util.function.Function;
 import org.apache.commons.lang3.StringUtils;
@@ -54,7 +54,8 @@ public class AutoPromoter implements Runnable {
     private EnvironDAO environDAO;
     private PromoteDAO promoteDAO;
     private DeployDAO deployDAO;
-    private UtilDAO utilDAO;
+    private EntityCache entityCache;
+    private LockManager lockManager;
     private DeployHandler deployHandler;
     private BuildTagsManager buildTagsManager;
     private int bufferTimeMinutes;
@@ -65,9 +66,10 @@ public class AutoPromoter implements Runnable {
     public AutoPromoter(ServiceContext serviceContext) {
         environDAO = serviceContext.getEnvironDAO();
         promoteDAO = serviceContext.getPromoteDAO();
-        utilDAO = serviceContext.getUtilDAO();
+        lockManager = serviceContext.getLockManager();
         deployDAO = serviceContext.getDeployDAO();
         buildDAO = serviceContext.getBuildDAO();
+        entityCache = serviceContext.getEntityCache();
         buildTagsManager = new BuildTagsManagerImpl(serviceContext.getTagDAO());
         deployHandler = new DeployHandler(serviceContext);
         bufferTimeMinutes = DEFAULT_BUFFER_TIME_MINUTE;
@@ -171,7 +173,11 @@ public class AutoPromoter implements Runnable {
         if (currDeployBean != null) {
             String fromDeployId = currDeployBean.getFrom_deploy();
             if (fromDeployId != null) {
-                DeployBean fromDeployBean = deployDAO.getById(fromDeployId);
+                // Only the env and start date are used, which never change
+                DeployBean fromDeployBean =
+                        entityCache == null
+                                ? deployDAO.getById(fromDeployId)
+                                : entityCache.getDeploy(fromDeployId);
                 if (fromDeployBean.getEnv_id().equals(precededEnvBean.getEnv_id())) {
                     currentDeployDate = fromDeployBean.getStart_date();
                 } else {
@@ -260,7 +266,9 @@ public class AutoPromoter implements Runnable {
         // Figure out the current deploy build publish date, we only consider build after this date
         long startTime = 0;
         if (currDeployBean != null) {
-            BuildBean buildBean = buildDAO.getById(currDeployBean.getBuild_id());
+            String buildId = currDeployBean.getBuild_id();
+            BuildBean buildBean =
+                    entityCache == null ? buildDAO.getById(buildId) : entityCache.getBuild(buildId);
             startTime = buildBean.getPublish_date();
         }
 
@@ -589,8 +597,8 @@ public class AutoPromoter implements Runnable {
             EnvironBean currEnvBean)
             throws Exception {
         String promoteLockName = String.format("PROMOTE-%s", currEnvBean.getEnv_id());
-        Connection connection = utilDAO.getLock(promoteLockName);
-        if (connection != null) {
+        LockManager.Lock lock = lockManager.tryLock("PROMOTE", currEnvBean.getEnv_id());
+        if (lock != null) {
             LOG.info("DB lock operation is successful: get lock {}", promoteLockName);
             try {
                 // Read the env again, make sure the current deploy is still the same deploy we
@@ -643,7 +651,7 @@ public class AutoPromoter implements Runnable {
             } catch (Exception e) {
                 LOG.warn("Failed to promote for env {}.", currEnvBean.getEnv_id(), e);
             } finally {
-                utilDAO.releaseLock(promoteLockName, connection);
+                lock.release();
                 LOG.info("DB lock operation is successful: release lock {}", promoteLockName);
             }
         } else {
@@ -16,12 +16,11 @@
 package com.pinterest.teletraan.worker;
 
 import com.pinterest.deployservice.dao.BuildDAO;
-import com.pinterest.deployservice.dao.UtilDAO;
+import com.pinterest.deployservice.lock.LockManager;
 import com.pinterest.teletraan.TeletraanServiceContext;
 import com.pinterest.teletraan.universal.metrics.ErrorBudgetCounterFactory;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Timer;
-import java.sql.Connection;
 import java.util.Collections;
 import java.util.List;
 import org.quartz.Job;
@@ -51,7 +50,7 @@ public class BuildJanitor implements Job {
 
     void processBuilds(TeletraanServiceContext workerContext) throws Exception {
         BuildDAO buildDAO = workerContext.getBuildDAO();
-        UtilDAO utilDAO = workerContext.getUtilDAO();
+        LockManager lockManager = workerContext.getLockManager();
         long timeToKeep = (long) workerContext.getMaxDaysToKeep() * MILLIS_PER_DAY;
         long maxToKeep = (long) workerContext.getMaxBuildsToKeep();
         long timeThreshold = System.currentTimeMillis() - timeToKeep;
@@ -63,8 +62,8 @@ public class BuildJanitor implements Job {
             long numToDelete = buildDAO.countBuildsByName(buildName) - maxToKeep;
             if (numToDelete > 0) {
                 String buildLockName = String.format("BUILDJANITOR-%s", buildName);
-                Connection connection = utilDAO.getLock(buildLockName);
-                if (connection != null) {
+                LockManager.Lock lock = lockManager.tryLock("BUILDJANITOR", buildName);
+                if (lock != null) {
                     LOG.info(
                             String.format(
                                     "DB lock operation is successful: get lock %s", buildLockName));
@@ -80,7 +79,7 @@ public class BuildJanitor implements Job {
                         errorBudgetFailure.increment();
 
                     } finally {
-                        utilDAO.releaseLock(buildLockName, connection);
+                        lock.release();
                         LOG.info(
                                 String.format(
                                         "DB lock operation is successful: release lock %s",
@@ -19,11 +19,10 @@ import com.pinterest.deployservice.ServiceContext;
 import com.pinterest.deployservice.bean.EnvironBean;
 import com.pinterest.deployservice.dao.DeployDAO;
 import com.pinterest.deployservice.dao.EnvironDAO;
-import com.pinterest.deployservice.dao.UtilDAO;
+import com.pinterest.deployservice.lock.LockManager;
 import com.pinterest.teletraan.universal.metrics.ErrorBudgetCounterFactory;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Timer;
-import java.sql.Connection;
 import java.util.Collections;
 import java.util.List;
 import org.quartz.*;
@@ -39,7 +38,7 @@ public class DeployJanitor implements Job {
 
     private EnvironDAO environDAO;
     private DeployDAO deployDAO;
-    private UtilDAO utilDAO;
+    private LockManager lockManager;
     private Counter errorBudgetSuccess;
     private Counter errorBudgetFailure;
 
@@ -61,9 +60,9 @@ public class DeployJanitor implements Job {
 
             if (numToDelete > 0) {
                 String deployLockName = String.format("DEPLOYJANITOR-%s", envId);
-                Connection connection = utilDAO.getLock(deployLockName);
+                LockManager.Lock lock = lockManager.tryLock("DEPLOYJANITOR", envId);
 
-                if (connection != null) {
+                if (lock != null) {
                     LOG.info(
                             String.format(
                                     "DB lock operation is successful: get lock %s",
@@ -81,7 +80,7 @@ public class DeployJanitor implements Job {
 
                         errorBudgetFailure.increment();
                     } finally {
-                        utilDAO.releaseLock(deployLockName, connection);
+                        lock.release();
                         LOG.info(
                                 String.format(
                                         "DB lock operation is successful: release lock %s",
@@ -122,7 +121,7 @@ public class DeployJanitor implements Job {
         ServiceContext serviceContext = (ServiceContext) schedulerContext.get("serviceContext");
         environDAO = serviceContext.getEnvironDAO();
         deployDAO = serviceContext.getDeployDAO();
-        utilDAO = serviceContext.getUtilDAO();
+        lockManager = serviceContext.getLockManager();
 
         try {
             LOG.info("Start deploy janitor process...");
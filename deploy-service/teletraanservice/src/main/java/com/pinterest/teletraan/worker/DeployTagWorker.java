@@ -18,18 +18,16 @@ package com.pinterest.teletraan.worker;
 import com.pinterest.deployservice.ServiceContext;
 import com.pinterest.deployservice.bean.*;
 import com.pinterest.deployservice.dao.*;
-import com.pinterest.deployservice.db.DatabaseUtil;
+import com.pinterest.deployservice.lock.LockManager;
 import com.pinterest.deployservice.rodimus.RodimusManager;
 import com.pinterest.teletraan.universal.metrics.ErrorBudgetCounterFactory;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Timer;
 import java.net.ConnectException;
-import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.*;
 import java.util.stream.Collectors;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.dbcp.BasicDataSource;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,8 +43,7 @@ public class DeployTagWorker implements Runnable {
     private final DeployConstraintDAO deployConstraintDAO;
     private final HostTagDAO hostTagDAO;
     private final RodimusManager rodimusManager;
-    private final BasicDataSource dataSource;
-    private final UtilDAO utilDAO;
+    private final LockManager lockManager;
     private final Counter errorBudgetSuccess;
     private final Counter errorBudgetFailure;
 
@@ -56,8 +53,7 @@ public class DeployTagWorker implements Runnable {
         deployConstraintDAO = serviceContext.getDeployConstraintDAO();
         hostTagDAO = serviceContext.getHostTagDAO();
         rodimusManager = serviceContext.getRodimusManager();
-        dataSource = serviceContext.getDataSource();
-        utilDAO = serviceContext.getUtilDAO();
+        lockManager = serviceContext.getLockManager();
 
         errorBudgetSuccess =
                 ErrorBudgetCounterFactory.createSuccessCounter(this.getClass().getSimpleName());
@@ -122,8 +118,6 @@ public class DeployTagWorker implements Runnable {
 
         // 2. add host tags from missing in db ( query for CMDB for the missing host tags )
         if (!missings.isEmpty()) {
-            List<UpdateStatement> statements = new ArrayList<>();
-
             for (int i = 0; i < missings.size(); i += MAX_QUERY_TAGS_SIZE) {
                 Collection<String> oneBatch =
                         missings.subList(i, Math.min(i + MAX_QUERY_TAGS_SIZE, missings.size()));
@@ -140,6 +134,7 @@ public class DeployTagWorker implements Runnable {
                 if (hostMissingEc2Tags == null) {
                     continue;
                 }
+                List<HostTagBean> hostTags = new ArrayList<>();
                 for (String hostId : hostMissingEc2Tags.keySet()) {
                     Map<String, String> ec2Tags = hostMissingEc2Tags.get(hostId);
                     if (ec2Tags == null) {
@@ -156,7 +151,7 @@ public class DeployTagWorker implements Runnable {
                         hostTagBean.setTag_value(tagValue);
                         hostTagBean.setEnv_id(envId);
                         hostTagBean.setCreate_date(System.currentTimeMillis());
-                        statements.add(hostTagDAO.genInsertOrUpdate(hostTagBean));
+                        hostTags.add(hostTagBean);
                         LOG.info(
                                 "Create host tags from CMDB: insert host_tags with env id {}, host id {}, tag name {}, tag value {}",
                                 envId,
@@ -165,8 +160,9 @@ public class DeployTagWorker implements Runnable {
                                 tagValue);
                     }
                 }
+                // One multi-row upsert per batch, the same path pings go through
+                hostTagDAO.insertOrUpdateAll(hostTags);
             }
-            DatabaseUtil.transactionalUpdate(dataSource, statements);
             LOG.info(String.format("Env %s host tags have been updated", envId));
         }
     }
@@ -178,8 +174,9 @@ public class DeployTagWorker implements Runnable {
             for (DeployConstraintBean job : jobs) {
                 LOG.info("process job: {}", job);
                 String lockName = String.format("DeployTagWorker-%s", job.getConstraint_id());
-                Connection connection = utilDAO.getLock(lockName);
-                if (connection != null) {
+                LockManager.Lock lock =
+                        lockManager.tryLock("DeployTagWorker", job.getConstraint_id());
+                if (lock != null) {
                     LOG.info("DB lock operation is successful: get lock {}", lockName);
                     try {
                         processEachEnvironConstraint(job);
@@ -206,7 +203,7 @@ public class DeployTagWorker implements Runnable {
 
                         errorBudgetFailure.increment();
                     } finally {
-                        utilDAO.releaseLock(lockName, connection);
+                        lock.release();
                         LOG.info("DB lock operation is successful: release lock {}", lockName);
                     }
                 } else {
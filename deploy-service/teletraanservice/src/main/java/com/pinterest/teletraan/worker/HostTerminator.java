@@ -25,13 +25,12 @@ import com.pinterest.deployservice.bean.HostState;
 import com.pinterest.deployservice.dao.AgentDAO;
 import com.pinterest.deployservice.dao.HostAgentDAO;
 import com.pinterest.deployservice.dao.HostDAO;
-import com.pinterest.deployservice.dao.UtilDAO;
 import com.pinterest.deployservice.handler.HostHandler;
+import com.pinterest.deployservice.lock.LockManager;
 import com.pinterest.deployservice.rodimus.RodimusManager;
 import com.pinterest.teletraan.universal.metrics.ErrorBudgetCounterFactory;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Timer;
-import java.sql.Connection;
 import java.util.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,7 +42,7 @@ public class HostTerminator implements Runnable {
     private final AgentDAO agentDAO;
     private final HostAgentDAO hostAgentDAO;
     private final HostDAO hostDAO;
-    private final UtilDAO utilDAO;
+    private final LockManager lockManager;
     private final RodimusManager rodimusManager;
     private final HostHandler hostHandler;
     private final Counter errorBudgetSuccess;
@@ -52,7 +51,7 @@ public class HostTerminator implements Runnable {
     public HostTerminator(ServiceContext serviceContext) {
         agentDAO = serviceContext.getAgentDAO();
         hostDAO = serviceContext.getHostDAO();
-        utilDAO = serviceContext.getUtilDAO();
+        lockManager = serviceContext.getLockManager();
         rodimusManager = serviceContext.getRodimusManager();
         hostAgentDAO = serviceContext.getHostAgentDAO();
         hostHandler = new HostHandler(serviceContext);
@@ -119,8 +118,8 @@ public class HostTerminator implements Runnable {
         Collections.shuffle(hosts);
         for (HostBean host : hosts) {
             String lockName = String.format("HOSTTERMINATOR-%s", host.getHost_id());
-            Connection connection = utilDAO.getLock(lockName);
-            if (connection != null) {
+            LockManager.Lock lock = lockManager.tryLock("HOSTTERMINATOR", host.getHost_id());
+            if (lock != null) {
                 LOG.info(String.format("DB lock operation is successful: get lock %s", lockName));
                 try {
                     if (host.isPendingTerminate()) {
@@ -132,7 +131,7 @@ public class HostTerminator implements Runnable {
                     LOG.error(
                             "Failed to process {} host {}", host.getState(), host.getHost_id(), e);
                 } finally {
-                    utilDAO.releaseLock(lockName, connection);
+                    lock.release();
                     LOG.info(
                             String.format(
                                     "DB lock operation is successful: release lock %s", lockName));
@@ -25,11 +25,11 @@ import com.pinterest.deployservice.common.Constants;
 import com.pinterest.deployservice.common.DeployInternalException;
 import com.pinterest.deployservice.dao.*;
 import com.pinterest.deployservice.handler.CommonHandler;
+import com.pinterest.deployservice.lock.LockManager;
 import com.pinterest.teletraan.universal.metrics.ErrorBudgetCounterFactory;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Timer;
 import java.io.IOException;
-import java.sql.Connection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -48,7 +48,7 @@ public class HotfixStateTransitioner implements Runnable {
     private HotfixDAO hotfixDAO;
     private DeployDAO deployDAO;
     private BuildDAO buildDAO;
-    private UtilDAO utilDAO;
+    private LockManager lockManager;
     private EnvironDAO environDAO;
     private CommonHandler commonHandler;
     private Jenkins jenkins;
@@ -65,7 +65,7 @@ public class HotfixStateTransitioner implements Runnable {
         hotfixDAO = serviceContext.getHotfixDAO();
         deployDAO = serviceContext.getDeployDAO();
         buildDAO = serviceContext.getBuildDAO();
-        utilDAO = serviceContext.getUtilDAO();
+        lockManager = serviceContext.getLockManager();
         environDAO = serviceContext.getEnvironDAO();
         commonHandler = new CommonHandler(serviceContext);
         ciPlatformManagerProxy = serviceContext.getCIPlatformManagerProxy();
@@ -149,8 +149,8 @@ public class HotfixStateTransitioner implements Runnable {
 
     public void transitionHotfixState(HotfixBean hotBean) throws Exception {
         String hotfixLockName = String.format("HOTFIX-%s", hotBean.getId());
-        Connection connection = utilDAO.getLock(hotfixLockName);
-        if (connection != null) {
+        LockManager.Lock lock = lockManager.tryLock("HOTFIX", hotBean.getId());
+        if (lock != null) {
             LOG.info("DB lock operation is successful: get lock {}", hotfixLockName);
             try {
                 // Check for Hotfix for timeout
@@ -437,7 +437,7 @@ public class HotfixStateTransitioner implements Runnable {
                             "Hotfix Id " + hotBean.getId() + " has unknown state " + state);
                 }
             } finally {
-                utilDAO.releaseLock(hotfixLockName, connection);
+                lock.release();
                 LOG.info("DB lock operation is successful: release lock {}", hotfixLockName);
             }
         } else {
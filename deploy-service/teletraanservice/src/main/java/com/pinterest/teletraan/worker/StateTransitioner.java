@@ -15,39 +15,79 @@
  */
 package com.pinterest.teletraan.worker;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import com.pinterest.deployservice.ServiceContext;
 import com.pinterest.deployservice.dao.EnvironDAO;
 import com.pinterest.deployservice.handler.CommonHandler;
+import com.pinterest.deployservice.membership.ServiceMembership;
 import com.pinterest.teletraan.universal.metrics.ErrorBudgetCounterFactory;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Check active deploys and transition them into final states */
+/**
+ * Check active deploys and transition them into final states
+ *
+ * <p>With a {@link ServiceMembership}, every replica running this worker only transitions the
+ * deploys assigned to it, and the work is split as replicas come and go. The deploys of a pass run
+ * in parallel on {@code executor}, and a pass waits for all of them before it ends, so passes never
+ * overlap.
+ */
 public class StateTransitioner implements Runnable {
     private static final Logger LOG = LoggerFactory.getLogger(StateTransitioner.class);
     private static final Timer WORKER_TIMER =
             WorkerTimerFactory.createWorkerTimer(StateTransitioner.class);
+    static final String METRIC_PREFIX = "teletraan.state_transitioner.";
+    public static final int DEFAULT_PARALLELISM = 8;
 
     private EnvironDAO environDAO;
     private CommonHandler commonHandler;
+    private ServiceMembership membership;
+    private ExecutorService executor;
     private Counter errorBudgetSuccess;
     private Counter errorBudgetFailure;
+    private Timer transitionSuccess;
+    private Timer transitionFailure;
+    private AtomicInteger ownedDeploys;
+    private AtomicInteger backlog;
 
     public StateTransitioner(ServiceContext serviceContext) {
+        this(serviceContext, null, MoreExecutors.newDirectExecutorService());
+    }
+
+    public StateTransitioner(
+            ServiceContext serviceContext, ServiceMembership membership, ExecutorService executor) {
         environDAO = serviceContext.getEnvironDAO();
         commonHandler = new CommonHandler(serviceContext);
+        this.membership = membership;
+        this.executor = executor;
         errorBudgetSuccess =
                 ErrorBudgetCounterFactory.createSuccessCounter(this.getClass().getSimpleName());
         errorBudgetFailure =
                 ErrorBudgetCounterFactory.createFailureCounter(this.getClass().getSimpleName());
+        transitionSuccess = transitionTimer("success");
+        transitionFailure = transitionTimer("failure");
+        ownedDeploys = Metrics.gauge(METRIC_PREFIX + "owned_deploys", new AtomicInteger());
+        backlog = Metrics.gauge(METRIC_PREFIX + "backlog", new AtomicInteger());
+    }
+
+    private static Timer transitionTimer(String result) {
+        return Timer.builder(METRIC_PREFIX + "transition")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry);
     }
 
     void processBatch() throws Exception {
-        // Get all current deploys, randomly pick one to work on
+        // Get all current deploys, and work on those assigned to us in random order
         List<String> deployIds = environDAO.getCurrentDeployIds();
         if (deployIds.isEmpty()) {
             LOG.info("StateTransitioner did not find any active deploy, exiting.");
@@ -55,19 +95,44 @@ public class StateTransitioner implements Runnable {
             errorBudgetSuccess.increment();
             return;
         }
-        Collections.shuffle(deployIds);
+        List<String> owned = new ArrayList<>(deployIds.size());
         for (String deployId : deployIds) {
-            try {
-                LOG.debug("StateTransitioner chooses deploy {} to work on.", deployId);
-                commonHandler.transitionDeployState(deployId, null);
+            if (membership == null || membership.owns(deployId)) {
+                owned.add(deployId);
+            }
+        }
+        LOG.info(
+                "StateTransitioner works on {} of {} active deploys.",
+                owned.size(),
+                deployIds.size());
+        Collections.shuffle(owned);
+        ownedDeploys.set(owned.size());
+        backlog.set(owned.size());
+        List<Future<?>> futures = new ArrayList<>(owned.size());
+        for (String deployId : owned) {
+            futures.add(executor.submit(() -> transition(deployId)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
 
-                errorBudgetSuccess.increment();
-            } catch (Throwable t) {
-                // Catch all throwable so that subsequent job not suppressed
-                LOG.error("StateTransitioner failed to process {}", deployId, t);
+    private void transition(String deployId) {
+        Timer.Sample sample = Timer.start();
+        try {
+            LOG.debug("StateTransitioner chooses deploy {} to work on.", deployId);
+            commonHandler.transitionDeployState(deployId, null);
 
-                errorBudgetFailure.increment();
-            }
+            sample.stop(transitionSuccess);
+            errorBudgetSuccess.increment();
+        } catch (Throwable t) {
+            // Catch all throwable so that subsequent job not suppressed
+            LOG.error("StateTransitioner failed to process {}", deployId, t);
+
+            sample.stop(transitionFailure);
+            errorBudgetFailure.increment();
+        } finally {
+            backlog.decrementAndGet();
         }
     }
 
@@ -32,6 +32,7 @@ import com.pinterest.deployservice.bean.rodimus.RodimusScheduledAction;
 import com.pinterest.deployservice.dao.EnvironDAO;
 import com.pinterest.deployservice.dao.UtilDAO;
 import com.pinterest.deployservice.dao.WorkerJobDAO;
+import com.pinterest.deployservice.lock.AdvisoryLockManager;
 import com.pinterest.deployservice.rodimus.RodimusManager;
 import com.pinterest.teletraan.TeletraanServiceContext;
 import com.pinterest.teletraan.handler.EnvironmentHandler;
@@ -67,7 +68,7 @@ class ApplyInfraWorkerTest {
 
         when(mockContext.getEnvironDAO()).thenReturn(mockEnvironDAO);
         when(mockContext.getRodimusManager()).thenReturn(mockRodimusManager);
-        when(mockContext.getUtilDAO()).thenReturn(mockUtilDAO);
+        when(mockContext.getLockManager()).thenReturn(new AdvisoryLockManager(mockUtilDAO));
         when(mockContext.getWorkerJobDAO()).thenReturn(mockWorkerJobDAO);
 
         // Patch the counter creation with dummy counters
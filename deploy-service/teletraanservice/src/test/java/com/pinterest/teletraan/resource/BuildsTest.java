@@ -0,0 +1,368 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.teletraan.resource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.pinterest.deployservice.allowlists.BuildAllowlistImpl;
+import com.pinterest.deployservice.bean.BuildBean;
+import com.pinterest.deployservice.bean.TeletraanPrincipalRole;
+import com.pinterest.deployservice.bean.UpdateStatement;
+import com.pinterest.deployservice.dao.BuildDAO;
+import com.pinterest.deployservice.dao.BuildIdempotencyKeyDAO;
+import com.pinterest.deployservice.db.DBBuildDAOImpl;
+import com.pinterest.deployservice.db.DBBuildIdempotencyKeyDAOImpl;
+import com.pinterest.deployservice.db.DBEventOutboxDAOImpl;
+import com.pinterest.deployservice.events.BuildEvent;
+import com.pinterest.deployservice.events.BuildEventOutbox;
+import com.pinterest.deployservice.events.BuildEventPublisher;
+import com.pinterest.deployservice.scm.SourceControlManagerProxy;
+import com.pinterest.teletraan.TeletraanServiceContext;
+import com.pinterest.teletraan.config.AuthorizationFactory;
+import com.pinterest.teletraan.universal.security.TeletraanAuthorizer;
+import com.pinterest.teletraan.universal.security.bean.AuthZResource;
+import com.pinterest.teletraan.universal.security.bean.ServicePrincipal;
+import com.pinterest.teletraan.universal.security.bean.TeletraanPrincipal;
+import java.security.Principal;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.ws.rs.ForbiddenException;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.SecurityContext;
+import org.apache.commons.dbcp.BasicDataSource;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class BuildsTest {
+    private static final String PUBLISHER = "ci";
+
+    private Builds sut;
+    private TeletraanServiceContext context;
+    private BuildDAO buildDAO;
+    private BuildIdempotencyKeyDAO buildIdempotencyKeyDAO;
+    private BuildEventPublisher buildEventPublisher;
+    private TeletraanAuthorizer<TeletraanPrincipal> authorizer;
+    private SecurityContext securityContext;
+    private Connection connection;
+    // Statements run in the transaction
+    private final List<String> statements = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        // Real statements, so the placeholders are checked against the values below
+        DBBuildDAOImpl dbBuildDAO = new DBBuildDAOImpl(null);
+        DBBuildIdempotencyKeyDAOImpl dbKeyDAO = new DBBuildIdempotencyKeyDAOImpl(null);
+        buildDAO = mock(BuildDAO.class);
+        when(buildDAO.genInsertAllStatement(any()))
+                .thenAnswer(
+                        invocation -> dbBuildDAO.genInsertAllStatement(invocation.getArgument(0)));
+        buildIdempotencyKeyDAO = mock(BuildIdempotencyKeyDAO.class);
+        when(buildIdempotencyKeyDAO.getBuildIds(eq(PUBLISHER), any()))
+                .thenReturn(Collections.emptyMap());
+        when(buildIdempotencyKeyDAO.genInsertAllStatement(eq(PUBLISHER), any(), any(long.class)))
+                .thenAnswer(
+                        invocation ->
+                                dbKeyDAO.genInsertAllStatement(
+                                        PUBLISHER,
+                                        invocation.getArgument(1),
+                                        invocation.getArgument(2)));
+        when(buildIdempotencyKeyDAO.genDeleteStatement(eq(PUBLISHER), any()))
+                .thenAnswer(
+                        invocation ->
+                                dbKeyDAO.genDeleteStatement(PUBLISHER, invocation.getArgument(1)));
+        buildEventPublisher = mock(BuildEventPublisher.class);
+
+        connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString()))
+                .thenAnswer(
+                        invocation -> {
+                            String sql = invocation.getArgument(0);
+                            statements.add(sql);
+                            ParameterMetaData metaData = mock(ParameterMetaData.class);
+                            when(metaData.getParameterCount())
+                                    .thenReturn(StringUtils.countMatches(sql, '?'));
+                            PreparedStatement statement = mock(PreparedStatement.class);
+                            when(statement.getParameterMetaData()).thenReturn(metaData);
+                            return statement;
+                        });
+        BasicDataSource dataSource = mock(BasicDataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        SourceControlManagerProxy sourceControlManagerProxy = mock(SourceControlManagerProxy.class);
+        when(sourceControlManagerProxy.getDefaultTypeName()).thenReturn("Github");
+        when(sourceControlManagerProxy.hasSCMType("Github")).thenReturn(true);
+
+        context = new TeletraanServiceContext();
+        context.setBuildDAO(buildDAO);
+        context.setBuildIdempotencyKeyDAO(buildIdempotencyKeyDAO);
+        context.setDataSource(dataSource);
+        context.setBuildEventPublisher(buildEventPublisher);
+        context.setSourceControlManagerProxy(sourceControlManagerProxy);
+        context.setBuildAllowlist(
+                new BuildAllowlistImpl(
+                        Collections.singletonList("https://artifacts\\.example\\.com/.*"),
+                        Collections.emptyList(),
+                        Collections.emptyList()));
+        authorizer = mock(TeletraanAuthorizer.class);
+        when(authorizer.authorize(any(), any(), any(), any())).thenReturn(true);
+        AuthorizationFactory authorizationFactory = mock(AuthorizationFactory.class);
+        when(authorizationFactory.createSecondaryAuthorizer(any(), any())).thenReturn(authorizer);
+        context.setAuthorizationFactory(authorizationFactory);
+        sut = new Builds(context);
+
+        Principal principal = new ServicePrincipal(PUBLISHER);
+        securityContext = mock(SecurityContext.class);
+        when(securityContext.getUserPrincipal()).thenReturn(principal);
+    }
+
+    private static BuildBean build(String name, String key) {
+        BuildBean buildBean = new BuildBean();
+        buildBean.setBuild_name(name);
+        buildBean.setArtifact_url("https://artifacts.example.com/" + name + ".tar.gz");
+        buildBean.setScm_repo("repo");
+        buildBean.setScm_branch("main");
+        buildBean.setScm_commit("0123456789abcdef");
+        buildBean.setIdempotency_key(key);
+        return buildBean;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPublishBatch() throws Exception {
+        List<BuildBean> result =
+                sut.publishBatch(
+                        securityContext,
+                        Arrays.asList(build("b1", "k1"), build("b2", null), build("b3", "k3")));
+
+        assertEquals(3, result.size());
+        for (BuildBean buildBean : result) {
+            assertTrue(buildBean.getBuild_id().endsWith("_0123456"));
+            assertEquals(PUBLISHER, buildBean.getPublisher());
+        }
+        // One multi-row insert of the builds and one of the keys, in one transaction
+        assertEquals(2, statements.size());
+        assertTrue(statements.get(0).startsWith("INSERT INTO builds"));
+        assertTrue(statements.get(1).startsWith("INSERT INTO build_idempotency_keys"));
+        verify(connection).commit();
+        verify(buildDAO, never()).insert(any());
+        verify(buildDAO, never()).getById(any());
+
+        ArgumentCaptor<Map<String, String>> keys = ArgumentCaptor.forClass(Map.class);
+        verify(buildIdempotencyKeyDAO)
+                .genInsertAllStatement(eq(PUBLISHER), keys.capture(), any(long.class));
+        assertEquals(result.get(0).getBuild_id(), keys.getValue().get("k1"));
+        assertEquals(result.get(2).getBuild_id(), keys.getValue().get("k3"));
+
+        ArgumentCaptor<List<BuildEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(buildEventPublisher).publishAll(events.capture());
+        assertEquals(3, events.getValue().size());
+        assertEquals("CREATE", events.getValue().get(0).getAction());
+    }
+
+    @Test
+    void testPublishBatchRetry() throws Exception {
+        BuildBean earlier = build("b1", null);
+        earlier.setBuild_id("earlier_0123456");
+        Map<String, String> publishedIds = new HashMap<>();
+        publishedIds.put("k1", "earlier_0123456");
+        publishedIds.put("k2", "deleted_0123456");
+        when(buildIdempotencyKeyDAO.getBuildIds(eq(PUBLISHER), any())).thenReturn(publishedIds);
+        when(buildDAO.getBuildsFromIds(any())).thenReturn(Collections.singletonList(earlier));
+
+        List<BuildBean> result =
+                sut.publishBatch(
+                        securityContext, Arrays.asList(build("b1", "k1"), build("b2", "k2")));
+
+        assertSame(earlier, result.get(0));
+        assertFalse(result.get(1).getBuild_id().startsWith("deleted"));
+        // The key of the deleted build is replaced, only b2 is inserted
+        assertEquals(3, statements.size());
+        assertTrue(statements.get(0).startsWith("DELETE FROM build_idempotency_keys"));
+        verify(buildIdempotencyKeyDAO)
+                .genDeleteStatement(PUBLISHER, Collections.singletonList("k2"));
+        verify(buildDAO).genInsertAllStatement(Collections.singletonList(result.get(1)));
+    }
+
+    @Test
+    void testPublishBatchAllRetried() throws Exception {
+        BuildBean earlier = build("b1", null);
+        earlier.setBuild_id("earlier_0123456");
+        when(buildIdempotencyKeyDAO.getBuildIds(eq(PUBLISHER), any()))
+                .thenReturn(Collections.singletonMap("k1", "earlier_0123456"));
+        when(buildDAO.getBuildsFromIds(any())).thenReturn(Collections.singletonList(earlier));
+
+        List<BuildBean> result =
+                sut.publishBatch(securityContext, Collections.singletonList(build("b1", "k1")));
+
+        assertSame(earlier, result.get(0));
+        assertTrue(statements.isEmpty());
+        verify(buildEventPublisher, never()).publishAll(any());
+    }
+
+    @Test
+    void testPublishBatchRejected() throws Exception {
+        WebApplicationException e =
+                assertThrows(
+                        WebApplicationException.class,
+                        () ->
+                                sut.publishBatch(
+                                        securityContext,
+                                        Arrays.asList(build("b1", "k1"), build("b2", "k1"))));
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), e.getResponse().getStatus());
+
+        BuildBean unapproved = build("b2", null);
+        unapproved.setArtifact_url("https://elsewhere.example.com/b2.tar.gz");
+        e =
+                assertThrows(
+                        WebApplicationException.class,
+                        () ->
+                                sut.publishBatch(
+                                        securityContext,
+                                        Arrays.asList(build("b1", null), unapproved)));
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), e.getResponse().getStatus());
+
+        e =
+                assertThrows(
+                        WebApplicationException.class,
+                        () -> sut.publishBatch(securityContext, Collections.emptyList()));
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), e.getResponse().getStatus());
+        assertTrue(statements.isEmpty());
+    }
+
+    @Test
+    void testPublishBatchKeyTooLong() throws Exception {
+        WebApplicationException e =
+                assertThrows(
+                        WebApplicationException.class,
+                        () ->
+                                sut.publishBatch(
+                                        securityContext,
+                                        Collections.singletonList(
+                                                build("b1", StringUtils.repeat('k', 129)))));
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), e.getResponse().getStatus());
+        verify(buildIdempotencyKeyDAO, never()).getBuildIds(any(), any());
+
+        sut.publishBatch(
+                securityContext,
+                Collections.singletonList(build("b1", StringUtils.repeat('k', 128))));
+        assertEquals(2, statements.size());
+    }
+
+    @Test
+    void testPublishBatchAuthorizesEveryArtifact() throws Exception {
+        BuildBean first = build("b1", "k1");
+        BuildBean second = build("b1", "k2");
+        BuildBean other = build("b1", "k3");
+        other.setArtifact_url("https://artifacts.example.com/other.tar.gz");
+        when(authorizer.authorize(
+                        any(),
+                        eq(TeletraanPrincipalRole.Names.PUBLISHER),
+                        eq(artifact("b1", other.getArtifact_url())),
+                        any()))
+                .thenReturn(false);
+
+        assertThrows(
+                ForbiddenException.class,
+                () -> sut.publishBatch(securityContext, Arrays.asList(first, second, other)));
+        assertTrue(statements.isEmpty());
+
+        // Each distinct build name and artifact URL is authorized once
+        sut.publishBatch(securityContext, Arrays.asList(first, second));
+        verify(authorizer, times(2))
+                .authorize(
+                        any(),
+                        eq(TeletraanPrincipalRole.Names.PUBLISHER),
+                        eq(artifact("b1", first.getArtifact_url())),
+                        any());
+        assertEquals(2, statements.size());
+    }
+
+    private static AuthZResource artifact(String name, String artifactUrl) {
+        return new AuthZResource(
+                name,
+                AuthZResource.Type.BUILD,
+                Collections.singletonMap(
+                        AuthZResource.AttributeKeys.BUILD_ARTIFACT_URL.name(), artifactUrl));
+    }
+
+    @Test
+    void testPublishBatchConcurrentKey() throws Exception {
+        when(connection.prepareStatement(anyString()))
+                .thenThrow(
+                        new SQLIntegrityConstraintViolationException(
+                                "Duplicate entry", "23000", 1062));
+
+        WebApplicationException e =
+                assertThrows(
+                        WebApplicationException.class,
+                        () ->
+                                sut.publishBatch(
+                                        securityContext,
+                                        Collections.singletonList(build("b1", "k1"))));
+        assertEquals(Response.Status.CONFLICT.getStatusCode(), e.getResponse().getStatus());
+        verify(connection).rollback();
+        verify(buildEventPublisher, never()).publishAll(any());
+    }
+
+    @Test
+    void testPublishBatchWithOutbox() throws Exception {
+        context.setBuildEventOutbox(
+                new BuildEventOutbox(new DBEventOutboxDAOImpl(null), context.getDataSource()));
+        sut = new Builds(context);
+
+        sut.publishBatch(securityContext, Arrays.asList(build("b1", "k1"), build("b2", null)));
+
+        // The events are recorded in the transaction of the builds, not published afterwards
+        assertEquals(3, statements.size());
+        assertTrue(statements.get(2).startsWith("INSERT INTO event_outbox"));
+        verify(connection).commit();
+        verify(buildEventPublisher, never()).publishAll(any());
+    }
+
+    @Test
+    void testUpdateStatementsMatchPlaceholders() {
+        UpdateStatement statement =
+                new DBBuildDAOImpl(null)
+                        .genInsertAllStatement(Arrays.asList(build("b1", null), build("b2", null)));
+        assertEquals(
+                StringUtils.countMatches(statement.getStatement(), '?'),
+                statement.getValueArray().length);
+    }
+}
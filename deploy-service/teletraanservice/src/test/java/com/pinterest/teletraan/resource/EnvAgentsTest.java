@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.teletraan.resource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pinterest.deployservice.bean.AgentBean;
+import com.pinterest.deployservice.bean.AgentFilterBean;
+import com.pinterest.deployservice.bean.AgentState;
+import com.pinterest.deployservice.bean.DeployStage;
+import com.pinterest.deployservice.bean.EnvironBean;
+import com.pinterest.deployservice.dao.AgentDAO;
+import com.pinterest.deployservice.dao.EnvironDAO;
+import com.pinterest.teletraan.TeletraanServiceContext;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class EnvAgentsTest {
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final int AGENT_COUNT = 700;
+
+    private EnvAgents sut;
+
+    @Mock private EnvironDAO environDAO;
+    @Mock private AgentDAO agentDAO;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+
+        TeletraanServiceContext serviceContext = new TeletraanServiceContext();
+        serviceContext.setEnvironDAO(environDAO);
+        serviceContext.setAgentDAO(agentDAO);
+        sut = new EnvAgents(serviceContext);
+
+        EnvironBean envBean = new EnvironBean();
+        envBean.setEnv_id("e-1");
+        when(environDAO.getByStage("env", "prod")).thenReturn(envBean);
+        // Agents h-000 to h-699, served in host id order like the database does
+        when(agentDAO.getPageByEnv(eq("e-1"), any(), any(), anyInt()))
+                .thenAnswer(
+                        invocation -> {
+                            String after = invocation.getArgument(2);
+                            int limit = invocation.getArgument(3);
+                            List<AgentBean> page = new ArrayList<>();
+                            for (int i = 0; i < AGENT_COUNT && page.size() < limit; i++) {
+                                String hostId = String.format("h-%03d", i);
+                                if (after == null || hostId.compareTo(after) > 0) {
+                                    AgentBean agent = new AgentBean();
+                                    agent.setHost_id(hostId);
+                                    page.add(agent);
+                                }
+                            }
+                            return page;
+                        });
+    }
+
+    private JsonNode getPage(String cursor, Integer pageSize) throws Exception {
+        Response response =
+                sut.getAgentPage(
+                        "env", "prod", cursor, Optional.ofNullable(pageSize), null, null, null);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(output);
+        return mapper.readTree(output.toByteArray());
+    }
+
+    @Test
+    void testPagesCoverAllAgentsOnce() throws Exception {
+        JsonNode page = getPage(null, 600);
+        assertEquals(600, page.get("agents").size());
+        assertEquals("h-000", page.get("agents").get(0).get("hostId").asText());
+        assertEquals("h-599", page.get("agents").get(599).get("hostId").asText());
+
+        page = getPage(page.get("nextCursor").asText(), 600);
+        assertEquals(100, page.get("agents").size());
+        assertEquals("h-600", page.get("agents").get(0).get("hostId").asText());
+        assertNull(page.get("nextCursor").textValue());
+    }
+
+    @Test
+    void testPageIsReadInBatches() throws Exception {
+        getPage(null, 600);
+
+        ArgumentCaptor<Integer> limits = ArgumentCaptor.forClass(Integer.class);
+        verify(agentDAO).getPageByEnv(eq("e-1"), any(), isNull(), limits.capture());
+        assertEquals(KeysetPageOutput.FETCH_SIZE, limits.getValue().intValue());
+        verify(agentDAO)
+                .getPageByEnv(eq("e-1"), any(), eq("h-499"), eq(600 - KeysetPageOutput.FETCH_SIZE));
+    }
+
+    @Test
+    void testFiltersArePassedToDAO() throws Exception {
+        sut.getAgentPage(
+                "env",
+                "prod",
+                null,
+                Optional.empty(),
+                AgentState.NORMAL,
+                null,
+                DeployStage.SERVING_BUILD);
+
+        ArgumentCaptor<AgentFilterBean> filter = ArgumentCaptor.forClass(AgentFilterBean.class);
+        verify(agentDAO).getPageByEnv(eq("e-1"), filter.capture(), isNull(), anyInt());
+        assertEquals(AgentState.NORMAL, filter.getValue().getState());
+        assertNull(filter.getValue().getStatus());
+        assertEquals(DeployStage.SERVING_BUILD, filter.getValue().getDeploy_stage());
+    }
+
+    @Test
+    void testInvalidRequestsAreRejected() {
+        WebApplicationException e =
+                assertThrows(WebApplicationException.class, () -> getPage(null, 0));
+        assertEquals(400, e.getResponse().getStatus());
+        e = assertThrows(WebApplicationException.class, () -> getPage("not a cursor", null));
+        assertEquals(400, e.getResponse().getStatus());
+    }
+
+    @Test
+    void testListingsReadFromReplica() throws Exception {
+        AgentDAO agentReadDAO = mock(AgentDAO.class);
+        TeletraanServiceContext serviceContext = new TeletraanServiceContext();
+        serviceContext.setEnvironDAO(environDAO);
+        serviceContext.setAgentDAO(agentDAO);
+        serviceContext.setAgentReadDAO(agentReadDAO);
+        sut = new EnvAgents(serviceContext);
+
+        sut.getAllAgents("env", "prod");
+
+        verify(agentReadDAO).getAllByEnv("e-1");
+        verify(agentDAO, never()).getAllByEnv(any());
+    }
+}
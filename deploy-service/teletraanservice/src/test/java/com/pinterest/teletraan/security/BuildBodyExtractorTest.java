@@ -16,12 +16,14 @@
 package com.pinterest.teletraan.security;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pinterest.deployservice.bean.BuildBean;
+import com.pinterest.teletraan.universal.security.AuthZResourceExtractor.BeanClassExtractionException;
 import com.pinterest.teletraan.universal.security.AuthZResourceExtractor.ExtractionException;
 import com.pinterest.teletraan.universal.security.bean.AuthZResource;
 import java.io.ByteArrayInputStream;
@@ -66,6 +68,58 @@ class BuildBodyExtractorTest {
                         .get(AuthZResource.AttributeKeys.BUILD_ARTIFACT_URL.name()));
     }
 
+    @Test
+    void testExtractBatchResource() throws ExtractionException, IOException {
+        BuildBean first = new BuildBean();
+        first.setBuild_name("test-build");
+        first.setArtifact_url("testURL");
+        BuildBean second = new BuildBean();
+        second.setBuild_name("test-build");
+        second.setArtifact_url("testURL");
+        givenBody(first, second);
+
+        AuthZResource resource = sut.extractResource(requestContext, BuildBean[].class);
+        assertEquals("test-build", resource.getName());
+        assertEquals(AuthZResource.Type.BUILD, resource.getType());
+        assertEquals(
+                "testURL",
+                resource.getAttributes()
+                        .get(AuthZResource.AttributeKeys.BUILD_ARTIFACT_URL.name()));
+
+        // The handler authorizes the artifact URLs of a batch that has more than one
+        second.setArtifact_url("otherURL");
+        givenBody(first, second);
+        resource = sut.extractResource(requestContext, BuildBean[].class);
+        assertEquals("test-build", resource.getName());
+        assertFalse(
+                resource.getAttributes()
+                        .containsKey(AuthZResource.AttributeKeys.BUILD_ARTIFACT_URL.name()));
+    }
+
+    @Test
+    void testExtractBatchResourceRejectsMixedBatches() throws IOException {
+        BuildBean first = new BuildBean();
+        first.setBuild_name("test-build");
+        first.setArtifact_url("testURL");
+        BuildBean second = new BuildBean();
+        second.setBuild_name("other-build");
+        second.setArtifact_url("testURL");
+        givenBody(first, second);
+        assertThrows(
+                BeanClassExtractionException.class,
+                () -> sut.extractResource(requestContext, BuildBean[].class));
+
+        givenBody();
+        assertThrows(
+                BeanClassExtractionException.class,
+                () -> sut.extractResource(requestContext, BuildBean[].class));
+    }
+
+    private void givenBody(BuildBean... buildBeans) throws IOException {
+        when(requestContext.getEntityStream())
+                .thenReturn(new ByteArrayInputStream(objectMapper.writeValueAsBytes(buildBeans)));
+    }
+
     @Test
     void testExtractResourceWithInvalidInput() {
         String invalidJson = "{ xyz }";
@@ -17,7 +17,11 @@ package com.pinterest.teletraan.security;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.pinterest.deployservice.ServiceContext;
@@ -28,6 +32,8 @@ import com.pinterest.deployservice.bean.UserRolesBean;
 import com.pinterest.deployservice.dao.EnvironDAO;
 import com.pinterest.deployservice.dao.GroupRolesDAO;
 import com.pinterest.deployservice.dao.UserRolesDAO;
+import com.pinterest.deployservice.rolesnapshot.RoleSnapshot;
+import com.pinterest.deployservice.rolesnapshot.SnapshotUserRolesDAO;
 import com.pinterest.teletraan.universal.security.bean.AuthZResource;
 import com.pinterest.teletraan.universal.security.bean.UserPrincipal;
 import java.util.Arrays;
@@ -219,6 +225,40 @@ class UserRoleAuthorizerTest {
         checkPositive(randomUser, buildResource, TeletraanPrincipalRole.PUBLISHER);
     }
 
+    @Test
+    void testSnapshotDecisions() throws Exception {
+        UserRolesBean envAdminBean = createUserRolesBean(TeletraanPrincipalRole.ADMIN, "admin1");
+        envAdminBean.setResource_id(env1Name);
+        envAdminBean.setResource_type(AuthZResource.Type.ENV);
+        GroupRolesBean sysReaderBean =
+                createGroupRolesBean(TeletraanPrincipalRole.READER, readerGroupName);
+        sysReaderBean.setResource_id(AuthZResource.ALL);
+        sysReaderBean.setResource_type(AuthZResource.Type.SYSTEM);
+        when(userRolesDAO.getAll()).thenReturn(Collections.singletonList(envAdminBean));
+        when(groupRolesDAO.getAll()).thenReturn(Collections.singletonList(sysReaderBean));
+        RoleSnapshot snapshot = new RoleSnapshot(userRolesDAO, groupRolesDAO);
+        snapshot.reload();
+        context.setRoleSnapshot(snapshot);
+        authorizer = new UserRoleAuthorizer(context, null);
+
+        UserPrincipal admin1 = new UserPrincipal("admin1", null);
+        checkPositive(admin1, env1AuthZResource, TeletraanPrincipalRole.WRITE);
+        checkPositive(admin1, env1AuthZResource, TeletraanPrincipalRole.WRITE);
+        checkNegative(admin1, envXAuthZResource, TeletraanPrincipalRole.WRITE);
+        checkAllRequiredRoles(
+                sysReaderByGroup, TeletraanPrincipalRole.READER, AuthZResource.SYSTEM_RESOURCE);
+        verify(userRolesDAO, never()).getByNameAndResource(any(), any(), any());
+        verify(groupRolesDAO, never()).getByResource(any(), any());
+
+        // A role write refreshes the snapshot and the next decision sees it
+        when(userRolesDAO.getByResource(env1Name, AuthZResource.Type.ENV))
+                .thenReturn(Collections.emptyList());
+        new SnapshotUserRolesDAO(userRolesDAO, snapshot)
+                .delete("admin1", env1Name, AuthZResource.Type.ENV);
+        checkNegative(admin1, env1AuthZResource, TeletraanPrincipalRole.WRITE);
+        verify(userRolesDAO, times(1)).getAll();
+    }
+
     @Test
     void testBuildResource() {
         checkPositive(sysAdmin, buildResource, TeletraanPrincipalRole.PUBLISHER);
@@ -15,12 +15,14 @@
  */
 package com.pinterest.teletraan.worker;
 
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.longThat;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -30,6 +32,8 @@ import com.google.common.collect.ImmutableSet;
 import com.pinterest.deployservice.ServiceContext;
 import com.pinterest.deployservice.bean.AgentState;
 import com.pinterest.deployservice.bean.HostAgentBean;
+import com.pinterest.deployservice.bean.HostBean;
+import com.pinterest.deployservice.bean.HostState;
 import com.pinterest.deployservice.dao.AgentDAO;
 import com.pinterest.deployservice.dao.HostAgentDAO;
 import com.pinterest.deployservice.dao.HostDAO;
@@ -37,6 +41,9 @@ import com.pinterest.deployservice.dao.HostTagDAO;
 import com.pinterest.deployservice.rodimus.RodimusManager;
 import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
@@ -233,6 +240,64 @@ public class AgentJanitorTest {
         verify(hostDAO, times(1)).getStaleAgentlessHostIds(anyLong(), eq(0L), eq(300));
     }
 
+    @Test
+    public void testProcessStaleHosts_batchedLookups() throws Exception {
+        AgentJanitor batchedJanitor =
+                new AgentJanitor(
+                        serviceContext,
+                        minStaleHostThresholdSeconds,
+                        maxStaleHostThresholdSeconds,
+                        maxLaunchLatencyThresholdSeconds,
+                        agentlessHostLookbackThresholdSeconds,
+                        2,
+                        Executors.newFixedThreadPool(2));
+        long lastUpdate = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1);
+        List<HostAgentBean> staleHosts = new ArrayList<>();
+        List<HostBean> hostBeans = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            HostAgentBean hostAgentBean = createHostAgentBean();
+            hostAgentBean.setHost_id("i-" + i);
+            hostAgentBean.setLast_update(lastUpdate);
+            hostAgentBean.setAuto_scaling_group("cluster-1");
+            staleHosts.add(hostAgentBean);
+            HostBean hostBean = new HostBean();
+            hostBean.setHost_id("i-" + i);
+            hostBean.setState(HostState.PROVISIONED);
+            hostBeans.add(hostBean);
+        }
+        when(hostAgentDAO.getStaleHosts(anyLong())).thenReturn(staleHosts);
+        when(rodimusManager.getTerminatedHosts(anyCollection())).thenReturn(ImmutableSet.of());
+        when(hostDAO.getHostsByHostIds(anyCollection())).thenReturn(hostBeans);
+        when(rodimusManager.getClusterInstanceLaunchGracePeriod("cluster-1")).thenReturn(60L);
+
+        batchedJanitor.run();
+
+        // 3 hosts in batches of 2
+        verify(rodimusManager, times(2)).getTerminatedHosts(anyCollection());
+        verify(hostDAO, times(2)).getHostsByHostIds(anyCollection());
+        verify(hostDAO, never()).getHostsByHostId(any());
+        // The grace period of the cluster is only looked up once per run
+        verify(rodimusManager, times(1)).getClusterInstanceLaunchGracePeriod("cluster-1");
+        verify(agentDAO, times(3))
+                .updateAgentById(any(), argThat(a -> a.getState() == AgentState.UNREACHABLE));
+    }
+
+    @Test
+    public void testFailedLookupMarksHostsUnreachable() throws Exception {
+        HostAgentBean hostAgentBean = createHostAgentBean();
+        String hostId = hostAgentBean.getHost_id();
+        when(hostAgentDAO.getStaleHosts(anyLong(), anyLong()))
+                .thenReturn(ImmutableList.of(hostAgentBean));
+        when(rodimusManager.getTerminatedHosts(anyCollection()))
+                .thenThrow(new RuntimeException("boom"));
+
+        agentJanitor.run();
+
+        verify(agentDAO, times(1))
+                .updateAgentById(eq(hostId), argThat(a -> a.getState() == AgentState.UNREACHABLE));
+        verify(hostDAO, times(0)).deleteAllById(any());
+    }
+
     private HostAgentBean createHostAgentBean() {
         HostAgentBean bean = new HostAgentBean();
         bean.setHost_id(TEST_HOST_ID);
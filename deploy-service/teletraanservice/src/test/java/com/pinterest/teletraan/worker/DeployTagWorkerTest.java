@@ -45,6 +45,7 @@ import com.pinterest.deployservice.dao.EnvironDAO;
 import com.pinterest.deployservice.dao.HostDAO;
 import com.pinterest.deployservice.dao.HostTagDAO;
 import com.pinterest.deployservice.dao.UtilDAO;
+import com.pinterest.deployservice.lock.AdvisoryLockManager;
 import com.pinterest.deployservice.rodimus.RodimusManager;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Metrics;
@@ -53,6 +54,7 @@ import java.net.ConnectException;
 import java.sql.Connection;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.apache.commons.dbcp.BasicDataSource;
 import org.junit.jupiter.api.AfterEach;
@@ -97,6 +99,7 @@ public class DeployTagWorkerTest {
         serviceContext.setRodimusManager(rodimusManager);
         serviceContext.setDataSource(dataSource);
         serviceContext.setUtilDAO(utilDAO);
+        serviceContext.setLockManager(new AdvisoryLockManager(utilDAO));
 
         deployTagWorker = new DeployTagWorker(serviceContext);
     }
@@ -215,6 +218,46 @@ public class DeployTagWorkerTest {
                         argThat(c -> TagSyncState.FINISHED == c.getState()));
     }
 
+    @Test
+    public void testMissingTagsUpserted() throws Exception {
+        DeployConstraintBean deployConstraint = createDeployConstraintBean();
+        when(deployConstraintDAO.getAllActiveDeployConstraint())
+                .thenReturn(Collections.singletonList(deployConstraint));
+
+        when(utilDAO.getLock(eq(getDbLockId(deployConstraint.getConstraint_id()))))
+                .thenReturn(mock(Connection.class));
+
+        EnvironBean environ = createRandomEnvironBean();
+        when(environDAO.getEnvByDeployConstraintId(eq(deployConstraint.getConstraint_id())))
+                .thenReturn(environ);
+
+        HostBean host = createHostBean(Instant.now());
+        when(hostDAO.getHostsByEnvId(eq(environ.getEnv_id())))
+                .thenReturn(Collections.singletonList(host));
+        when(hostTagDAO.getAllByEnvIdAndTagName(
+                        eq(environ.getEnv_id()), eq(deployConstraint.getConstraint_key())))
+                .thenReturn(Collections.emptyList());
+        when(rodimusManager.getEc2Tags(eq(Collections.singletonList(host.getHost_id()))))
+                .thenReturn(
+                        Collections.singletonMap(
+                                host.getHost_id(),
+                                Collections.singletonMap(
+                                        deployConstraint.getConstraint_key(), "value-1")));
+
+        deployTagWorker.run();
+
+        verify(hostTagDAO, times(1))
+                .insertOrUpdateAll(
+                        argThat(
+                                tags ->
+                                        tags.size() == 1
+                                                && "value-1"
+                                                        .equals(
+                                                                tags.iterator()
+                                                                        .next()
+                                                                        .getTag_value())));
+    }
+
     @Test
     public void testNetworkExceptionHandled() throws Exception {
         // Set up mock data
@@ -30,6 +30,7 @@ import com.pinterest.deployservice.dao.AgentDAO;
 import com.pinterest.deployservice.dao.HostAgentDAO;
 import com.pinterest.deployservice.dao.HostDAO;
 import com.pinterest.deployservice.dao.UtilDAO;
+import com.pinterest.deployservice.lock.AdvisoryLockManager;
 import com.pinterest.deployservice.rodimus.RodimusManager;
 import java.sql.Connection;
 import java.util.Collection;
@@ -62,6 +63,7 @@ public class HostTerminatorTest {
         serviceContext.setHostDAO(mockHostDAO);
         serviceContext.setRodimusManager(mockRodimusManager);
         serviceContext.setUtilDAO(mockUtilDAO);
+        serviceContext.setLockManager(new AdvisoryLockManager(mockUtilDAO));
 
         return serviceContext;
     }
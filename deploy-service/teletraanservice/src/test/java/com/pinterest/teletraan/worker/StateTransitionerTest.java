@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2026 Pinterest, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.pinterest.teletraan.worker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.Lists;
+import com.pinterest.deployservice.ServiceContext;
+import com.pinterest.deployservice.dao.DeployDAO;
+import com.pinterest.deployservice.dao.EnvironDAO;
+import com.pinterest.deployservice.lock.InProcessLockManager;
+import com.pinterest.deployservice.membership.ServiceMembership;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class StateTransitionerTest {
+    private EnvironDAO environDAO;
+    private DeployDAO deployDAO;
+    private ServiceMembership membership;
+    private ServiceContext serviceContext;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        environDAO = mock(EnvironDAO.class);
+        deployDAO = mock(DeployDAO.class);
+        membership = mock(ServiceMembership.class);
+        serviceContext = new ServiceContext();
+        serviceContext.setEnvironDAO(environDAO);
+        serviceContext.setDeployDAO(deployDAO);
+        serviceContext.setLockManager(new InProcessLockManager());
+        executor = Executors.newFixedThreadPool(4);
+        when(environDAO.getCurrentDeployIds())
+                .thenReturn(Lists.newArrayList("deploy-1", "deploy-2", "deploy-3"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testOnlyOwnedDeploysAreTransitioned() throws Exception {
+        when(membership.owns(anyString())).thenReturn(false);
+        when(membership.owns("deploy-2")).thenReturn(true);
+
+        new StateTransitioner(serviceContext, membership, executor).processBatch();
+
+        verify(deployDAO).getById("deploy-2");
+        verify(deployDAO, never()).getById("deploy-1");
+        verify(deployDAO, never()).getById("deploy-3");
+    }
+
+    @Test
+    public void testPassWaitsForEveryDeploy() throws Exception {
+        Set<String> transitioned = ConcurrentHashMap.newKeySet();
+        when(deployDAO.getById(anyString()))
+                .thenAnswer(
+                        invocation -> {
+                            Thread.sleep(50);
+                            transitioned.add(invocation.getArgument(0));
+                            return null;
+                        });
+
+        new StateTransitioner(serviceContext, null, executor).processBatch();
+
+        assertEquals(3, transitioned.size());
+    }
+
+    @Test
+    public void testFailedDeployDoesNotStopOthers() throws Exception {
+        when(deployDAO.getById("deploy-1")).thenThrow(new RuntimeException("boom"));
+
+        new StateTransitioner(serviceContext).processBatch();
+
+        verify(deployDAO).getById("deploy-2");
+        verify(deployDAO).getById("deploy-3");
+    }
+}
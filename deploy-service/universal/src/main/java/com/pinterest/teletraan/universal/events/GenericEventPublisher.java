@@ -15,44 +15,201 @@
  */
 package com.pinterest.teletraan.universal.events;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.BufferOverflowStrategy;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
 import reactor.core.publisher.Sinks.EmitResult;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 
+/**
+ * Publishes {@link AppEvent}s to listeners on their own threads.
+ *
+ * <p>Every listener gets its own thread and its own queue, which holds up to {@code bufferSize}
+ * events on top of as many handed over to the thread, so a slow listener only falls behind on its
+ * own events. What happens once its queue is full depends on the {@link OverflowStrategy}. Events
+ * published before the first listener subscribes are kept, up to {@code bufferSize} of them.
+ */
 public class GenericEventPublisher implements ReactiveEventPublisher {
     private static final Logger LOG = LoggerFactory.getLogger(GenericEventPublisher.class);
     protected static final int BUFFER_SIZE = 128;
+    static final String METRIC_PREFIX = "events.publisher.";
+    // How long concurrent publishers may spin on each other before an event is dropped
+    private static final Duration EMIT_CONTENTION_TIMEOUT = Duration.ofMillis(10);
+    private static final long OVERFLOW_RETRY_INTERVAL_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final Duration TERMINATE_TIMEOUT = Duration.ofSeconds(30);
+
+    public enum OverflowStrategy {
+        /** Drops the oldest event queued for the listener to make room for the new one. */
+        DROP_OLDEST,
+        /** Drops the new event for the listener that is full. */
+        DROP_LATEST,
+        /**
+         * Blocks the publishing thread for up to the block timeout until every listener has room,
+         * then drops the event and counts it as a publish failure. Nothing is lost to a burst, at
+         * the cost of a slow listener holding back the publisher and the other listeners.
+         */
+        BLOCK
+    }
+
+    private final int bufferSize;
+    private final OverflowStrategy overflowStrategy;
+    private final Duration emitTimeout;
+    private final MeterRegistry registry;
     private final Sinks.Many<AppEvent> eventsSink;
     private final Scheduler scheduler;
+    private final List<Scheduler> listenerSchedulers = new CopyOnWriteArrayList<>();
+    private final List<CountDownLatch> listenersDone = new CopyOnWriteArrayList<>();
+    private final Counter publishFailures;
     @Getter private final Flux<? extends AppEvent> eventsFlux;
 
     public GenericEventPublisher() {
-        eventsSink = Sinks.many().multicast().onBackpressureBuffer(BUFFER_SIZE);
+        this(BUFFER_SIZE, OverflowStrategy.DROP_OLDEST, Duration.ZERO);
+    }
+
+    public GenericEventPublisher(
+            int bufferSize, OverflowStrategy overflowStrategy, Duration blockTimeout) {
+        this(bufferSize, overflowStrategy, blockTimeout, Metrics.globalRegistry);
+    }
+
+    public GenericEventPublisher(
+            int bufferSize,
+            OverflowStrategy overflowStrategy,
+            Duration blockTimeout,
+            MeterRegistry registry) {
+        this.bufferSize = bufferSize;
+        this.overflowStrategy = overflowStrategy;
+        this.registry = registry;
+        emitTimeout =
+                overflowStrategy == OverflowStrategy.BLOCK ? blockTimeout : EMIT_CONTENTION_TIMEOUT;
+        eventsSink = Sinks.many().multicast().onBackpressureBuffer(bufferSize);
         scheduler = Schedulers.newParallel(this.getClass().getName());
-        eventsFlux = eventsSink.asFlux().publishOn(scheduler, BUFFER_SIZE);
+        eventsFlux = eventsSink.asFlux().publishOn(scheduler, bufferSize);
+        publishFailures = registry.counter(METRIC_PREFIX + "publish_failures");
     }
 
+    // Retries an emit racing with another publisher, and with BLOCK also an emit that found a
+    // listener full, until the emit timeout runs out. The event is then dropped; handing the
+    // failure to emitNext instead would terminate the sink for every listener.
     @Override
     public <E extends AppEvent> void publishEvent(E event) {
-        try {
-            EmitResult result = eventsSink.tryEmitNext((AppEvent) event);
-            if (result.isFailure()) {
-                LOG.error("Failed to publish event, cause: " + result);
+        long deadline = System.nanoTime() + emitTimeout.toNanos();
+        while (true) {
+            EmitResult result = eventsSink.tryEmitNext(event);
+            if (result.isSuccess()) {
+                return;
+            }
+            boolean retriable =
+                    result == EmitResult.FAIL_NON_SERIALIZED
+                            || (result == EmitResult.FAIL_OVERFLOW
+                                    && overflowStrategy == OverflowStrategy.BLOCK);
+            if (!retriable || System.nanoTime() >= deadline) {
+                publishFailures.increment();
+                LOG.warn("Dropped event {}, failed to publish it: {}", event, result);
+                return;
             }
-        } catch (Exception ex) {
-            LOG.error("Failed to publish event", ex);
+            if (result == EmitResult.FAIL_OVERFLOW) {
+                LockSupport.parkNanos(OVERFLOW_RETRY_INTERVAL_NANOS);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <E extends AppEvent> void subscribe(AppEventListener<E> listener) {
+        Class<E> eventType = listener.getSupportedEventType();
+        Tags tags =
+                Tags.of(
+                        "listener", listener.getClass().getSimpleName(),
+                        "event_type", eventType.getSimpleName());
+        // Events taken off the shared sink but not yet handled by the listener
+        AtomicInteger lag = new AtomicInteger();
+        Gauge.builder(METRIC_PREFIX + "listener_lag", lag, AtomicInteger::get)
+                .tags(tags)
+                .description("Number of events queued for the listener")
+                .strongReference(true)
+                .register(registry);
+        Counter dropped = registry.counter(METRIC_PREFIX + "dropped_events", tags);
+        Counter failures = registry.counter(METRIC_PREFIX + "listener_failures", tags);
+
+        Flux<E> events =
+                eventsSink
+                        .asFlux()
+                        .filter(e -> e.getClass().equals(eventType))
+                        .map(e -> (E) e)
+                        .doOnNext(e -> lag.incrementAndGet());
+        if (overflowStrategy != OverflowStrategy.BLOCK) {
+            // Takes everything off the sink, the listener's backlog stays in this buffer
+            events =
+                    events.onBackpressureBuffer(
+                            bufferSize,
+                            e -> {
+                                lag.decrementAndGet();
+                                dropped.increment();
+                            },
+                            overflowStrategy == OverflowStrategy.DROP_OLDEST
+                                    ? BufferOverflowStrategy.DROP_OLDEST
+                                    : BufferOverflowStrategy.DROP_LATEST);
         }
+
+        Scheduler listenerScheduler =
+                Schedulers.newSingle(
+                        this.getClass().getName()
+                                + "-"
+                                + listener.getClass().getSimpleName()
+                                + "-"
+                                + listenerSchedulers.size());
+        listenerSchedulers.add(listenerScheduler);
+        CountDownLatch done = new CountDownLatch(1);
+        listenersDone.add(done);
+        events.publishOn(listenerScheduler, bufferSize)
+                .subscribe(
+                        e -> {
+                            lag.decrementAndGet();
+                            try {
+                                listener.onEvent(e);
+                            } catch (Exception ex) {
+                                failures.increment();
+                                LOG.error("Listener failed to handle event {}", e, ex);
+                            }
+                        },
+                        ex -> {
+                            LOG.error("Listener subscription terminated", ex);
+                            done.countDown();
+                        },
+                        done::countDown);
     }
 
     // for testing
     protected void terminate() {
         eventsSink.tryEmitComplete();
         eventsFlux.blockLast();
+        for (CountDownLatch done : listenersDone) {
+            try {
+                done.await(TERMINATE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        for (Scheduler listenerScheduler : listenerSchedulers) {
+            listenerScheduler.disposeGracefully().block();
+        }
         scheduler.disposeGracefully().block();
     }
 }
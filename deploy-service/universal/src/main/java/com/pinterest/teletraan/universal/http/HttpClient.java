@@ -24,6 +24,7 @@ import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 import javax.ws.rs.BadRequestException;
 import javax.ws.rs.ClientErrorException;
@@ -35,6 +36,9 @@ import javax.ws.rs.WebApplicationException;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
 import okhttp3.Headers;
 import okhttp3.HttpUrl;
 import okhttp3.MediaType;
@@ -69,7 +73,9 @@ public class HttpClient {
             String httpProxyAddr,
             int httpProxyPort,
             Duration callTimeout,
-            Supplier<String> authorizationSupplier) {
+            Supplier<String> authorizationSupplier,
+            int maxRequests,
+            int maxRequestsPerHost) {
         callTimeout = callTimeout == null ? DEFAULT_TIMEOUT : callTimeout;
 
         OkHttpClient.Builder clientBuilder =
@@ -79,6 +85,16 @@ public class HttpClient {
                         .addInterceptor(createHttpLoggingInterceptor())
                         .addInterceptor(observationInterceptorBuilder().build())
                         .addInterceptor(new RetryInterceptor(maxRetries, retryInterval));
+        if (maxRequestsPerHost > 0) {
+            // Async calls of this client are limited on their own instead of by the shared
+            // dispatcher
+            Dispatcher dispatcher = new Dispatcher();
+            if (maxRequests > 0) {
+                dispatcher.setMaxRequests(maxRequests);
+            }
+            dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+            clientBuilder.dispatcher(dispatcher);
+        }
         if (useProxy) {
             clientBuilder.proxy(
                     new Proxy(
@@ -160,6 +176,54 @@ public class HttpClient {
                 createRequestBuilder(url, null, headers).delete(buildJsonBody(body)).build());
     }
 
+    /**
+     * Makes the call on the OkHttp dispatcher without holding the calling thread. The future fails
+     * with the same exceptions as the blocking calls.
+     *
+     * @param method one of GET, POST, PUT and DELETE
+     */
+    public CompletableFuture<String> callAsync(
+            String method, String url, String body, Map<String, String> headers) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        Request request;
+        try {
+            String upperMethod = method.toUpperCase();
+            request =
+                    createRequestBuilder(url, null, headers)
+                            .method(
+                                    upperMethod,
+                                    "GET".equals(upperMethod) ? null : buildJsonBody(body))
+                            .build();
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        okHttpClient
+                .newCall(request)
+                .enqueue(
+                        new Callback() {
+                            @Override
+                            public void onFailure(Call call, IOException e) {
+                                future.completeExceptionally(e);
+                            }
+
+                            @Override
+                            public void onResponse(Call call, Response response) {
+                                try (Response closed = response) {
+                                    String responseBody =
+                                            closed.body() != null ? closed.body().string() : "";
+                                    if (!closed.isSuccessful()) {
+                                        mapResponseToException(closed.code(), responseBody);
+                                    }
+                                    future.complete(responseBody);
+                                } catch (Exception e) {
+                                    future.completeExceptionally(e);
+                                }
+                            }
+                        });
+        return future;
+    }
+
     private Request.Builder createRequestBuilder(
             String url, Map<String, String> params, Map<String, String> headers) {
         return new Request.Builder().url(buildUrl(url, params)).headers(buildHeaders(headers));
@@ -56,6 +56,11 @@ public class RetryInterceptor implements Interceptor {
     }
 
     private boolean shouldRetry(Response response) {
-        return RETRY_CODES.contains(response.code());
+        return isRetryable(response.code());
+    }
+
+    /** Whether a response with this code is worth retrying. */
+    public static boolean isRetryable(int responseCode) {
+        return RETRY_CODES.contains(responseCode);
     }
 }
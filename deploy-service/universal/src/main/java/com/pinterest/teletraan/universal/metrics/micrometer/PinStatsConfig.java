@@ -17,6 +17,8 @@ package com.pinterest.teletraan.universal.metrics.micrometer;
 
 import static io.micrometer.core.instrument.config.MeterRegistryConfigValidator.checkAll;
 import static io.micrometer.core.instrument.config.MeterRegistryConfigValidator.checkRequired;
+import static io.micrometer.core.instrument.config.validate.PropertyValidator.getDuration;
+import static io.micrometer.core.instrument.config.validate.PropertyValidator.getInteger;
 import static io.micrometer.core.instrument.config.validate.PropertyValidator.getString;
 import static io.micrometer.core.instrument.config.validate.PropertyValidator.getUriString;
 
@@ -24,6 +26,7 @@ import io.micrometer.core.instrument.config.validate.Validated;
 import io.micrometer.core.instrument.push.PushRegistryConfig;
 import io.micrometer.opentsdb.OpenTSDBConfig;
 import java.net.URI;
+import java.time.Duration;
 
 public interface PinStatsConfig extends OpenTSDBConfig {
 
@@ -46,6 +49,21 @@ public interface PinStatsConfig extends OpenTSDBConfig {
         return URI.create(uri()).getHost();
     }
 
+    /** Max number of metric lines kept while the metrics agent cannot be reached. */
+    public default int sendQueueSize() {
+        return getInteger(this, "sendQueueSize").orElse(100000);
+    }
+
+    /** How long a flush waits for the metrics agent to take the lines. */
+    public default Duration agentReadTimeout() {
+        return getDuration(this, "readTimeout").orElse(Duration.ofSeconds(10));
+    }
+
+    /** How long a flush waits to connect to the metrics agent. */
+    public default Duration agentConnectTimeout() {
+        return getDuration(this, "connectTimeout").orElse(Duration.ofSeconds(1));
+    }
+
     public default Integer port() {
         int port = URI.create(uri()).getPort();
         return port > 0 ? port : null;
@@ -51,6 +51,7 @@ public class PinStatsMeterRegistry extends OpenTSDBMeterRegistry {
                                 getBaseTimeUnit(),
                                 config().namingConvention())
                         : publisher;
+        this.publisher.bindTo(this);
     }
 
     @Override
@@ -59,6 +60,12 @@ public class PinStatsMeterRegistry extends OpenTSDBMeterRegistry {
         return new PinStatsLongTaskTimer(id, clock, getBaseTimeUnit(), distributionStatisticConfig);
     }
 
+    @Override
+    public void close() {
+        super.close();
+        publisher.close();
+    }
+
     @Override
     protected void publish() {
         for (List<Meter> batch : MeterPartition.partition(this, config.batchSize())) {
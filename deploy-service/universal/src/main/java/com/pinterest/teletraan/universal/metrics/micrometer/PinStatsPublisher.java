@@ -25,10 +25,12 @@ import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.ImmutableTag;
 import io.micrometer.core.instrument.LongTaskTimer;
 import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.TimeGauge;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import io.micrometer.core.instrument.config.NamingConvention;
 import io.micrometer.core.instrument.distribution.CountAtBucket;
 import io.micrometer.core.instrument.distribution.HistogramSnapshot;
@@ -37,27 +39,54 @@ import io.micrometer.core.instrument.util.DoubleFormat;
 import io.micrometer.opentsdb.OpenTSDBDistributionSummary;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
-import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Mono;
 import reactor.netty.Connection;
 import reactor.netty.tcp.TcpClient;
 
 // Most of the code is derived from from OpenTSDBMeterRegistry
 // https://github.com/micrometer-metrics/micrometer/blob/c959eb3e7629363080c4628e70b31f28d044ef3c/implementations/micrometer-registry-opentsdb/src/main/java/io/micrometer/opentsdb/OpenTSDBMeterRegistry.java
-@AllArgsConstructor
-public class PinStatsPublisher {
+//
+// Lines go through a bounded queue to one long lived connection, which is opened again on the next
+// publish after it breaks. While the agent cannot be reached, lines are kept up to the size of the
+// queue and the newest are dropped past it.
+public class PinStatsPublisher implements MeterBinder, AutoCloseable {
     private static final Logger LOG = LoggerFactory.getLogger(PinStatsPublisher.class);
     private static final String COUNT = "count";
+    static final String METRIC_PREFIX = "pinstats.publisher.";
+    private static final ThreadLocal<PutFormatMetricBuilder> BUILDER =
+            ThreadLocal.withInitial(PutFormatMetricBuilder::new);
     private final PinStatsConfig config;
     private final Clock clock;
     private final TimeUnit baseTimeUnit;
     private final NamingConvention namingConvention;
+    private final BlockingQueue<String> sendQueue;
+    private final AtomicLong sentLines = new AtomicLong();
+    private final AtomicLong queueFullDrops = new AtomicLong();
+    private final AtomicLong sendFailureDrops = new AtomicLong();
+    private final AtomicLong connects = new AtomicLong();
+    @Nullable private volatile Timer flushTimer;
+    // Only used from the publishing thread
+    @Nullable private Connection connection;
+
+    public PinStatsPublisher(
+            PinStatsConfig config,
+            Clock clock,
+            TimeUnit baseTimeUnit,
+            NamingConvention namingConvention) {
+        this.config = config;
+        this.clock = clock;
+        this.baseTimeUnit = baseTimeUnit;
+        this.namingConvention = namingConvention;
+        sendQueue = new ArrayBlockingQueue<>(config.sendQueueSize());
+    }
 
     protected List<Tag> getConventionTags(Meter.Id id) {
         return id.getConventionTags(namingConvention);
@@ -287,7 +316,7 @@ public class PinStatsPublisher {
                                     break;
                             }
 
-                            return new PutFormatMetricBuilder()
+                            return builder()
                                     .name(name)
                                     .datapoints(wallTime, ms.getValue())
                                     .tags(localTags)
@@ -299,7 +328,7 @@ public class PinStatsPublisher {
             Meter.Id id, String suffix, long wallTime, double value) {
         // usually tagKeys and metricNames naming rules are the same
         // but we can't call getConventionName again after adding suffix
-        return new PutFormatMetricBuilder()
+        return builder()
                 .name(
                         suffix.isEmpty()
                                 ? getConventionName(id)
@@ -313,97 +342,171 @@ public class PinStatsPublisher {
         return writeMetricWithSuffix(id, "", wallTime, value);
     }
 
+    // Formatting runs on the publishing thread, so one builder per thread is reused for every line
+    private static PutFormatMetricBuilder builder() {
+        return BUILDER.get();
+    }
+
     private static class PutFormatMetricBuilder {
 
-        private final StringBuilder sb = new StringBuilder();
+        private final StringBuilder sb = new StringBuilder(256);
+        private int tagsStart;
 
         PutFormatMetricBuilder name(String name) {
+            sb.setLength(0);
             sb.append("put ").append(name);
             return this;
         }
 
-        PutFormatMetricBuilder field(String key, String value) {
-            if (key.trim().isEmpty() || value.trim().isEmpty()) {
-                return this;
-            }
-            if (sb.length() > 1) {
-                sb.append(' ');
-            }
-            sb.append(key.trim()).append("=").append(value.trim());
-            return this;
-        }
-
         PutFormatMetricBuilder datapoints(long wallTime, double value) {
             sb.append(' ').append(wallTime).append(' ').append(DoubleFormat.wholeOrDecimal(value));
             return this;
         }
 
         PutFormatMetricBuilder tags(Iterable<Tag> tags) {
-            PutFormatMetricBuilder tagBuilder = new PutFormatMetricBuilder();
+            sb.append(' ');
+            tagsStart = sb.length();
             for (Tag tag : tags) {
-                tagBuilder.field(tag.getKey(), tag.getValue());
+                field(tag.getKey(), tag.getValue());
             }
-
-            sb.append(' ').append(tagBuilder.build());
             return this;
         }
 
+        private void field(String key, String value) {
+            String trimmedKey = key.trim();
+            String trimmedValue = value.trim();
+            if (trimmedKey.isEmpty() || trimmedValue.isEmpty()) {
+                return;
+            }
+            if (sb.length() > tagsStart) {
+                sb.append(' ');
+            }
+            sb.append(trimmedKey).append('=').append(trimmedValue);
+        }
+
         String build() {
             if (sb.length() > 0 && sb.charAt(sb.length() - 1) != '\n') {
                 sb.append('\n');
             }
-            return sb.toString();
+            String line = sb.toString();
+            sb.setLength(0);
+            return line;
         }
     }
 
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(METRIC_PREFIX + "queue_depth", sendQueue, BlockingQueue::size)
+                .description("Number of metric lines waiting to be sent")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "sent_lines", sentLines, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "dropped_lines", queueFullDrops, AtomicLong::get)
+                .tag("reason", "queue_full")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "dropped_lines", sendFailureDrops, AtomicLong::get)
+                .tag("reason", "send_failed")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "connects", connects, AtomicLong::get)
+                .register(registry);
+        flushTimer = Timer.builder(METRIC_PREFIX + "flush_duration").register(registry);
+    }
+
     /**
-     * A function that publishes metrics to a socket using netty and reactor.
+     * Formats the meters into the send queue, then sends everything queued over the connection to
+     * the metrics agent. Lines that do not fit in the queue are dropped.
      *
      * @param metrics to send
      */
     public void publish(List<Meter> metrics) {
-        Flux<String> metricsFlux =
-                Flux.fromIterable(metrics)
-                        .flatMap(
-                                m ->
-                                        Flux.fromStream(
-                                                m.match(
-                                                        this::writeGauge,
-                                                        this::writeCounter,
-                                                        this::writeTimer,
-                                                        this::writeSummary,
-                                                        this::writeLongTaskTimer,
-                                                        this::writeTimeGauge,
-                                                        this::writeFunctionCounter,
-                                                        this::writeFunctionTimer,
-                                                        this::writeCustomMetric)))
-                        .onErrorResume(
-                                e -> {
-                                    LOG.error("failed to write metric", e);
-                                    return Mono.empty();
-                                });
-
-        Connection connection =
-                TcpClient.create()
-                        .host(config.host())
-                        .port(config.port())
-                        .handle(
-                                (inbound, outbound) ->
-                                        outbound.sendString(
-                                                metricsFlux
-                                                        .onErrorResume(
-                                                                e -> {
-                                                                    LOG.warn(
-                                                                            "failed to send to metrics agent",
-                                                                            e);
-                                                                    return Mono.empty();
-                                                                })
-                                                        .doOnComplete(
-                                                                () ->
-                                                                        LOG.debug(
-                                                                                "sent {} metrics",
-                                                                                metrics.size()))))
-                        .connectNow();
-        connection.onDispose().block();
+        for (Meter meter : metrics) {
+            try {
+                meter.match(
+                                this::writeGauge,
+                                this::writeCounter,
+                                this::writeTimer,
+                                this::writeSummary,
+                                this::writeLongTaskTimer,
+                                this::writeTimeGauge,
+                                this::writeFunctionCounter,
+                                this::writeFunctionTimer,
+                                this::writeCustomMetric)
+                        .forEach(this::enqueue);
+            } catch (Exception e) {
+                LOG.error("failed to write metric", e);
+            }
+        }
+        flush();
+    }
+
+    private void enqueue(String line) {
+        if (!sendQueue.offer(line)) {
+            queueFullDrops.incrementAndGet();
+        }
+    }
+
+    private void flush() {
+        if (sendQueue.isEmpty()) {
+            return;
+        }
+        long start = clock.monotonicTime();
+        try {
+            Connection current;
+            try {
+                current = connection();
+            } catch (Exception e) {
+                // Nothing was sent, the lines stay queued for the next step
+                LOG.warn("failed to connect to metrics agent", e);
+                return;
+            }
+            List<String> lines = new ArrayList<>(sendQueue.size());
+            sendQueue.drainTo(lines);
+            try {
+                current.outbound()
+                        .sendString(Flux.fromIterable(lines))
+                        .then()
+                        .block(config.agentReadTimeout());
+                sentLines.addAndGet(lines.size());
+                LOG.debug("sent {} metrics", lines.size());
+            } catch (Exception e) {
+                LOG.warn("failed to send to metrics agent", e);
+                sendFailureDrops.addAndGet(lines.size());
+                disconnect();
+            }
+        } finally {
+            if (flushTimer != null) {
+                flushTimer.record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private Connection connection() {
+        if (connection == null || connection.isDisposed()) {
+            connection =
+                    TcpClient.create()
+                            .host(config.host())
+                            .port(config.port())
+                            .connectNow(config.agentConnectTimeout());
+            connects.incrementAndGet();
+        }
+        return connection;
+    }
+
+    private void disconnect() {
+        if (connection != null) {
+            connection.disposeNow();
+            connection = null;
+        }
+    }
+
+    /** Closes the connection to the metrics agent, lines still queued are discarded. */
+    @Override
+    public void close() {
+        disconnect();
+        sendQueue.clear();
+    }
+
+    int queuedLines() {
+        return sendQueue.size();
     }
 }
@@ -15,14 +15,24 @@
  */
 package com.pinterest.teletraan.universal.events;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atMost;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.pinterest.teletraan.universal.events.GenericEventPublisher.OverflowStrategy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -35,11 +45,18 @@ class GenericEventPublisherTest {
     private ResourceChangedEvent resourceChangedEvent;
     private ChildTestEvent childTestEvent;
     private SiblingTestEvent siblingTestEvent;
+    private MeterRegistry registry;
     private GenericEventPublisher sut;
 
     @BeforeEach
     public void setUp() {
-        sut = new GenericEventPublisher();
+        registry = new SimpleMeterRegistry();
+        sut =
+                new GenericEventPublisher(
+                        GenericEventPublisher.BUFFER_SIZE,
+                        OverflowStrategy.DROP_OLDEST,
+                        Duration.ZERO,
+                        registry);
 
         resourceChangedEvent = new ResourceChangedEvent(new Object());
         childTestEvent = new ChildTestEvent(new Object());
@@ -102,21 +119,108 @@ class GenericEventPublisherTest {
     }
 
     @Test
-    void testMultipleListeners() {
+    void testMultipleListeners() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(
+                        invocation -> {
+                            release.await();
+                            return null;
+                        })
+                .when(mockSlowListener)
+                .onEvent(any());
         sut.subscribe(mockResourceChangedEventListener);
         sut.subscribe(mockSlowListener);
 
-        int numEvents = GenericEventPublisher.BUFFER_SIZE * 2 + 10;
+        // A stuck listener does not hold back the other one
+        int rounds = 4;
+        for (int round = 1; round <= rounds; round++) {
+            for (int i = 0; i < GenericEventPublisher.BUFFER_SIZE; i++) {
+                sut.publishEvent(resourceChangedEvent);
+            }
+            verify(
+                            mockResourceChangedEventListener,
+                            timeout(5000).times(round * GenericEventPublisher.BUFFER_SIZE))
+                    .onEvent(eq(resourceChangedEvent));
+        }
+        release.countDown();
+        sut.terminate();
+
+        // Up to (listener buffer + publishOn prefetch + the event in hand) = BUFFER_SIZE x 2 + 1
+        verify(mockSlowListener, atMost(GenericEventPublisher.BUFFER_SIZE * 2 + 1))
+                .onEvent(eq(resourceChangedEvent));
+        assertTrue(
+                registry.get(GenericEventPublisher.METRIC_PREFIX + "dropped_events")
+                                .tag("listener", mockSlowListener.getClass().getSimpleName())
+                                .counter()
+                                .count()
+                        >= rounds * GenericEventPublisher.BUFFER_SIZE
+                                - GenericEventPublisher.BUFFER_SIZE * 2
+                                - 1);
+    }
+
+    @Test
+    void testBlockStrategy_deliversEverything() {
+        sut =
+                new GenericEventPublisher(
+                        8, OverflowStrategy.BLOCK, Duration.ofSeconds(10), registry);
+        sut.subscribe(mockSlowListener);
+
+        int numEvents = 50;
         for (int i = 0; i < numEvents; i++) {
             sut.publishEvent(resourceChangedEvent);
         }
         sut.terminate();
 
-        // Up to (Back pressure buffer + publishOn prefetch) = BUFFER_SIZE x 2
-        verify(mockResourceChangedEventListener, times(GenericEventPublisher.BUFFER_SIZE * 2))
-                .onEvent(eq(resourceChangedEvent));
-        verify(mockSlowListener, times(GenericEventPublisher.BUFFER_SIZE * 2))
-                .onEvent(eq(resourceChangedEvent));
+        verify(mockSlowListener, times(numEvents)).onEvent(eq(resourceChangedEvent));
+    }
+
+    @Test
+    void testBlockStrategy_keepsPublishingAfterTimeout() throws Exception {
+        sut = new GenericEventPublisher(2, OverflowStrategy.BLOCK, Duration.ofMillis(50), registry);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(
+                        invocation -> {
+                            release.await();
+                            return null;
+                        })
+                .when(mockSlowListener)
+                .onEvent(any());
+        sut.subscribe(mockSlowListener);
+
+        // More than the sink and the listener can hold, whatever their queues round up to
+        for (int i = 0; i < 64; i++) {
+            sut.publishEvent(resourceChangedEvent);
+        }
+        assertTrue(
+                registry.get(GenericEventPublisher.METRIC_PREFIX + "publish_failures")
+                                .counter()
+                                .count()
+                        > 0);
+
+        // Once the listener caught up, later events are delivered again
+        release.countDown();
+        ResourceChangedEvent later = new ResourceChangedEvent(new Object());
+        sut.publishEvent(later);
+        sut.terminate();
+
+        verify(mockSlowListener).onEvent(eq(later));
+    }
+
+    @Test
+    void testFailingListener_keepsReceivingEvents() {
+        doThrow(new RuntimeException("boom")).when(mockResourceChangedEventListener).onEvent(any());
+        sut.subscribe(mockResourceChangedEventListener);
+
+        sut.publishEvent(resourceChangedEvent);
+        sut.publishEvent(resourceChangedEvent);
+        sut.terminate();
+
+        verify(mockResourceChangedEventListener, times(2)).onEvent(eq(resourceChangedEvent));
+        assertEquals(
+                2,
+                registry.get(GenericEventPublisher.METRIC_PREFIX + "listener_failures")
+                        .counter()
+                        .count());
     }
 
     @Test
@@ -25,6 +25,8 @@ import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import javax.ws.rs.BadRequestException;
 import javax.ws.rs.ClientErrorException;
 import javax.ws.rs.ForbiddenException;
@@ -260,6 +262,43 @@ class HttpClientTest {
         assertEquals(500, exception.getResponse().getStatus());
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {HttpMethod.PUT, HttpMethod.DELETE, HttpMethod.POST})
+    void testCallAsyncSuccess(String method) throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody(TEST_BODY));
+
+        String result =
+                sut.callAsync(
+                                method,
+                                mockWebServer.url(TEST_PATH).toString(),
+                                TEST_BODY,
+                                TEST_HEADERS)
+                        .get(5, TimeUnit.SECONDS);
+        assertEquals(TEST_BODY, result);
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertEquals(method, request.getMethod());
+        assertEquals(TEST_BODY, request.getBody().readUtf8());
+        assertEquals(TEST_HEADERS.get("h1"), request.getHeader("h1"));
+    }
+
+    @Test
+    void testCallAsyncClientError() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+
+        ExecutionException exception =
+                assertThrows(
+                        ExecutionException.class,
+                        () ->
+                                sut.callAsync(
+                                                HttpMethod.GET,
+                                                mockWebServer.url(TEST_PATH).toString(),
+                                                null,
+                                                TEST_HEADERS)
+                                        .get(5, TimeUnit.SECONDS));
+        assertEquals(NotFoundException.class, exception.getCause().getClass());
+    }
+
     @Test
     void testMapResponseToException() {
         String response = "error";
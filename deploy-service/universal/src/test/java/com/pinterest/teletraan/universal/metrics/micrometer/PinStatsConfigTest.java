@@ -20,6 +20,7 @@ import static org.junit.jupiter.api.Assertions.assertLinesMatch;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.micrometer.core.instrument.config.validate.Validated;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Stream;
@@ -85,6 +86,17 @@ class PinStatsConfigTest {
         assertEquals(namePrefix, config.namePrefix());
     }
 
+    @Test
+    void agentTimeouts() {
+        assertEquals(Duration.ofSeconds(10), config.agentReadTimeout());
+        assertEquals(Duration.ofSeconds(1), config.agentConnectTimeout());
+
+        props.put("mm.readTimeout", "3s");
+        props.put("mm.connectTimeout", "500ms");
+        assertEquals(Duration.ofSeconds(3), config.agentReadTimeout());
+        assertEquals(Duration.ofMillis(500), config.agentConnectTimeout());
+    }
+
     @Test
     void defaultConfig() {
         PinStatsConfig defaultConfig = PinStatsConfig.DEFAULT;
@@ -30,7 +30,15 @@ import io.micrometer.core.instrument.MockClock;
 import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.TimeGauge;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.ServerSocket;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
@@ -39,6 +47,8 @@ import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.netty.DisposableServer;
+import reactor.netty.tcp.TcpServer;
 
 class PinStatsPublisherTest {
     private static final Logger LOG = LoggerFactory.getLogger(PinStatsPublisherTest.class);
@@ -198,4 +208,89 @@ class PinStatsPublisherTest {
         putString = publisher.writeCustomMetric(m).collect(Collectors.joining());
         assertEquals("put mm.gauges.my_meter 1 1 statistics=VALUE tag=value\n", putString);
     }
+
+    @Test
+    void publishReusesConnection() throws Exception {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        DisposableServer server =
+                TcpServer.create()
+                        .host("localhost")
+                        .port(0)
+                        .handle((in, out) -> in.receive().asString().doOnNext(received::add).then())
+                        .bindNow();
+        try {
+            PinStatsPublisher tcpPublisher = publisherTo(server.port(), 10);
+            SimpleMeterRegistry selfRegistry = new SimpleMeterRegistry();
+            tcpPublisher.bindTo(selfRegistry);
+            Counter counter = meterRegistry.counter("my.counter");
+            counter.increment();
+
+            tcpPublisher.publish(Collections.singletonList(counter));
+            tcpPublisher.publish(Collections.singletonList(counter));
+
+            StringBuilder lines = new StringBuilder();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (lines.toString().split("\n").length < 2
+                    && System.currentTimeMillis() < deadline) {
+                String chunk = received.poll(100, TimeUnit.MILLISECONDS);
+                if (chunk != null) {
+                    lines.append(chunk);
+                }
+            }
+            String line = "put mm.counters.my_counter_total 1 " + clock.wallTime() + " \n";
+            assertEquals(line + line, lines.toString());
+            assertEquals(
+                    1,
+                    selfRegistry
+                            .get(PinStatsPublisher.METRIC_PREFIX + "connects")
+                            .functionCounter()
+                            .count());
+            assertEquals(
+                    2,
+                    selfRegistry
+                            .get(PinStatsPublisher.METRIC_PREFIX + "sent_lines")
+                            .functionCounter()
+                            .count());
+            tcpPublisher.close();
+        } finally {
+            server.disposeNow();
+        }
+    }
+
+    @Test
+    void publishKeepsLinesWhileAgentIsDown() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        PinStatsPublisher downPublisher = publisherTo(port, 1);
+        SimpleMeterRegistry selfRegistry = new SimpleMeterRegistry();
+        downPublisher.bindTo(selfRegistry);
+        Counter counter1 = meterRegistry.counter("my.counter1");
+        Counter counter2 = meterRegistry.counter("my.counter2");
+
+        downPublisher.publish(Arrays.asList(counter1, counter2));
+
+        assertEquals(1, downPublisher.queuedLines());
+        assertEquals(
+                1,
+                selfRegistry
+                        .get(PinStatsPublisher.METRIC_PREFIX + "dropped_lines")
+                        .tag("reason", "queue_full")
+                        .functionCounter()
+                        .count());
+        assertEquals(
+                1,
+                selfRegistry.get(PinStatsPublisher.METRIC_PREFIX + "queue_depth").gauge().value());
+        downPublisher.close();
+    }
+
+    private PinStatsPublisher publisherTo(int port, int sendQueueSize) {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("mm.uri", "tcp://localhost:" + port);
+        properties.put("mm.sendQueueSize", String.valueOf(sendQueueSize));
+        PinStatsConfig tcpConfig = properties::get;
+        return new PinStatsPublisher(
+                tcpConfig, clock, TimeUnit.SECONDS, new PinStatsNamingConvention());
+    }
 }